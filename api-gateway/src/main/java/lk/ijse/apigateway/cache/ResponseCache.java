@@ -0,0 +1,129 @@
+package lk.ijse.apigateway.cache;
+
+import lk.ijse.apigateway.config.ResponseCacheProperties;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory store of GET response bodies, evicting the least recently used entries once the
+ * total body size exceeds gateway.response-cache.max-bytes.
+ * <p>
+ * Every invalidation bumps a generation counter; a response is only stored if no invalidation happened
+ * since its request started, so a read racing a write cannot put stale data back into the cache.
+ */
+@Component
+public class ResponseCache {
+
+    // Rough per-entry overhead (key, headers, map node) added to the body size
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final ResponseCacheProperties properties;
+
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true); // Access order = LRU
+    private long currentBytes;
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.properties = properties;
+    }
+
+    public synchronized CachedResponse get(String key) {
+        CachedResponse cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key);
+            currentBytes -= cached.sizeBytes();
+            return null;
+        }
+        return cached;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // Stores the response unless the cache was invalidated after the given generation was read
+    public synchronized void put(String key, CachedResponse response, long requestGeneration) {
+        if (requestGeneration != generation || response.sizeBytes() > properties.getMaxBytes()) {
+            return;
+        }
+        CachedResponse previous = entries.put(key, response);
+        if (previous != null) {
+            currentBytes -= previous.sizeBytes();
+        }
+        currentBytes += response.sizeBytes();
+
+        Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+        while (currentBytes > properties.getMaxBytes() && eldest.hasNext()) {
+            currentBytes -= eldest.next().getValue().sizeBytes();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    // Removes every cached response whose path starts with the prefix; returns how many were removed
+    public synchronized int invalidate(String pathPrefix) {
+        generation++;
+        int removed = 0;
+        Iterator<Map.Entry<String, CachedResponse>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CachedResponse> entry = iterator.next();
+            if (entry.getKey().startsWith(pathPrefix)) {
+                currentBytes -= entry.getValue().sizeBytes();
+                iterator.remove();
+                removed++;
+            }
+        }
+        invalidations.add(removed);
+        return removed;
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    public synchronized Stats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new Stats(hitCount, missCount, lookups == 0 ? 0.0 : (double) hitCount / lookups,
+                notModified.sum(), entries.size(), currentBytes, properties.getMaxBytes(),
+                evictions.sum(), invalidations.sum());
+    }
+
+    public static CachedResponse cachedResponse(HttpStatusCode status, MediaType contentType, byte[] body,
+                                                String etag, long ttlMillis, String key) {
+        long sizeBytes = body.length + key.length() * 2L + ENTRY_OVERHEAD_BYTES;
+        return new CachedResponse(status, contentType, body, etag, System.currentTimeMillis() + ttlMillis, sizeBytes);
+    }
+
+    public record CachedResponse(HttpStatusCode status, MediaType contentType, byte[] body, String etag,
+                                 long expiresAt, long sizeBytes) {
+    }
+
+    public record Stats(long hits, long misses, double hitRatio, long notModified, int entries, long bytes,
+                        long maxBytes, long evictions, long invalidations) {
+    }
+}
@@ -0,0 +1,97 @@
+package lk.ijse.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Hedged GETs (gateway.hedging.* in application.yml): a GET on one of a route's paths that hasn't been
+ * answered by the route's latency percentile is sent a second time to another instance, and the first reply
+ * wins. Only idempotent reads belong in the path lists; other routes and methods are forwarded once.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.hedging")
+public class HedgingProperties {
+
+    private boolean enabled = true;
+    private Map<String, RouteHedging> routes = new LinkedHashMap<>(); // Route ID -> settings
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, RouteHedging> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, RouteHedging> routes) {
+        this.routes = routes;
+    }
+
+    public static class RouteHedging {
+
+        private List<String> paths = new ArrayList<>(); // Ant-style patterns of the GETs that may be hedged
+        private double percentile = 95; // The hedge is sent once the first request is slower than this
+        private double budgetPercent = 10; // Hedges allowed, as a percentage of the route's hedgeable requests
+        private Duration minDelay = Duration.ofMillis(5); // Never hedge sooner, however fast the route is
+        private int minSamples = 100; // Latencies measured before the route is hedged at all
+        private int windowSize = 1000; // Most recent latencies the percentile is taken over
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public double getBudgetPercent() {
+            return budgetPercent;
+        }
+
+        public void setBudgetPercent(double budgetPercent) {
+            this.budgetPercent = budgetPercent;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package lk.ijse.apigateway.config;
+
+import lk.ijse.apigateway.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+// Every lb:// route picks its instance with the latency-aware balancer instead of the default round robin
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
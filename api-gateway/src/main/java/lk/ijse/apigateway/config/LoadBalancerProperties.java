@@ -0,0 +1,67 @@
+package lk.ijse.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Tuning of the latency-aware instance choice (gateway.load-balancer.* in application.yml)
+@Component
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LoadBalancerProperties {
+
+    private double ewmaAlpha = 0.3; // Weight of the newest latency sample in an instance's moving average
+    private int failureThreshold = 3; // Consecutive failures (connect errors, 5xx) that eject an instance
+    private double slowFactor = 3.0; // Eject an instance this many times slower than its fastest peer...
+    private Duration slowLatencyFloor = Duration.ofMillis(50); // ...but only once it is also slower than this
+    private int minSamples = 10; // Requests an instance must have served before it can be ejected as slow
+    private Duration cooldown = Duration.ofSeconds(30); // How long an ejected instance gets no traffic
+
+    public double getEwmaAlpha() {
+        return ewmaAlpha;
+    }
+
+    public void setEwmaAlpha(double ewmaAlpha) {
+        this.ewmaAlpha = ewmaAlpha;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public double getSlowFactor() {
+        return slowFactor;
+    }
+
+    public void setSlowFactor(double slowFactor) {
+        this.slowFactor = slowFactor;
+    }
+
+    public Duration getSlowLatencyFloor() {
+        return slowLatencyFloor;
+    }
+
+    public void setSlowLatencyFloor(Duration slowLatencyFloor) {
+        this.slowLatencyFloor = slowLatencyFloor;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public Duration getCooldown() {
+        return cooldown;
+    }
+
+    public void setCooldown(Duration cooldown) {
+        this.cooldown = cooldown;
+    }
+}
@@ -0,0 +1,68 @@
+package lk.ijse.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Per-route token-bucket limits (gateway.rate-limit.* in application.yml); routes without an entry are not limited
+@Component
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private Map<String, RouteLimit> routes = new LinkedHashMap<>(); // Route ID -> limit
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, RouteLimit> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, RouteLimit> routes) {
+        this.routes = routes;
+    }
+
+    public enum KeyType {
+        SUBJECT, // Verified JWT subject, falling back to the client IP for anonymous requests
+        IP
+    }
+
+    public static class RouteLimit {
+
+        private int capacity = 20; // Burst size: requests a client can make at once after being idle
+        private double refillPerSecond = 10; // Sustained requests per second per client
+        private KeyType key = KeyType.SUBJECT;
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        public KeyType getKey() {
+            return key;
+        }
+
+        public void setKey(KeyType key) {
+            this.key = key;
+        }
+    }
+}
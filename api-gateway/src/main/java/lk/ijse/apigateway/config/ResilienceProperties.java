@@ -0,0 +1,116 @@
+package lk.ijse.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Per-route bulkheads and circuit breakers (gateway.resilience.* in application.yml); routes without an entry
+ * are forwarded unguarded. Route timeouts are set in each route's metadata (response-timeout), which the
+ * gateway enforces itself and which also sets the deadline passed on to the service.
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.resilience")
+public class ResilienceProperties {
+
+    private boolean enabled = true;
+    private Map<String, RouteResilience> routes = new LinkedHashMap<>(); // Route ID -> settings
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, RouteResilience> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, RouteResilience> routes) {
+        this.routes = routes;
+    }
+
+    public static class RouteResilience {
+
+        private int maxConcurrentCalls = 100; // Bulkhead: requests in flight to the route; more are rejected at once
+
+        // The breaker opens when either rate, over the last slidingWindowSize calls, reaches its threshold
+        private float failureRateThreshold = 50; // Percent of calls failing (5xx, timeout, connect error)
+        private float slowCallRateThreshold = 80; // Percent of calls slower than slowCallDuration
+        private Duration slowCallDuration = Duration.ofSeconds(2);
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10; // Calls needed before the rates are evaluated
+
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10); // Before probing the route again
+        private int permittedCallsInHalfOpenState = 3; // Probe calls that decide whether the breaker closes
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public float getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public Duration getSlowCallDuration() {
+            return slowCallDuration;
+        }
+
+        public void setSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+        }
+
+        public int getPermittedCallsInHalfOpenState() {
+            return permittedCallsInHalfOpenState;
+        }
+
+        public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package lk.ijse.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Settings of the gateway response cache (gateway.response-cache.* in application.yml)
+@Component
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+    private long maxBytes = 64L * 1024 * 1024; // Total size of all cached bodies
+    private long maxEntryBytes = 1024 * 1024; // Larger responses are passed through uncached
+    private List<String> excludedPaths = new ArrayList<>(); // Ant-style patterns that are never cached
+    private Map<String, RouteCache> routes = new LinkedHashMap<>(); // Route ID -> cache settings; other routes are not cached
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void setMaxEntryBytes(long maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public List<String> getExcludedPaths() {
+        return excludedPaths;
+    }
+
+    public void setExcludedPaths(List<String> excludedPaths) {
+        this.excludedPaths = excludedPaths;
+    }
+
+    public Map<String, RouteCache> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, RouteCache> routes) {
+        this.routes = routes;
+    }
+
+    public static class RouteCache {
+
+        private Duration ttl = Duration.ofSeconds(10);
+        // Ant-style patterns ending in /**; a mutating request under one clears every cached response under it
+        private List<String> paths = new ArrayList<>();
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package lk.ijse.apigateway.controller;
+
+import lk.ijse.apigateway.cache.ResponseCache;
+import lk.ijse.apigateway.hedging.HedgingRegistry;
+import lk.ijse.apigateway.loadbalancer.InstanceStats;
+import lk.ijse.apigateway.loadbalancer.InstanceStatsRegistry;
+import lk.ijse.apigateway.ratelimit.TokenBucketRateLimiter;
+import lk.ijse.apigateway.resilience.RouteResilienceRegistry;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+// Served by the gateway itself (not routed); exposes runtime statistics of the gateway's own filters
+@RestController
+@RequestMapping("gateway")
+public class GatewayStatsController {
+
+    private final ResponseCache responseCache;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final InstanceStatsRegistry instanceStatsRegistry;
+    private final RouteResilienceRegistry routeResilienceRegistry;
+    private final HedgingRegistry hedgingRegistry;
+
+    public GatewayStatsController(ResponseCache responseCache, TokenBucketRateLimiter rateLimiter,
+                                  InstanceStatsRegistry instanceStatsRegistry,
+                                  RouteResilienceRegistry routeResilienceRegistry, HedgingRegistry hedgingRegistry) {
+        this.responseCache = responseCache;
+        this.rateLimiter = rateLimiter;
+        this.instanceStatsRegistry = instanceStatsRegistry;
+        this.routeResilienceRegistry = routeResilienceRegistry;
+        this.hedgingRegistry = hedgingRegistry;
+    }
+
+    @GetMapping("/response-cache/stats") // Hit ratio, memory use, evictions and invalidations
+    public ResponseCache.Stats getResponseCacheStats() {
+        return responseCache.stats();
+    }
+
+    @GetMapping("/rate-limit/stats") // Allowed and rejected requests, live client buckets
+    public TokenBucketRateLimiter.Stats getRateLimitStats() {
+        return rateLimiter.stats();
+    }
+
+    @GetMapping("/load-balancer/stats") // Per instance: latency average, requests in flight, failures, ejection
+    public Map<String, List<InstanceStats.Snapshot>> getLoadBalancerStats() {
+        return instanceStatsRegistry.stats();
+    }
+
+    @GetMapping("/resilience/stats") // Per route: breaker state and failure rates, bulkhead use and rejections
+    public Map<String, RouteResilienceRegistry.RouteStats> getResilienceStats() {
+        return routeResilienceRegistry.stats();
+    }
+
+    @GetMapping("/hedging/stats") // Per route: hedges sent and won, budget refusals, current hedge delay
+    public Map<String, HedgingRegistry.RouteStats> getHedgingStats() {
+        return hedgingRegistry.stats();
+    }
+}
@@ -0,0 +1,24 @@
+package lk.ijse.apigateway.filter;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+// Error responses written by the gateway itself, in the same body shape as the services' ResponseDTO
+final class ErrorResponses {
+
+    private ErrorResponses() {
+    }
+
+    // The message is a fixed text chosen by the filter, so it needs no JSON escaping
+    static Mono<Void> write(ServerHttpResponse response, HttpStatus status, String message) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = ("{\"status\":" + status.value() + ",\"message\":\"" + message + "\",\"data\":null}")
+                .getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,291 @@
+package lk.ijse.apigateway.filter;
+
+import io.netty.channel.ChannelOption;
+import lk.ijse.apigateway.config.HedgingProperties;
+import lk.ijse.apigateway.hedging.HedgingRegistry;
+import lk.ijse.apigateway.loadbalancer.InstanceStats;
+import lk.ijse.apigateway.loadbalancer.InstanceStatsRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cuts the latency tail of idempotent reads by hedging: a GET on a hedged path is sent to the instance the
+ * load balancer chose and, if no reply has arrived by the route's latency percentile (p95 by default), once
+ * more to the best other instance. The first reply is returned and the other request is cancelled, which
+ * closes its connection.
+ * <p>
+ * Hedging is limited to the paths configured for each route, which must only list idempotent GETs, and to the
+ * route's hedging budget. Requests on those paths are sent by this filter rather than by the gateway's routing
+ * filter: the reply is buffered (single resources, never streams) and both attempts are recorded in the
+ * instance statistics the load balancer ranks instances by.
+ */
+@Component
+public class HedgingFilter implements GlobalFilter, Ordered {
+
+    // Once the first instance has been chosen, and before InstanceLatencyFilter, which the hedged attempts bypass
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final HedgingRegistry hedgingRegistry;
+    private final HedgingProperties properties;
+    private final InstanceStatsRegistry instanceStatsRegistry;
+    private final LoadBalancerClientFactory clientFactory;
+    private final HttpClient httpClient;
+    private final HttpClientProperties httpClientProperties;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFilters;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public HedgingFilter(HedgingRegistry hedgingRegistry, HedgingProperties properties,
+                         InstanceStatsRegistry instanceStatsRegistry, LoadBalancerClientFactory clientFactory,
+                         HttpClient httpClient, HttpClientProperties httpClientProperties,
+                         ObjectProvider<List<HttpHeadersFilter>> headersFilters) {
+        this.hedgingRegistry = hedgingRegistry;
+        this.properties = properties;
+        this.instanceStatsRegistry = instanceStatsRegistry;
+        this.clientFactory = clientFactory;
+        this.httpClient = httpClient;
+        this.httpClientProperties = httpClientProperties;
+        this.headersFilters = headersFilters;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null || exchange.getRequest().getMethod() != HttpMethod.GET
+                || ServerWebExchangeUtils.isAlreadyRouted(exchange)) {
+            return chain.filter(exchange);
+        }
+        HedgingRegistry.RouteHedging hedging = hedgingRegistry.routeOf(route.getId());
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        URI url = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (hedging == null || chosen == null || !chosen.hasServer() || url == null
+                || !hedging.matches(exchange.getRequest().getPath().value(), pathMatcher)) {
+            return chain.filter(exchange);
+        }
+
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        hedging.requestStarted();
+        ServiceInstance primary = chosen.getServer();
+        HttpClient client = clientFor(route);
+        HttpHeaders headers = requestHeaders(exchange);
+
+        Mono<Reply> first = attempt(client, primary, url, headers, hedging, false);
+        long delayNanos = hedging.hedgeDelayNanos();
+        Mono<Reply> reply = delayNanos < 0 ? first
+                : Mono.firstWithValue(first, hedge(client, primary, url, headers, hedging, delayNanos));
+
+        Duration timeout = responseTimeoutOf(route);
+        if (timeout != null) {
+            reply = reply.timeout(timeout)
+                    .onErrorMap(TimeoutException.class, e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                            "Response took longer than timeout: " + timeout, e));
+        }
+        return reply
+                .onErrorMap(NoSuchElementException.class, HedgingFilter::firstFailure)
+                .flatMap(winner -> {
+                    if (winner.hedge()) {
+                        hedging.hedgeWon();
+                    }
+                    return write(exchange, winner);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    // Fires after the delay if the budget allows it and there is another instance to ask; otherwise stays empty
+    private Mono<Reply> hedge(HttpClient client, ServiceInstance primary, URI url, HttpHeaders headers,
+                              HedgingRegistry.RouteHedging hedging, long delayNanos) {
+        return Mono.delay(Duration.ofNanos(delayNanos))
+                .flatMap(tick -> otherInstance(primary))
+                .switchIfEmpty(Mono.<ServiceInstance>fromRunnable(hedging::noOtherInstance))
+                .filter(other -> hedging.tryHedge())
+                .flatMap(other -> {
+                    HttpHeaders hedgeHeaders = remainingBudget(headers, TimeUnit.NANOSECONDS.toMillis(delayNanos));
+                    if (hedgeHeaders == null) {
+                        return Mono.empty();
+                    }
+                    URI hedgeUrl = UriComponentsBuilder.fromUri(url)
+                            .host(other.getHost()).port(other.getPort()).build(true).toUri();
+                    return attempt(client, other, hedgeUrl, hedgeHeaders, hedging, true);
+                });
+    }
+
+    private Mono<ServiceInstance> otherInstance(ServiceInstance primary) {
+        ServiceInstanceListSupplier supplier = clientFactory
+                .getLazyProvider(primary.getServiceId(), ServiceInstanceListSupplier.class).getIfAvailable();
+        if (supplier == null) {
+            return Mono.empty();
+        }
+        return supplier.get().next().mapNotNull(instances ->
+                instanceStatsRegistry.bestExcluding(primary.getServiceId(), instances, primary));
+    }
+
+    // One request to one instance, recorded in the instance's statistics and the route's latencies
+    private Mono<Reply> attempt(HttpClient client, ServiceInstance instance, URI url, HttpHeaders headers,
+                                HedgingRegistry.RouteHedging hedging, boolean hedge) {
+        return Mono.defer(() -> {
+            InstanceStats stats = instanceStatsRegistry.statsOf(instance);
+            AtomicBoolean recorded = new AtomicBoolean();
+            long start = System.nanoTime();
+            instanceStatsRegistry.requestStarted(stats);
+            return client
+                    .headers(outbound -> {
+                        headers.forEach(outbound::set);
+                        outbound.remove(HttpHeaders.HOST);
+                    })
+                    .get()
+                    .uri(url)
+                    .responseSingle((response, body) -> {
+                        HttpHeaders responseHeaders = new HttpHeaders();
+                        response.responseHeaders().forEach(header -> responseHeaders.add(header.getKey(), header.getValue()));
+                        return body.asByteArray().defaultIfEmpty(EMPTY_BODY)
+                                .map(bytes -> new Reply(response.status().code(), responseHeaders, bytes, hedge));
+                    })
+                    .doOnNext(reply -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            long latency = System.nanoTime() - start;
+                            instanceStatsRegistry.responseReceived(instance.getServiceId(), stats, latency,
+                                    reply.status() >= 500);
+                            hedging.recordLatency(latency);
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            instanceStatsRegistry.responseReceived(instance.getServiceId(), stats,
+                                    System.nanoTime() - start, true);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        // A first request cut short by its hedge took at least this long; leaving it out would
+                        // drop exactly the slow requests from the percentile
+                        if (!hedge && recorded.compareAndSet(false, true)) {
+                            hedging.recordLatency(System.nanoTime() - start);
+                        }
+                    })
+                    .doFinally(signal -> instanceStatsRegistry.requestFinished(stats));
+        });
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, Reply reply) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(reply.status()));
+        HttpHeaders filtered = HttpHeadersFilter.filter(headersFilters.getIfAvailable(List::of), reply.headers(),
+                exchange, HttpHeadersFilter.Type.RESPONSE);
+        response.getHeaders().putAll(filtered);
+        response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        response.getHeaders().setContentLength(reply.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(reply.body())));
+    }
+
+    // The same forwarded headers the gateway's routing filter would send
+    private HttpHeaders requestHeaders(ServerWebExchange exchange) {
+        HttpHeaders filtered = HttpHeadersFilter.filterRequest(headersFilters.getIfAvailable(List::of), exchange);
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(filtered);
+        if (Boolean.TRUE.equals(exchange.getAttribute(ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE))) {
+            headers.set(HttpHeaders.HOST, exchange.getRequest().getHeaders().getFirst(HttpHeaders.HOST));
+        }
+        return headers;
+    }
+
+    // The hedge starts later, so it passes on a correspondingly smaller deadline; null if none is left
+    private static HttpHeaders remainingBudget(HttpHeaders headers, long elapsedMillis) {
+        String budget = headers.getFirst(RouteResilienceFilter.TIMEOUT_HEADER);
+        if (budget == null) {
+            return headers;
+        }
+        long remaining;
+        try {
+            remaining = Long.parseLong(budget.trim()) - elapsedMillis;
+        } catch (NumberFormatException e) {
+            return headers;
+        }
+        if (remaining <= 0) {
+            return null;
+        }
+        HttpHeaders hedgeHeaders = new HttpHeaders();
+        hedgeHeaders.putAll(headers);
+        hedgeHeaders.set(RouteResilienceFilter.TIMEOUT_HEADER, Long.toString(remaining));
+        return hedgeHeaders;
+    }
+
+    private HttpClient clientFor(Route route) {
+        Object connectTimeout = route.getMetadata().get(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR);
+        Long millis = connectTimeout == null ? null : millisOf(connectTimeout);
+        return millis == null ? httpClient : httpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, millis.intValue());
+    }
+
+    // The route's response-timeout, else the gateway-wide one; null when neither is set or it is switched off
+    private Duration responseTimeoutOf(Route route) {
+        Object routeTimeout = route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR);
+        if (routeTimeout != null) {
+            Long millis = millisOf(routeTimeout);
+            if (millis != null) {
+                return millis < 0 ? null : Duration.ofMillis(millis);
+            }
+        }
+        return httpClientProperties.getResponseTimeout();
+    }
+
+    // Both attempts failing (or the hedge never being sent) reports the first request's own error
+    private static Throwable firstFailure(NoSuchElementException error) {
+        Throwable cause = error.getCause();
+        if (cause == null && error.getSuppressed().length > 0) {
+            cause = error.getSuppressed()[0];
+        }
+        if (cause == null) {
+            return error;
+        }
+        List<Throwable> failures = Exceptions.unwrapMultiple(cause);
+        return failures.isEmpty() ? cause : failures.get(0);
+    }
+
+    // Null when malformed
+    private static Long millisOf(Object value) {
+        try {
+            return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record Reply(int status, HttpHeaders headers, byte[] body, boolean hedge) {
+    }
+}
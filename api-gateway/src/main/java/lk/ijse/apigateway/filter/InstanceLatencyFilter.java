@@ -0,0 +1,72 @@
+package lk.ijse.apigateway.filter;
+
+import lk.ijse.apigateway.loadbalancer.InstanceStats;
+import lk.ijse.apigateway.loadbalancer.InstanceStatsRegistry;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Feeds {@link InstanceStatsRegistry} with the outcome of every request forwarded to a load-balanced instance.
+ * <p>
+ * Latency is measured up to the moment the backend's response is committed (status and headers received),
+ * so slow clients and long NDJSON streams don't count against the instance. The request stays in flight
+ * until the exchange finishes, including when the client cancels it; the load balancer's own lifecycle
+ * callbacks are not used because the gateway never reports cancelled requests to them.
+ */
+@Component
+public class InstanceLatencyFilter implements GlobalFilter, Ordered {
+
+    // Right after the instance is chosen; hedged GETs are sent and recorded by HedgingFilter and never get here
+    public static final int ORDER = HedgingFilter.ORDER + 1;
+
+    private final InstanceStatsRegistry registry;
+
+    public InstanceLatencyFilter(InstanceStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (chosen == null || !chosen.hasServer()) {
+            return chain.filter(exchange);
+        }
+
+        ServiceInstance instance = chosen.getServer();
+        InstanceStats stats = registry.statsOf(instance);
+        AtomicBoolean recorded = new AtomicBoolean();
+        long start = System.nanoTime();
+        registry.requestStarted(stats);
+
+        exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(() -> {
+            if (recorded.compareAndSet(false, true)) {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                boolean failed = status != null && status.is5xxServerError();
+                registry.responseReceived(instance.getServiceId(), stats, System.nanoTime() - start, failed);
+            }
+        }));
+        return chain.filter(exchange).doFinally(signal -> {
+            // Connect failure, timeout or reset before any response; a cancelled request says nothing about the instance
+            if (signal == SignalType.ON_ERROR && recorded.compareAndSet(false, true)) {
+                registry.responseReceived(instance.getServiceId(), stats, System.nanoTime() - start, true);
+            }
+            registry.requestFinished(stats);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
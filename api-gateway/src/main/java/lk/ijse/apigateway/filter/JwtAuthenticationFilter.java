@@ -0,0 +1,86 @@
+package lk.ijse.apigateway.filter;
+
+import lk.ijse.apigateway.util.JwtVerifier;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Verifies bearer tokens before a request is routed and hands the caller's identity to the backend.
+ * <p>
+ * Requests without a token pass through unchanged (login and registration need that). Requests with an
+ * invalid or expired token are rejected with 401. For valid tokens the X-User-* headers below are set;
+ * any X-User-* header sent by the client is removed first, so backends can rely on them.
+ */
+@Component
+public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_NAME_HEADER = "X-User-Name";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+    public static final String USER_ISSUED_AT_HEADER = "X-User-Issued-At"; // Token issue time, epoch millis
+
+    private static final String IDENTITY_HEADER_PREFIX = "x-user-";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    // Runs ahead of load balancing and routing so bad tokens never reach a backend
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+
+    private final JwtVerifier jwtVerifier;
+
+    public JwtAuthenticationFilter(JwtVerifier jwtVerifier) {
+        this.jwtVerifier = jwtVerifier;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        JwtVerifier.VerifiedToken verified = null;
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            verified = jwtVerifier.verify(authHeader.substring(BEARER_PREFIX.length()));
+            if (verified == null) {
+                return reject(exchange.getResponse());
+            }
+        }
+
+        JwtVerifier.VerifiedToken identity = verified;
+        ServerHttpRequest forwarded = request.mutate()
+                .headers(headers -> {
+                    headers.keySet().stream()
+                            .filter(name -> name.toLowerCase().startsWith(IDENTITY_HEADER_PREFIX))
+                            .toList()
+                            .forEach(headers::remove);
+                    if (identity != null) {
+                        headers.set(USER_NAME_HEADER, identity.username());
+                        if (identity.userId() != null) {
+                            headers.set(USER_ID_HEADER, identity.userId().toString());
+                            headers.set(USER_ROLES_HEADER, String.join(",", identity.roles()));
+                        }
+                        if (identity.issuedAt() != null) {
+                            headers.set(USER_ISSUED_AT_HEADER, Long.toString(identity.issuedAt().getTime()));
+                        }
+                    }
+                })
+                .build();
+        return chain.filter(exchange.mutate().request(forwarded).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+        return ErrorResponses.write(response, HttpStatus.UNAUTHORIZED, "Invalid or expired token");
+    }
+}
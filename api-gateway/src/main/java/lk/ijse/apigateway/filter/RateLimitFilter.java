@@ -0,0 +1,86 @@
+package lk.ijse.apigateway.filter;
+
+import lk.ijse.apigateway.config.RateLimitProperties;
+import lk.ijse.apigateway.ratelimit.TokenBucketRateLimiter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits each client to the token-bucket rate configured for the route; excess requests get 429 with
+ * Retry-After before they reach the backend (or the response cache).
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    // After token verification, which supplies the subject, and before anything is served
+    public static final int ORDER = JwtAuthenticationFilter.ORDER + 5;
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+
+    public RateLimitFilter(TokenBucketRateLimiter rateLimiter, RateLimitProperties properties) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        RateLimitProperties.RouteLimit limit = route == null ? null : properties.getRoutes().get(route.getId());
+        if (!properties.isEnabled() || limit == null) {
+            return chain.filter(exchange);
+        }
+
+        String key = route.getId() + '|' + clientKeyOf(exchange, limit.getKey());
+        TokenBucketRateLimiter.Decision decision =
+                rateLimiter.tryAcquire(key, limit.getCapacity(), limit.getRefillPerSecond());
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().set(LIMIT_HEADER, Integer.toString(limit.getCapacity()));
+        response.getHeaders().set(REMAINING_HEADER, Integer.toString(decision.remaining()));
+        if (decision.allowed()) {
+            return chain.filter(exchange);
+        }
+        return reject(response, decision.retryAfterNanos());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private static String clientKeyOf(ServerWebExchange exchange, RateLimitProperties.KeyType keyType) {
+        if (keyType == RateLimitProperties.KeyType.SUBJECT) {
+            // Set by JwtAuthenticationFilter from a verified token only; client-sent values are stripped
+            String subject = exchange.getRequest().getHeaders().getFirst(JwtAuthenticationFilter.USER_NAME_HEADER);
+            if (subject != null) {
+                return "sub:" + subject;
+            }
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return remoteAddress == null || remoteAddress.getAddress() == null
+                ? "ip:unknown"
+                : "ip:" + remoteAddress.getAddress().getHostAddress();
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, long retryAfterNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return ErrorResponses.write(response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests, retry later");
+    }
+}
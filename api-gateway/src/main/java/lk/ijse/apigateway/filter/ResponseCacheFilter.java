@@ -0,0 +1,258 @@
+package lk.ijse.apigateway.filter;
+
+import lk.ijse.apigateway.cache.ResponseCache;
+import lk.ijse.apigateway.config.ResponseCacheProperties;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serves repeated GETs on the configured routes from {@link ResponseCache}.
+ * <p>
+ * Responses are cached per caller. Cached and freshly fetched responses carry an ETag; a matching If-None-Match
+ * gets 304 without a body.
+ * POST/PUT/PATCH/DELETE on a cached path clear every cached response under that path's pattern, both
+ * before the request is forwarded and once it completes.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache"; // HIT or MISS
+
+    // Right after token verification, so rejected requests are never answered from the cache
+    public static final int ORDER = JwtAuthenticationFilter.ORDER + 10;
+
+    private static final Set<HttpMethod> MUTATING_METHODS =
+            Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+    // Streaming responses never end in a cacheable body
+    private static final List<MediaType> STREAMING_TYPES = List.of(
+            MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+
+    private final ResponseCache responseCache;
+    private final ResponseCacheProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ResponseCacheFilter(ResponseCache responseCache, ResponseCacheProperties properties) {
+        this.responseCache = responseCache;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        ResponseCacheProperties.RouteCache routeCache = route == null ? null : properties.getRoutes().get(route.getId());
+        if (!properties.isEnabled() || routeCache == null) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        String pattern = matchingPattern(routeCache, path);
+        if (pattern == null || isExcluded(path)) {
+            return chain.filter(exchange);
+        }
+
+        if (MUTATING_METHODS.contains(request.getMethod())) {
+            String prefix = basePathOf(pattern);
+            responseCache.invalidate(prefix);
+            return chain.filter(exchange).doFinally(signal -> responseCache.invalidate(prefix));
+        }
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        String key = keyOf(request);
+        if (key == null) {
+            return chain.filter(exchange);
+        }
+        long generation = responseCache.generation();
+        if (!noCache(request)) {
+            ResponseCache.CachedResponse cached = responseCache.get(key);
+            if (cached != null) {
+                responseCache.recordHit();
+                return writeCached(exchange, cached);
+            }
+        }
+        responseCache.recordMiss();
+
+        ServerHttpResponse caching = new CachingResponse(exchange, key, routeCache.getTtl().toMillis(), generation);
+        return chain.filter(exchange.mutate().response(caching).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, ResponseCache.CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(cached.etag());
+        headers.set(CACHE_STATUS_HEADER, "HIT");
+        if (etagMatches(exchange.getRequest(), cached.etag())) {
+            responseCache.recordNotModified();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        if (cached.contentType() != null) {
+            headers.setContentType(cached.contentType());
+        }
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private String matchingPattern(ResponseCacheProperties.RouteCache routeCache, String path) {
+        for (String pattern : routeCache.getPaths()) {
+            if (pathMatcher.match(pattern, path)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    private boolean isExcluded(String path) {
+        for (String pattern : properties.getExcludedPaths()) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "/vehicle-service/api/v1/vehicles/**" -> "/vehicle-service/api/v1/vehicles"
+    private static String basePathOf(String pattern) {
+        int wildcard = pattern.indexOf('*');
+        String base = wildcard < 0 ? pattern : pattern.substring(0, wildcard);
+        return base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+    }
+
+    /**
+     * Keys start with the path so invalidation can match them by prefix, and end with the caller verified by
+     * {@link JwtAuthenticationFilter}, so one user's response is never served to another. Returns null for
+     * credentials the gateway did not verify (anything but a bearer token), which are never cached.
+     */
+    private static String keyOf(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String resource = query == null ? request.getPath().value() : request.getPath().value() + "?" + query;
+        HttpHeaders headers = request.getHeaders();
+        String username = headers.getFirst(JwtAuthenticationFilter.USER_NAME_HEADER);
+        if (username == null) {
+            return headers.containsKey(HttpHeaders.AUTHORIZATION) ? null : resource;
+        }
+        // '#' never reaches the server in a URI, so no path or query can run into the caller part
+        return resource + "#user=" + username
+                + ";id=" + headers.getFirst(JwtAuthenticationFilter.USER_ID_HEADER)
+                + ";roles=" + headers.getFirst(JwtAuthenticationFilter.USER_ROLES_HEADER);
+    }
+
+    private static boolean noCache(ServerHttpRequest request) {
+        String cacheControl = request.getHeaders().getCacheControl();
+        return cacheControl != null && (cacheControl.contains("no-cache") || cacheControl.contains("no-store"));
+    }
+
+    private static boolean etagMatches(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Buffers successful, non-streaming bodies so they can be stored and tagged before being written
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerHttpRequest request;
+        private final String key;
+        private final long ttlMillis;
+        private final long generation;
+
+        CachingResponse(ServerWebExchange exchange, String key, long ttlMillis, long generation) {
+            super(exchange.getResponse());
+            this.request = exchange.getRequest();
+            this.key = key;
+            this.ttlMillis = ttlMillis;
+            this.generation = generation;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCacheable()) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                if (bytes.length > properties.getMaxEntryBytes()) {
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                }
+                String etag = etagOf(bytes);
+                HttpHeaders headers = getHeaders();
+                responseCache.put(key, ResponseCache.cachedResponse(getStatusCode(), headers.getContentType(),
+                        bytes, etag, ttlMillis, key), generation);
+                headers.setETag(etag);
+                headers.set(CACHE_STATUS_HEADER, "MISS");
+
+                if (etagMatches(request, etag)) {
+                    responseCache.recordNotModified();
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                    return setComplete();
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+
+        private boolean isCacheable() {
+            if (getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value()) {
+                return false;
+            }
+            HttpHeaders headers = getHeaders();
+            MediaType contentType = headers.getContentType();
+            if (contentType != null && STREAMING_TYPES.stream().anyMatch(contentType::isCompatibleWith)) {
+                return false;
+            }
+            // The backend can opt a response out with Cache-Control: no-store/private
+            String cacheControl = headers.getCacheControl();
+            return cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+        }
+    }
+}
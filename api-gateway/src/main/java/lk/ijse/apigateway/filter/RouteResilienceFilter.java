@@ -0,0 +1,161 @@
+package lk.ijse.apigateway.filter;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lk.ijse.apigateway.config.ResilienceProperties;
+import lk.ijse.apigateway.resilience.RouteResilienceRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a slow or failing backend from tying up the gateway and its callers.
+ * <p>
+ * Every request to a guarded route needs a slot in the route's bulkhead and the permission of its circuit
+ * breaker; without either it gets 503 straight away instead of queueing behind a backend that isn't
+ * answering. Responses with a 5xx status, timeouts and connection errors count as failures, and responses
+ * slower than the configured slow-call duration as slow calls; either kind opening the breaker stops traffic
+ * to the route until a few probe requests in half-open state show it has recovered.
+ * <p>
+ * The time the service has left to answer is passed on in {@link #TIMEOUT_HEADER}: the route's
+ * response-timeout, or the caller's own budget when that is shorter. A request arriving with an exhausted
+ * budget gets 504 without being forwarded.
+ */
+@Component
+public class RouteResilienceFilter implements GlobalFilter, Ordered {
+
+    // Milliseconds the service has left before the caller gives up; relative, so host clocks needn't agree
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    // After the response cache, so cache hits don't take bulkhead slots or count as calls to the backend
+    public static final int ORDER = ResponseCacheFilter.ORDER + 10;
+
+    private final RouteResilienceRegistry registry;
+    private final ResilienceProperties properties;
+
+    public RouteResilienceFilter(RouteResilienceRegistry registry, ResilienceProperties properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        Long callerBudget = millisOf(request.getHeaders().getFirst(TIMEOUT_HEADER));
+        if (callerBudget != null && callerBudget <= 0) {
+            return ErrorResponses.write(exchange.getResponse(), HttpStatus.GATEWAY_TIMEOUT, "Request deadline exceeded");
+        }
+        Long routeTimeout = millisOf(route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR));
+        if (routeTimeout != null && routeTimeout < 0) {
+            routeTimeout = null; // The gateway's way of switching the timeout off for a route
+        }
+        Long budget = callerBudget == null ? routeTimeout
+                : routeTimeout == null ? callerBudget : Long.valueOf(Math.min(callerBudget, routeTimeout));
+        ServerWebExchange forwarded = exchange.mutate()
+                .request(request.mutate().headers(headers -> {
+                    if (budget != null) {
+                        headers.set(TIMEOUT_HEADER, budget.toString());
+                    } else {
+                        headers.remove(TIMEOUT_HEADER); // Malformed, and the route sets no timeout either
+                    }
+                }).build())
+                .build();
+
+        RouteResilienceRegistry.RouteGuard guard = properties.isEnabled() ? registry.guardOf(route.getId()) : null;
+        if (guard == null) {
+            return chain.filter(forwarded);
+        }
+        return guarded(forwarded, chain, guard);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Mono<Void> guarded(ServerWebExchange exchange, GatewayFilterChain chain, RouteResilienceRegistry.RouteGuard guard) {
+        CircuitBreaker circuitBreaker = guard.circuitBreaker();
+        Bulkhead bulkhead = guard.bulkhead();
+        if (!circuitBreaker.tryAcquirePermission()) {
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                    Long.toString(Math.max(1, guard.waitDurationInOpenState().toSeconds())));
+            return ErrorResponses.write(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE,
+                    "Service temporarily unavailable, retry later");
+        }
+        if (!bulkhead.tryAcquirePermission()) {
+            circuitBreaker.releasePermission();
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return ErrorResponses.write(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many concurrent requests to the service, retry later");
+        }
+
+        // Outcome is recorded once: when the response is committed, or on the error that prevented it
+        AtomicBoolean recorded = new AtomicBoolean();
+        AtomicBoolean slotReleased = new AtomicBoolean();
+        long start = System.nanoTime();
+        exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(() -> {
+            // An event stream stays open for as long as the client listens, but costs the backend little once
+            // started; holding its slot would let a few hundred subscribers shut the route to everything else
+            MediaType contentType = exchange.getResponse().getHeaders().getContentType();
+            if (contentType != null && MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)
+                    && slotReleased.compareAndSet(false, true)) {
+                bulkhead.onComplete();
+            }
+            if (recorded.compareAndSet(false, true)) {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                long elapsed = System.nanoTime() - start;
+                if (status != null && status.is5xxServerError()) {
+                    circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, new ResponseStatusException(status));
+                } else {
+                    circuitBreaker.onSuccess(elapsed, TimeUnit.NANOSECONDS);
+                }
+            }
+        }));
+        return chain.filter(exchange)
+                .doOnError(error -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, error);
+                    }
+                })
+                .doFinally(signal -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        circuitBreaker.releasePermission(); // Cancelled by the caller: no verdict on the backend
+                    }
+                    if (slotReleased.compareAndSet(false, true)) {
+                        bulkhead.onComplete();
+                    }
+                });
+    }
+
+    // Null when absent or malformed
+    private static Long millisOf(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package lk.ijse.apigateway.hedging;
+
+import lk.ijse.apigateway.config.HedgingProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.PathMatcher;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hedging state of every hedged route, created from {@link HedgingProperties} the first time the route is used:
+ * its recent latencies, its hedging budget and its counters.
+ * <p>
+ * The budget keeps hedges to the configured percentage of the route's requests: every request earns that
+ * fraction of a hedge, and a hedge is only sent while a whole one has been earned. Savings are capped at a few
+ * hedges, so when the whole route slows down (and every request passes the percentile) hedging tails off
+ * instead of doubling the load on a service that is already struggling.
+ */
+@Component
+public class HedgingRegistry {
+
+    private final HedgingProperties properties;
+    private final Map<String, RouteHedging> routes = new ConcurrentHashMap<>();
+
+    public HedgingRegistry(HedgingProperties properties) {
+        this.properties = properties;
+    }
+
+    // Null when the route is not configured
+    public RouteHedging routeOf(String routeId) {
+        HedgingProperties.RouteHedging settings = properties.getRoutes().get(routeId);
+        if (settings == null) {
+            return null;
+        }
+        return routes.computeIfAbsent(routeId, id -> new RouteHedging(settings));
+    }
+
+    // Route ID -> counters, ordered by route
+    public Map<String, RouteStats> stats() {
+        Map<String, RouteStats> stats = new TreeMap<>();
+        routes.forEach((routeId, route) -> stats.put(routeId, route.stats()));
+        return stats;
+    }
+
+    public static class RouteHedging {
+
+        private static final long CREDITS_PER_HEDGE = 10_000; // Credits are hundredths of a percent of a hedge
+        private static final long MAX_SAVED_HEDGES = 10;
+
+        private final HedgingProperties.RouteHedging settings;
+        private final LatencyWindow latencies;
+        private final long creditsPerRequest;
+        private final AtomicLong credits = new AtomicLong();
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder hedges = new LongAdder();
+        private final LongAdder hedgeWins = new LongAdder();
+        private final LongAdder budgetExhausted = new LongAdder();
+        private final LongAdder noOtherInstance = new LongAdder();
+
+        RouteHedging(HedgingProperties.RouteHedging settings) {
+            this.settings = settings;
+            this.latencies = new LatencyWindow(settings.getWindowSize(), settings.getPercentile());
+            this.creditsPerRequest = Math.round(settings.getBudgetPercent() * CREDITS_PER_HEDGE / 100);
+        }
+
+        public boolean matches(String path, PathMatcher pathMatcher) {
+            for (String pattern : settings.getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // A hedgeable request arrived: earn its share of a hedge
+        public void requestStarted() {
+            requests.increment();
+            credits.accumulateAndGet(creditsPerRequest,
+                    (saved, earned) -> Math.min(MAX_SAVED_HEDGES * CREDITS_PER_HEDGE, saved + earned));
+        }
+
+        public void recordLatency(long latencyNanos) {
+            latencies.record(latencyNanos);
+        }
+
+        // How long to wait for the first reply before hedging; -1 while too few latencies have been measured
+        public long hedgeDelayNanos() {
+            long percentile = latencies.percentileNanos();
+            if (percentile < 0 || latencies.size() < settings.getMinSamples()) {
+                return -1;
+            }
+            return Math.max(settings.getMinDelay().toNanos(), percentile);
+        }
+
+        // Spends one hedge from the budget; false (and counted) when there isn't one
+        public boolean tryHedge() {
+            long saved = credits.get();
+            while (saved >= CREDITS_PER_HEDGE) {
+                if (credits.compareAndSet(saved, saved - CREDITS_PER_HEDGE)) {
+                    hedges.increment();
+                    return true;
+                }
+                saved = credits.get();
+            }
+            budgetExhausted.increment();
+            return false;
+        }
+
+        public void hedgeWon() {
+            hedgeWins.increment();
+        }
+
+        public void noOtherInstance() {
+            noOtherInstance.increment();
+        }
+
+        public RouteStats stats() {
+            long requestCount = requests.sum();
+            long hedgeCount = hedges.sum();
+            long delay = hedgeDelayNanos();
+            return new RouteStats(requestCount, hedgeCount, hedgeWins.sum(), budgetExhausted.sum(),
+                    noOtherInstance.sum(), requestCount == 0 ? 0 : 100.0 * hedgeCount / requestCount,
+                    delay < 0 ? null : delay / 1e6);
+        }
+    }
+
+    // hedgeDelayMillis: the current percentile (null while warming up); hedgeWins: hedges that answered first
+    public record RouteStats(long requests, long hedges, long hedgeWins, long budgetExhausted, long noOtherInstance,
+                             double hedgePercent, Double hedgeDelayMillis) {
+    }
+}
@@ -0,0 +1,55 @@
+package lk.ijse.apigateway.hedging;
+
+import java.util.Arrays;
+
+/**
+ * The most recent latencies of a route in a ring buffer, with one percentile of them.
+ * <p>
+ * The percentile is re-sorted from the buffer after every sixteenth of the window has been replaced, not on
+ * every read, so a busy route pays for one small sort every few dozen requests.
+ */
+public class LatencyWindow {
+
+    private final long[] samples;
+    private final double percentile;
+    private final int refreshEvery;
+
+    private int next;
+    private int size;
+    private int sinceRefresh;
+    private long percentileNanos = -1; // -1 until the first refresh
+
+    public LatencyWindow(int windowSize, double percentile) {
+        this.samples = new long[Math.max(1, windowSize)];
+        this.percentile = Math.min(100, Math.max(0, percentile));
+        this.refreshEvery = Math.max(1, samples.length / 16);
+    }
+
+    public synchronized void record(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        if (size < samples.length) {
+            size++;
+        }
+        if (++sinceRefresh >= refreshEvery) {
+            refresh();
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // -1 until enough samples have been recorded for a first estimate
+    public synchronized long percentileNanos() {
+        return percentileNanos;
+    }
+
+    private void refresh() {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        percentileNanos = sorted[Math.min(size - 1, Math.max(0, index))];
+        sinceRefresh = 0;
+    }
+}
@@ -0,0 +1,106 @@
+package lk.ijse.apigateway.loadbalancer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live statistics of one service instance: requests in flight, a moving average of its response latency
+ * and its ejection state. The in-flight count is read on every pick, so it is lock-free; everything else
+ * changes once per completed request and is guarded by the instance's monitor.
+ */
+public class InstanceStats {
+
+    private final String instance; // host:port
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private double ewmaNanos = -1; // -1 until the first response
+    private long samples;
+    private int consecutiveFailures;
+    private boolean ejected;
+    private long ejectedUntil; // System.nanoTime()
+
+    private long requests;
+    private long failures;
+    private long ejections;
+
+    InstanceStats(String instance) {
+        this.instance = instance;
+    }
+
+    public String getInstance() {
+        return instance;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    // Never below zero, even if a completion is reported for a request started before a reset
+    void requestFinished() {
+        inFlight.updateAndGet(count -> count > 0 ? count - 1 : 0);
+    }
+
+    synchronized double ewmaNanos() {
+        return ewmaNanos;
+    }
+
+    synchronized long samples() {
+        return samples;
+    }
+
+    synchronized int consecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    synchronized void record(long latencyNanos, boolean failed, double alpha) {
+        requests++;
+        samples++;
+        if (failed) {
+            failures++;
+            consecutiveFailures++;
+            // A fast failure (connection refused, immediate 503) must not make the instance look attractive
+            latencyNanos = Math.max(latencyNanos, (long) ewmaNanos);
+        } else {
+            consecutiveFailures = 0;
+        }
+        ewmaNanos = ewmaNanos < 0 ? latencyNanos : alpha * latencyNanos + (1 - alpha) * ewmaNanos;
+    }
+
+    /*
+     * An ejected instance is readmitted once its cooldown has passed, with its history cleared: the latency
+     * that got it ejected says nothing about the restarted or recovered process, and it gets a fresh chance
+     * to prove itself before it can be ejected again.
+     */
+    synchronized boolean isAvailable(long now) {
+        if (ejected && now - ejectedUntil >= 0) {
+            ejected = false;
+            ewmaNanos = -1;
+            samples = 0;
+            consecutiveFailures = 0;
+        }
+        return !ejected;
+    }
+
+    synchronized void eject(long until) {
+        ejected = true;
+        ejectedUntil = until;
+        ejections++;
+    }
+
+    synchronized Snapshot snapshot(long now) {
+        boolean out = ejected && now - ejectedUntil < 0;
+        return new Snapshot(instance, inFlight.get(),
+                ewmaNanos < 0 ? null : ewmaNanos / TimeUnit.MILLISECONDS.toNanos(1),
+                requests, failures, ejections, out,
+                out ? TimeUnit.NANOSECONDS.toMillis(ejectedUntil - now) : 0);
+    }
+
+    // ewmaMillis is null until the instance has answered a request
+    public record Snapshot(String instance, int inFlight, Double ewmaMillis, long requests, long failures,
+                           long ejections, boolean ejected, long ejectedForMillis) {
+    }
+}
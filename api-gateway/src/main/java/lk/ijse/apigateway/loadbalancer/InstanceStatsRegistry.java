@@ -0,0 +1,168 @@
+package lk.ijse.apigateway.loadbalancer;
+
+import lk.ijse.apigateway.config.LoadBalancerProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of every instance the gateway routes to, shared by the per-service load balancers (which read
+ * them to pick an instance) and {@link lk.ijse.apigateway.filter.InstanceLatencyFilter} (which records the
+ * outcome of each forwarded request).
+ * <p>
+ * An instance is ejected for the configured cooldown after too many consecutive failures, or when its
+ * average latency is far above that of its fastest peer. The last available instance of a service is never
+ * ejected: a slow answer is better than none.
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    // Latency assumed for an instance no request has been measured on yet, when no peer has been measured either
+    private static final long DEFAULT_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final LoadBalancerProperties properties;
+
+    // Service ID -> (host:port -> stats)
+    private final Map<String, Map<String, InstanceStats>> services = new ConcurrentHashMap<>();
+
+    public InstanceStatsRegistry(LoadBalancerProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the stats of the given instances, in the same order, creating them for new instances.
+     * Instances that are no longer registered are dropped so they don't count as peers.
+     */
+    public List<InstanceStats> statsOf(String serviceId, List<ServiceInstance> instances) {
+        Map<String, InstanceStats> peers = peersOf(serviceId);
+        List<InstanceStats> stats = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            stats.add(peers.computeIfAbsent(keyOf(instance), InstanceStats::new));
+        }
+        if (peers.size() > instances.size()) {
+            Set<InstanceStats> current = new HashSet<>(stats);
+            peers.values().removeIf(peer -> !current.contains(peer));
+        }
+        return stats;
+    }
+
+    public InstanceStats statsOf(ServiceInstance instance) {
+        return peersOf(instance.getServiceId()).computeIfAbsent(keyOf(instance), InstanceStats::new);
+    }
+
+    // Expected latency used for ranking; an unmeasured instance is assumed to be as fast as the average peer
+    public double expectedLatencyNanos(InstanceStats stats, List<InstanceStats> peers) {
+        double ewma = stats.ewmaNanos();
+        if (ewma >= 0) {
+            return ewma;
+        }
+        double total = 0;
+        int measured = 0;
+        for (InstanceStats peer : peers) {
+            double peerEwma = peer.ewmaNanos();
+            if (peerEwma >= 0) {
+                total += peerEwma;
+                measured++;
+            }
+        }
+        return measured == 0 ? DEFAULT_LATENCY_NANOS : total / measured;
+    }
+
+    // Ranking score used by the load balancers: lower is better
+    public double loadScore(InstanceStats stats, List<InstanceStats> peers) {
+        return expectedLatencyNanos(stats, peers) * (stats.inFlight() + 1);
+    }
+
+    // The available instance with the best score other than the excluded one; null when there is none
+    public ServiceInstance bestExcluding(String serviceId, List<ServiceInstance> instances, ServiceInstance excluded) {
+        List<InstanceStats> stats = statsOf(serviceId, instances);
+        String excludedKey = keyOf(excluded);
+        long now = System.nanoTime();
+        ServiceInstance best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < instances.size(); i++) {
+            if (keyOf(instances.get(i)).equals(excludedKey) || !stats.get(i).isAvailable(now)) {
+                continue;
+            }
+            double score = loadScore(stats.get(i), stats);
+            if (score < bestScore) {
+                best = instances.get(i);
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    public void requestStarted(InstanceStats stats) {
+        stats.requestStarted();
+    }
+
+    // Called once the exchange is over, whether it completed, failed or was cancelled by the client
+    public void requestFinished(InstanceStats stats) {
+        stats.requestFinished();
+    }
+
+    public void responseReceived(String serviceId, InstanceStats stats, long latencyNanos, boolean failed) {
+        stats.record(latencyNanos, failed, properties.getEwmaAlpha());
+
+        if (stats.consecutiveFailures() >= properties.getFailureThreshold() || (!failed && isSlow(serviceId, stats))) {
+            tryEject(serviceId, stats);
+        }
+    }
+
+    // Service ID -> instances, ordered by name
+    public Map<String, List<InstanceStats.Snapshot>> stats() {
+        long now = System.nanoTime();
+        Map<String, List<InstanceStats.Snapshot>> snapshot = new TreeMap<>();
+        services.forEach((serviceId, peers) -> snapshot.put(serviceId,
+                peers.values().stream().map(stats -> stats.snapshot(now)).toList()));
+        return snapshot;
+    }
+
+    private boolean isSlow(String serviceId, InstanceStats stats) {
+        double ewma = stats.ewmaNanos();
+        if (stats.samples() < properties.getMinSamples() || ewma < properties.getSlowLatencyFloor().toNanos()) {
+            return false;
+        }
+        long now = System.nanoTime();
+        double fastest = Double.MAX_VALUE;
+        for (InstanceStats peer : peersOf(serviceId).values()) {
+            if (peer != stats && peer.isAvailable(now) && peer.samples() >= properties.getMinSamples()) {
+                fastest = Math.min(fastest, peer.ewmaNanos());
+            }
+        }
+        return fastest != Double.MAX_VALUE && ewma > properties.getSlowFactor() * fastest;
+    }
+
+    // Serialised per service, so two instances failing at once can't both be ejected and leave none
+    private void tryEject(String serviceId, InstanceStats stats) {
+        Map<String, InstanceStats> peers = peersOf(serviceId);
+        synchronized (peers) {
+            long now = System.nanoTime();
+            if (!stats.isAvailable(now)) {
+                return;
+            }
+            boolean otherAvailable = peers.values().stream()
+                    .anyMatch(peer -> peer != stats && peer.isAvailable(now));
+            if (otherAvailable) {
+                stats.eject(now + properties.getCooldown().toNanos());
+            }
+        }
+    }
+
+    private Map<String, InstanceStats> peersOf(String serviceId) {
+        return services.computeIfAbsent(serviceId.toLowerCase(), id -> new ConcurrentHashMap<>());
+    }
+
+    private static String keyOf(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
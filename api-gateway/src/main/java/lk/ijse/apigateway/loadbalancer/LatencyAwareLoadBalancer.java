@@ -0,0 +1,90 @@
+package lk.ijse.apigateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks an instance with "power of two choices": two distinct instances are drawn at random from those not
+ * ejected, and the one with the lower expected latency times (requests in flight + 1) wins.
+ * <p>
+ * Comparing just two random candidates keeps the pick cheap and avoids the herding of a pure least-loaded
+ * rule, where every gateway thread piles onto the same instance until its stats catch up; it still steers
+ * almost all traffic away from an instance that is slow or backed up.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry registry;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId, InstanceStatsRegistry registry) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        List<InstanceStats> stats = registry.statsOf(serviceId, instances);
+        long now = System.nanoTime();
+        List<Integer> candidates = new ArrayList<>(instances.size());
+        for (int i = 0; i < stats.size(); i++) {
+            if (stats.get(i).isAvailable(now)) {
+                candidates.add(i);
+            }
+        }
+        // The registry never ejects the last instance, but a shrinking instance list can still leave none
+        if (candidates.isEmpty()) {
+            for (int i = 0; i < instances.size(); i++) {
+                candidates.add(i);
+            }
+        }
+        if (candidates.size() == 1) {
+            return new DefaultResponse(instances.get(candidates.get(0)));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        int a = candidates.get(first);
+        int b = candidates.get(second);
+        return new DefaultResponse(instances.get(
+                registry.loadScore(stats.get(a), stats) <= registry.loadScore(stats.get(b), stats) ? a : b));
+    }
+}
@@ -0,0 +1,98 @@
+package lk.ijse.apigateway.metrics;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lk.ijse.apigateway.cache.ResponseCache;
+import lk.ijse.apigateway.config.HedgingProperties;
+import lk.ijse.apigateway.config.ResilienceProperties;
+import lk.ijse.apigateway.hedging.HedgingRegistry;
+import lk.ijse.apigateway.ratelimit.TokenBucketRateLimiter;
+import lk.ijse.apigateway.resilience.RouteResilienceRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the counters of the gateway's own filters as meters, next to the gateway's per-route request timers
+ * (spring.cloud.gateway.requests). Every meter reads the same snapshot the /gateway/.../stats endpoints return,
+ * when it is scraped, so the request path does no extra work. Per-route meters cover the routes configured for
+ * hedging and resilience.
+ */
+@Component
+public class GatewayMeterBinder implements MeterBinder {
+
+    private final ResponseCache responseCache;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final HedgingRegistry hedgingRegistry;
+    private final HedgingProperties hedgingProperties;
+    private final RouteResilienceRegistry routeResilienceRegistry;
+    private final ResilienceProperties resilienceProperties;
+
+    public GatewayMeterBinder(ResponseCache responseCache, TokenBucketRateLimiter rateLimiter,
+                              HedgingRegistry hedgingRegistry, HedgingProperties hedgingProperties,
+                              RouteResilienceRegistry routeResilienceRegistry, ResilienceProperties resilienceProperties) {
+        this.responseCache = responseCache;
+        this.rateLimiter = rateLimiter;
+        this.hedgingRegistry = hedgingRegistry;
+        this.hedgingProperties = hedgingProperties;
+        this.routeResilienceRegistry = routeResilienceRegistry;
+        this.resilienceProperties = resilienceProperties;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "gateway.response.cache.requests", "result", "hit", responseCache, cache -> cache.stats().hits());
+        counter(registry, "gateway.response.cache.requests", "result", "miss", responseCache, cache -> cache.stats().misses());
+        counter(registry, "gateway.response.cache.requests", "result", "not_modified", responseCache,
+                cache -> cache.stats().notModified());
+        counter(registry, "gateway.response.cache.evictions", null, null, responseCache, cache -> cache.stats().evictions());
+        Gauge.builder("gateway.response.cache.size", responseCache, cache -> cache.stats().bytes())
+                .baseUnit("bytes").register(registry);
+
+        counter(registry, "gateway.rate.limit.requests", "result", "allowed", rateLimiter, limiter -> limiter.stats().allowed());
+        counter(registry, "gateway.rate.limit.requests", "result", "rejected", rateLimiter, limiter -> limiter.stats().rejected());
+        Gauge.builder("gateway.rate.limit.buckets", rateLimiter, limiter -> limiter.stats().buckets()).register(registry);
+
+        for (String routeId : hedgingProperties.getRoutes().keySet()) {
+            HedgingRegistry.RouteHedging hedging = hedgingRegistry.routeOf(routeId);
+            counter(registry, "gateway.hedging.requests", "route", routeId, hedging, h -> h.stats().requests());
+            counter(registry, "gateway.hedging.hedges", "route", routeId, hedging, h -> h.stats().hedges());
+            counter(registry, "gateway.hedging.hedge.wins", "route", routeId, hedging, h -> h.stats().hedgeWins());
+            counter(registry, "gateway.hedging.budget.exhausted", "route", routeId, hedging, h -> h.stats().budgetExhausted());
+        }
+
+        for (String routeId : resilienceProperties.getRoutes().keySet()) {
+            RouteResilienceRegistry.RouteGuard guard = routeResilienceRegistry.guardOf(routeId);
+            // 0 closed, 1 open, 2 half-open, 3 any other (disabled, forced open, metrics only)
+            Gauge.builder("gateway.circuit.breaker.state", guard, g -> stateOf(g.circuitBreaker()))
+                    .tag("route", routeId).register(registry);
+            counter(registry, "gateway.circuit.breaker.not.permitted", "route", routeId, guard,
+                    g -> g.circuitBreaker().getMetrics().getNumberOfNotPermittedCalls());
+            Gauge.builder("gateway.bulkhead.concurrent.calls", guard, g -> g.bulkhead().getMetrics().getMaxAllowedConcurrentCalls()
+                            - g.bulkhead().getMetrics().getAvailableConcurrentCalls())
+                    .tag("route", routeId).register(registry);
+            counter(registry, "gateway.bulkhead.rejections", "route", routeId, guard, g -> g.bulkheadRejections().sum());
+        }
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, String tagKey, String tagValue, T source,
+                                    ToDoubleFunction<T> count) {
+        FunctionCounter.Builder<T> builder = FunctionCounter.builder(name, source, count);
+        if (tagKey != null) {
+            builder.tag(tagKey, tagValue);
+        }
+        builder.register(registry);
+    }
+
+    private static double stateOf(CircuitBreaker circuitBreaker) {
+        return switch (circuitBreaker.getState()) {
+            case CLOSED -> 0;
+            case OPEN -> 1;
+            case HALF_OPEN -> 2;
+            default -> 3;
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package lk.ijse.apigateway.ratelimit;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process token buckets, one per (route, client) key.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding its "theoretical arrival time" (the GCRA form of a token
+ * bucket): a request is allowed when moving that time forward by one emission interval keeps it within
+ * capacity intervals of now. Taking a token is one CAS, so there is no lock on the request path; buckets
+ * live in a {@link ConcurrentHashMap}, which only locks a single bin when a new client first appears.
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long SWEEP_INTERVAL_NANOS = 60 * NANOS_PER_SECOND;
+    private static final int SWEEP_CHECK_EVERY = 4096; // Requests between checks of the sweep interval
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final LongAdder requestsSinceCheck = new LongAdder();
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public Decision tryAcquire(String key, int capacity, double refillPerSecond) {
+        return tryAcquire(key, capacity, refillPerSecond, System.nanoTime());
+    }
+
+    public Decision tryAcquire(String key, int capacity, double refillPerSecond, long now) {
+        long interval = Math.max(1L, (long) (NANOS_PER_SECOND / refillPerSecond)); // Time to refill one token
+        long burst = interval * Math.max(1, capacity);
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+
+        while (true) {
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + interval;
+            long used = next - now; // Capacity in use after this request, in nanoseconds of refill
+            if (used > burst) {
+                rejected.increment();
+                maybeSweep(now);
+                return new Decision(false, 0, used - burst);
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                allowed.increment();
+                maybeSweep(now);
+                return new Decision(true, (int) ((burst - used) / interval), 0);
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(allowed.sum(), rejected.sum(), buckets.size());
+    }
+
+    /*
+     * A bucket whose arrival time is in the past is full, which is exactly the state of a new bucket, so it
+     * can be dropped. A request racing the removal may get one extra token; that is the price of no locking.
+     */
+    private void maybeSweep(long now) {
+        requestsSinceCheck.increment();
+        if (requestsSinceCheck.sum() < SWEEP_CHECK_EVERY) {
+            return;
+        }
+        requestsSinceCheck.reset();
+        long last = lastSweep.get();
+        if (now - last >= SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+            buckets.values().removeIf(bucket -> bucket.get() < now);
+        }
+    }
+
+    public record Decision(boolean allowed, int remaining, long retryAfterNanos) {
+    }
+
+    public record Stats(long allowed, long rejected, int buckets) {
+    }
+}
@@ -0,0 +1,91 @@
+package lk.ijse.apigateway.resilience;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import lk.ijse.apigateway.config.ResilienceProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One bulkhead and one circuit breaker per guarded route, created from {@link ResilienceProperties} the first
+ * time the route is used.
+ * <p>
+ * Both are plain Resilience4j state machines driven by {@link lk.ijse.apigateway.filter.RouteResilienceFilter}:
+ * the bulkhead is a semaphore that never waits (waiting would block an event-loop thread), and the breaker
+ * moves from open to half-open on the first request after its wait duration, so no scheduler thread is needed.
+ */
+@Component
+public class RouteResilienceRegistry {
+
+    private final ResilienceProperties properties;
+    private final Map<String, RouteGuard> guards = new ConcurrentHashMap<>();
+
+    public RouteResilienceRegistry(ResilienceProperties properties) {
+        this.properties = properties;
+    }
+
+    // Null when the route is not configured
+    public RouteGuard guardOf(String routeId) {
+        ResilienceProperties.RouteResilience settings = properties.getRoutes().get(routeId);
+        if (settings == null) {
+            return null;
+        }
+        return guards.computeIfAbsent(routeId, id -> createGuard(id, settings));
+    }
+
+    // Route ID -> state, ordered by route
+    public Map<String, RouteStats> stats() {
+        Map<String, RouteStats> stats = new TreeMap<>();
+        guards.forEach((routeId, guard) -> {
+            CircuitBreaker.Metrics breaker = guard.circuitBreaker().getMetrics();
+            Bulkhead.Metrics bulkhead = guard.bulkhead().getMetrics();
+            stats.put(routeId, new RouteStats(
+                    guard.circuitBreaker().getState().name(),
+                    breaker.getFailureRate(),
+                    breaker.getSlowCallRate(),
+                    breaker.getNumberOfBufferedCalls(),
+                    breaker.getNumberOfNotPermittedCalls(),
+                    bulkhead.getMaxAllowedConcurrentCalls() - bulkhead.getAvailableConcurrentCalls(),
+                    bulkhead.getMaxAllowedConcurrentCalls(),
+                    guard.bulkheadRejections().sum()));
+        });
+        return stats;
+    }
+
+    private static RouteGuard createGuard(String routeId, ResilienceProperties.RouteResilience settings) {
+        CircuitBreaker circuitBreaker = CircuitBreaker.of(routeId, CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(settings.getSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getMinimumNumberOfCalls())
+                .failureRateThreshold(settings.getFailureRateThreshold())
+                .slowCallRateThreshold(settings.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(settings.getSlowCallDuration())
+                .waitDurationInOpenState(settings.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(settings.getPermittedCallsInHalfOpenState())
+                .build());
+        Bulkhead bulkhead = Bulkhead.of(routeId, BulkheadConfig.custom()
+                .maxConcurrentCalls(settings.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        LongAdder rejections = new LongAdder();
+        bulkhead.getEventPublisher().onCallRejected(event -> rejections.increment());
+        return new RouteGuard(circuitBreaker, bulkhead, rejections, settings.getWaitDurationInOpenState());
+    }
+
+    public record RouteGuard(CircuitBreaker circuitBreaker, Bulkhead bulkhead, LongAdder bulkheadRejections,
+                             Duration waitDurationInOpenState) {
+    }
+
+    // notPermittedCalls: requests refused while the breaker was open (or half-open with all probes taken)
+    public record RouteStats(String state, float failureRate, float slowCallRate, int bufferedCalls,
+                             long notPermittedCalls, int concurrentCalls, int maxConcurrentCalls,
+                             long bulkheadRejections) {
+    }
+}
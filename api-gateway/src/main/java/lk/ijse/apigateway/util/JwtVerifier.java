@@ -0,0 +1,130 @@
+package lk.ijse.apigateway.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies the HS256 tokens issued by user-service and caches the identity of every valid token,
+ * so a token's signature is checked at most once per cache lifetime.
+ */
+@Component
+public class JwtVerifier {
+
+    // Claim names written by user-service's JwtUtil
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+
+    @Value("${jwt.secret}")
+    private String SECRET;
+
+    @Value("${jwt.claims-cache.ttl:60000}")
+    private long CLAIMS_CACHE_TTL;
+
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private int CLAIMS_CACHE_MAX_SIZE;
+
+    private JwtParser jwtParser;
+
+    // Token digest -> verified identity
+    private final Map<String, VerifiedToken> cache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build();
+    }
+
+    /**
+     * Returns the identity carried by the token, or null when the signature is invalid, the token is
+     * malformed or it has expired.
+     */
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+        boolean caching = CLAIMS_CACHE_TTL > 0 && CLAIMS_CACHE_MAX_SIZE > 0;
+        String digest = caching ? digestOf(token) : null;
+        if (caching) {
+            VerifiedToken cached = cache.get(digest);
+            if (cached != null && cached.cachedUntil() > now) {
+                return cached;
+            }
+        }
+
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+
+        long expiresAt = claims.getExpiration() == null ? Long.MAX_VALUE : claims.getExpiration().getTime();
+        VerifiedToken verified = new VerifiedToken(
+                userIdOf(claims),
+                claims.getSubject(),
+                rolesOf(claims),
+                claims.getIssuedAt(),
+                Math.min(now + CLAIMS_CACHE_TTL, expiresAt)
+        );
+        if (caching) {
+            if (cache.size() >= CLAIMS_CACHE_MAX_SIZE) {
+                evict(now);
+            }
+            cache.put(digest, verified);
+        }
+        return verified;
+    }
+
+    public int cacheSize() {
+        return cache.size();
+    }
+
+    private void evict(long now) {
+        cache.values().removeIf(cached -> cached.cachedUntil() <= now);
+        Iterator<String> digests = cache.keySet().iterator();
+        while (cache.size() >= CLAIMS_CACHE_MAX_SIZE && digests.hasNext()) {
+            digests.next();
+            digests.remove();
+        }
+    }
+
+    private static Long userIdOf(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return userId == null ? null : userId.longValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> rolesOf(Claims claims) {
+        List<String> roles = claims.get(ROLES_CLAIM, List.class);
+        return roles == null ? List.of() : List.copyOf(roles);
+    }
+
+    private static String digestOf(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // userId is null and roles are empty for tokens issued before user-service added those claims
+    public record VerifiedToken(Long userId, String username, List<String> roles, Date issuedAt, long cachedUntil) {
+    }
+}
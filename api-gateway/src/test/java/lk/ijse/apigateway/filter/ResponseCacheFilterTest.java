@@ -0,0 +1,107 @@
+package lk.ijse.apigateway.filter;
+
+import lk.ijse.apigateway.cache.ResponseCache;
+import lk.ijse.apigateway.config.ResponseCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// The cache key carries the caller, so a cached response is only ever served back to whoever it was fetched for
+class ResponseCacheFilterTest {
+
+    private static final String PATH = "/user-service/api/v1/bookings";
+
+    private ResponseCacheFilter filter;
+    private Route route;
+    private AtomicInteger backendCalls;
+    private GatewayFilterChain backend;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties.RouteCache routeCache = new ResponseCacheProperties.RouteCache();
+        routeCache.setTtl(Duration.ofMinutes(10));
+        routeCache.setPaths(List.of(PATH + "/**", PATH));
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(true);
+        properties.getRoutes().put("user-service", routeCache);
+        filter = new ResponseCacheFilter(new ResponseCache(properties), properties);
+        route = Route.async().id("user-service").uri("http://localhost:8083").predicate(exchange -> true).build();
+
+        // Answers with the caller's name, as a backend serving "my bookings" would
+        backendCalls = new AtomicInteger();
+        backend = exchange -> {
+            backendCalls.incrementAndGet();
+            String user = exchange.getRequest().getHeaders().getFirst(JwtAuthenticationFilter.USER_NAME_HEADER);
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            byte[] body = ("{\"user\":\"" + user + "\"}").getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+    }
+
+    @Test
+    void cachesPerUser() {
+        MockServerWebExchange alice = get(asUser("alice", "1"));
+        assertEquals("MISS", alice.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+
+        MockServerWebExchange bob = get(asUser("bob", "2"));
+        assertEquals("MISS", bob.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("{\"user\":\"bob\"}", bob.getResponse().getBodyAsString().block());
+
+        MockServerWebExchange aliceAgain = get(asUser("alice", "1"));
+        assertEquals("HIT", aliceAgain.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("{\"user\":\"alice\"}", aliceAgain.getResponse().getBodyAsString().block());
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    void anonymousResponseIsNotServedToAUser() {
+        get(MockServerHttpRequest.get(PATH));
+        MockServerWebExchange alice = get(asUser("alice", "1"));
+        assertEquals("MISS", alice.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals(2, backendCalls.get());
+    }
+
+    @Test
+    void unverifiedCredentialsBypassTheCache() {
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange basic = get(MockServerHttpRequest.get(PATH).header(HttpHeaders.AUTHORIZATION, "Basic YWxpY2U6cHc="));
+            assertNull(basic.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        }
+        assertEquals(2, backendCalls.get());
+    }
+
+    // The headers JwtAuthenticationFilter sets once it has verified a bearer token
+    private static MockServerHttpRequest.BaseBuilder<?> asUser(String username, String userId) {
+        return MockServerHttpRequest.get(PATH)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token-of-" + username)
+                .header(JwtAuthenticationFilter.USER_NAME_HEADER, username)
+                .header(JwtAuthenticationFilter.USER_ID_HEADER, userId)
+                .header(JwtAuthenticationFilter.USER_ROLES_HEADER, "USER");
+    }
+
+    private MockServerWebExchange get(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        filter.filter(exchange, backend).block();
+        return exchange;
+    }
+}
@@ -0,0 +1,111 @@
+package lk.ijse.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fairness of the rate limiter under concurrent clients, each sending on a fixed schedule from its own thread for
+ * four seconds. Greedy clients send at four times the limit and polite clients at half of it.
+ */
+class TokenBucketRateLimiterFairnessTest {
+
+    private static final int GREEDY_CLIENTS = 8;
+    private static final int POLITE_CLIENTS = 8;
+    private static final int CAPACITY = 10;
+    private static final double REFILL_PER_SECOND = 50;
+    private static final long DURATION_NANOS = 4_000_000_000L;
+    private static final double TOLERANCE = 0.05;
+    private static final double ALLOWANCE = CAPACITY + REFILL_PER_SECOND * DURATION_NANOS / 1e9;
+
+    // Every greedy client is admitted close to its allowance, and every polite one in full, however hard the
+    // greedy ones push
+    @Test
+    void separateBucketsAdmitEveryClientItsAllowance() throws InterruptedException {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < GREEDY_CLIENTS; i++) {
+            clients.add(new Client("greedy-" + i, "payment-service|sub:greedy-" + i, REFILL_PER_SECOND * 4));
+        }
+        for (int i = 0; i < POLITE_CLIENTS; i++) {
+            clients.add(new Client("polite-" + i, "payment-service|sub:polite-" + i, REFILL_PER_SECOND / 2));
+        }
+        run(new TokenBucketRateLimiter(), clients);
+
+        List<String> unfair = new ArrayList<>();
+        for (Client client : clients) {
+            boolean greedy = client.name.startsWith("greedy");
+            boolean fair = greedy
+                    ? Math.abs(client.admitted - ALLOWANCE) <= ALLOWANCE * TOLERANCE
+                    : client.admitted >= client.attempts * (1 - TOLERANCE);
+            System.out.printf("%-9s attempted %5d, admitted %5d%n", client.name, client.attempts, client.admitted);
+            if (!fair) {
+                unfair.add(client.name + " admitted " + client.admitted + " of " + client.attempts);
+            }
+        }
+        assertTrue(unfair.isEmpty(), "allowance " + ALLOWANCE + " per client: " + unfair);
+    }
+
+    // Clients sharing one key share one bucket, so together they get a single allowance
+    @Test
+    void sharedBucketAdmitsOneAllowanceInTotal() throws InterruptedException {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < GREEDY_CLIENTS; i++) {
+            clients.add(new Client("shared-" + i, "payment-service|ip:10.0.0.1", REFILL_PER_SECOND * 4));
+        }
+        run(new TokenBucketRateLimiter(), clients);
+
+        long total = clients.stream().mapToLong(client -> client.admitted).sum();
+        assertTrue(total <= ALLOWANCE * (1 + TOLERANCE), "admitted " + total + ", allowance " + ALLOWANCE);
+    }
+
+    // Every client sends on a fixed schedule from its own thread until the shared deadline
+    private static void run(TokenBucketRateLimiter rateLimiter, List<Client> clients) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        long[] window = new long[2];
+        List<Thread> threads = new ArrayList<>();
+        for (Client client : clients) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long interval = (long) (1e9 / client.requestsPerSecond);
+                for (long next = window[0]; next < window[1]; next += interval) {
+                    LockSupport.parkNanos(next - System.nanoTime());
+                    client.attempts++;
+                    if (rateLimiter.tryAcquire(client.key, CAPACITY, REFILL_PER_SECOND).allowed()) {
+                        client.admitted++;
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        window[0] = System.nanoTime() + 50_000_000L;
+        window[1] = window[0] + DURATION_NANOS;
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static final class Client {
+        final String name;
+        final String key;
+        final double requestsPerSecond;
+        long attempts; // Only written by the client's own thread, read after join()
+        long admitted;
+
+        Client(String name, String key, double requestsPerSecond) {
+            this.name = name;
+            this.key = key;
+            this.requestsPerSecond = requestsPerSecond;
+        }
+    }
+}
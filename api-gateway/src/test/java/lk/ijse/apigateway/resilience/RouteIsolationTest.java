@@ -0,0 +1,217 @@
+package lk.ijse.apigateway.resilience;
+
+import lk.ijse.apigateway.ApiGatewayApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The gateway's per-route timeouts, bulkheads and circuit breakers, in front of two local stubs: parking-space-service
+ * answering in a few milliseconds and payment-service, which is made to take three seconds per request. A client
+ * sends steady traffic to both routes over one bounded connection pool, the way a browser or a backend-for-frontend
+ * talks to the gateway. Unguarded, slow payment calls hold the client's connections and parking requests queue behind
+ * them. Guarded, slow payment calls are cut at the route timeout, then refused at once by the open breaker, so
+ * parking latency must stay close to a run where payment-service is fast.
+ */
+class RouteIsolationTest {
+
+    private static final int CLIENT_CONNECTIONS = 16;
+    private static final int PARKING_PER_SECOND = 100;
+    private static final int PAYMENT_PER_SECOND = 20;
+    private static final int SECONDS = 10;
+    private static final long SLOW_PAYMENT_MILLIS = 3000;
+    private static final long ROUTE_TIMEOUT_MILLIS = 1000;
+    private static final int WARM_UP_SECONDS = 3;
+
+    // Closing a gateway context disposes Reactor Netty's global event loops, so stubs and client have their own
+    private static final LoopResources STUB_LOOPS = LoopResources.create("stub", 1, true);
+    private static final LoopResources CLIENT_LOOPS = LoopResources.create("client", 1, true);
+
+    private final AtomicLong paymentLatency = new AtomicLong(5);
+    private DisposableServer parking;
+    private DisposableServer payment;
+
+    @BeforeEach
+    void startStubs() {
+        parking = stub(new AtomicLong(5));
+        payment = stub(paymentLatency);
+    }
+
+    @AfterEach
+    void stopStubs() {
+        parking.disposeNow();
+        payment.disposeNow();
+    }
+
+    @AfterAll
+    static void disposeLoops() {
+        STUB_LOOPS.dispose();
+        CLIENT_LOOPS.dispose();
+    }
+
+    @Test
+    void slowPaymentServiceDoesNotSlowParkingRequests() {
+        run("warm-up", false); // The first gateway in the JVM runs cold, so its latencies are no reference
+        Result healthy = run("healthy", false);
+        paymentLatency.set(SLOW_PAYMENT_MILLIS);
+        Result unguarded = run("unguarded", false);
+        Result guarded = run("guarded", true);
+
+        // A parking request that waited behind a payment call would have waited a good part of the route timeout
+        double allowed = healthy.parkingP99() + ROUTE_TIMEOUT_MILLIS / 4.0;
+        assertTrue(unguarded.parkingP99() > allowed, String.format(
+                "parking p99 %.1f ms without guards: the slow stub did not hold up the client", unguarded.parkingP99()));
+        assertTrue(guarded.parkingP99() <= allowed, String.format(
+                "parking p99 %.1f ms with payment-service slow, %.1f ms with it fast (allowed %.1f ms)",
+                guarded.parkingP99(), healthy.parkingP99(), allowed));
+        // The payment calls did not wait out the stub: the timeout cut them, then the breaker refused them
+        assertTrue(guarded.paymentP99() < SLOW_PAYMENT_MILLIS, "payment p99 " + guarded.paymentP99() + " ms");
+    }
+
+    private Result run(String name, boolean guarded) {
+        ConfigurableApplicationContext gateway = startGateway(parking.port(), payment.port(), guarded);
+        int gatewayPort = ((ReactiveWebServerApplicationContext) gateway).getWebServer().getPort();
+        ConnectionProvider connections = ConnectionProvider.builder("client")
+                .maxConnections(CLIENT_CONNECTIONS)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(Duration.ofSeconds(60))
+                .build();
+        HttpClient client = HttpClient.create(connections).runOn(CLIENT_LOOPS).baseUrl("http://127.0.0.1:" + gatewayPort);
+
+        try {
+            // Parking traffic only, so the gateway is warmed up without touching the payment route's breaker
+            load(client, "/parking-space-service/api/v1/parking-spaces", PARKING_PER_SECOND, WARM_UP_SECONDS,
+                    (status, nanos) -> { }).block();
+
+            List<Long> parkingLatencies = Collections.synchronizedList(new ArrayList<>());
+            Map<Integer, AtomicInteger> paymentStatuses = new ConcurrentHashMap<>();
+            List<Long> paymentLatencies = Collections.synchronizedList(new ArrayList<>());
+
+            Mono<Void> parkingLoad = load(client, "/parking-space-service/api/v1/parking-spaces", PARKING_PER_SECOND, SECONDS,
+                    (status, nanos) -> parkingLatencies.add(nanos));
+            Mono<Void> paymentLoad = load(client, "/payment-service/api/v1/payments", PAYMENT_PER_SECOND, SECONDS,
+                    (status, nanos) -> {
+                        paymentLatencies.add(nanos);
+                        paymentStatuses.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+                    });
+            Mono.when(parkingLoad, paymentLoad).block();
+
+            Result result = new Result(percentile(parkingLatencies, 0.50), percentile(parkingLatencies, 0.99),
+                    percentile(paymentLatencies, 0.99));
+            Map<Integer, Integer> statuses = new TreeMap<>();
+            paymentStatuses.forEach((status, count) -> statuses.put(status, count.get()));
+            System.out.printf("%-9s parking p50 %7.1f ms  p99 %7.1f ms | payment p99 %7.1f ms, statuses %s%n",
+                    name, result.parkingP50(), result.parkingP99(), result.paymentP99(), statuses);
+            return result;
+        } finally {
+            connections.disposeLater().block();
+            gateway.close();
+        }
+    }
+
+    // Open-loop: one request every 1/rate seconds, however long earlier ones take
+    private static Mono<Void> load(HttpClient client, String uri, int rate, int seconds, Outcome outcome) {
+        return Flux.interval(Duration.ofNanos(TimeUnit.SECONDS.toNanos(1) / rate))
+                .take((long) rate * seconds)
+                .flatMap(i -> {
+                    long start = System.nanoTime();
+                    return client.get().uri(uri)
+                            .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                            .onErrorReturn(599)
+                            .doOnNext(status -> outcome.record(status, System.nanoTime() - start));
+                }, Integer.MAX_VALUE)
+                .then();
+    }
+
+    // Both routes pointing at the stubs; application.yml and Eureka stay out
+    private static ConfigurableApplicationContext startGateway(int parkingPort, int paymentPort, boolean guarded) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.config.name=route-isolation-test",
+                "server.port=0",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "eureka.client.enabled=false",
+                "jwt.secret=bWlzc2luZ3Rocm93bnJvb3R3aXRoaW5tb3V0aHNtYWxsc2hhbGxnYXJhZ2Vpc2xhbmQ=",
+                "gateway.response-cache.enabled=false",
+                "gateway.rate-limit.enabled=false",
+                "gateway.resilience.enabled=" + guarded,
+                "spring.cloud.gateway.server.webflux.routes[0].id=parking-space-service",
+                "spring.cloud.gateway.server.webflux.routes[0].uri=http://127.0.0.1:" + parkingPort,
+                "spring.cloud.gateway.server.webflux.routes[0].predicates[0]=Path=/parking-space-service/**",
+                "spring.cloud.gateway.server.webflux.routes[1].id=payment-service",
+                "spring.cloud.gateway.server.webflux.routes[1].uri=http://127.0.0.1:" + paymentPort,
+                "spring.cloud.gateway.server.webflux.routes[1].predicates[0]=Path=/payment-service/**"));
+        if (guarded) {
+            properties.addAll(List.of(
+                    "spring.cloud.gateway.server.webflux.routes[0].metadata.response-timeout=" + ROUTE_TIMEOUT_MILLIS,
+                    "spring.cloud.gateway.server.webflux.routes[1].metadata.response-timeout=" + ROUTE_TIMEOUT_MILLIS,
+                    "gateway.resilience.routes.parking-space-service.max-concurrent-calls=200",
+                    "gateway.resilience.routes.payment-service.max-concurrent-calls=10",
+                    "gateway.resilience.routes.payment-service.slow-call-duration=500ms",
+                    "gateway.resilience.routes.payment-service.sliding-window-size=10",
+                    "gateway.resilience.routes.payment-service.minimum-number-of-calls=5",
+                    "gateway.resilience.routes.payment-service.wait-duration-in-open-state=2s"));
+        }
+        return new SpringApplicationBuilder(ApiGatewayApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+
+    // Answers every request with a small JSON body after the stub's current latency
+    private static DisposableServer stub(AtomicLong latencyMillis) {
+        return HttpServer.create()
+                .runOn(STUB_LOOPS)
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> Mono.delay(Duration.ofMillis(latencyMillis.get()))
+                        .then(response.header("Content-Type", "application/json")
+                                .sendString(Mono.just("{\"status\":200,\"message\":\"OK\",\"data\":[]}")).then()))
+                .bindNow();
+    }
+
+    private static double percentile(List<Long> latencies, double p) {
+        List<Long> sorted;
+        synchronized (latencies) {
+            sorted = new ArrayList<>(latencies);
+        }
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(sorted);
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1);
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+
+    private interface Outcome {
+        void record(int status, long nanos);
+    }
+
+    private record Result(double parkingP50, double parkingP99, double paymentP99) {
+    }
+}
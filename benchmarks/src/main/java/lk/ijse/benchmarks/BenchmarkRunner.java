@@ -0,0 +1,29 @@
+package lk.ijse.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmark suites and writes the results as JSON so they can be compared release to release.
+ * <p>
+ * Usage: {@code java -jar target/benchmarks.jar [include-regex] [result-file]}.
+ * Without arguments every benchmark runs and the results go to {@code jmh-result.json}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "lk\\.ijse\\.benchmarks\\..*";
+        String resultFile = args.length > 1 ? args[1] : "jmh-result.json";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        new Runner(options).run();
+        System.out.println("Benchmark results written to " + resultFile);
+    }
+}
@@ -0,0 +1,96 @@
+package lk.ijse.benchmarks.gateway;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import lk.ijse.apigateway.filter.JwtAuthenticationFilter;
+import lk.ijse.apigateway.util.JwtVerifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Gateway token check in front of a stub backend that completes immediately, i.e. the gateway's own cost
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayJwtFilterBenchmark {
+
+    // Same secret as the api-gateway and user-service application.yml
+    private static final String SECRET = "bWlzc2luZ3Rocm93bnJvb3R3aXRoaW5tb3V0aHNtYWxsc2hhbGxnYXJhZ2Vpc2xhbmQ=";
+
+    // 0 = every request verifies the signature, 60000 = verified tokens are cached
+    @Param({"0", "60000"})
+    public long claimsCacheTtl;
+
+    private JwtAuthenticationFilter filter;
+    private GatewayFilterChain stubBackend;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        JwtVerifier jwtVerifier = new JwtVerifier();
+        ReflectionTestUtils.setField(jwtVerifier, "SECRET", SECRET);
+        ReflectionTestUtils.setField(jwtVerifier, "CLAIMS_CACHE_TTL", claimsCacheTtl);
+        ReflectionTestUtils.setField(jwtVerifier, "CLAIMS_CACHE_MAX_SIZE", 10000);
+        jwtVerifier.init();
+        filter = new JwtAuthenticationFilter(jwtVerifier);
+        stubBackend = exchange -> Mono.empty();
+
+        // Token in the format user-service's JwtUtil issues
+        String token = Jwts.builder()
+                .setClaims(Map.of("uid", 1L, "roles", List.of("USER")))
+                .setSubject("benchmark-user")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000L))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+        authorizationHeader = "Bearer " + token;
+    }
+
+    @Benchmark
+    public Void authenticatedRequest() {
+        return filter.filter(exchange(authorizationHeader), stubBackend).block();
+    }
+
+    @Benchmark
+    public Void invalidTokenRejected() {
+        return filter.filter(exchange(authorizationHeader + "x"), stubBackend).block();
+    }
+
+    @Benchmark
+    public Void anonymousRequest() {
+        return filter.filter(exchange(null), stubBackend).block();
+    }
+
+    private static MockServerWebExchange exchange(String header) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/user-service/api/v1/users/1")
+                .header("X-User-Id", "999"); // Spoofed header the filter must drop
+        if (header != null) {
+            request.header(HttpHeaders.AUTHORIZATION, header);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}
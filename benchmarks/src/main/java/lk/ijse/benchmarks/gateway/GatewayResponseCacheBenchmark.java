@@ -0,0 +1,105 @@
+package lk.ijse.benchmarks.gateway;
+
+import lk.ijse.apigateway.cache.ResponseCache;
+import lk.ijse.apigateway.config.ResponseCacheProperties;
+import lk.ijse.apigateway.filter.ResponseCacheFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Repeated vehicle GETs through the response cache, in front of a stub backend with a fixed response time
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayResponseCacheBenchmark {
+
+    private static final String PATH = "/vehicle-service/api/v1/vehicles";
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    // Stub backend response time
+    @Param({"500"})
+    public long backendLatencyMicros;
+
+    @Param({"4096"})
+    public int bodyBytes;
+
+    private ResponseCacheFilter filter;
+    private ResponseCache responseCache;
+    private Route route;
+    private GatewayFilterChain stubBackend;
+    private String etag;
+
+    @Setup
+    public void setUp() {
+        ResponseCacheProperties.RouteCache routeCache = new ResponseCacheProperties.RouteCache();
+        routeCache.setTtl(Duration.ofMinutes(10));
+        routeCache.setPaths(List.of(PATH + "/**", PATH));
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(cacheEnabled);
+        properties.getRoutes().put("vehicle-service", routeCache);
+
+        responseCache = new ResponseCache(properties);
+        filter = new ResponseCacheFilter(responseCache, properties);
+        route = Route.async().id("vehicle-service").uri("http://localhost:8082").predicate(exchange -> true).build();
+
+        byte[] body = "x".repeat(bodyBytes).getBytes(StandardCharsets.UTF_8);
+        stubBackend = exchange -> Mono.delay(Duration.ofNanos(backendLatencyMicros * 1000)).then(Mono.defer(() -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }));
+
+        MockServerWebExchange first = exchange(MockServerHttpRequest.get(PATH));
+        filter.filter(first, stubBackend).block();
+        etag = first.getResponse().getHeaders().getETag();
+    }
+
+    @Benchmark
+    public MockServerWebExchange repeatedGet() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get(PATH));
+        filter.filter(exchange, stubBackend).block();
+        return exchange;
+    }
+
+    @Benchmark
+    public MockServerWebExchange conditionalGet() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get(PATH).header(HttpHeaders.IF_NONE_MATCH, etag));
+        filter.filter(exchange, stubBackend).block();
+        return exchange;
+    }
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
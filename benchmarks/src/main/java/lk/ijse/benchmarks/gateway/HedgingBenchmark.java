@@ -0,0 +1,206 @@
+package lk.ijse.benchmarks.gateway;
+
+import lk.ijse.apigateway.hedging.HedgingRegistry;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.ReactiveManagementWebSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures what request hedging does to the latency tail of {@code GET /parking-spaces/{id}} through the
+ * api-gateway.
+ * <p>
+ * The real api-gateway filters run in-process in front of three stub parking-space-service instances,
+ * registered through Spring Cloud's simple discovery client in place of Eureka. Each stub answers in a few
+ * milliseconds, except that a small share of requests stalls for 200 ms at random, the way a request can hit
+ * a GC pause, a cold cache or a lock on an otherwise healthy instance. The same open-loop load is sent with
+ * hedging off and on; with hedging on, a warm-up lets the route collect its latency percentile first.
+ * Percentiles of the client-side latency are printed with the gateway's hedging counters. Exits with status 1
+ * if hedging doesn't bring the p99 down.
+ * <p>
+ * Run with {@code java -cp target/benchmarks.jar lk.ijse.benchmarks.gateway.HedgingBenchmark
+ * [requestsPerSecond] [seconds] [stallPercent]}.
+ */
+public class HedgingBenchmark {
+
+    private static final int INSTANCES = 3;
+    private static final long BASE_MILLIS = 4;
+    private static final long JITTER_MILLIS = 3;
+    private static final long STALL_MILLIS = 200;
+    private static final int WARM_UP_SECONDS = 3;
+    private static final int JVM_WARM_UP_SECONDS = 10;
+    private static final String PATH = "/parking-space-service/api/v1/parking-spaces/";
+    private static final String SECRET = "bWlzc2luZ3Rocm93bnJvb3R3aXRoaW5tb3V0aHNtYWxsc2hhbGxnYXJhZ2Vpc2xhbmQ=";
+
+    // Closing a gateway context disposes Reactor Netty's global event loops, so stubs and client have their own
+    private static final LoopResources STUB_LOOPS = LoopResources.create("stub", 1, true);
+    private static final LoopResources CLIENT_LOOPS = LoopResources.create("client", 1, true);
+
+    public static void main(String[] args) {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 15;
+        double stallPercent = args.length > 2 ? Double.parseDouble(args[2]) : 2;
+
+        List<DisposableServer> stubs = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            stubs.add(stub(stallPercent));
+        }
+        try {
+            // A cold JVM on a small machine can't keep up at first; compile both request paths before measuring
+            run("warm-up", stubs, rate / 2, JVM_WARM_UP_SECONDS, false);
+            run("warm-up", stubs, rate / 2, JVM_WARM_UP_SECONDS, true);
+
+            double[] unhedged = run("unhedged", stubs, rate, seconds, false);
+            double[] hedged = run("hedged", stubs, rate, seconds, true);
+
+            boolean improved = hedged[2] < unhedged[2];
+            System.out.printf("p99: unhedged %.1f ms, hedged %.1f ms%n", unhedged[2], hedged[2]);
+            System.out.println(improved ? "IMPROVED" : "NOT IMPROVED");
+            if (!improved) {
+                System.exit(1);
+            }
+        } finally {
+            stubs.forEach(DisposableServer::disposeNow);
+            STUB_LOOPS.dispose();
+            CLIENT_LOOPS.dispose();
+        }
+    }
+
+    // p50, p95, p99 and p99.9 in milliseconds
+    private static double[] run(String name, List<DisposableServer> stubs, int rate, int seconds, boolean hedging) {
+        ConfigurableApplicationContext gateway = startGateway(stubs, hedging);
+        int gatewayPort = ((ReactiveWebServerApplicationContext) gateway).getWebServer().getPort();
+        ConnectionProvider connections = ConnectionProvider.builder("client")
+                .maxConnections(500)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient client = HttpClient.create(connections).runOn(CLIENT_LOOPS).baseUrl("http://127.0.0.1:" + gatewayPort);
+
+        try {
+            load(client, rate, WARM_UP_SECONDS, new long[rate * WARM_UP_SECONDS], new AtomicInteger()).block();
+
+            long[] latencies = new long[rate * seconds];
+            AtomicInteger errors = new AtomicInteger();
+            load(client, rate, seconds, latencies, errors).block();
+            Arrays.sort(latencies);
+            double[] percentiles = {
+                    percentile(latencies, 0.50), percentile(latencies, 0.95),
+                    percentile(latencies, 0.99), percentile(latencies, 0.999)};
+            System.out.printf("%-9s p50 %6.1f ms  p95 %6.1f ms  p99 %6.1f ms  p99.9 %6.1f ms  errors %d%n",
+                    name, percentiles[0], percentiles[1], percentiles[2], percentiles[3], errors.get());
+            if (hedging) {
+                System.out.println("          " + gateway.getBean(HedgingRegistry.class).stats());
+            }
+            return percentiles;
+        } finally {
+            connections.disposeLater().block();
+            gateway.close();
+        }
+    }
+
+    // Open-loop: one request every 1/rate seconds, however long earlier ones take; errors count as the slowest
+    private static Mono<Void> load(HttpClient client, int rate, int seconds, long[] latencies, AtomicInteger errors) {
+        return Flux.interval(Duration.ofNanos(TimeUnit.SECONDS.toNanos(1) / rate))
+                .take((long) rate * seconds)
+                .flatMap(i -> {
+                    long start = System.nanoTime();
+                    return client.get().uri(PATH + (1 + ThreadLocalRandom.current().nextInt(1000)))
+                            .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                            .onErrorReturn(599)
+                            .doOnNext(status -> {
+                                if (status != 200) {
+                                    errors.incrementAndGet();
+                                }
+                                latencies[i.intValue()] = status == 200 ? System.nanoTime() - start : Long.MAX_VALUE;
+                            });
+                }, Integer.MAX_VALUE)
+                .then();
+    }
+
+    private static ConfigurableApplicationContext startGateway(List<DisposableServer> stubs, boolean hedging) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "jwt.secret=" + SECRET,
+                "gateway.response-cache.enabled=false",
+                "gateway.rate-limit.enabled=false",
+                "gateway.resilience.enabled=false",
+                // The stalls hit every instance alike; without this, one stall ejects an instance and hedges
+                // have nowhere else to go
+                "gateway.load-balancer.slow-factor=1000",
+                "gateway.hedging.enabled=" + hedging,
+                "gateway.hedging.routes.parking-space-service.paths[0]=" + PATH + "{id:\\d+}",
+                "spring.cloud.gateway.server.webflux.routes[0].id=parking-space-service",
+                "spring.cloud.gateway.server.webflux.routes[0].uri=lb://parking-space-service",
+                "spring.cloud.gateway.server.webflux.routes[0].predicates[0]=Path=/parking-space-service/**",
+                "spring.cloud.gateway.server.webflux.routes[0].metadata.response-timeout=3000"));
+        for (int i = 0; i < stubs.size(); i++) {
+            properties.add("spring.cloud.discovery.client.simple.instances.parking-space-service[" + i + "].uri="
+                    + "http://127.0.0.1:" + stubs.get(i).port());
+        }
+        return new SpringApplicationBuilder(GatewayApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+
+    // Answers after the base latency plus jitter; stallPercent of requests are held for STALL_MILLIS instead
+    private static DisposableServer stub(double stallPercent) {
+        return HttpServer.create()
+                .runOn(STUB_LOOPS)
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long latency = random.nextDouble(100) < stallPercent ? STALL_MILLIS
+                            : BASE_MILLIS + random.nextLong(JITTER_MILLIS + 1);
+                    return Mono.delay(Duration.ofMillis(latency))
+                            .then(response.header("Content-Type", "application/json")
+                                    .sendString(Mono.just("{\"status\":200,\"message\":\"OK\",\"data\":{}}")).then());
+                })
+                .bindNow();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        long value = sorted[Math.max(0, index)];
+        return value == Long.MAX_VALUE ? Double.POSITIVE_INFINITY : value / 1e6;
+    }
+
+    // The api-gateway's own beans on a reactive server; Eureka, the database and servlet security stay out
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {
+            DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            SecurityAutoConfiguration.class, UserDetailsServiceAutoConfiguration.class,
+            ReactiveSecurityAutoConfiguration.class, ReactiveUserDetailsServiceAutoConfiguration.class,
+            ReactiveManagementWebSecurityAutoConfiguration.class})
+    @ComponentScan("lk.ijse.apigateway")
+    static class GatewayApplication {
+    }
+}
@@ -0,0 +1,220 @@
+package lk.ijse.benchmarks.gateway;
+
+import lk.ijse.apigateway.config.LoadBalancerProperties;
+import lk.ijse.apigateway.loadbalancer.InstanceStats;
+import lk.ijse.apigateway.loadbalancer.InstanceStatsRegistry;
+import lk.ijse.apigateway.loadbalancer.LatencyAwareLoadBalancer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.RandomLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the gateway's latency-aware load balancer with Spring Cloud's random one against local stub
+ * instances with injected latency.
+ * <p>
+ * Each stub is a Reactor Netty server that answers after a base latency plus jitter and slows down when it
+ * has more requests in flight than it has workers. Two scenarios run against four instances of one service:
+ * <ul>
+ *     <li>gc-pauses: one instance is three times slower and stalls for 250 ms every second, like a JVM
+ *     thrashing in garbage collection;</li>
+ *     <li>failing: one instance answers every request with a fast 503.</li>
+ * </ul>
+ * Requests arrive open-loop at a fixed rate, so a slow instance can't hold back the load it is offered.
+ * For each balancer the percentiles of end-to-end latency (failed requests count as the slowest) and the
+ * error rate are printed; the latency-aware balancer is driven exactly the way InstanceLatencyFilter drives
+ * it in the gateway. Exits with status 1 if its p99 is not below random's in every scenario.
+ * <p>
+ * Run with {@code java -cp target/benchmarks.jar lk.ijse.benchmarks.gateway.LoadBalancerSimulation
+ * [requestsPerSecond] [seconds]}.
+ */
+public class LoadBalancerSimulation {
+
+    private static final String SERVICE_ID = "parking-space-service";
+
+    public static void main(String[] args) {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        boolean improved = true;
+        improved &= scenario("gc-pauses", rate, seconds,
+                new Stub(5, 2, 16, 0, 0, false),
+                new Stub(5, 2, 16, 0, 0, false),
+                new Stub(5, 2, 16, 0, 0, false),
+                new Stub(15, 5, 16, 1000, 250, false));
+        improved &= scenario("failing", rate, seconds,
+                new Stub(5, 2, 16, 0, 0, false),
+                new Stub(5, 2, 16, 0, 0, false),
+                new Stub(5, 2, 16, 0, 0, false),
+                new Stub(1, 0, 16, 0, 0, true));
+
+        System.out.println(improved ? "IMPROVED" : "NOT IMPROVED");
+        if (!improved) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean scenario(String name, int rate, int seconds, Stub... stubs) {
+        List<DisposableServer> servers = new ArrayList<>();
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (int i = 0; i < stubs.length; i++) {
+            DisposableServer server = stubs[i].start();
+            servers.add(server);
+            instances.add(new DefaultServiceInstance(SERVICE_ID + "-" + i, SERVICE_ID, "127.0.0.1", server.port(), false));
+        }
+        ObjectProvider<ServiceInstanceListSupplier> supplier =
+                ServiceInstanceListSuppliers.toProvider(SERVICE_ID, instances.toArray(ServiceInstance[]::new));
+        ConnectionProvider connections = ConnectionProvider.builder("simulation")
+                .maxConnections(2000).pendingAcquireMaxCount(-1).build();
+        HttpClient client = HttpClient.create(connections).responseTimeout(Duration.ofSeconds(5));
+
+        try {
+            System.out.printf("Scenario %s: %d instances, %d requests/s for %ds%n", name, stubs.length, rate, seconds);
+            Result random = drive("random", new RandomLoadBalancer(supplier, SERVICE_ID), null, client, rate, seconds);
+
+            LoadBalancerProperties properties = new LoadBalancerProperties();
+            properties.setCooldown(Duration.ofSeconds(2)); // Short, so the run also shows readmission
+            InstanceStatsRegistry registry = new InstanceStatsRegistry(properties);
+            Result latencyAware = drive("latency-aware", new LatencyAwareLoadBalancer(supplier, SERVICE_ID, registry),
+                    registry, client, rate, seconds);
+            registry.stats().values().forEach(snapshots -> snapshots.forEach(snapshot ->
+                    System.out.printf("    %s: %d requests, %d failures, %d ejections%n",
+                            snapshot.instance(), snapshot.requests(), snapshot.failures(), snapshot.ejections())));
+
+            boolean improved = latencyAware.percentile(0.99) < random.percentile(0.99);
+            System.out.printf("  p99 %s%n", improved ? "improved" : "NOT improved");
+            return improved;
+        } finally {
+            connections.disposeLater().block();
+            servers.forEach(DisposableServer::disposeNow);
+        }
+    }
+
+    // Fires requests at a fixed rate, independently of how fast they are answered
+    private static Result drive(String name, ReactorServiceInstanceLoadBalancer balancer, InstanceStatsRegistry registry,
+                                HttpClient client, int rate, int seconds) {
+        int total = rate * seconds;
+        long[] latencies = new long[total];
+        AtomicInteger errors = new AtomicInteger();
+
+        Flux.interval(Duration.ofNanos(TimeUnit.SECONDS.toNanos(1) / rate))
+                .take(total)
+                .flatMap(i -> balancer.choose(new DefaultRequest<>()).flatMap(chosen -> {
+                    long start = System.nanoTime();
+                    return send(client, chosen, registry).doOnNext(status -> {
+                        // A failed request is as bad as the slowest possible answer
+                        latencies[i.intValue()] = status >= 500 ? Long.MAX_VALUE : System.nanoTime() - start;
+                        if (status >= 500) {
+                            errors.incrementAndGet();
+                        }
+                    });
+                }), Integer.MAX_VALUE)
+                .blockLast();
+
+        Result result = new Result(latencies, errors.get());
+        System.out.printf("  %-13s p50 %s  p90 %s  p99 %s  p99.9 %s  errors %5.2f%%%n",
+                name, format(result.percentile(0.50)), format(result.percentile(0.90)),
+                format(result.percentile(0.99)), format(result.percentile(0.999)), 100.0 * result.errors / total);
+        return result;
+    }
+
+    private static String format(double millis) {
+        return millis == Double.MAX_VALUE ? "  failed" : String.format("%5.1fms", millis);
+    }
+
+    // Status code of the response, 599 for a request that got none; records the outcome like InstanceLatencyFilter
+    private static Mono<Integer> send(HttpClient client, Response<ServiceInstance> chosen, InstanceStatsRegistry registry) {
+        ServiceInstance instance = chosen.getServer();
+        InstanceStats stats = registry == null ? null : registry.statsOf(instance);
+        long start = System.nanoTime();
+        if (stats != null) {
+            registry.requestStarted(stats);
+        }
+        return client.get()
+                .uri("http://" + instance.getHost() + ":" + instance.getPort() + "/")
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                .onErrorReturn(599)
+                .doOnNext(status -> {
+                    if (stats != null) {
+                        registry.responseReceived(instance.getServiceId(), stats, System.nanoTime() - start, status >= 500);
+                        registry.requestFinished(stats);
+                    }
+                });
+    }
+
+    private record Result(long[] latencies, int errors) {
+
+        Result {
+            latencies = latencies.clone();
+            Arrays.sort(latencies);
+        }
+
+        // In milliseconds; Double.MAX_VALUE when the percentile falls on a failed request
+        double percentile(double p) {
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(p * latencies.length) - 1);
+            long latency = latencies[Math.max(0, index)];
+            return latency == Long.MAX_VALUE ? Double.MAX_VALUE : latency / 1e6;
+        }
+    }
+
+    /**
+     * Stub instance: answers after baseMillis +- jitterMillis, stretched in proportion to the requests it has in
+     * flight beyond its workers. With pauseEveryMillis > 0 it also stalls for pauseMillis at that period, and
+     * every request arriving during a stall waits for it to end. A failing stub answers 503 straight away.
+     */
+    private record Stub(long baseMillis, long jitterMillis, int workers, long pauseEveryMillis, long pauseMillis,
+                        boolean failing) {
+
+        DisposableServer start() {
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicLong startedAt = new AtomicLong(System.nanoTime());
+            return HttpServer.create()
+                    .host("127.0.0.1")
+                    .port(0)
+                    .handle((request, response) -> {
+                        if (failing) {
+                            return response.status(503).sendString(Mono.just("unavailable")).then();
+                        }
+                        int concurrent = inFlight.incrementAndGet();
+                        return Mono.delay(Duration.ofNanos(delayNanos(concurrent, startedAt.get())))
+                                .then(response.sendString(Mono.just("ok")).then())
+                                .doFinally(signal -> inFlight.decrementAndGet());
+                    })
+                    .bindNow();
+        }
+
+        private long delayNanos(int concurrent, long startedAt) {
+            long jitter = jitterMillis == 0 ? 0 : ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1);
+            double queueing = Math.max(1.0, (double) concurrent / workers);
+            long delay = (long) (TimeUnit.MILLISECONDS.toNanos(baseMillis + jitter) * queueing);
+            if (pauseEveryMillis > 0) {
+                long phase = (System.nanoTime() - startedAt) % TimeUnit.MILLISECONDS.toNanos(pauseEveryMillis);
+                long pause = TimeUnit.MILLISECONDS.toNanos(pauseMillis);
+                if (phase < pause) {
+                    delay += pause - phase;
+                }
+            }
+            return Math.max(0, delay);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package lk.ijse.benchmarks.gateway;
+
+import lk.ijse.apigateway.ratelimit.TokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Cost of one rate-limit decision, uncontended and with 8 threads on distinct or shared buckets
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    // High enough that requests are never rejected, so only the bookkeeping is measured
+    private static final int CAPACITY = 1_000_000;
+    private static final double REFILL_PER_SECOND = 1_000_000_000;
+
+    @State(Scope.Benchmark)
+    public static class Limiter {
+        final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter();
+        final AtomicInteger clients = new AtomicInteger();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        String key;
+
+        @Setup
+        public void setUp(Limiter limiter) {
+            key = "payment-service|sub:client-" + limiter.clients.incrementAndGet();
+        }
+    }
+
+    @Benchmark
+    public TokenBucketRateLimiter.Decision singleClient(Limiter limiter, Client client) {
+        return limiter.rateLimiter.tryAcquire(client.key, CAPACITY, REFILL_PER_SECOND);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TokenBucketRateLimiter.Decision concurrentClients(Limiter limiter, Client client) {
+        return limiter.rateLimiter.tryAcquire(client.key, CAPACITY, REFILL_PER_SECOND);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public TokenBucketRateLimiter.Decision sharedClient(Limiter limiter) {
+        return limiter.rateLimiter.tryAcquire("payment-service|ip:10.0.0.1", CAPACITY, REFILL_PER_SECOND);
+    }
+}
@@ -0,0 +1,214 @@
+package lk.ijse.benchmarks.mapper;
+
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.mapper.ParkingSpaceMapper;
+import lk.ijse.paymentservice.dto.PaymentRequestDTO;
+import lk.ijse.paymentservice.dto.PaymentResponseDTO;
+import lk.ijse.paymentservice.entity.Payment;
+import lk.ijse.paymentservice.mapper.PaymentMapper;
+import lk.ijse.userservice.dto.BookingDTO;
+import lk.ijse.userservice.dto.UserDTO;
+import lk.ijse.userservice.entity.Booking;
+import lk.ijse.userservice.entity.User;
+import lk.ijse.userservice.mapper.BookingMapper;
+import lk.ijse.userservice.mapper.UserMapper;
+import lk.ijse.vehicleservice.dto.VehicleDTO;
+import lk.ijse.vehicleservice.entity.Vehicle;
+import lk.ijse.vehicleservice.mapper.VehicleMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity/DTO conversions of every service, single objects and 10k-element lists, once per mapper.strategy value
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private static final int LIST_SIZE = 10_000; // A large list response, e.g. all spaces or a user's booking history
+
+    @Param({"direct", "modelmapper"})
+    public String strategy;
+
+    private ParkingSpaceMapper parkingSpaceMapper;
+    private VehicleMapper vehicleMapper;
+    private UserMapper userMapper;
+    private BookingMapper bookingMapper;
+    private PaymentMapper paymentMapper;
+
+    private ParkingSpace parkingSpace;
+    private ParkingSpaceDTO parkingSpaceDTO;
+    private Vehicle vehicle;
+    private VehicleDTO vehicleDTO;
+    private User user;
+    private Booking booking;
+    private Payment payment;
+    private PaymentRequestDTO paymentRequestDTO;
+
+    private List<ParkingSpace> parkingSpaces;
+    private List<Vehicle> vehicles;
+    private List<Booking> bookings;
+    private List<Payment> payments;
+
+    @Setup
+    public void setUp() {
+        // Built by each service's own ModelMapperConfig, so the baseline has production's STRICT matching and type maps
+        lk.ijse.parkingspaceservice.config.ModelMapperConfig parkingSpaceConfig = new lk.ijse.parkingspaceservice.config.ModelMapperConfig();
+        parkingSpaceMapper = parkingSpaceConfig.parkingSpaceMapper(parkingSpaceConfig.modelMapper(), strategy);
+        lk.ijse.vehicleservice.config.ModelMapperConfig vehicleConfig = new lk.ijse.vehicleservice.config.ModelMapperConfig();
+        vehicleMapper = vehicleConfig.vehicleMapper(vehicleConfig.modelMapper(), strategy);
+        lk.ijse.userservice.config.ModelMapperConfig userConfig = new lk.ijse.userservice.config.ModelMapperConfig();
+        ModelMapper userServiceModelMapper = userConfig.modelMapper();
+        userMapper = userConfig.userMapper(userServiceModelMapper, strategy);
+        bookingMapper = userConfig.bookingMapper(userServiceModelMapper, strategy);
+        lk.ijse.paymentservice.config.ModelMapperConfig paymentConfig = new lk.ijse.paymentservice.config.ModelMapperConfig();
+        paymentMapper = paymentConfig.paymentMapper(paymentConfig.modelMapper(), strategy);
+
+        parkingSpace = new ParkingSpace(1L, "Colombo 03", "A", true, "CAR", "EXT-1");
+        parkingSpaceDTO = parkingSpaceMapper.toDTO(parkingSpace);
+
+        vehicle = new Vehicle(1L, "Toyota", "Aqua", "CAB-1234", "Black", "Car", 1L, "OUT", "CAB1234");
+        vehicleDTO = vehicleMapper.toDTO(vehicle);
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark-user");
+        user.setPassword("hashed");
+        user.setEmail("benchmark@example.com");
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        user.setContactNumber("0771234567");
+        user.setRole("USER");
+
+        booking = new Booking();
+        booking.setId(1L);
+        booking.setUser(user);
+        booking.setVehicleNumber("CAB-1234");
+        booking.setBookingTime(LocalDateTime.now());
+        booking.setParkingSpotId("A1");
+        booking.setTotalCost(250.0);
+        booking.setStatus("CONFIRMED");
+
+        payment = new Payment();
+        payment.setTransactionId("5f1c3a2e-0000-4000-8000-000000000001");
+        payment.setBookingId(1L);
+        payment.setAmount(250.0);
+        payment.setTransactionTime(LocalDateTime.now());
+        payment.setStatus("SUCCESS");
+        payment.setPaymentMethod("CARD");
+        paymentRequestDTO = new PaymentRequestDTO(1L, 250.0, "Bench Mark", "4111111111111111", "12/30", "123", "CARD");
+
+        parkingSpaces = new ArrayList<>(LIST_SIZE);
+        vehicles = new ArrayList<>(LIST_SIZE);
+        bookings = new ArrayList<>(LIST_SIZE);
+        payments = new ArrayList<>(LIST_SIZE);
+        LocalDateTime start = LocalDateTime.now();
+        for (int i = 0; i < LIST_SIZE; i++) {
+            long id = i + 1;
+            parkingSpaces.add(new ParkingSpace(id, "Level " + (i % 5) + " Bay " + i, "ABC".substring(i % 3, i % 3 + 1),
+                    i % 2 == 0, "CAR", "EXT-" + i));
+            vehicles.add(new Vehicle(id, "Toyota", "Aqua", "CAB-" + i, "Black", "Car", id, "OUT", "CAB" + i));
+            Booking listBooking = new Booking();
+            listBooking.setId(id);
+            listBooking.setUser(user);
+            listBooking.setVehicleNumber("CAB-" + i);
+            listBooking.setBookingTime(start.plusMinutes(i));
+            listBooking.setParkingSpotId("A" + (i % 100));
+            listBooking.setTotalCost(250.0 + i % 50);
+            listBooking.setStatus("CONFIRMED");
+            bookings.add(listBooking);
+            Payment listPayment = new Payment();
+            listPayment.setTransactionId("5f1c3a2e-0000-4000-8000-" + String.format("%012d", id));
+            listPayment.setBookingId(id);
+            listPayment.setAmount(250.0 + i % 50);
+            listPayment.setTransactionTime(start.plusMinutes(i));
+            listPayment.setStatus("SUCCESS");
+            listPayment.setPaymentMethod("CARD");
+            payments.add(listPayment);
+        }
+    }
+
+    @Benchmark
+    public ParkingSpaceDTO parkingSpaceToDTO() {
+        return parkingSpaceMapper.toDTO(parkingSpace);
+    }
+
+    @Benchmark
+    public ParkingSpace parkingSpaceToEntity() {
+        return parkingSpaceMapper.toEntity(parkingSpaceDTO);
+    }
+
+    @Benchmark
+    public VehicleDTO vehicleToDTO() {
+        return vehicleMapper.toDTO(vehicle);
+    }
+
+    @Benchmark
+    public Vehicle vehicleToEntity() {
+        return vehicleMapper.toEntity(vehicleDTO);
+    }
+
+    @Benchmark
+    public UserDTO userToDTO() {
+        return userMapper.toDTO(user);
+    }
+
+    @Benchmark
+    public BookingDTO bookingToDTO() {
+        return bookingMapper.toDTO(booking);
+    }
+
+    @Benchmark
+    public PaymentResponseDTO paymentToResponseDTO() {
+        return paymentMapper.toResponseDTO(payment);
+    }
+
+    @Benchmark
+    public Payment paymentRequestToEntity() {
+        return paymentMapper.toEntity(paymentRequestDTO);
+    }
+
+    // The list endpoints map with stream().map(mapper::toDTO).toList(), as below
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<ParkingSpaceDTO> parkingSpaceListToDTO() {
+        return parkingSpaces.stream().map(parkingSpaceMapper::toDTO).toList();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<VehicleDTO> vehicleListToDTO() {
+        return vehicles.stream().map(vehicleMapper::toDTO).toList();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<BookingDTO> bookingListToDTO() {
+        return bookings.stream().map(bookingMapper::toDTO).toList();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<PaymentResponseDTO> paymentListToResponseDTO() {
+        return payments.stream().map(paymentMapper::toResponseDTO).toList();
+    }
+}
@@ -0,0 +1,154 @@
+package lk.ijse.benchmarks.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lk.ijse.benchmarks.parkingspace.ParkingSpaceBenchmarkConfig;
+import lk.ijse.parkingspaceservice.config.MetricsConfig;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.metrics.RequestMetricsFilter;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import lk.ijse.parkingspaceservice.service.ParkingSpaceService;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.HibernateMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cost of the parking-space-service's metrics on a request: the same two requests with and without the
+ * service's real instrumentation (the @Timed aspect on the service, the per-request query count filter, the
+ * statement inspector and Hibernate statistics, all recording into a Prometheus registry).
+ * <p>
+ * {@code getById} runs one query against H2, {@code countAvailableByZone} is answered from the availability
+ * index without touching the database, so it shows the fixed cost per request at its most visible.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationOverheadBenchmark {
+
+    private static final int SPACES = 1000;
+    private static final String[] ZONES = {"A", "B", "C", "D", "E", "F", "G", "H"};
+
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    private AnnotationConfigApplicationContext context;
+    private ParkingSpaceService parkingSpaceService;
+    private Filter[] filters;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = instrumented
+                ? new AnnotationConfigApplicationContext(ParkingSpaceBenchmarkConfig.class, InstrumentationConfig.class)
+                : new AnnotationConfigApplicationContext(ParkingSpaceBenchmarkConfig.class);
+        parkingSpaceService = context.getBean(ParkingSpaceService.class);
+        filters = instrumented ? new Filter[]{context.getBean(RequestMetricsFilter.class)} : new Filter[0];
+        if (instrumented) {
+            // What Boot's HibernateMetricsAutoConfiguration binds
+            HibernateMetrics.monitor(context.getBean(MeterRegistry.class),
+                    context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class), "entityManagerFactory");
+        }
+
+        ParkingSpaceRepo parkingSpaceRepo = context.getBean(ParkingSpaceRepo.class);
+        List<ParkingSpace> seed = new ArrayList<>(SPACES);
+        for (int i = 0; i < SPACES; i++) {
+            seed.add(new ParkingSpace(null, "Level " + (i % 5) + " Bay " + i, ZONES[i % ZONES.length], i % 3 != 0,
+                    "CAR", "EXT-" + i));
+        }
+        ids = parkingSpaceRepo.saveAll(seed).stream().mapToLong(ParkingSpace::getId).toArray();
+        context.getBean(ParkingSpaceAvailabilityIndex.class).rebuild(parkingSpaceRepo.findAll());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object getById() throws Exception {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return handle("/api/v1/parking-spaces/" + id, "/api/v1/parking-spaces/{id}",
+                () -> parkingSpaceService.getParkingSpaceById(id));
+    }
+
+    @Benchmark
+    public Object countAvailableByZone() throws Exception {
+        return handle("/api/v1/parking-spaces/available-count-by-zone", "/api/v1/parking-spaces/available-count-by-zone",
+                () -> parkingSpaceService.countAvailableParkingSpacesByZone("B"));
+    }
+
+    // The request through the filter chain to a "controller" that sets the pattern attribute as Spring MVC does
+    private Object handle(String path, String pattern, Supplier<Object> controller) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        Object[] result = new Object[1];
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+                result[0] = controller.get();
+            }
+        };
+        new MockFilterChain(servlet, filters).doFilter(request, new MockHttpServletResponse());
+        return result[0];
+    }
+
+    // The service's MetricsConfig and RequestMetricsFilter on the registry Boot would create for /actuator/prometheus
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @Import({MetricsConfig.class, RequestMetricsFilter.class})
+    static class InstrumentationConfig {
+
+        @Bean
+        @Primary
+        public PrometheusMeterRegistry prometheusMeterRegistry() {
+            return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        }
+
+        // spring.jpa.properties.hibernate.generate_statistics from application.yml
+        @Bean
+        public HibernatePropertiesCustomizer hibernateStatistics() {
+            return properties -> properties.put(AvailableSettings.GENERATE_STATISTICS, "true");
+        }
+    }
+}
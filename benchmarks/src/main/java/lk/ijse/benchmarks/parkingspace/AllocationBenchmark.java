@@ -0,0 +1,95 @@
+package lk.ijse.benchmarks.parkingspace;
+
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import lk.ijse.parkingspaceservice.service.ParkingSpaceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code allocateParkingSpace} under 1, 2, 4 and 8 concurrent callers, all allocating in the same zone and type
+ * from 10k free spaces. Each operation allocates a space and releases it again, so the free-lists never run dry.
+ * Scaling is bounded by the cores the run gets; compare the sweep on the target hardware with {@code -t}, or
+ * pin the fork to fewer cores with {@code taskset}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+
+    private static final int SPACES = 10_000;
+
+    private AnnotationConfigApplicationContext context;
+    private ParkingSpaceService parkingSpaceService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(ParkingSpaceBenchmarkConfig.class);
+        parkingSpaceService = context.getBean(ParkingSpaceService.class);
+
+        List<Object[]> rows = new ArrayList<>(SPACES);
+        for (int i = 0; i < SPACES; i++) {
+            rows.add(new Object[]{"Level " + (i % 5) + " Bay " + i, "A", true, "CAR", "EXT-" + i});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO parking_space (location, zone, available, type,"
+                + " external_ref_id) VALUES (?, ?, ?, ?, ?)", rows);
+        ParkingSpaceRepo parkingSpaceRepo = context.getBean(ParkingSpaceRepo.class);
+        context.getBean(ParkingSpaceAvailabilityIndex.class).rebuild(parkingSpaceRepo.findAll());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long allocate1Thread() {
+        return allocateAndRelease();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public Long allocate2Threads() {
+        return allocateAndRelease();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Long allocate4Threads() {
+        return allocateAndRelease();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Long allocate8Threads() {
+        return allocateAndRelease();
+    }
+
+    // Nobody else touches an allocated space, so its release never meets a claim
+    private Long allocateAndRelease() {
+        Long id = parkingSpaceService.allocateParkingSpace("A", "CAR").getId();
+        parkingSpaceService.releaseParkingSpace(id);
+        return id;
+    }
+}
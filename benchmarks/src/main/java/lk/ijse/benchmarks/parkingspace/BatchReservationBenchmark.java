@@ -0,0 +1,88 @@
+package lk.ijse.benchmarks.parkingspace;
+
+import lk.ijse.parkingspaceservice.dto.BatchMode;
+import lk.ijse.parkingspaceservice.dto.BatchReservationRequestDTO;
+import lk.ijse.parkingspaceservice.dto.BatchReservationResultDTO;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import lk.ijse.parkingspaceservice.service.ParkingSpaceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reserving and then releasing 500 spaces: one transaction per space through {@code reserveParkingSpace} and
+ * {@code releaseParkingSpace}, against one transaction each way through the batch endpoints' service methods.
+ * H2 runs in-process, so this only shows the per-transaction and per-statement work saved; against MySQL
+ * every individual call also pays its network round-trips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchReservationBenchmark {
+
+    private static final int SPACES = 500;
+
+    private AnnotationConfigApplicationContext context;
+    private ParkingSpaceService parkingSpaceService;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(ParkingSpaceBenchmarkConfig.class);
+        parkingSpaceService = context.getBean(ParkingSpaceService.class);
+
+        ParkingSpaceRepo parkingSpaceRepo = context.getBean(ParkingSpaceRepo.class);
+        List<ParkingSpace> seed = new ArrayList<>(SPACES);
+        for (int i = 0; i < SPACES; i++) {
+            seed.add(new ParkingSpace(null, "Level " + (i % 5) + " Bay " + i, "A", true, "CAR", "EXT-" + i));
+        }
+        ids = parkingSpaceRepo.saveAll(seed).stream().map(ParkingSpace::getId).toList();
+        context.getBean(ParkingSpaceAvailabilityIndex.class).rebuild(parkingSpaceRepo.findAll());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int individualCalls() {
+        for (Long id : ids) {
+            parkingSpaceService.reserveParkingSpace(id);
+        }
+        for (Long id : ids) {
+            parkingSpaceService.releaseParkingSpace(id);
+        }
+        return ids.size();
+    }
+
+    @Benchmark
+    public int batchCall() {
+        BatchReservationRequestDTO request = new BatchReservationRequestDTO(ids, null, null, null, BatchMode.ALL_OR_NOTHING);
+        BatchReservationResultDTO reserved = parkingSpaceService.reserveParkingSpaces(request);
+        BatchReservationResultDTO released = parkingSpaceService.releaseParkingSpaces(request);
+        if (!reserved.isApplied() || !released.isApplied()) {
+            throw new IllegalStateException("Batch abandoned: " + reserved.getResults());
+        }
+        return reserved.getSucceeded() + released.getSucceeded();
+    }
+}
@@ -0,0 +1,123 @@
+package lk.ijse.benchmarks.parkingspace;
+
+import lk.ijse.parkingspaceservice.bulk.ImportFormat;
+import lk.ijse.parkingspaceservice.bulk.ParkingSpaceCsv;
+import lk.ijse.parkingspaceservice.dto.CounterReconciliationDTO;
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceCountersReconciler;
+import lk.ijse.parkingspaceservice.service.ParkingSpaceService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that the occupancy counters follow every kind of change, and that reconciliation finds drift.
+ * <p>
+ * Spaces are created, imported, reserved, released, allocated, moved between zones and types, and deleted at
+ * random through the service on H2; reconciliation against the database must then find nothing. A row is
+ * then changed behind the service's back with plain SQL: the next reconciliation must report the drift and
+ * repair it, and the one after that must find nothing again. Exits with status 1 if any of this fails.
+ * <p>
+ * Run with {@code java -cp target/benchmarks.jar lk.ijse.benchmarks.parkingspace.OccupancyCountersCheck [operations]}.
+ */
+public class OccupancyCountersCheck {
+
+    private static final String[] ZONES = {"A", "b", "C", "d"}; // Mixed case: zones are counted case-insensitively
+    private static final String[] TYPES = {"CAR", "bike", "EV"};
+
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        List<String> failures = new ArrayList<>();
+        Random random = new Random(42);
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(ParkingSpaceBenchmarkConfig.class)) {
+            ParkingSpaceService service = context.getBean(ParkingSpaceService.class);
+            ParkingSpaceCountersReconciler reconciler = context.getBean(ParkingSpaceCountersReconciler.class);
+            List<Long> ids = new ArrayList<>();
+
+            StringBuilder csv = new StringBuilder(ParkingSpaceCsv.HEADER).append('\n');
+            for (int i = 0; i < 500; i++) {
+                csv.append(",Bay ").append(i).append(',').append(ZONES[i % ZONES.length]).append(',')
+                        .append(i % 2 == 0).append(',').append(TYPES[i % TYPES.length]).append(",\n");
+            }
+            service.importParkingSpaces(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                    ImportFormat.CSV, 0, 100);
+            service.getAllParkingSpaces().forEach(space -> ids.add(space.getId()));
+
+            int refused = 0;
+            for (int i = 0; i < operations; i++) {
+                try {
+                    int operation = random.nextInt(10);
+                    Long id = ids.isEmpty() ? null : ids.get(random.nextInt(ids.size()));
+                    if (operation == 0 || id == null) {
+                        ids.add(service.saveParkingSpace(new ParkingSpaceDTO(null, "New " + i,
+                                ZONES[random.nextInt(ZONES.length)], random.nextBoolean(),
+                                TYPES[random.nextInt(TYPES.length)], null)).getId());
+                    } else if (operation == 1) {
+                        service.deleteParkingSpace(id);
+                        ids.remove(id);
+                    } else if (operation == 2) {
+                        ParkingSpaceDTO space = service.getParkingSpaceById(id);
+                        space.setZone(ZONES[random.nextInt(ZONES.length)]);
+                        space.setType(TYPES[random.nextInt(TYPES.length)]);
+                        service.updateParkingSpace(id, space);
+                    } else if (operation == 3) {
+                        service.allocateParkingSpace(ZONES[random.nextInt(ZONES.length)], null);
+                    } else if (operation == 4) {
+                        service.updateParkingSpaceStatus(id, random.nextBoolean());
+                    } else if (operation < 7) {
+                        service.reserveParkingSpace(id);
+                    } else {
+                        service.releaseParkingSpace(id);
+                    }
+                } catch (RuntimeException e) {
+                    refused++; // Already in that state, or no free space: the counters must not move either
+                }
+            }
+            System.out.printf("%d operations (%d refused), %d spaces: %s%n", operations, refused, ids.size(),
+                    service.getParkingSpaceStats().getAll());
+
+            CounterReconciliationDTO clean = reconciler.reconcile();
+            System.out.println("after the operations: " + describe(clean));
+            if (!clean.isConsistent()) {
+                failures.add("counters drifted through the service: " + clean.getDifferences());
+            }
+
+            // Behind the service's back: the index and its counters can't know about this
+            Long changed = ids.get(0);
+            context.getBean(JdbcTemplate.class)
+                    .update("UPDATE parking_space SET zone = 'Z', available = NOT available WHERE id = ?", changed);
+            CounterReconciliationDTO drifted = reconciler.reconcile();
+            System.out.println("after a direct SQL update: " + describe(drifted));
+            if (drifted.isConsistent() || !drifted.isRepaired()) {
+                failures.add("drift was not found and repaired: " + drifted);
+            }
+            CounterReconciliationDTO repaired = reconciler.reconcile();
+            System.out.println("after the repair: " + describe(repaired));
+            if (!repaired.isConsistent()) {
+                failures.add("still drifting after the repair: " + repaired.getDifferences());
+            }
+            if (!context.getBean(ParkingSpaceAvailabilityIndex.class).counters().byZone().containsKey("z")) {
+                failures.add("the repaired counters have no zone 'z'");
+            }
+        }
+
+        failures.forEach(failure -> System.out.println("FAIL " + failure));
+        System.out.println(failures.isEmpty() ? "OK" : "FAILED");
+        if (!failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private static String describe(CounterReconciliationDTO result) {
+        return result.isConsistent() ? "consistent"
+                : result.getDifferences().size() + " differences" + (result.isRepaired() ? ", repaired" : "")
+                + " " + result.getDifferences();
+    }
+}
@@ -0,0 +1,88 @@
+package lk.ijse.benchmarks.parkingspace;
+
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceStatsDTO;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import lk.ijse.parkingspaceservice.service.ParkingSpaceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "How many free spaces in zone B" three ways: pulling the zone's free rows through
+ * {@code findByAvailableTrueAndZone} and counting them, as clients had to before; the whole statistics
+ * answer from the occupancy counters; and one zone's counter. The counter-based answers should not grow
+ * with the number of spaces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OccupancyStatsBenchmark {
+
+    private static final String[] ZONES = {"A", "B", "C", "D", "E", "F", "G", "H"};
+    private static final String[] TYPES = {"CAR", "BIKE", "VAN", "EV"};
+
+    @Param({"1000", "10000", "100000"})
+    public int spaces;
+
+    private AnnotationConfigApplicationContext context;
+    private ParkingSpaceService parkingSpaceService;
+    private ParkingSpaceRepo parkingSpaceRepo;
+    private ParkingSpaceAvailabilityIndex availabilityIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(ParkingSpaceBenchmarkConfig.class);
+        parkingSpaceService = context.getBean(ParkingSpaceService.class);
+        parkingSpaceRepo = context.getBean(ParkingSpaceRepo.class);
+        availabilityIndex = context.getBean(ParkingSpaceAvailabilityIndex.class);
+
+        List<ParkingSpace> seed = new ArrayList<>(spaces);
+        for (int i = 0; i < spaces; i++) {
+            seed.add(new ParkingSpace(null, "Level " + (i % 5) + " Bay " + i, ZONES[i % ZONES.length], i % 3 != 0,
+                    TYPES[i % TYPES.length], "EXT-" + i));
+        }
+        parkingSpaceRepo.saveAll(seed);
+        // Same startup step ParkingSpaceAvailabilityIndexLoader performs
+        availabilityIndex.rebuild(parkingSpaceRepo.findAll());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int countFreeRows() {
+        return parkingSpaceRepo.findByAvailableTrueAndZone("B").size();
+    }
+
+    @Benchmark
+    public ParkingSpaceStatsDTO stats() {
+        return parkingSpaceService.getParkingSpaceStats();
+    }
+
+    @Benchmark
+    public int zoneCounter() {
+        return availabilityIndex.counters().zone("b").available();
+    }
+}
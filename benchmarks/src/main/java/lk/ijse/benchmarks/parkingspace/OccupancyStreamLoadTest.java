@@ -0,0 +1,346 @@
+package lk.ijse.benchmarks.parkingspace;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.OperatingSystemMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.occupancy.OccupancyBroadcaster;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import lk.ijse.parkingspaceservice.service.ParkingSpaceService;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.ReactiveManagementWebSecurityAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import reactor.core.Disposable;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the occupancy stream of parking-space-service under many subscribers.
+ * <p>
+ * The real service runs on Tomcat with an in-memory H2 database. Local clients open the subscriptions over
+ * HTTP: half follow every zone and half follow one zone each. A driver then reserves and releases random
+ * spaces at a steady rate through the service. Every client parses each event it receives. The latency of a
+ * change is the time from its commit ({@code changedAt}) to the client parsing the event that carries it, so
+ * it includes the coalescing window.
+ * <p>
+ * Alongside them, a number of stalled clients open the stream for every zone and never read from it. Small
+ * socket buffers on both ends make their writes block within seconds, as a real client that stops reading
+ * eventually does. They must be dropped at the send deadline without delaying anyone else.
+ * <p>
+ * Also printed: how many changes went into each message, and the CPU time per delivered event. Exits with
+ * status 1 in any of these cases:
+ * <ul>
+ *     <li>a subscription failed or was closed;</li>
+ *     <li>a client that follows every zone missed a message;</li>
+ *     <li>a client's last free counts differ from the index;</li>
+ *     <li>a stalled client was not dropped for missing the send deadline.</li>
+ * </ul>
+ * <p>
+ * Run with {@code java -cp target/benchmarks.jar lk.ijse.benchmarks.parkingspace.OccupancyStreamLoadTest
+ * [subscribers] [changesPerSecond] [seconds] [stalledSubscribers]}. The client and the server share the
+ * process's file descriptors, so 10,000 subscribers need a limit above 20,000 ({@code ulimit -n}).
+ */
+public class OccupancyStreamLoadTest {
+
+    private static final int ZONES = 8;
+    private static final int SPACES_PER_ZONE = 250;
+    private static final String STREAM_PATH = "/parking-space-service/api/v1/parking-spaces/occupancy/stream";
+    private static final int SOCKET_BUFFER_BYTES = 8192;
+
+    public static void main(String[] args) throws Exception {
+        int subscriberCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int rate = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int stalledCount = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        List<String> failures = new ArrayList<>();
+
+        ConfigurableApplicationContext service = startService(subscriberCount + stalledCount);
+        LoopResources loops = LoopResources.create("subscriber", 2, true);
+        ConnectionProvider connections = ConnectionProvider.builder("subscribers")
+                .maxConnections(subscriberCount)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        List<Subscriber> subscribers = new ArrayList<>();
+        List<Disposable> streams = new ArrayList<>();
+        List<Socket> stalled = new ArrayList<>();
+        try {
+            ParkingSpaceRepo parkingSpaceRepo = service.getBean(ParkingSpaceRepo.class);
+            ParkingSpaceService parkingSpaceService = service.getBean(ParkingSpaceService.class);
+            ParkingSpaceAvailabilityIndex availabilityIndex = service.getBean(ParkingSpaceAvailabilityIndex.class);
+            OccupancyBroadcaster broadcaster = service.getBean(OccupancyBroadcaster.class);
+            List<ParkingSpace> spaces = new ArrayList<>();
+            for (int zone = 0; zone < ZONES; zone++) {
+                for (int bay = 0; bay < SPACES_PER_ZONE; bay++) {
+                    spaces.add(new ParkingSpace(null, "Bay " + bay, zoneName(zone), true, "CAR", null));
+                }
+            }
+            List<Long> ids = parkingSpaceRepo.saveAll(spaces).stream().map(ParkingSpace::getId).toList();
+            parkingSpaceService.checkAvailabilityIndex(true);
+
+            int port = ((WebServerApplicationContext) service).getWebServer().getPort();
+            HttpClient client = HttpClient.create(connections).runOn(loops).baseUrl("http://127.0.0.1:" + port);
+            for (int i = 0; i < subscriberCount; i++) {
+                String zone = i % 2 == 0 ? null : zoneName(i / 2 % ZONES);
+                Subscriber subscriber = new Subscriber(zone);
+                subscribers.add(subscriber);
+                streams.add(client.get().uri(zone == null ? STREAM_PATH : STREAM_PATH + "?zone=" + zone)
+                        .responseContent().asString()
+                        .subscribe(subscriber::receive, subscriber::failed, subscriber::closed));
+            }
+            for (int i = 0; i < stalledCount; i++) {
+                stalled.add(openStalled(port));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (broadcaster.subscriberCount() < subscriberCount + stalledCount && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            System.out.printf("%d of %d subscribers connected, %d of them stalled%n", broadcaster.subscriberCount(),
+                    subscriberCount + stalledCount, stalledCount);
+
+            OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            long cpuBefore = os.getProcessCpuTime();
+            long changes = 0;
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+            long started = System.nanoTime();
+            long next = started;
+            long end = next + TimeUnit.SECONDS.toNanos(seconds);
+            while (next < end) {
+                Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                if (Boolean.TRUE.equals(availabilityIndex.isAvailable(id))) {
+                    parkingSpaceService.reserveParkingSpace(id);
+                } else {
+                    parkingSpaceService.releaseParkingSpace(id);
+                }
+                changes++;
+                next += intervalNanos;
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+            }
+            double elapsedSeconds = (System.nanoTime() - started) / 1e9; // Longer than asked when the driver falls behind
+            Thread.sleep(1000); // The last window, and the fan-out behind it
+            long cpuNanos = os.getProcessCpuTime() - cpuBefore;
+
+            long delivered = 0;
+            long messages = 0;
+            List<Long> latencies = new ArrayList<>();
+            Map<String, Integer> expected = availabilityIndex.countAvailableByZone();
+            for (Subscriber subscriber : subscribers) {
+                delivered += subscriber.updates;
+                latencies.addAll(subscriber.latencies);
+                if (subscriber.error != null) {
+                    failures.add("subscriber failed: " + subscriber.error);
+                } else if (subscriber.closed) {
+                    failures.add("subscriber for zone " + subscriber.zone + " was disconnected");
+                } else if (!subscriber.snapshotSeen) {
+                    failures.add("subscriber for zone " + subscriber.zone + " got no snapshot");
+                }
+                if (subscriber.zone == null) {
+                    messages = Math.max(messages, subscriber.updates);
+                    if (subscriber.gaps > 0) {
+                        failures.add("subscriber for every zone missed " + subscriber.gaps + " messages");
+                    }
+                }
+                subscriber.freeByZone.forEach((zone, free) -> {
+                    if (!free.equals(expected.get(zone))) {
+                        failures.add("subscriber for zone " + subscriber.zone + " ended with " + free
+                                + " free in " + zone + ", the index has " + expected.get(zone));
+                    }
+                });
+            }
+
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%d changes in %.1f s became %d messages (%.1f changes per message)%n",
+                    changes, elapsedSeconds, messages, messages == 0 ? 0.0 : (double) changes / messages);
+            System.out.printf("%d events delivered, %.1f us CPU per delivered event (server and clients together)%n",
+                    delivered, delivered == 0 ? 0.0 : cpuNanos / 1e3 / delivered);
+            System.out.printf("commit-to-client latency: p50 %d ms  p95 %d ms  p99 %d ms  max %d ms  (%d samples)%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1], sorted.length);
+            if (sorted.length == 0) {
+                failures.add("no changes were received");
+            }
+
+            MeterRegistry meterRegistry = service.getBean(MeterRegistry.class);
+            double stalledDropped = meterRegistry.counter("occupancy.subscribers.stalled").count();
+            double overflowDropped = meterRegistry.counter("occupancy.subscribers.dropped").count();
+            System.out.printf("%.0f stalled subscribers dropped at the send deadline, %.0f for a full mailbox%n",
+                    stalledDropped, overflowDropped);
+            if (stalledDropped < stalledCount) {
+                failures.add(stalledCount + " subscribers stalled, but only " + (long) stalledDropped
+                        + " were dropped at the send deadline");
+            }
+        } finally {
+            for (Socket socket : stalled) {
+                socket.close();
+            }
+            streams.forEach(Disposable::dispose);
+            connections.disposeLater().block(Duration.ofSeconds(10));
+            service.close();
+            loops.dispose();
+        }
+
+        failures.stream().limit(20).forEach(failure -> System.out.println("FAIL " + failure));
+        System.out.println(failures.isEmpty() ? "OK" : "FAILED (" + failures.size() + " failures)");
+        if (!failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private static String zoneName(int zone) {
+        return String.valueOf((char) ('a' + zone));
+    }
+
+    // Sends the request and never reads the response, so the server's writes soon have nowhere to go
+    private static Socket openStalled(int port) throws IOException {
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(SOCKET_BUFFER_BYTES);
+        socket.connect(new InetSocketAddress("127.0.0.1", port));
+        socket.getOutputStream().write(("GET " + STREAM_PATH + " HTTP/1.1\r\nHost: 127.0.0.1\r\n"
+                + "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+        return socket;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)];
+    }
+
+    private static ConfigurableApplicationContext startService(int subscribers) {
+        return new SpringApplicationBuilder(ServiceApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "server.servlet.context-path=/parking-space-service",
+                        "server.tomcat.max-connections=" + (subscribers + 100),
+                        "spring.application.name=parking-space-service",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.cloud.gateway.server.webflux.enabled=false",
+                        "spring.datasource.url=jdbc:h2:mem:occupancy;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "management.tracing.sampling.probability=0.0",
+                        "occupancy.max-subscribers=" + subscribers)
+                .run();
+    }
+
+    // One client's view of its stream; reactor-netty delivers a connection's chunks on one thread at a time
+    private static class Subscriber {
+
+        private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+        private final String zone;
+        private final StringBuilder buffer = new StringBuilder();
+        private final Map<String, Integer> freeByZone = new HashMap<>();
+        private final List<Long> latencies = new ArrayList<>();
+        private volatile Throwable error;
+        private volatile boolean closed;
+        private boolean snapshotSeen;
+        private long lastSequence = -1;
+        private long updates;
+        private long gaps;
+
+        Subscriber(String zone) {
+            this.zone = zone;
+        }
+
+        void receive(String chunk) {
+            buffer.append(chunk);
+            int end;
+            while ((end = buffer.indexOf("\n\n")) >= 0) {
+                String event = buffer.substring(0, end);
+                buffer.delete(0, end + 2);
+                Arrays.stream(event.split("\n"))
+                        .filter(line -> line.startsWith("data:"))
+                        .forEach(line -> onData(line.substring(5)));
+            }
+        }
+
+        void failed(Throwable error) {
+            this.error = error;
+        }
+
+        void closed() {
+            this.closed = true;
+        }
+
+        private void onData(String data) {
+            long receivedAt = System.currentTimeMillis();
+            JsonNode update;
+            try {
+                update = OBJECT_MAPPER.readTree(data);
+            } catch (Exception e) {
+                error = e;
+                return;
+            }
+            long sequence = update.get("sequence").asLong();
+            update.get("freeByZone").fields().forEachRemaining(entry -> freeByZone.put(entry.getKey(), entry.getValue().asInt()));
+            if (update.get("snapshot").asBoolean()) {
+                snapshotSeen = true;
+            } else {
+                updates++;
+                if (lastSequence >= 0 && sequence != lastSequence + 1) {
+                    gaps += sequence - lastSequence - 1;
+                }
+                update.get("spaces").forEach(space -> latencies.add(receivedAt - space.get("changedAt").asLong()));
+            }
+            lastSequence = sequence;
+        }
+    }
+
+    // The parking-space-service's own beans on H2; Eureka and the gateway's classes stay out
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {
+            SecurityAutoConfiguration.class, SecurityFilterAutoConfiguration.class,
+            UserDetailsServiceAutoConfiguration.class, ManagementWebSecurityAutoConfiguration.class,
+            ReactiveSecurityAutoConfiguration.class, ReactiveUserDetailsServiceAutoConfiguration.class,
+            ReactiveManagementWebSecurityAutoConfiguration.class})
+    @ComponentScan("lk.ijse.parkingspaceservice")
+    @EntityScan(basePackageClasses = ParkingSpace.class)
+    @EnableJpaRepositories(basePackageClasses = ParkingSpaceRepo.class)
+    static class ServiceApplication {
+
+        // A small send buffer, so a client that stops reading blocks the server's writes after a few messages
+        @Bean
+        TomcatConnectorCustomizer smallSocketBuffers() {
+            return connector -> connector.setProperty("socket.txBufSize", Integer.toString(SOCKET_BUFFER_BYTES));
+        }
+    }
+}
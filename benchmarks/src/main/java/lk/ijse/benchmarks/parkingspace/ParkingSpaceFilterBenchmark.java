@@ -0,0 +1,104 @@
+package lk.ijse.benchmarks.parkingspace;
+
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.mapper.ParkingSpaceMapper;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import lk.ijse.parkingspaceservice.service.ParkingSpaceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@code filterParkingSpaces} through the real service: the Specification path builds and runs a
+ * criteria query against H2, the available-only path is answered by the availability index.
+ * Available-by-zone is measured both ways: from the index, and with the repository query it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParkingSpaceFilterBenchmark {
+
+    private static final String[] ZONES = {"A", "B", "C", "D", "E", "F", "G", "H"};
+    private static final String[] TYPES = {"CAR", "BIKE", "VAN", "EV"};
+
+    @Param({"1000", "10000", "100000"})
+    public int spaces;
+
+    private AnnotationConfigApplicationContext context;
+    private ParkingSpaceService parkingSpaceService;
+    private ParkingSpaceRepo parkingSpaceRepo;
+    private ParkingSpaceMapper parkingSpaceMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(ParkingSpaceBenchmarkConfig.class);
+        parkingSpaceService = context.getBean(ParkingSpaceService.class);
+
+        parkingSpaceRepo = context.getBean(ParkingSpaceRepo.class);
+        parkingSpaceMapper = context.getBean(ParkingSpaceMapper.class);
+        // Plain JDBC batches: saveAll with IDENTITY keys inserts row by row, which takes minutes at 100k
+        List<Object[]> rows = new ArrayList<>(spaces);
+        for (int i = 0; i < spaces; i++) {
+            rows.add(new Object[]{"Level " + (i % 5) + " Bay " + i, ZONES[i % ZONES.length], i % 3 != 0,
+                    TYPES[i % TYPES.length], "EXT-" + i});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO parking_space (location, zone, available, type,"
+                + " external_ref_id) VALUES (?, ?, ?, ?, ?)", rows);
+        // Same startup step ParkingSpaceAvailabilityIndexLoader performs
+        context.getBean(ParkingSpaceAvailabilityIndex.class).rebuild(parkingSpaceRepo.findAll());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ParkingSpaceDTO> filterByZoneAndType() {
+        return parkingSpaceService.filterParkingSpaces(null, "b", null, "car");
+    }
+
+    @Benchmark
+    public List<ParkingSpaceDTO> filterOccupiedByLocation() {
+        return parkingSpaceService.filterParkingSpaces("level 2", null, false, null);
+    }
+
+    @Benchmark
+    public List<ParkingSpaceDTO> filterAvailableByZoneAndType() {
+        return parkingSpaceService.filterParkingSpaces(null, "b", true, "car");
+    }
+
+    @Benchmark
+    public List<ParkingSpaceDTO> availableByZoneFromIndex() {
+        return parkingSpaceService.getAvailableParkingSpacesByZone("B");
+    }
+
+    // What getAvailableParkingSpacesByZone did before the index: the derived query, mapped the same way
+    @Benchmark
+    public List<ParkingSpaceDTO> availableByZoneRepoQuery() {
+        return parkingSpaceRepo.findByAvailableTrueAndZone("B").stream()
+                .map(parkingSpaceMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+}
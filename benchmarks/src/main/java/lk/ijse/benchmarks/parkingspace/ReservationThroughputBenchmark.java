@@ -0,0 +1,109 @@
+package lk.ijse.benchmarks.parkingspace;
+
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import lk.ijse.parkingspaceservice.service.ParkingSpaceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reservation throughput through {@code reserveParkingSpace}: 4 threads each reserving and releasing a space of
+ * their own, and 4 threads fighting over 5 hot spaces, where most attempts are turned away by the claim table
+ * before they reach the database. The "exactly one winner" property itself is covered by
+ * ParkingSpaceReservationConcurrencyTest in parking-space-service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationThroughputBenchmark {
+
+    private static final int HOT_SPACES = 5;
+    private static final int OWN_SPACES = 64; // One per thread, with room for larger -t runs
+
+    private AnnotationConfigApplicationContext context;
+    private ParkingSpaceService parkingSpaceService;
+    private List<Long> hotIds;
+    private List<Long> ownIds;
+    private final AtomicInteger nextOwn = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(ParkingSpaceBenchmarkConfig.class);
+        parkingSpaceService = context.getBean(ParkingSpaceService.class);
+
+        ParkingSpaceRepo parkingSpaceRepo = context.getBean(ParkingSpaceRepo.class);
+        List<ParkingSpace> seed = new ArrayList<>();
+        for (int i = 0; i < HOT_SPACES + OWN_SPACES; i++) {
+            seed.add(new ParkingSpace(null, "Level 1 Bay " + i, "A", true, "CAR", "EXT-" + i));
+        }
+        List<Long> ids = parkingSpaceRepo.saveAll(seed).stream().map(ParkingSpace::getId).toList();
+        hotIds = ids.subList(0, HOT_SPACES);
+        ownIds = ids.subList(HOT_SPACES, ids.size());
+        context.getBean(ParkingSpaceAvailabilityIndex.class).rebuild(parkingSpaceRepo.findAll());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class OwnSpace {
+        Long id;
+
+        @Setup(Level.Trial)
+        public void setUp(ReservationThroughputBenchmark benchmark) {
+            id = benchmark.ownIds.get(benchmark.nextOwn.getAndIncrement());
+        }
+    }
+
+    // One reserve and one release, two transactions
+    @Benchmark
+    @Threads(4)
+    public Long reserveAndReleaseOwnSpace(OwnSpace space) {
+        parkingSpaceService.reserveParkingSpace(space.id);
+        return parkingSpaceService.releaseParkingSpace(space.id).getId();
+    }
+
+    // One reserve attempt on a hot space; a winner releases it again so the space comes back into play
+    @Benchmark
+    @Threads(4)
+    public boolean reserveContendedSpace() {
+        Long id = hotIds.get(ThreadLocalRandom.current().nextInt(HOT_SPACES));
+        try {
+            parkingSpaceService.reserveParkingSpace(id);
+        } catch (RuntimeException e) {
+            return false; // Claimed by another thread, or already occupied
+        }
+        while (true) {
+            try {
+                parkingSpaceService.releaseParkingSpace(id);
+                return true;
+            } catch (RuntimeException e) {
+                Thread.onSpinWait(); // Another thread's reserve attempt holds the claim for a moment
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package lk.ijse.benchmarks.payment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lk.ijse.paymentservice.dto.PaymentRequestDTO;
+import lk.ijse.paymentservice.mapper.DirectPaymentMapper;
+import lk.ijse.paymentservice.repo.PaymentRepo;
+import lk.ijse.paymentservice.service.impl.PaymentServiceImpl;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// Card validation and masking run on every payment before anything is persisted
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentValidationBenchmark {
+
+    private PaymentServiceImpl paymentService;
+    private MethodHandle validateMockCardData;
+    private MethodHandle maskCardNumber;
+    private PaymentRequestDTO paymentRequest;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        paymentService = new PaymentServiceImpl(Mockito.mock(PaymentRepo.class), new DirectPaymentMapper(),
+                new SimpleMeterRegistry());
+
+        // Both helpers are private to the service, so they are reached through a private lookup
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(PaymentServiceImpl.class, MethodHandles.lookup());
+        validateMockCardData = lookup.findVirtual(PaymentServiceImpl.class, "validateMockCardData",
+                MethodType.methodType(boolean.class, PaymentRequestDTO.class));
+        maskCardNumber = lookup.findVirtual(PaymentServiceImpl.class, "maskCardNumber",
+                MethodType.methodType(String.class, String.class));
+
+        String expiry = String.format("12/%02d", (LocalDate.now().getYear() + 2) % 100);
+        paymentRequest = new PaymentRequestDTO(1L, 500.0, "Benchmark User", "4111111111111111", expiry, "123", "CARD");
+    }
+
+    @Benchmark
+    public boolean validateMockCardData() throws Throwable {
+        return (boolean) validateMockCardData.invokeExact(paymentService, paymentRequest);
+    }
+
+    @Benchmark
+    public String maskCardNumber() throws Throwable {
+        return (String) maskCardNumber.invokeExact(paymentService, paymentRequest.getCardNumber());
+    }
+}
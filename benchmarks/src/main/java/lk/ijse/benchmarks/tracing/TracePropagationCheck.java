@@ -0,0 +1,207 @@
+package lk.ijse.benchmarks.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.ReactiveManagementWebSecurityAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that one trace follows a request from the api-gateway into a service.
+ * <p>
+ * The real api-gateway runs in-process in front of the real parking-space-service (on an in-memory H2
+ * database instead of MySQL, found through Spring Cloud's simple discovery client instead of Eureka), both
+ * sampling every request and writing spans to files in a temporary directory. A few
+ * {@code GET /parking-spaces/{id}} are sent through the gateway; every trace must then have a gateway span,
+ * a parking-space-service span whose parent is in the gateway, and the service's repository and mapper spans.
+ * Exits with status 1 if not.
+ * <p>
+ * Run with {@code java -cp target/benchmarks.jar lk.ijse.benchmarks.tracing.TracePropagationCheck}.
+ */
+public class TracePropagationCheck {
+
+    private static final int REQUESTS = 5;
+    private static final String SECRET = "bWlzc2luZ3Rocm93bnJvb3R3aXRoaW5tb3V0aHNtYWxsc2hhbGxnYXJhZ2Vpc2xhbmQ=";
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Files.createTempDirectory("traces");
+        List<String> failures = new ArrayList<>();
+
+        ConfigurableApplicationContext service = startService(directory);
+        ConfigurableApplicationContext gateway = null;
+        try {
+            ParkingSpaceRepo parkingSpaceRepo = service.getBean(ParkingSpaceRepo.class);
+            Long id = parkingSpaceRepo.save(new ParkingSpace(null, "Level 1 Bay 1", "A", true, "CAR", "EXT-1")).getId();
+
+            int servicePort = ((WebServerApplicationContext) service).getWebServer().getPort();
+            gateway = startGateway(directory, servicePort);
+            int gatewayPort = ((WebServerApplicationContext) gateway).getWebServer().getPort();
+
+            HttpClient client = HttpClient.newHttpClient();
+            for (int i = 0; i < REQUESTS; i++) {
+                HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(
+                                "http://127.0.0.1:" + gatewayPort + "/parking-space-service/api/v1/parking-spaces/" + id))
+                        .build(), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    failures.add("request " + i + " answered " + response.statusCode());
+                }
+            }
+        } finally {
+            // Closing the contexts shuts the span processors down, which exports what is still batched
+            if (gateway != null) {
+                gateway.close();
+            }
+            service.close();
+        }
+
+        List<JsonNode> gatewaySpans = read(directory.resolve("api-gateway.jsonl"));
+        List<JsonNode> serviceSpans = read(directory.resolve("parking-space-service.jsonl"));
+        Set<String> traces = gatewaySpans.stream().map(span -> span.get("traceId").asText()).collect(Collectors.toSet());
+        Set<String> gatewaySpanIds = gatewaySpans.stream().map(span -> span.get("spanId").asText()).collect(Collectors.toSet());
+        System.out.printf("%d gateway spans, %d parking-space-service spans, %d traces%n",
+                gatewaySpans.size(), serviceSpans.size(), traces.size());
+
+        if (traces.size() < REQUESTS) {
+            failures.add("expected " + REQUESTS + " traces from the gateway, found " + traces.size());
+        }
+        for (String trace : traces) {
+            List<JsonNode> spans = serviceSpans.stream().filter(span -> span.get("traceId").asText().equals(trace)).toList();
+            boolean server = spans.stream().anyMatch(span -> "SERVER".equals(span.get("kind").asText())
+                    && gatewaySpanIds.contains(span.path("parentSpanId").asText()));
+            boolean repository = spans.stream().anyMatch(span -> isCall(span, "ParkingSpaceRepo", "findById"));
+            boolean mapper = spans.stream().anyMatch(span -> isCall(span, "DirectParkingSpaceMapper", "toDTO"));
+            if (!server || !repository || !mapper) {
+                failures.add("trace " + trace + ": service span under the gateway " + server
+                        + ", repository span " + repository + ", mapper span " + mapper);
+            }
+        }
+        if (!traces.isEmpty()) {
+            String example = traces.iterator().next();
+            System.out.println("Trace " + example + ":");
+            gatewaySpans.stream().filter(span -> span.get("traceId").asText().equals(example))
+                    .forEach(span -> System.out.println("  " + describe(span)));
+            serviceSpans.stream().filter(span -> span.get("traceId").asText().equals(example))
+                    .forEach(span -> System.out.println("  " + describe(span)));
+        }
+
+        failures.forEach(failure -> System.out.println("FAIL " + failure));
+        System.out.println(failures.isEmpty() ? "PROPAGATED" : "NOT PROPAGATED");
+        if (!failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    // The class and method tags DataAccessTracingAspect puts on its spans
+    private static boolean isCall(JsonNode span, String type, String method) {
+        JsonNode attributes = span.path("attributes");
+        return type.equals(attributes.path("class").asText()) && method.equals(attributes.path("method").asText());
+    }
+
+    private static String describe(JsonNode span) {
+        return String.format("%-22s %-8s %-45s %6d us  parent %s", span.get("service").asText(),
+                span.get("kind").asText(), span.get("name").asText(), span.get("durationMicros").asLong(),
+                span.path("parentSpanId").asText("-"));
+    }
+
+    private static List<JsonNode> read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<JsonNode> spans = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            spans.add(objectMapper.readTree(line));
+        }
+        return spans;
+    }
+
+    private static ConfigurableApplicationContext startService(Path directory) {
+        return new SpringApplicationBuilder(ServiceApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "server.servlet.context-path=/parking-space-service",
+                        "spring.application.name=parking-space-service",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.cloud.gateway.server.webflux.enabled=false",
+                        "spring.datasource.url=jdbc:h2:mem:tracing;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "management.tracing.sampling.probability=1.0",
+                        "tracing.export.file=" + directory.resolve("parking-space-service.jsonl"))
+                .run();
+    }
+
+    private static ConfigurableApplicationContext startGateway(Path directory, int servicePort) {
+        return new SpringApplicationBuilder(GatewayApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties(
+                        "server.port=0",
+                        "spring.application.name=api-gateway",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "jwt.secret=" + SECRET,
+                        "gateway.response-cache.enabled=false",
+                        "gateway.rate-limit.enabled=false",
+                        "spring.cloud.gateway.server.webflux.routes[0].id=parking-space-service",
+                        "spring.cloud.gateway.server.webflux.routes[0].uri=lb://parking-space-service",
+                        "spring.cloud.gateway.server.webflux.routes[0].predicates[0]=Path=/parking-space-service/**",
+                        "spring.cloud.discovery.client.simple.instances.parking-space-service[0].uri="
+                                + "http://127.0.0.1:" + servicePort,
+                        "management.tracing.sampling.probability=1.0",
+                        "tracing.export.file=" + directory.resolve("api-gateway.jsonl"))
+                .run();
+    }
+
+    // The parking-space-service's own beans on H2; Eureka and the gateway's classes stay out
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {
+            SecurityAutoConfiguration.class, SecurityFilterAutoConfiguration.class,
+            UserDetailsServiceAutoConfiguration.class, ManagementWebSecurityAutoConfiguration.class,
+            ReactiveSecurityAutoConfiguration.class, ReactiveUserDetailsServiceAutoConfiguration.class})
+    @ComponentScan("lk.ijse.parkingspaceservice")
+    @EntityScan(basePackageClasses = ParkingSpace.class)
+    @EnableJpaRepositories(basePackageClasses = ParkingSpaceRepo.class)
+    static class ServiceApplication {
+    }
+
+    // The api-gateway's own beans on a reactive server; Eureka, the database and servlet security stay out
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {
+            DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            SecurityAutoConfiguration.class, UserDetailsServiceAutoConfiguration.class,
+            ReactiveSecurityAutoConfiguration.class, ReactiveUserDetailsServiceAutoConfiguration.class,
+            ReactiveManagementWebSecurityAutoConfiguration.class})
+    @ComponentScan("lk.ijse.apigateway")
+    static class GatewayApplication {
+    }
+}
@@ -0,0 +1,98 @@
+package lk.ijse.benchmarks.tracing;
+
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelBaggageManager;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.mapper.DirectParkingSpaceMapper;
+import lk.ijse.parkingspaceservice.mapper.ParkingSpaceMapper;
+import lk.ijse.parkingspaceservice.tracing.DataAccessTracingAspect;
+import lk.ijse.parkingspaceservice.tracing.FileSpanExporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost tracing adds to a request at different sampling probabilities: a server observation around a call to
+ * the parking-space-service's mapper through the real DataAccessTracingAspect, with the OpenTelemetry SDK,
+ * sampler, batching processor and FileSpanExporter set up the way Boot sets them up in the services.
+ * {@code off} has metrics only and no tracing handler, the baseline the others are compared to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TracingOverheadBenchmark {
+
+    @Param({"off", "0.0", "0.1", "1.0"})
+    public String sampling;
+
+    private SdkTracerProvider tracerProvider;
+    private ObservationRegistry observationRegistry;
+    private ParkingSpaceMapper mapper;
+    private Path file;
+    private final ParkingSpace parkingSpace = new ParkingSpace(1L, "Level 1 Bay 1", "A", true, "CAR", "EXT-1");
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(new SimpleMeterRegistry()));
+        if (!"off".equals(sampling)) {
+            file = Files.createTempFile("spans", ".jsonl");
+            tracerProvider = SdkTracerProvider.builder()
+                    .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(Double.parseDouble(sampling))))
+                    .addSpanProcessor(BatchSpanProcessor.builder(new FileSpanExporter(file)).build())
+                    .build();
+            OtelCurrentTraceContext currentTraceContext = new OtelCurrentTraceContext();
+            OtelTracer tracer = new OtelTracer(tracerProvider.get("benchmark"), currentTraceContext, event -> {
+            }, new OtelBaggageManager(currentTraceContext, List.of(), List.of()));
+            observationRegistry.observationConfig().observationHandler(new DefaultTracingObservationHandler(tracer));
+        }
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new DirectParkingSpaceMapper());
+        proxyFactory.addAspect(new DataAccessTracingAspect(observationRegistry));
+        mapper = proxyFactory.getProxy();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (tracerProvider != null) {
+            tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public ParkingSpaceDTO request() {
+        return Observation.createNotStarted("http.server.requests", observationRegistry)
+                .observe(() -> mapper.toDTO(parkingSpace));
+    }
+}
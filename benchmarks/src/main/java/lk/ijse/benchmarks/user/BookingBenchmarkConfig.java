@@ -0,0 +1,84 @@
+package lk.ijse.benchmarks.user;
+
+import jakarta.persistence.EntityManagerFactory;
+import lk.ijse.userservice.analytics.BookingAnalyticsIndex;
+import lk.ijse.userservice.analytics.BookingAnalyticsRebuilder;
+import lk.ijse.userservice.deadline.DeadlineAwareJpaTransactionManager;
+import lk.ijse.userservice.entity.Booking;
+import lk.ijse.userservice.mapper.BookingMapper;
+import lk.ijse.userservice.mapper.DirectBookingMapper;
+import lk.ijse.userservice.repo.BookingRepo;
+import lk.ijse.userservice.service.impl.BookingServiceImpl;
+import lk.ijse.userservice.slot.BookingSlotIndex;
+import lk.ijse.userservice.slot.BookingSlotLoader;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal user-service booking context on an in-memory H2 database, like {@code VehicleBenchmarkConfig}.
+ * The startup steps are left to the caller once the data is seeded: {@link BookingAnalyticsRebuilder#rebuild()} and
+ * {@link BookingSlotLoader#load()}. Bookings with upcoming slots wait for the latter.
+ */
+@Configuration
+@EnableTransactionManagement
+@EnableJpaRepositories(basePackageClasses = BookingRepo.class)
+@Import({BookingServiceImpl.class, BookingAnalyticsIndex.class, BookingAnalyticsRebuilder.class, BookingSlotIndex.class,
+        BookingSlotLoader.class})
+public class BookingBenchmarkConfig {
+
+    @Bean
+    public DataSource dataSource() {
+        return new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPackagesToScan(Booking.class.getPackageName());
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        // Boot's table and column names (booking, parking_spot_id), for seeding through JdbcTemplate
+        properties.put(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName());
+        properties.put(AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName());
+        properties.put(AvailableSettings.KEYWORD_AUTO_QUOTING_ENABLED, true); // "user" is a keyword in H2
+        factory.setJpaPropertyMap(properties);
+        return factory;
+    }
+
+    // The service's own transaction manager (see its TransactionConfig)
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new DeadlineAwareJpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    public BookingMapper bookingMapper() {
+        return new DirectBookingMapper();
+    }
+}
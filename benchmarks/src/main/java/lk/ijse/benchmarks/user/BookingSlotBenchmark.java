@@ -0,0 +1,164 @@
+package lk.ijse.benchmarks.user;
+
+import lk.ijse.userservice.dto.BookingDTO;
+import lk.ijse.userservice.dto.FreeSlotDTO;
+import lk.ijse.userservice.entity.User;
+import lk.ijse.userservice.repo.UserRepo;
+import lk.ijse.userservice.service.BookingService;
+import lk.ijse.userservice.slot.BookingSlot;
+import lk.ijse.userservice.slot.BookingSlotIndex;
+import lk.ijse.userservice.slot.BookingSlotLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking slot checks against 1M future bookings (20 zones of 50 spots, 1000 back-to-back bookings each with random
+ * gaps): the index's overlap check and next-free lookup, the first free 2-hour slot across a zone, and a booking
+ * that overlaps another going through the service and being rejected. For comparison, the overlap check as a range
+ * query on the booking table, with an index on (parking_spot_id, check_in_time).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class BookingSlotBenchmark {
+
+    private static final int ZONES = 20;
+    private static final int SPOTS_PER_ZONE = 50;
+    private static final int BOOKINGS_PER_SPOT = 1000;
+    private static final int SAMPLES = 1024; // Power of two, cycled through with a mask
+
+    private static final String OVERLAP_SQL = "SELECT id FROM booking WHERE parking_spot_id = ? AND check_in_time < ?"
+            + " AND check_out_time > ? AND status NOT IN ('COMPLETED', 'CANCELLED') FETCH FIRST 1 ROWS ONLY";
+
+    private AnnotationConfigApplicationContext context;
+    private BookingService bookingService;
+    private BookingSlotIndex slotIndex;
+    private JdbcTemplate jdbcTemplate;
+
+    private final BookingSlot[] probes = new BookingSlot[SAMPLES]; // Random 1-hour slots, most of them overlapping
+    private final BookingDTO[] overlapping = new BookingDTO[SAMPLES];
+    private final LocalDateTime[] searchFrom = new LocalDateTime[SAMPLES];
+    private final String[] searchZones = new String[SAMPLES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(BookingBenchmarkConfig.class);
+        bookingService = context.getBean(BookingService.class);
+        slotIndex = context.getBean(BookingSlotIndex.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long userId = context.getBean(UserRepo.class).save(new User(null, "slot-user", "password", "slot-user@spms.lk",
+                "Slot", "User", "0770000000", "USER")).getId();
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDate.now().plusDays(1).atStartOfDay();
+        List<Object[]> rows = new ArrayList<>(10_000);
+        List<LocalDateTime[]> booked = new ArrayList<>();
+        for (int zone = 0; zone < ZONES; zone++) {
+            for (int number = 1; number <= SPOTS_PER_ZONE; number++) {
+                String spot = (char) ('A' + zone) + String.valueOf(number);
+                LocalDateTime time = start;
+                for (int i = 0; i < BOOKINGS_PER_SPOT; i++) {
+                    LocalDateTime checkIn = time.plusMinutes(random.nextInt(180));
+                    LocalDateTime checkOut = checkIn.plusMinutes(30 + random.nextInt(150));
+                    rows.add(new Object[]{userId, "CAB-1234", Timestamp.valueOf(start.minusDays(1)), Timestamp.valueOf(checkIn),
+                            Timestamp.valueOf(checkOut), spot, 0.0, "CONFIRMED"});
+                    if (random.nextInt(BOOKINGS_PER_SPOT * ZONES * SPOTS_PER_ZONE / SAMPLES) == 0 && booked.size() < SAMPLES) {
+                        booked.add(new LocalDateTime[]{checkIn, checkOut});
+                        overlapping[booked.size() - 1] = new BookingDTO(null, userId, "CAB-9999", null,
+                                checkIn.plusMinutes(10), checkIn.plusMinutes(70), spot, 0, "CONFIRMED", null);
+                    }
+                    time = checkOut;
+                    if (rows.size() == 10_000) {
+                        insert(rows);
+                    }
+                }
+            }
+        }
+        insert(rows);
+        jdbcTemplate.execute("CREATE INDEX idx_booking_spot_check_in ON booking (parking_spot_id, check_in_time)");
+        // Same startup step the service's ApplicationRunner performs
+        context.getBean(BookingSlotLoader.class).load();
+
+        for (int i = 0; i < SAMPLES; i++) {
+            if (overlapping[i] == null) {
+                overlapping[i] = overlapping[i % booked.size()];
+            }
+            String spot = (char) ('A' + random.nextInt(ZONES)) + String.valueOf(1 + random.nextInt(SPOTS_PER_ZONE));
+            LocalDateTime time = start.plusMinutes(random.nextInt(100 * 24 * 60));
+            probes[i] = new BookingSlot(null, spot, BookingSlot.seconds(time), BookingSlot.seconds(time) + 3600);
+            searchFrom[i] = time;
+            searchZones[i] = String.valueOf((char) ('A' + random.nextInt(ZONES)));
+        }
+        System.out.println("Slot index holds " + slotIndex.size() + " bookings");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookingSlot indexOverlapCheck() {
+        return slotIndex.findConflict(probes[next++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public long indexNextFreeStart() {
+        return slotIndex.firstFreeStart(probes[next++ & (SAMPLES - 1)]);
+    }
+
+    // 50 spots, each walked from the requested time to its first gap of 2 hours
+    @Benchmark
+    public FreeSlotDTO zoneFirstFreeSlot() {
+        int sample = next++ & (SAMPLES - 1);
+        return bookingService.findFirstFreeSlot(searchZones[sample], 120, searchFrom[sample], null);
+    }
+
+    // User lookup, spot lock, overlap check, rollback and the 409 message with the next free slot
+    @Benchmark
+    public String createOverlappingRejected() {
+        try {
+            bookingService.createBooking(overlapping[next++ & (SAMPLES - 1)]);
+            throw new IllegalStateException("An overlapping booking was accepted");
+        } catch (IllegalStateException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public List<Long> databaseOverlapQuery() {
+        BookingSlot probe = probes[next++ & (SAMPLES - 1)];
+        return jdbcTemplate.queryForList(OVERLAP_SQL, Long.class, probe.spot(),
+                Timestamp.valueOf(BookingSlot.time(probe.end())), Timestamp.valueOf(BookingSlot.time(probe.start())));
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO booking (user_id, vehicle_number, booking_time, check_in_time, check_out_time,"
+                + " parking_spot_id, total_cost, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+}
@@ -0,0 +1,98 @@
+package lk.ijse.benchmarks.user;
+
+import jakarta.servlet.ServletException;
+import lk.ijse.userservice.filter.JwtAuthFilter;
+import lk.ijse.userservice.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Full per-request authentication: header parsing, token validation, user lookup and security context setup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    // 0 = every request verifies the signature (before), 60000 = verified claims are cached (after)
+    @Param({"0", "60000"})
+    public long claimsCacheTtl;
+
+    // "legacy" tokens only carry the username and load the user per request; "claims" tokens carry ID and roles
+    @Param({"legacy", "claims"})
+    public String tokenFormat;
+
+    // Simulated MySQL round trip for the per-request user lookup
+    @Param({"200"})
+    public long dbRoundTripMicros;
+
+    private JwtAuthFilter jwtAuthFilter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = UserServiceFixtures.jwtUtil(claimsCacheTtl);
+        jwtAuthFilter = new JwtAuthFilter(jwtUtil, UserServiceFixtures.userService(jwtUtil, dbRoundTripMicros),
+                UserServiceFixtures.tokenRevocationCache(), false);
+        String token = "legacy".equals(tokenFormat) ? UserServiceFixtures.legacyToken() : UserServiceFixtures.token(jwtUtil);
+        authorizationHeader = "Bearer " + token;
+    }
+
+    @Benchmark
+    public Authentication authenticatedRequest() throws ServletException, IOException {
+        return filter(authorizationHeader);
+    }
+
+    // Latency distribution of authenticated requests; the JSON results include p50/p99/p99.9
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public Authentication authenticatedRequestLatency() throws ServletException, IOException {
+        return filter(authorizationHeader);
+    }
+
+    // Authenticated requests from 8 concurrent clients, reported as requests per second
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Authentication authenticatedRequestThroughput() throws ServletException, IOException {
+        return filter(authorizationHeader);
+    }
+
+    @Benchmark
+    public Authentication anonymousRequest() throws ServletException, IOException {
+        return filter(null);
+    }
+
+    private Authentication filter(String header) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/1");
+        if (header != null) {
+            request.addHeader("Authorization", header);
+        }
+        try {
+            jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package lk.ijse.benchmarks.user;
+
+import lk.ijse.userservice.entity.User;
+import lk.ijse.userservice.mapper.DirectUserMapper;
+import lk.ijse.userservice.repo.UserRepo;
+import lk.ijse.userservice.service.impl.UserServiceImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import lk.ijse.userservice.util.JwtUtil;
+import lk.ijse.userservice.util.TokenRevocationCache;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.locks.LockSupport;
+
+// Builds the user-service security beans the way Spring wires them, with the repository mocked out
+final class UserServiceFixtures {
+
+    // Same secret and expiration as user-service's application.yml
+    static final String SECRET = "bWlzc2luZ3Rocm93bnJvb3R3aXRoaW5tb3V0aHNtYWxsc2hhbGxnYXJhZ2Vpc2xhbmQ=";
+    static final long EXPIRATION_TIME = 3600000L;
+    static final String USERNAME = "benchmark-user";
+    static final Long USER_ID = 1L;
+    static final String ROLE = "USER";
+
+    private UserServiceFixtures() {
+    }
+
+    // A claims cache TTL of 0 verifies the token signature on every call, as before the cache existed
+    static JwtUtil jwtUtil(long claimsCacheTtl) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "EXPIRATION_TIME", EXPIRATION_TIME);
+        ReflectionTestUtils.setField(jwtUtil, "CLAIMS_CACHE_TTL", claimsCacheTtl);
+        ReflectionTestUtils.setField(jwtUtil, "CLAIMS_CACHE_MAX_SIZE", 10000);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    static TokenRevocationCache tokenRevocationCache() {
+        TokenRevocationCache tokenRevocationCache = new TokenRevocationCache();
+        ReflectionTestUtils.setField(tokenRevocationCache, "enabled", true);
+        ReflectionTestUtils.setField(tokenRevocationCache, "EXPIRATION_TIME", EXPIRATION_TIME);
+        return tokenRevocationCache;
+    }
+
+    static String token(JwtUtil jwtUtil) {
+        return jwtUtil.generateToken(USER_ID, USERNAME, ROLE);
+    }
+
+    // Token in the format issued before the ID and roles claims existed; it still needs the user lookup
+    static String legacyToken() {
+        return Jwts.builder()
+                .setSubject(USERNAME)
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    // The mocked findByUsername waits dbRoundTripMicros to stand in for the MySQL query it replaces
+    static UserServiceImpl userService(JwtUtil jwtUtil, long dbRoundTripMicros) {
+        User user = new User();
+        user.setId(USER_ID);
+        user.setUsername(USERNAME);
+        user.setPassword("$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchmark");
+        user.setEmail("benchmark@example.com");
+        user.setRole(ROLE);
+
+        UserRepo userRepo = Mockito.mock(UserRepo.class);
+        Mockito.when(userRepo.findByUsername(USERNAME)).thenAnswer(invocation -> {
+            if (dbRoundTripMicros > 0) {
+                LockSupport.parkNanos(dbRoundTripMicros * 1000);
+            }
+            return Optional.of(user);
+        });
+        return new UserServiceImpl(userRepo, new DirectUserMapper(), new BCryptPasswordEncoder(), null, jwtUtil,
+                tokenRevocationCache());
+    }
+}
@@ -0,0 +1,275 @@
+package lk.ijse.benchmarks.vehicle;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.ijse.vehicleservice.dto.GateEventDTO;
+import lk.ijse.vehicleservice.entity.Vehicle;
+import lk.ijse.vehicleservice.gate.GateEventPipeline;
+import lk.ijse.vehicleservice.plate.PlateIndexLoader;
+import lk.ijse.vehicleservice.repo.VehicleRepo;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.ReactiveManagementWebSecurityAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveSecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gate events through vehicle-service over HTTP, two ways: one {@code PATCH /{id}/entry} or {@code /exit} call
+ * per event, as gates do today, and {@code POST /gate-events} with 500 events per request. Both runs use the
+ * same events and the same number of concurrent clients. Each client owns a disjoint set of vehicles, so the
+ * order of each vehicle's events is kept.
+ * <p>
+ * The queue is kept smaller than the clients' requests together, so the batched run also has to deal with
+ * backpressure: events acknowledged as RETRY are resent after a pause. After each run, every vehicle must end
+ * with the status of its last event. The statuses are then cleared and the gate event log is replayed, which
+ * must restore them. Exits with status 1 on a mismatch.
+ * <p>
+ * Run with {@code java -cp target/benchmarks.jar lk.ijse.benchmarks.vehicle.GateEventThroughputCheck
+ * [vehicles] [events] [clients]}.
+ */
+public class GateEventThroughputCheck {
+
+    private static final String BASE_PATH = "/vehicle-service/api/v1/vehicles";
+    private static final int EVENTS_PER_REQUEST = 500;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        int vehicleCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int eventCount = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        List<String> failures = new ArrayList<>();
+
+        Path logDir = Files.createTempDirectory("gate-events");
+        ConfigurableApplicationContext service = startService(logDir.resolve("gate-events.jsonl"));
+        ConnectionProvider connections = ConnectionProvider.create("gate-clients", clients);
+        ExecutorService clientThreads = Executors.newFixedThreadPool(clients);
+        try {
+            VehicleRepo vehicleRepo = service.getBean(VehicleRepo.class);
+            JdbcTemplate jdbcTemplate = service.getBean(JdbcTemplate.class);
+            GateEventPipeline pipeline = service.getBean(GateEventPipeline.class);
+            List<Vehicle> vehicles = new ArrayList<>();
+            for (int i = 0; i < vehicleCount; i++) {
+                vehicles.add(new Vehicle(null, "Toyota", "Aqua", String.format("GT-%05d", i), "Black", "Car",
+                        (long) i, "OUT", null));
+            }
+            vehicles = vehicleRepo.saveAll(vehicles);
+            service.getBean(PlateIndexLoader.class).load();
+
+            // Each client's events, for its own vehicles; the expected status is each vehicle's last event
+            Random random = new Random(7);
+            List<List<Event>> eventsByClient = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                eventsByClient.add(new ArrayList<>());
+            }
+            Map<Long, String> expected = new HashMap<>();
+            for (int i = 0; i < eventCount; i++) {
+                int v = random.nextInt(vehicleCount);
+                Vehicle vehicle = vehicles.get(v);
+                boolean entry = random.nextBoolean();
+                eventsByClient.get(v % clients).add(new Event("e-" + i, vehicle.getId(), vehicle.getPlateNumber(), entry));
+                expected.put(vehicle.getId(), entry ? "IN" : "OUT");
+            }
+
+            int port = ((WebServerApplicationContext) service).getWebServer().getPort();
+            HttpClient client = HttpClient.create(connections).baseUrl("http://127.0.0.1:" + port)
+                    .responseTimeout(Duration.ofSeconds(30));
+
+            // Per-call PATCH endpoints
+            clearStatuses(jdbcTemplate);
+            long started = System.nanoTime();
+            run(clientThreads, eventsByClient, events -> {
+                for (Event event : events) {
+                    int status = client.patch()
+                            .uri(BASE_PATH + "/" + event.vehicleId + (event.entry ? "/entry" : "/exit"))
+                            .responseSingle((response, body) -> Mono.just(response.status().code()))
+                            .block();
+                    if (status != 200) {
+                        throw new IllegalStateException("PATCH answered " + status);
+                    }
+                }
+            });
+            double patchSeconds = (System.nanoTime() - started) / 1e9;
+            check("PATCH per event", jdbcTemplate, expected, failures);
+
+            // Batched ingestion
+            clearStatuses(jdbcTemplate);
+            long firstSequence = pipeline.lastSequence() + 1;
+            AtomicInteger requests = new AtomicInteger();
+            AtomicInteger retried = new AtomicInteger();
+            started = System.nanoTime();
+            run(clientThreads, eventsByClient, events -> {
+                for (int from = 0; from < events.size(); ) {
+                    List<Event> chunk = events.subList(from, Math.min(events.size(), from + EVENTS_PER_REQUEST));
+                    JsonNode result = post(client, chunk);
+                    requests.incrementAndGet();
+                    int done = 0;
+                    for (JsonNode ack : result.get("data").get("acks")) {
+                        String status = ack.get("status").asText();
+                        if (status.equals(GateEventPipeline.RETRY)) {
+                            break; // This one and everything after it were turned away; resend them in order
+                        }
+                        if (!status.equals(GateEventPipeline.APPLIED) && !status.equals(GateEventPipeline.PENDING)) {
+                            throw new IllegalStateException("Event " + ack.get("eventId").asText() + " was " + status);
+                        }
+                        done++;
+                    }
+                    if (done < chunk.size()) {
+                        retried.addAndGet(chunk.size() - done);
+                        Thread.sleep(20);
+                    }
+                    from += done;
+                }
+            });
+            while (pipeline.queued() > 0) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(200); // The batch in flight
+            double batchedSeconds = (System.nanoTime() - started) / 1e9;
+            check("batched", jdbcTemplate, expected, failures);
+
+            // Replay of the batched run from the log
+            clearStatuses(jdbcTemplate);
+            JsonNode replay = OBJECT_MAPPER.readTree(client.post()
+                    .uri(BASE_PATH + "/gate-events/replay?from=" + firstSequence)
+                    .responseContent().aggregate().asString().block());
+            check("replay", jdbcTemplate, expected, failures);
+
+            DistributionSummary batches = service.getBean(MeterRegistry.class).get("gate.events.batch.size").summary();
+            System.out.printf("PATCH per event: %d events in %.2f s, %.0f events/s%n",
+                    eventCount, patchSeconds, eventCount / patchSeconds);
+            System.out.printf("batched:         %d events in %.2f s, %.0f events/s (%.1fx), %d requests, %d events resent after RETRY%n",
+                    eventCount, batchedSeconds, eventCount / batchedSeconds, patchSeconds / batchedSeconds,
+                    requests.get(), retried.get());
+            System.out.printf("writer batches:  %d, %.0f events each on average, up to %.0f%n",
+                    batches.count(), batches.mean(), batches.max());
+            System.out.printf("replay:          %d events from sequence %d, %d rows updated%n",
+                    replay.get("data").get("eventsReplayed").asInt(), firstSequence,
+                    replay.get("data").get("vehiclesUpdated").asInt());
+        } finally {
+            clientThreads.shutdownNow();
+            connections.disposeLater().block(Duration.ofSeconds(10));
+            service.close();
+        }
+
+        failures.stream().limit(20).forEach(failure -> System.out.println("FAIL " + failure));
+        System.out.println(failures.isEmpty() ? "OK" : "FAILED (" + failures.size() + " failures)");
+        if (!failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private static JsonNode post(HttpClient client, List<Event> chunk) throws Exception {
+        StringBuilder body = new StringBuilder(chunk.size() * 100);
+        for (Event event : chunk) {
+            GateEventDTO dto = new GateEventDTO(event.eventId, event.plate, event.entry ? "ENTRY" : "EXIT", "G1", null);
+            body.append(OBJECT_MAPPER.writeValueAsString(dto)).append('\n');
+        }
+        String response = client.headers(headers -> headers.set("Content-Type", "application/x-ndjson"))
+                .post()
+                .uri(BASE_PATH + "/gate-events")
+                .send(ByteBufFlux.fromString(Mono.just(body.toString())))
+                .responseContent().aggregate().asString().block();
+        return OBJECT_MAPPER.readTree(response);
+    }
+
+    private static void run(ExecutorService threads, List<List<Event>> eventsByClient, ClientWork work) throws Exception {
+        List<Future<?>> clients = new ArrayList<>();
+        for (List<Event> events : eventsByClient) {
+            clients.add(threads.submit(() -> {
+                work.send(events);
+                return null;
+            }));
+        }
+        for (Future<?> client : clients) {
+            client.get(10, TimeUnit.MINUTES);
+        }
+    }
+
+    private static void clearStatuses(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("UPDATE vehicle SET entry_status = NULL");
+    }
+
+    private static void check(String run, JdbcTemplate jdbcTemplate, Map<Long, String> expected, List<String> failures) {
+        Map<Long, String> actual = new HashMap<>();
+        jdbcTemplate.query("SELECT id, entry_status FROM vehicle",
+                row -> { actual.put(row.getLong(1), row.getString(2)); });
+        expected.forEach((id, status) -> {
+            if (!status.equals(actual.get(id))) {
+                failures.add(run + ": vehicle " + id + " is " + actual.get(id) + ", its last event set " + status);
+            }
+        });
+    }
+
+    private static ConfigurableApplicationContext startService(Path logFile) {
+        return new SpringApplicationBuilder(ServiceApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "server.servlet.context-path=/vehicle-service",
+                        "spring.application.name=vehicle-service",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "eureka.client.enabled=false",
+                        "spring.cloud.gateway.server.webflux.enabled=false",
+                        "spring.datasource.url=jdbc:h2:mem:gate-events;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "management.tracing.sampling.probability=0.0",
+                        "gate-events.log-file=" + logFile,
+                        "gate-events.queue-capacity=2000", // Below clients x 500, so backpressure shows up
+                        "gate-events.offer-timeout-millis=5")
+                .run();
+    }
+
+    private record Event(String eventId, Long vehicleId, String plate, boolean entry) {
+    }
+
+    private interface ClientWork {
+        void send(List<Event> events) throws Exception;
+    }
+
+    // The vehicle-service's own beans on H2; Eureka and the gateway's classes stay out
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {
+            SecurityAutoConfiguration.class, SecurityFilterAutoConfiguration.class,
+            UserDetailsServiceAutoConfiguration.class, ManagementWebSecurityAutoConfiguration.class,
+            ReactiveSecurityAutoConfiguration.class, ReactiveUserDetailsServiceAutoConfiguration.class,
+            ReactiveManagementWebSecurityAutoConfiguration.class})
+    @ComponentScan("lk.ijse.vehicleservice")
+    @EntityScan(basePackageClasses = Vehicle.class)
+    @EnableJpaRepositories(basePackageClasses = VehicleRepo.class)
+    static class ServiceApplication {
+    }
+}
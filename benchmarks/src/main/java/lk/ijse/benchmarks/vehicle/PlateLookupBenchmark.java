@@ -0,0 +1,166 @@
+package lk.ijse.benchmarks.vehicle;
+
+import lk.ijse.vehicleservice.dto.GateCheckDTO;
+import lk.ijse.vehicleservice.entity.Vehicle;
+import lk.ijse.vehicleservice.plate.PlateIndex;
+import lk.ijse.vehicleservice.plate.PlateIndexLoader;
+import lk.ijse.vehicleservice.plate.PlateNormalizer;
+import lk.ijse.vehicleservice.repo.VehicleRepo;
+import lk.ijse.vehicleservice.service.VehicleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gate check against 1M registered plates: a plate as the camera reads it ("cab-1234"), an unregistered plate,
+ * and a misread (B read as 8, O as 0, ...) resolved through the OCR key, all through the service's in-memory
+ * index; the index lookup on its own; then the database lookups it replaces, by the unique normalized_plate index and by the unindexed
+ * plate_number column that {@code findByPlateNumber} used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PlateLookupBenchmark {
+
+    private static final int PLATES = 1_000_000;
+    private static final int SAMPLES = 1024; // Power of two, cycled through with a mask
+    private static final String[] TYPES = {"Car", "Motorbike", "Van"};
+    private static final String[] STATUSES = {"IN", "OUT", "PARKED"};
+
+    private AnnotationConfigApplicationContext context;
+    private VehicleService vehicleService;
+    private VehicleRepo vehicleRepo;
+    private JdbcTemplate jdbcTemplate;
+    private PlateIndex plateIndex;
+
+    private final String[] registeredReads = new String[SAMPLES];
+    private final String[] unregisteredReads = new String[SAMPLES];
+    private final String[] misreads = new String[SAMPLES];
+    private final String[] registeredPlates = new String[SAMPLES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(VehicleBenchmarkConfig.class);
+        vehicleService = context.getBean(VehicleService.class);
+        vehicleRepo = context.getBean(VehicleRepo.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Random random = new Random(42);
+        Set<String> plates = new HashSet<>(PLATES * 2);
+        List<Object[]> rows = new ArrayList<>(10_000);
+        while (plates.size() < PLATES) {
+            String plate = randomPlate(random);
+            if (plates.add(plate)) {
+                rows.add(new Object[]{"Toyota", "Aqua", plate, "Black", TYPES[plates.size() % TYPES.length],
+                        (long) plates.size(), STATUSES[plates.size() % STATUSES.length], PlateNormalizer.normalize(plate)});
+                if (rows.size() == 10_000) {
+                    insert(rows);
+                }
+            }
+        }
+        insert(rows);
+        // Same startup step the service's ApplicationRunner performs
+        new PlateIndexLoader(vehicleRepo, context.getBean(PlateIndex.class), context.getBean(PlatformTransactionManager.class)).load();
+
+        List<String> all = new ArrayList<>(plates);
+        plateIndex = context.getBean(PlateIndex.class);
+        for (int i = 0, misread = 0; i < SAMPLES; i++) {
+            String plate = all.get(random.nextInt(all.size()));
+            registeredPlates[i] = plate;
+            registeredReads[i] = plate.toLowerCase();
+            String unregistered;
+            do {
+                unregistered = randomPlate(random);
+            } while (plates.contains(unregistered) || !plateIndex.findOcrCandidates(PlateNormalizer.normalize(unregistered)).isEmpty());
+            unregisteredReads[i] = unregistered;
+            // A misread that only one registered plate can explain
+            while (misreads[i] == null) {
+                String candidate = all.get(misread++ % all.size());
+                String normalized = PlateNormalizer.normalize(candidate);
+                String read = PlateNormalizer.ocrKey(normalized);
+                if (!read.equals(normalized) && plateIndex.find(read) == null
+                        && plateIndex.findOcrCandidates(read).size() == 1) {
+                    misreads[i] = read;
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public GateCheckDTO gateCheckRegistered() {
+        return vehicleService.gateCheck(registeredReads[next++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public GateCheckDTO gateCheckUnregistered() {
+        return vehicleService.gateCheck(unregisteredReads[next++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public GateCheckDTO gateCheckMisread() {
+        return vehicleService.gateCheck(misreads[next++ & (SAMPLES - 1)]);
+    }
+
+    // The index alone, without the service proxy and the response object
+    @Benchmark
+    public PlateIndex.Entry indexLookup() {
+        return plateIndex.find(PlateNormalizer.normalize(registeredReads[next++ & (SAMPLES - 1)]));
+    }
+
+    @Benchmark
+    public Vehicle databaseByNormalizedPlate() {
+        return vehicleRepo.findByNormalizedPlate(PlateNormalizer.normalize(registeredReads[next++ & (SAMPLES - 1)]));
+    }
+
+    @Benchmark
+    public Vehicle databaseByPlateNumber() {
+        return vehicleRepo.findByPlateNumber(registeredPlates[next++ & (SAMPLES - 1)]);
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO vehicle (make, model, plate_number, color, type, user_id, entry_status, "
+                + "normalized_plate) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    // "ABC-1234": three letters and four digits, as most plates here are written
+    private static String randomPlate(Random random) {
+        StringBuilder plate = new StringBuilder(8);
+        for (int i = 0; i < 3; i++) {
+            plate.append((char) ('A' + random.nextInt(26)));
+        }
+        plate.append('-');
+        for (int i = 0; i < 4; i++) {
+            plate.append((char) ('0' + random.nextInt(10)));
+        }
+        return plate.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package lk.ijse.benchmarks.vehicle;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lk.ijse.vehicleservice.deadline.DeadlineAwareJpaTransactionManager;
+import lk.ijse.vehicleservice.entity.Vehicle;
+import lk.ijse.vehicleservice.gate.GateEventPipeline;
+import lk.ijse.vehicleservice.mapper.DirectVehicleMapper;
+import lk.ijse.vehicleservice.mapper.VehicleMapper;
+import lk.ijse.vehicleservice.movement.VehicleMovementRecorder;
+import lk.ijse.vehicleservice.movement.VehicleMovementStore;
+import lk.ijse.vehicleservice.plate.PlateIndex;
+import lk.ijse.vehicleservice.repo.VehicleRepo;
+import lk.ijse.vehicleservice.service.impl.VehicleServiceImpl;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal vehicle-service context on an in-memory H2 database, like {@code ParkingSpaceBenchmarkConfig}.
+ * The gate event log goes to {@code gate-events.log-file} (a system property), by default under the working
+ * directory.
+ */
+@Configuration
+@EnableTransactionManagement
+@EnableJpaRepositories(basePackageClasses = VehicleRepo.class)
+@Import({VehicleServiceImpl.class, PlateIndex.class, GateEventPipeline.class, VehicleMovementStore.class,
+        VehicleMovementRecorder.class})
+public class VehicleBenchmarkConfig {
+
+    @Bean
+    public DataSource dataSource() {
+        return new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPackagesToScan(Vehicle.class.getPackageName());
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        // Boot's table and column names (vehicle, plate_number), for seeding through JdbcTemplate
+        properties.put(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName());
+        properties.put(AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName());
+        factory.setJpaPropertyMap(properties);
+        return factory;
+    }
+
+    // The service's own transaction manager (see its TransactionConfig)
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new DeadlineAwareJpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        return new ObjectMapper();
+    }
+
+    @Bean
+    public VehicleMapper vehicleMapper() {
+        return new DirectVehicleMapper();
+    }
+}
@@ -0,0 +1,177 @@
+package lk.ijse.benchmarks.vehicle;
+
+import lk.ijse.vehicleservice.dto.VehicleDTO;
+import lk.ijse.vehicleservice.dto.VehicleMovementDTO;
+import lk.ijse.vehicleservice.dto.VehicleStayDTO;
+import lk.ijse.vehicleservice.movement.VehicleMovementRecorder;
+import lk.ijse.vehicleservice.movement.VehicleMovementStore;
+import lk.ijse.vehicleservice.service.VehicleService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Vehicle movement history as it grows.
+ * <p>
+ * First a functional pass: entry and exit calls through the service must show up as movements, in order, and
+ * as stays with their durations. Then the movement table is filled step by step with synthetic history (one
+ * movement every 2 seconds across 20,000 vehicles, so 1M rows are about 23 days). After each step the check
+ * prints the insert cost of that step and the time to stream three time-bounded queries: the last hour, the
+ * first day, and one vehicle's last 7 days. None of these should grow with the table. Each query's row count
+ * is also checked against the generated history. Exits with status 1 on a mismatch.
+ * <p>
+ * Runs on in-memory H2, which has no partitions; the time-bounded queries rely on the (day, id) key and the
+ * (vehicle_id, occurred_at) index, which MySQL uses within each partition.
+ * <p>
+ * Run with {@code java -Xmx4g -cp target/benchmarks.jar lk.ijse.benchmarks.vehicle.VehicleMovementScaleCheck
+ * [rows] [rowsPerStep]}.
+ */
+public class VehicleMovementScaleCheck {
+
+    private static final int VEHICLES = 20_000;
+    private static final long INTERVAL_MILLIS = 2000;
+    private static final int BATCH = 1000;
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int step = args.length > 1 ? Integer.parseInt(args[1]) : 250_000;
+        List<String> failures = new ArrayList<>();
+
+        System.setProperty("gate-events.log-file", System.getProperty("java.io.tmpdir") + "/movement-check/gate-events.jsonl");
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(VehicleBenchmarkConfig.class)) {
+            checkServiceHistory(context, failures);
+
+            VehicleMovementStore store = context.getBean(VehicleMovementStore.class);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+            // Synthetic history starts a day-aligned 2 years back, after the service's own movements' ids
+            long start = (System.currentTimeMillis() - 730 * DAY) / DAY * DAY;
+            long vehicleOffset = 1_000_000;
+
+            System.out.println("     rows  insert us/row  last hour ms (rows)  first day ms (rows)  vehicle 7 days ms (rows)");
+            List<VehicleMovementDTO> batch = new ArrayList<>(BATCH);
+            for (int inserted = 0; inserted < rows; ) {
+                int stepEnd = Math.min(rows, inserted + step);
+                long stepStarted = System.nanoTime();
+                for (; inserted < stepEnd; inserted++) {
+                    batch.add(movement(start, inserted, vehicleOffset));
+                    if (batch.size() == BATCH || inserted == stepEnd - 1) {
+                        transactionTemplate.executeWithoutResult(status -> store.insert(batch));
+                        batch.clear();
+                    }
+                }
+                double insertMicros = (System.nanoTime() - stepStarted) / 1e3 / step;
+
+                long end = start + (long) inserted * INTERVAL_MILLIS; // Exclusive end of the history so far
+                long[] hour = timed(() -> count(store, end - HOUR, end, null));
+                long[] firstDay = timed(() -> count(store, start, start + DAY, null));
+                long vehicle = vehicleOffset + (inserted - 1) % VEHICLES; // The one with the newest movement
+                long[] vehicleWeek = timed(() -> count(store, end - 7 * DAY, end, vehicle));
+
+                expect(failures, "last hour at " + inserted, hour[1], expectedRows(start, inserted, end - HOUR, end, null));
+                expect(failures, "first day at " + inserted, firstDay[1], expectedRows(start, inserted, start, start + DAY, null));
+                expect(failures, "vehicle week at " + inserted, vehicleWeek[1],
+                        expectedRows(start, inserted, end - 7 * DAY, end, vehicle - vehicleOffset));
+                System.out.printf("%9d  %13.2f  %12.1f (%5d)  %11.1f (%5d)  %17.1f (%3d)%n", inserted, insertMicros,
+                        hour[0] / 1e6, hour[1], firstDay[0] / 1e6, firstDay[1], vehicleWeek[0] / 1e6, vehicleWeek[1]);
+            }
+        }
+
+        failures.stream().limit(20).forEach(failure -> System.out.println("FAIL " + failure));
+        System.out.println(failures.isEmpty() ? "OK" : "FAILED (" + failures.size() + " failures)");
+        if (!failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    // Entry and exit through the service, recorded after commit by the movement writer
+    private static void checkServiceHistory(AnnotationConfigApplicationContext context, List<String> failures) throws InterruptedException {
+        VehicleService vehicleService = context.getBean(VehicleService.class);
+        VehicleMovementRecorder recorder = context.getBean(VehicleMovementRecorder.class);
+        long before = System.currentTimeMillis();
+        VehicleDTO vehicle = vehicleService.saveVehicle(new VehicleDTO(null, "Toyota", "Aqua", "MV-0001", "Black", "Car", 1L, "OUT"));
+        Long id = vehicle.getId();
+        vehicleService.recordVehicleEntry(id);
+        vehicleService.updateVehicleStatus(id, "PARKED");
+        vehicleService.recordVehicleEntry(id); // PARKED -> IN is a movement
+        vehicleService.recordVehicleEntry(id); // IN -> IN is not
+        Thread.sleep(20);
+        vehicleService.recordVehicleExit(id);
+        vehicleService.recordVehicleEntry(id);
+        while (recorder.queued() > 0) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200); // The batch in flight
+
+        List<String> statuses = new ArrayList<>();
+        vehicleService.streamVehicleMovements(id, before, null, movement -> statuses.add(movement.getPreviousStatus() + ">" + movement.getStatus()));
+        List<String> expected = List.of("null>OUT", "OUT>IN", "IN>PARKED", "PARKED>IN", "IN>OUT", "OUT>IN");
+        if (!statuses.equals(expected)) {
+            failures.add("service movements " + statuses + ", expected " + expected);
+        }
+        List<VehicleStayDTO> stays = vehicleService.getVehicleStays(id, before, null);
+        if (stays.size() != 2 || stays.get(0).getDurationSeconds() == null || stays.get(1).getExitedAt() != null) {
+            failures.add("stays " + stays + ", expected one finished and one open stay");
+        }
+        System.out.println("service movements: " + statuses + ", stays: " + stays);
+    }
+
+    // Movement i: vehicle i % VEHICLES, alternating IN and OUT for each vehicle
+    private static VehicleMovementDTO movement(long start, int i, long vehicleOffset) {
+        int visit = i / VEHICLES;
+        boolean in = visit % 2 == 0;
+        return new VehicleMovementDTO(null, vehicleOffset + i % VEHICLES, start + i * INTERVAL_MILLIS,
+                visit == 0 ? null : (in ? "OUT" : "IN"), in ? "IN" : "OUT", "GATE");
+    }
+
+    // Movements among the first 'inserted' in [from, to), optionally for one vehicle index
+    private static long expectedRows(long start, int inserted, long from, long to, Long vehicleIndex) {
+        long first = Math.max(0, (from - start + INTERVAL_MILLIS - 1) / INTERVAL_MILLIS);
+        long last = Math.min(inserted, (to - start + INTERVAL_MILLIS - 1) / INTERVAL_MILLIS); // Exclusive
+        if (vehicleIndex == null) {
+            return Math.max(0, last - first);
+        }
+        long count = 0;
+        for (long i = first; i < last; i++) {
+            if (i % VEHICLES == vehicleIndex) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long count(VehicleMovementStore store, long from, long to, Long vehicleId) {
+        AtomicLong rows = new AtomicLong();
+        if (vehicleId == null) {
+            store.streamWindow(from, to, movement -> rows.incrementAndGet());
+        } else {
+            store.streamVehicle(vehicleId, from, to, movement -> rows.incrementAndGet());
+        }
+        return rows.get();
+    }
+
+    // { best nanoseconds of 5 runs, rows }
+    private static long[] timed(LongSupplier query) {
+        long best = Long.MAX_VALUE;
+        long rows = 0;
+        for (int run = 0; run < 5; run++) {
+            long started = System.nanoTime();
+            rows = query.getAsLong();
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        return new long[]{best, rows};
+    }
+
+    private static void expect(List<String> failures, String query, long actual, long expected) {
+        if (actual != expected) {
+            failures.add(query + ": " + actual + " rows, expected " + expected);
+        }
+    }
+}
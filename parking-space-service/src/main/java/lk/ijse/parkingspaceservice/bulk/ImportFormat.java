@@ -0,0 +1,6 @@
+package lk.ijse.parkingspaceservice.bulk;
+
+public enum ImportFormat {
+    CSV, // A header line naming the columns, then one space per line
+    NDJSON // One ParkingSpaceDTO JSON object per line, as written by /stream
+}
@@ -0,0 +1,130 @@
+package lk.ijse.parkingspaceservice.bulk;
+
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The CSV form of parking spaces used by import and export: a header line, then one space per line. Fields
+ * containing a comma or quote are quoted, with quotes doubled; a field cannot span lines.
+ * <p>
+ * Columns are matched by header name in any order, so an export can be imported again; its id column is
+ * ignored on import, where every row becomes a new space.
+ */
+public final class ParkingSpaceCsv {
+
+    public static final String HEADER = "id,location,zone,available,type,externalRefId";
+
+    private final int location;
+    private final int zone;
+    private final int available;
+    private final int type;
+    private final int externalRefId; // -1 when the column is absent
+
+    private ParkingSpaceCsv(int location, int zone, int available, int type, int externalRefId) {
+        this.location = location;
+        this.zone = zone;
+        this.available = available;
+        this.type = type;
+        this.externalRefId = externalRefId;
+    }
+
+    // Column positions from the header line; every column except id and externalRefId is required
+    public static ParkingSpaceCsv fromHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("The CSV has no header line.");
+        }
+        List<String> columns = split(header.startsWith("\uFEFF") ? header.substring(1) : header).stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        return new ParkingSpaceCsv(required(columns, "location"), required(columns, "zone"),
+                required(columns, "available"), required(columns, "type"), columns.indexOf("externalrefid"));
+    }
+
+    public ParkingSpaceDTO parse(String line) {
+        List<String> fields = split(line);
+        ParkingSpaceDTO parkingSpace = new ParkingSpaceDTO();
+        parkingSpace.setLocation(field(fields, location));
+        parkingSpace.setZone(field(fields, zone));
+        parkingSpace.setAvailable(parseBoolean(field(fields, available)));
+        parkingSpace.setType(field(fields, type));
+        parkingSpace.setExternalRefId(externalRefId < 0 ? null : field(fields, externalRefId));
+        return parkingSpace;
+    }
+
+    public static String toLine(ParkingSpaceDTO parkingSpace) {
+        return String.join(",", parkingSpace.getId() == null ? "" : parkingSpace.getId().toString(),
+                quote(parkingSpace.getLocation()), quote(parkingSpace.getZone()),
+                Boolean.toString(parkingSpace.isAvailable()), quote(parkingSpace.getType()),
+                quote(parkingSpace.getExternalRefId()));
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field.");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static int required(List<String> columns, String name) {
+        int index = columns.indexOf(name.toLowerCase(Locale.ROOT));
+        if (index < 0) {
+            throw new IllegalArgumentException("The CSV header has no " + name + " column.");
+        }
+        return index;
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index >= fields.size()) {
+            throw new IllegalArgumentException("Expected at least " + (index + 1) + " fields, found " + fields.size() + ".");
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        throw new IllegalArgumentException("available must be true or false, found: " + value);
+    }
+}
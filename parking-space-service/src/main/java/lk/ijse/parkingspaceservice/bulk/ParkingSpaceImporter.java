@@ -0,0 +1,221 @@
+package lk.ijse.parkingspaceservice.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lk.ijse.parkingspaceservice.deadline.RequestDeadline;
+import lk.ijse.parkingspaceservice.dto.ImportResultDTO;
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.occupancy.OccupancyBroadcaster;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports parking spaces from a CSV or NDJSON body as it arrives, one line at a time, so memory use stays at one
+ * batch however large the import is.
+ * <p>
+ * Rows are validated as they are read; invalid ones are reported and left out. Valid rows are inserted with
+ * plain JDBC batches, one transaction per batch. Hibernate cannot batch inserts of IDENTITY entities, but the
+ * driver can: the batch goes out as one multi-row INSERT (rewriteBatchedStatements on MySQL) and the generated
+ * IDs come back with it. An import stops at a batch boundary when a batch fails, or before the request's
+ * deadline runs out, and reports the row to resume from.
+ */
+@Component
+public class ParkingSpaceImporter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO parking_space (location, zone, available, type, external_ref_id) VALUES (?, ?, ?, ?, ?)";
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ParkingSpaceAvailabilityIndex availabilityIndex;
+    private final OccupancyBroadcaster occupancyBroadcaster;
+    private final int defaultBatchSize;
+
+    public ParkingSpaceImporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                Validator validator, ObjectMapper objectMapper,
+                                ParkingSpaceAvailabilityIndex availabilityIndex, OccupancyBroadcaster occupancyBroadcaster,
+                                @Value("${bulk-import.batch-size:1000}") int defaultBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.availabilityIndex = availabilityIndex;
+        this.occupancyBroadcaster = occupancyBroadcaster;
+        this.defaultBatchSize = defaultBatchSize;
+    }
+
+    // skip: data rows already imported by an earlier, stopped import of the same body
+    public ImportResultDTO importRows(InputStream body, ImportFormat format, int skip, Integer batchSize) {
+        int size = Math.max(1, Math.min(batchSize == null ? defaultBatchSize : batchSize, MAX_BATCH_SIZE));
+        Progress progress = new Progress(skip);
+        List<ParkingSpace> batch = new ArrayList<>(size);
+        long slowestBatchMillis = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            ParkingSpaceCsv csv = format == ImportFormat.CSV ? ParkingSpaceCsv.fromHeader(reader.readLine()) : null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                progress.rowsRead++;
+                if (progress.rowsRead <= skip) {
+                    continue;
+                }
+                ParkingSpace parkingSpace = parse(line, csv, progress);
+                if (parkingSpace != null) {
+                    batch.add(parkingSpace);
+                }
+                if (batch.size() == size) {
+                    // Leave time to answer: the next batch is assumed to take up to twice the slowest so far
+                    if (RequestDeadline.remainingMillis() <= 2 * slowestBatchMillis) {
+                        return progress.stopped("The request deadline would pass before the next batch");
+                    }
+                    long start = System.nanoTime();
+                    String failure = insert(batch, progress);
+                    if (failure != null) {
+                        return progress.stopped(failure);
+                    }
+                    slowestBatchMillis = Math.max(slowestBatchMillis, (System.nanoTime() - start) / 1_000_000);
+                    progress.resumeFrom = progress.rowsRead;
+                }
+            }
+        } catch (IOException e) {
+            return progress.stopped("The request body could not be read: " + e.getMessage());
+        }
+
+        if (!batch.isEmpty()) {
+            String failure = insert(batch, progress);
+            if (failure != null) {
+                return progress.stopped(failure);
+            }
+        }
+        progress.resumeFrom = progress.rowsRead;
+        return progress.completed();
+    }
+
+    // Null when the row is invalid, which is then counted and reported
+    private ParkingSpace parse(String line, ParkingSpaceCsv csv, Progress progress) {
+        ParkingSpaceDTO dto;
+        try {
+            dto = csv != null ? csv.parse(line) : objectMapper.readValue(line, ParkingSpaceDTO.class);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            progress.reject("Row " + progress.rowsRead + ": " + e.getMessage());
+            return null;
+        }
+        Set<ConstraintViolation<ParkingSpaceDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            progress.reject("Row " + progress.rowsRead + ": " + violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        return new ParkingSpace(null, dto.getLocation(), dto.getZone(), dto.isAvailable(), dto.getType(),
+                dto.getExternalRefId());
+    }
+
+    // Commits the batch and indexes its spaces, then clears it; the failure's message when it rolled back
+    private String insert(List<ParkingSpace> batch, Progress progress) {
+        try {
+            KeyHolder keys = new GeneratedKeyHolder();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            ParkingSpace parkingSpace = batch.get(i);
+                            statement.setString(1, parkingSpace.getLocation());
+                            statement.setString(2, parkingSpace.getZone());
+                            statement.setBoolean(3, parkingSpace.isAvailable());
+                            statement.setString(4, parkingSpace.getType());
+                            if (parkingSpace.getExternalRefId() == null) {
+                                statement.setNull(5, Types.VARCHAR);
+                            } else {
+                                statement.setString(5, parkingSpace.getExternalRefId());
+                            }
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    },
+                    keys));
+            List<Map<String, Object>> generated = keys.getKeyList();
+            for (int i = 0; i < batch.size(); i++) {
+                ParkingSpace parkingSpace = batch.get(i);
+                parkingSpace.setId(((Number) generated.get(i).values().iterator().next()).longValue());
+                availabilityIndex.put(parkingSpace); // Committed already, so straight into the index
+            }
+            // Zone counts only: per-space events for a whole import would flood subscribers
+            batch.stream().map(ParkingSpace::getZone).distinct().forEach(occupancyBroadcaster::zoneChanged);
+            progress.imported += batch.size();
+            progress.batches++;
+            batch.clear();
+            return null;
+        } catch (DataAccessException | TransactionException e) {
+            return "Batch after row " + progress.resumeFrom + " failed: " + e.getMostSpecificCause().getMessage();
+        }
+    }
+
+    private static class Progress {
+
+        private int rowsRead;
+        private int imported;
+        private int rejected;
+        private int batches;
+        private int resumeFrom;
+        private final List<String> errors = new ArrayList<>();
+
+        Progress(int skip) {
+            this.resumeFrom = skip;
+        }
+
+        void reject(String error) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+
+        ImportResultDTO completed() {
+            return new ImportResultDTO(rowsRead, imported, rejected, batches, true, resumeFrom, null, errors);
+        }
+
+        ImportResultDTO stopped(String reason) {
+            return new ImportResultDTO(rowsRead, imported, rejected, batches, false, resumeFrom, reason, errors);
+        }
+    }
+}
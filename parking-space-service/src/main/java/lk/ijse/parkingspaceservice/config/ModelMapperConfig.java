@@ -1,6 +1,10 @@
 package lk.ijse.parkingspaceservice.config;
 
+import lk.ijse.parkingspaceservice.mapper.DirectParkingSpaceMapper;
+import lk.ijse.parkingspaceservice.mapper.ModelMapperParkingSpaceMapper;
+import lk.ijse.parkingspaceservice.mapper.ParkingSpaceMapper;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,4 +15,13 @@ public class ModelMapperConfig {
     public ModelMapper modelMapper() {
         return new ModelMapper();
     }
-}
\ No newline at end of file
+
+    // "direct" (default) uses the hand-written mapper; "modelmapper" switches back to reflective mapping
+    @Bean
+    public ParkingSpaceMapper parkingSpaceMapper(ModelMapper modelMapper, @Value("${mapper.strategy:direct}") String strategy) {
+        if ("modelmapper".equalsIgnoreCase(strategy)) {
+            return new ModelMapperParkingSpaceMapper(modelMapper);
+        }
+        return new DirectParkingSpaceMapper();
+    }
+}
@@ -0,0 +1,10 @@
+package lk.ijse.parkingspaceservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Runs the @Scheduled background jobs, such as the occupancy counter reconciliation
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
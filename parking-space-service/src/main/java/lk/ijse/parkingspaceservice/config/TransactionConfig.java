@@ -0,0 +1,22 @@
+package lk.ijse.parkingspaceservice.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lk.ijse.parkingspaceservice.deadline.DeadlineAwareJpaTransactionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class TransactionConfig {
+
+    // Replaces Boot's JpaTransactionManager (same customizers applied) so transactions honour request deadlines
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                         ObjectProvider<TransactionManagerCustomizers> customizers) {
+        DeadlineAwareJpaTransactionManager transactionManager = new DeadlineAwareJpaTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+}
@@ -1,13 +1,31 @@
 package lk.ijse.parkingspaceservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.ijse.parkingspaceservice.bulk.ImportFormat;
+import lk.ijse.parkingspaceservice.bulk.ParkingSpaceCsv;
+import lk.ijse.parkingspaceservice.dto.BatchReservationRequestDTO;
+import lk.ijse.parkingspaceservice.dto.BatchReservationResultDTO;
+import lk.ijse.parkingspaceservice.dto.CursorPageDTO;
+import lk.ijse.parkingspaceservice.dto.ImportResultDTO;
+import lk.ijse.parkingspaceservice.dto.IndexConsistencyDTO;
 import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceStatsDTO;
 import lk.ijse.parkingspaceservice.dto.ResponseDTO;
+import lk.ijse.parkingspaceservice.occupancy.OccupancyBroadcaster;
 import lk.ijse.parkingspaceservice.service.ParkingSpaceService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -16,9 +34,14 @@ import java.util.List;
 public class ParkingSpaceController {
 
     private final ParkingSpaceService parkingSpaceService;
+    private final ObjectMapper objectMapper;
+    private final OccupancyBroadcaster occupancyBroadcaster;
 
-    public ParkingSpaceController(ParkingSpaceService parkingSpaceService) {
+    public ParkingSpaceController(ParkingSpaceService parkingSpaceService, ObjectMapper objectMapper,
+                                  OccupancyBroadcaster occupancyBroadcaster) {
         this.parkingSpaceService = parkingSpaceService;
+        this.objectMapper = objectMapper;
+        this.occupancyBroadcaster = occupancyBroadcaster;
     }
 
     @PostMapping
@@ -32,6 +55,52 @@ public class ParkingSpaceController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @GetMapping(value = "/stream", produces = "application/x-ndjson") // One JSON object per line, heap stays flat
+    public ResponseEntity<StreamingResponseBody> streamAllParkingSpaces() {
+        StreamingResponseBody body = outputStream -> parkingSpaceService.streamAllParkingSpaces(parkingSpace -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(parkingSpace));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    @GetMapping(value = "/export", produces = "text/csv") // The CSV form /import reads; /stream is the NDJSON one
+    public ResponseEntity<StreamingResponseBody> exportParkingSpaces() {
+        StreamingResponseBody body = outputStream -> {
+            outputStream.write((ParkingSpaceCsv.HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+            parkingSpaceService.streamAllParkingSpaces(parkingSpace -> {
+                try {
+                    outputStream.write((ParkingSpaceCsv.toLine(parkingSpace) + "\n").getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header("Content-Disposition", "attachment; filename=\"parking-spaces.csv\"")
+                .body(body);
+    }
+
+    // Reads the body as it arrives; when an import stops early, ?skip=<resumeFrom> on the same body continues it
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ResponseDTO> importParkingSpaces(InputStream body,
+                                                           @RequestHeader("Content-Type") String contentType,
+                                                           @RequestParam(defaultValue = "0") int skip,
+                                                           @RequestParam(required = false) Integer batchSize) {
+        ImportFormat format = contentType.startsWith("text/csv") ? ImportFormat.CSV : ImportFormat.NDJSON;
+        ImportResultDTO result = parkingSpaceService.importParkingSpaces(body, format, skip, batchSize);
+        HttpStatus status = result.isCompleted() ? HttpStatus.CREATED : HttpStatus.INTERNAL_SERVER_ERROR;
+        String message = result.isCompleted()
+                ? "Parking Spaces Imported (" + result.getImported() + ")"
+                : "Import stopped; resume with skip=" + result.getResumeFrom();
+        return new ResponseEntity<>(new ResponseDTO(status.value(), message, result), status);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ResponseDTO> getParkingSpaceById(@PathVariable Long id) {
         ParkingSpaceDTO parkingSpace = parkingSpaceService.getParkingSpaceById(id);
@@ -44,7 +113,17 @@ public class ParkingSpaceController {
     }
 
     @GetMapping
-    public ResponseEntity<ResponseDTO> getAllParkingSpaces() {
+    public ResponseEntity<ResponseDTO> getAllParkingSpaces(@RequestParam(required = false) Long after,
+                                                           @RequestParam(required = false) Integer limit) {
+        if (after != null || limit != null) { // Keyset pagination when a cursor or page size is given
+            CursorPageDTO<ParkingSpaceDTO> page = parkingSpaceService.getParkingSpacesPage(after, limit);
+            ResponseDTO response = new ResponseDTO(
+                    HttpStatus.OK.value(),
+                    "Parking Spaces Page Retrieved Successfully",
+                    page
+            );
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        }
         List<ParkingSpaceDTO> parkingSpaces = parkingSpaceService.getAllParkingSpaces();
         ResponseDTO response = new ResponseDTO(
                 HttpStatus.OK.value(),
@@ -87,6 +166,39 @@ public class ParkingSpaceController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @GetMapping("/available-count-by-zone")
+    public ResponseEntity<ResponseDTO> countAvailableParkingSpacesByZone(@RequestParam String zone) {
+        int availableCount = parkingSpaceService.countAvailableParkingSpacesByZone(zone);
+        ResponseDTO response = new ResponseDTO(
+                HttpStatus.OK.value(),
+                "Available Parking Space Count Retrieved Successfully",
+                availableCount
+        );
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/stats") // Total, available and reserved per zone and type, without reading any rows
+    public ResponseEntity<ResponseDTO> getParkingSpaceStats() {
+        ParkingSpaceStatsDTO stats = parkingSpaceService.getParkingSpaceStats();
+        ResponseDTO response = new ResponseDTO(
+                HttpStatus.OK.value(),
+                "Parking Space Statistics Retrieved Successfully",
+                stats
+        );
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Server-Sent Events: a snapshot of the free counts, then coalesced changes as they commit; instead of polling
+    @GetMapping(value = "/occupancy/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOccupancy(@RequestParam(required = false) String zone) {
+        SseEmitter emitter = occupancyBroadcaster.subscribe(zone);
+        if (emitter == null) {
+            // An event stream can't carry a ResponseDTO body, so the status alone says it
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many occupancy subscribers");
+        }
+        return emitter;
+    }
+
     // --- New Endpoints for Requirements ---
 
     @PatchMapping("/{id}/reserve") // PATCH is suitable for partial updates like status changes
@@ -111,6 +223,30 @@ public class ParkingSpaceController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @PostMapping("/allocate") // Reserves any free space in the zone in one round-trip
+    public ResponseEntity<ResponseDTO> allocateParkingSpace(@RequestParam String zone,
+                                                            @RequestParam(required = false) String type) {
+        ParkingSpaceDTO allocatedSpace = parkingSpaceService.allocateParkingSpace(zone, type);
+        ResponseDTO response = new ResponseDTO(
+                HttpStatus.OK.value(),
+                "Parking Space Allocated Successfully",
+                allocatedSpace
+        );
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @PostMapping("/reserve-batch") // Many spaces in one transaction; 409 when an ALL_OR_NOTHING batch was abandoned
+    public ResponseEntity<ResponseDTO> reserveParkingSpaces(@RequestBody BatchReservationRequestDTO request) {
+        BatchReservationResultDTO result = parkingSpaceService.reserveParkingSpaces(request);
+        return batchResponse(result, "Parking Spaces Reserved", "No Parking Space Reserved");
+    }
+
+    @PostMapping("/release-batch")
+    public ResponseEntity<ResponseDTO> releaseParkingSpaces(@RequestBody BatchReservationRequestDTO request) {
+        BatchReservationResultDTO result = parkingSpaceService.releaseParkingSpaces(request);
+        return batchResponse(result, "Parking Spaces Released", "No Parking Space Released");
+    }
+
     @PatchMapping("/{id}/status") // Generic endpoint for status update
     public ResponseEntity<ResponseDTO> updateParkingSpaceStatus(@PathVariable Long id, @RequestParam boolean status) {
         ParkingSpaceDTO updatedSpace = parkingSpaceService.updateParkingSpaceStatus(id, status);
@@ -136,4 +272,24 @@ public class ParkingSpaceController {
         );
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
+
+    @GetMapping("/availability-index/consistency") // Compares the in-memory availability index with the database
+    public ResponseEntity<ResponseDTO> checkAvailabilityIndex(@RequestParam(defaultValue = "false") boolean rebuild) {
+        IndexConsistencyDTO consistency = parkingSpaceService.checkAvailabilityIndex(rebuild);
+        ResponseDTO response = new ResponseDTO(
+                HttpStatus.OK.value(),
+                consistency.isConsistent() ? "Availability Index Is Consistent" : "Availability Index Is Inconsistent",
+                consistency
+        );
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // The per-ID results go back either way, so the caller can see what blocked the batch
+    private static ResponseEntity<ResponseDTO> batchResponse(BatchReservationResultDTO result, String applied, String abandoned) {
+        HttpStatus status = result.isApplied() ? HttpStatus.OK : HttpStatus.CONFLICT;
+        String message = result.isApplied()
+                ? applied + " (" + result.getSucceeded() + " of " + result.getRequested() + ")"
+                : abandoned;
+        return new ResponseEntity<>(new ResponseDTO(status.value(), message, result), status);
+    }
 }
\ No newline at end of file
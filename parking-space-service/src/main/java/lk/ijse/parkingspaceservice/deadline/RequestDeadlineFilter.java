@@ -0,0 +1,66 @@
+package lk.ijse.parkingspaceservice.deadline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lk.ijse.parkingspaceservice.dto.ResponseDTO;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the time budget the api-gateway sends in {@link #TIMEOUT_HEADER} and makes it the request's
+ * {@link RequestDeadline}, so database work stops once nobody is waiting for the answer any more.
+ * A request whose budget is already used up gets 504 without being processed.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE) // Before security and everything else, so late requests cost nothing
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    // Set by the api-gateway's RouteResilienceFilter: milliseconds left before the caller gives up
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private final ObjectMapper objectMapper;
+
+    public RequestDeadlineFilter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String timeout = request.getHeader(TIMEOUT_HEADER);
+        long budgetMillis;
+        try {
+            budgetMillis = timeout == null ? -1 : Long.parseLong(timeout.trim());
+        } catch (NumberFormatException e) {
+            budgetMillis = -1; // Ignored rather than rejected, like a missing header
+        }
+        if (timeout == null || budgetMillis < 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (budgetMillis == 0) {
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ResponseDTO(HttpStatus.GATEWAY_TIMEOUT.value(), "Request deadline exceeded", null));
+            return;
+        }
+
+        RequestDeadline.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
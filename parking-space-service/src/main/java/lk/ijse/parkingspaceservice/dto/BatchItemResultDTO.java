@@ -0,0 +1,24 @@
+package lk.ijse.parkingspaceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResultDTO {
+    private Long id;
+    private Outcome outcome;
+    private ParkingSpaceDTO parkingSpace; // The space after the transition; null unless it was reserved or released
+
+    public enum Outcome {
+        RESERVED,
+        RELEASED,
+        NOT_FOUND,
+        ALREADY_OCCUPIED,
+        ALREADY_AVAILABLE,
+        IN_PROGRESS, // Another request was transitioning the space
+        NOT_APPLIED // Could have been transitioned, but an ALL_OR_NOTHING batch was abandoned
+    }
+}
@@ -0,0 +1,7 @@
+package lk.ijse.parkingspaceservice.dto;
+
+// How a batch reserve/release treats spaces it cannot transition
+public enum BatchMode {
+    ALL_OR_NOTHING, // One such space and nothing in the batch changes
+    BEST_EFFORT // The rest of the batch changes anyway
+}
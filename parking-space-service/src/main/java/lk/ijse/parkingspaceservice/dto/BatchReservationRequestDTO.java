@@ -0,0 +1,19 @@
+package lk.ijse.parkingspaceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Either ids, or (reserve only) a zone, optional type and count of any free spaces in it
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReservationRequestDTO {
+    private List<Long> ids;
+    private String zone;
+    private String type;
+    private Integer count;
+    private BatchMode mode; // ALL_OR_NOTHING when not given
+}
@@ -0,0 +1,18 @@
+package lk.ijse.parkingspaceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReservationResultDTO {
+    private BatchMode mode;
+    private boolean applied; // False when an ALL_OR_NOTHING batch was abandoned and nothing changed
+    private int requested;
+    private int succeeded;
+    private List<BatchItemResultDTO> results; // In request order
+}
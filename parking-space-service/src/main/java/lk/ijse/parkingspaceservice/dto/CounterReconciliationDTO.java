@@ -0,0 +1,17 @@
+package lk.ijse.parkingspaceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CounterReconciliationDTO {
+    private long checkedAt; // Epoch milliseconds
+    private boolean consistent;
+    private List<String> differences; // Counters against the database, for each zone and type that differs
+    private boolean repaired; // True when the index and its counters were rebuilt from the database
+}
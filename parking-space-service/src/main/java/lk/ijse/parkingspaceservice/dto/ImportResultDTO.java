@@ -0,0 +1,21 @@
+package lk.ijse.parkingspaceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDTO {
+    private int rowsRead; // Data rows read from the body, including skipped and rejected ones
+    private int imported;
+    private int rejected; // Rows that failed validation; they are reported in errors and not imported
+    private int batches; // Batches committed by this request
+    private boolean completed;
+    private int resumeFrom; // Every row before this one is done; pass it as ?skip= to continue a stopped import
+    private String stoppedBecause; // Null when completed
+    private List<String> errors; // The first rejected rows and why
+}
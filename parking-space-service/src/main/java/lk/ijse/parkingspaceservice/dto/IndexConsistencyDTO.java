@@ -0,0 +1,18 @@
+package lk.ijse.parkingspaceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexConsistencyDTO {
+    private int indexedSpaces;
+    private int databaseSpaces;
+    private boolean consistent;
+    private List<String> mismatches;
+    private boolean rebuilt; // True when the index was rebuilt from the database after the check
+}
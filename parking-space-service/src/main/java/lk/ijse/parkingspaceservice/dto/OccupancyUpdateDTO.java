@@ -0,0 +1,29 @@
+package lk.ijse.parkingspaceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyUpdateDTO {
+    private long sequence; // Also the SSE event id; consecutive for a subscriber that sees every zone
+    private long publishedAt; // Epoch milliseconds
+    private boolean snapshot; // True for the first message of a subscription, which holds every zone and no spaces
+    private Map<String, Integer> freeByZone; // Free spaces now, for each zone that changed; zones are lowercase
+    private List<SpaceState> spaces; // Latest state of each space that changed since the previous message
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SpaceState {
+        private Long id;
+        private String zone;
+        private boolean available;
+        private long changedAt; // Epoch milliseconds at which the change committed
+    }
+}
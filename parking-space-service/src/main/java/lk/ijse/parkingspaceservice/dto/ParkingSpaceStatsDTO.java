@@ -0,0 +1,17 @@
+package lk.ijse.parkingspaceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingSpaceStatsDTO {
+    private SpaceCountsDTO all;
+    private Map<String, SpaceCountsDTO> byZone; // Lowercase zone names, in order
+    private Map<String, SpaceCountsDTO> byType; // Lowercase type names, in order
+    private CounterReconciliationDTO lastReconciliation; // Null until the first check has run
+}
@@ -0,0 +1,14 @@
+package lk.ijse.parkingspaceservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpaceCountsDTO {
+    private int total;
+    private int available;
+    private int reserved;
+}
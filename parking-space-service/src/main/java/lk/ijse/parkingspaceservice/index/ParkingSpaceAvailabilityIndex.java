@@ -0,0 +1,316 @@
+package lk.ijse.parkingspaceservice.index;
+
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory availability index for parking spaces.
+ * <p>
+ * Every zone owns a block of dense slots; a {@link BitSet} over those slots marks which spaces are
+ * currently available, so availability lookups and free-space counts never touch the database.
+ * The index only reflects committed state: callers apply changes after their transaction commits.
+ * It also keeps the per-zone and per-type {@link ParkingSpaceCounters} up to date as changes arrive.
+ * <p>
+ * A rebuild from the database runs while changes keep committing. Between {@link #beginRebuild()} and
+ * {@link #finishRebuild} the index records the latest state of every space that changes, and replays those
+ * states over the rows that were read, so rows read before a commit never overwrite that commit.
+ */
+@Component
+public class ParkingSpaceAvailabilityIndex {
+
+    private final Map<String, ZoneSlots> zones = new ConcurrentHashMap<>();
+    private final Map<Long, String> zoneById = new ConcurrentHashMap<>();
+    private final ParkingSpaceFreeLists freeLists = new ParkingSpaceFreeLists();
+    private final ParkingSpaceCounters counters = new ParkingSpaceCounters();
+    private final List<Rebuild> rebuilds = new ArrayList<>(); // Guarded by this
+
+    // Replaces the whole index with the given spaces, when nothing else changes it (e.g. at startup or in tests)
+    public synchronized void rebuild(Collection<ParkingSpace> spaces) {
+        zones.clear();
+        zoneById.clear();
+        freeLists.clear();
+        counters.clear();
+        for (ParkingSpace space : spaces) {
+            apply(space);
+        }
+    }
+
+    /**
+     * Starts recording changes for a rebuild. Call it before the database read begins, and hand the rows read to
+     * {@link #finishRebuild}, or the rebuild to {@link #abortRebuild} if they are not used.
+     */
+    public synchronized Rebuild beginRebuild() {
+        Rebuild rebuild = new Rebuild();
+        rebuilds.add(rebuild);
+        return rebuild;
+    }
+
+    // Replaces the index with the rows read, then replays the changes recorded since the rebuild began
+    public synchronized void finishRebuild(Rebuild rebuild, Collection<ParkingSpace> spaces) {
+        if (!rebuilds.remove(rebuild)) {
+            throw new IllegalStateException("This availability index rebuild is not running");
+        }
+        rebuild(spaces);
+        rebuild.changed.forEach((id, space) -> {
+            if (space == null) {
+                delete(id);
+            } else {
+                apply(space);
+            }
+        });
+    }
+
+    public synchronized void abortRebuild(Rebuild rebuild) {
+        rebuilds.remove(rebuild);
+    }
+
+    // Inserts or updates a space, moving it to another zone if its zone changed
+    public synchronized void put(ParkingSpace space) {
+        if (space == null || space.getId() == null) {
+            return;
+        }
+        for (Rebuild rebuild : rebuilds) {
+            rebuild.changed.put(space.getId(), copyOf(space));
+        }
+        apply(space);
+    }
+
+    public synchronized void remove(Long id) {
+        for (Rebuild rebuild : rebuilds) {
+            rebuild.changed.put(id, null);
+        }
+        delete(id);
+    }
+
+    private void apply(ParkingSpace space) {
+        String zoneKey = keyOf(space.getZone());
+        String previousZone = zoneById.put(space.getId(), zoneKey);
+        ParkingSpace replaced = null;
+        if (previousZone != null) {
+            ZoneSlots previous = zones.get(previousZone);
+            replaced = previous == null ? null : previous.get(space.getId());
+            if (previous != null && !previousZone.equals(zoneKey)) {
+                previous.remove(space.getId());
+            }
+        }
+        zones.computeIfAbsent(zoneKey, key -> new ZoneSlots()).put(copyOf(space));
+        if (replaced == null) {
+            counters.apply(zoneKey, keyOf(space.getType()), space.isAvailable(), 1);
+        } else {
+            counters.replace(previousZone, keyOf(replaced.getType()), replaced.isAvailable(),
+                    zoneKey, keyOf(space.getType()), space.isAvailable());
+        }
+        if (space.isAvailable()) {
+            freeLists.offer(space.getId(), zoneKey, keyOf(space.getType()));
+        }
+    }
+
+    private void delete(Long id) {
+        String zoneKey = zoneById.remove(id);
+        if (zoneKey != null) {
+            ZoneSlots slots = zones.get(zoneKey);
+            ParkingSpace removed = slots == null ? null : slots.get(id);
+            if (removed != null) {
+                counters.apply(zoneKey, keyOf(removed.getType()), removed.isAvailable(), -1);
+                slots.remove(id);
+            }
+        }
+    }
+
+    // Returns snapshots of the available spaces in the zone; the snapshots must not be modified
+    public List<ParkingSpace> findAvailableByZone(String zone) {
+        ZoneSlots slots = zones.get(keyOf(zone));
+        return slots == null ? List.of() : slots.available(space -> true);
+    }
+
+    // Returns available spaces across all zones whose name matches the zone filter
+    public List<ParkingSpace> findAvailable(Predicate<String> zoneFilter, Predicate<ParkingSpace> spaceFilter) {
+        List<ParkingSpace> result = new ArrayList<>();
+        zones.forEach((zone, slots) -> {
+            if (zoneFilter.test(zone)) {
+                result.addAll(slots.available(spaceFilter));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Takes an available space off the zone's free-list for allocation, or returns null when none is left.
+     * The space stays available in the index until the caller commits the reservation.
+     */
+    public Long pollFree(String zone, String type) {
+        String zoneKey = keyOf(zone);
+        String typeKey = type == null || type.isEmpty() ? null : keyOf(type);
+        Long id;
+        while ((id = freeLists.poll(zoneKey, typeKey)) != null) {
+            if (Boolean.TRUE.equals(isAvailable(id))) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    // Puts a polled space back on its free-list, e.g. when the allocating transaction rolled back
+    public void requeue(Long id) {
+        String zoneKey = zoneById.get(id);
+        ZoneSlots slots = zoneKey == null ? null : zones.get(zoneKey);
+        ParkingSpace space = slots == null ? null : slots.get(id);
+        if (space != null && space.isAvailable()) {
+            freeLists.offer(id, zoneKey, keyOf(space.getType()));
+        }
+    }
+
+    public int countAvailableByZone(String zone) {
+        ZoneSlots slots = zones.get(keyOf(zone));
+        return slots == null ? 0 : slots.availableCount();
+    }
+
+    // Free-space count of every zone, keyed by the lowercase zone name
+    public Map<String, Integer> countAvailableByZone() {
+        Map<String, Integer> counts = new HashMap<>();
+        zones.forEach((zone, slots) -> counts.put(zone, slots.availableCount()));
+        return counts;
+    }
+
+    // Live counts per zone and type; they reflect the same committed changes as the rest of the index
+    public ParkingSpaceCounters counters() {
+        return counters;
+    }
+
+    public Boolean isAvailable(Long id) {
+        String zoneKey = zoneById.get(id);
+        ZoneSlots slots = zoneKey == null ? null : zones.get(zoneKey);
+        return slots == null ? null : slots.isAvailable(id);
+    }
+
+    public int size() {
+        return zoneById.size();
+    }
+
+    /**
+     * Compares the index with the given database rows and returns a description of every difference.
+     * An empty list means the index is consistent.
+     */
+    public List<String> verify(Collection<ParkingSpace> databaseSpaces) {
+        List<String> mismatches = new ArrayList<>();
+        Map<Long, ParkingSpace> expected = new HashMap<>();
+        for (ParkingSpace space : databaseSpaces) {
+            expected.put(space.getId(), space);
+        }
+
+        for (ParkingSpace space : expected.values()) {
+            String zoneKey = zoneById.get(space.getId());
+            if (zoneKey == null) {
+                mismatches.add("Parking Space " + space.getId() + " is missing from the index");
+            } else if (!zoneKey.equals(keyOf(space.getZone()))) {
+                mismatches.add("Parking Space " + space.getId() + " is indexed in zone '" + zoneKey
+                        + "' but stored in zone '" + space.getZone() + "'");
+            } else if (!Objects.equals(isAvailable(space.getId()), space.isAvailable())) {
+                mismatches.add("Parking Space " + space.getId() + " availability differs (index: "
+                        + isAvailable(space.getId()) + ", database: " + space.isAvailable() + ")");
+            }
+        }
+        for (Long id : zoneById.keySet()) {
+            if (!expected.containsKey(id)) {
+                mismatches.add("Parking Space " + id + " is indexed but no longer exists in the database");
+            }
+        }
+        return mismatches;
+    }
+
+    private static String keyOf(String value) {
+        // Zones and types are matched case-insensitively, like the default MySQL collation does
+        return value == null ? "" : value.toLowerCase();
+    }
+
+    private static ParkingSpace copyOf(ParkingSpace space) {
+        return new ParkingSpace(space.getId(), space.getLocation(), space.getZone(), space.isAvailable(),
+                space.getType(), space.getExternalRefId());
+    }
+
+    // The changes made to the index while one rebuild's rows were being read
+    public static final class Rebuild {
+        private final Map<Long, ParkingSpace> changed = new LinkedHashMap<>(); // Latest state by ID, null once removed
+
+        private Rebuild() {
+        }
+    }
+
+    // Dense slot storage for one zone; freed slots are reused so the bitsets stay compact
+    private static final class ZoneSlots {
+        private final Map<Long, Integer> slotById = new HashMap<>();
+        private final BitSet used = new BitSet();
+        private final BitSet available = new BitSet();
+        private ParkingSpace[] spaces = new ParkingSpace[64];
+        private int availableCount;
+        private int lowestFreeSlot;
+
+        synchronized void put(ParkingSpace space) {
+            Integer slot = slotById.get(space.getId());
+            if (slot == null) {
+                slot = used.nextClearBit(lowestFreeSlot);
+                lowestFreeSlot = slot + 1;
+                if (slot >= spaces.length) {
+                    ParkingSpace[] grown = new ParkingSpace[Math.max(spaces.length * 2, slot + 1)];
+                    System.arraycopy(spaces, 0, grown, 0, spaces.length);
+                    spaces = grown;
+                }
+                used.set(slot);
+                slotById.put(space.getId(), slot);
+            }
+            spaces[slot] = space;
+            if (available.get(slot) != space.isAvailable()) {
+                availableCount += space.isAvailable() ? 1 : -1;
+                available.set(slot, space.isAvailable());
+            }
+        }
+
+        synchronized void remove(Long id) {
+            Integer slot = slotById.remove(id);
+            if (slot != null) {
+                spaces[slot] = null;
+                used.clear(slot);
+                lowestFreeSlot = Math.min(lowestFreeSlot, slot);
+                if (available.get(slot)) {
+                    availableCount--;
+                    available.clear(slot);
+                }
+            }
+        }
+
+        synchronized List<ParkingSpace> available(Predicate<ParkingSpace> filter) {
+            List<ParkingSpace> result = new ArrayList<>(availableCount);
+            for (int slot = available.nextSetBit(0); slot >= 0; slot = available.nextSetBit(slot + 1)) {
+                if (filter.test(spaces[slot])) {
+                    result.add(spaces[slot]);
+                }
+            }
+            return result;
+        }
+
+        synchronized int availableCount() {
+            return availableCount;
+        }
+
+        synchronized ParkingSpace get(Long id) {
+            Integer slot = slotById.get(id);
+            return slot == null ? null : spaces[slot];
+        }
+
+        synchronized Boolean isAvailable(Long id) {
+            Integer slot = slotById.get(id);
+            return slot == null ? null : available.get(slot);
+        }
+    }
+}
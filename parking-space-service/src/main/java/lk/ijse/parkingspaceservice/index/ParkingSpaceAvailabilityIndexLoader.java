@@ -0,0 +1,34 @@
+package lk.ijse.parkingspaceservice.index;
+
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class ParkingSpaceAvailabilityIndexLoader implements ApplicationRunner {
+
+    private final ParkingSpaceRepo parkingSpaceRepo;
+    private final ParkingSpaceAvailabilityIndex availabilityIndex;
+
+    public ParkingSpaceAvailabilityIndexLoader(ParkingSpaceRepo parkingSpaceRepo, ParkingSpaceAvailabilityIndex availabilityIndex) {
+        this.parkingSpaceRepo = parkingSpaceRepo;
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    // Seeds the availability index from the database once the application has started
+    @Override
+    @Transactional(readOnly = true)
+    public void run(ApplicationArguments args) {
+        // Requests may already be changing spaces while the table is read
+        ParkingSpaceAvailabilityIndex.Rebuild rebuild = availabilityIndex.beginRebuild();
+        try {
+            availabilityIndex.finishRebuild(rebuild, parkingSpaceRepo.findAll());
+        } catch (RuntimeException e) {
+            availabilityIndex.abortRebuild(rebuild);
+            throw e;
+        }
+        System.out.println("Parking space availability index loaded with " + availabilityIndex.size() + " spaces");
+    }
+}
@@ -0,0 +1,26 @@
+package lk.ijse.parkingspaceservice.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table of parking spaces with a state transition in flight on this instance.
+ * <p>
+ * Claiming is a single CAS on a concurrent set, so when a burst of callers targets the same space only one of
+ * them reaches the database; the others fail fast. The database conditional update stays the source of truth.
+ */
+@Component
+public class ParkingSpaceClaimTable {
+
+    private final Set<Long> claimedSpaces = ConcurrentHashMap.newKeySet();
+
+    public boolean tryClaim(Long id) {
+        return claimedSpaces.add(id);
+    }
+
+    public void release(Long id) {
+        claimedSpaces.remove(id);
+    }
+}
@@ -0,0 +1,164 @@
+package lk.ijse.parkingspaceservice.index;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Space counts per zone and per type (total and available; reserved is the difference), kept by
+ * {@link ParkingSpaceAvailabilityIndex} as it applies each committed change, so reading them never depends on
+ * the number of spaces.
+ * <p>
+ * Only the index changes the counts, under its own lock. Total and available are packed into one word, so a
+ * reader on another thread sees both from the same moment through {@link Counts#snapshot()}. A zone or type is
+ * dropped once it holds no spaces; listeners hear about keys as they come and go.
+ */
+public class ParkingSpaceCounters {
+
+    public static final String ZONE = "zone";
+    public static final String TYPE = "type";
+
+    private final Counts all = new Counts();
+    private final Map<String, Counts> byZone = new ConcurrentHashMap<>();
+    private final Map<String, Counts> byType = new ConcurrentHashMap<>();
+    private volatile BiConsumer<String, String> newKeyListener = (dimension, key) -> { };
+    private volatile BiConsumer<String, String> removedKeyListener = (dimension, key) -> { };
+
+    // Called with (ZONE or TYPE, key) for every key seen from now on, and for the keys already seen
+    public void onNewKey(BiConsumer<String, String> listener) {
+        this.newKeyListener = listener;
+        byZone.keySet().forEach(zone -> listener.accept(ZONE, zone));
+        byType.keySet().forEach(type -> listener.accept(TYPE, type));
+    }
+
+    // Called with (ZONE or TYPE, key) when the last space of a zone or type is gone
+    public void onRemovedKey(BiConsumer<String, String> listener) {
+        this.removedKeyListener = listener;
+    }
+
+    public Counts all() {
+        return all;
+    }
+
+    // Null for a zone or type that holds no spaces; keys are lowercase
+    public Counts zone(String zoneKey) {
+        return byZone.get(zoneKey);
+    }
+
+    public Counts type(String typeKey) {
+        return byType.get(typeKey);
+    }
+
+    public Map<String, Counts> byZone() {
+        return new TreeMap<>(byZone);
+    }
+
+    public Map<String, Counts> byType() {
+        return new TreeMap<>(byType);
+    }
+
+    // delta is 1 when a space in this state arrives and -1 when it leaves
+    void apply(String zoneKey, String typeKey, boolean available, int delta) {
+        long change = Counts.delta(available, delta);
+        all.add(change);
+        add(byZone, ZONE, zoneKey, change);
+        add(byType, TYPE, typeKey, change);
+    }
+
+    // A space that changed state; where both states share a key, that key changes in one step
+    void replace(String previousZoneKey, String previousTypeKey, boolean wasAvailable,
+                 String zoneKey, String typeKey, boolean available) {
+        long left = Counts.delta(wasAvailable, -1);
+        long arrived = Counts.delta(available, 1);
+        all.add(left + arrived);
+        move(byZone, ZONE, previousZoneKey, zoneKey, left, arrived);
+        move(byType, TYPE, previousTypeKey, typeKey, left, arrived);
+    }
+
+    private void move(Map<String, Counts> counts, String dimension, String from, String to, long left, long arrived) {
+        if (from.equals(to)) {
+            add(counts, dimension, to, left + arrived);
+        } else {
+            add(counts, dimension, to, arrived);
+            add(counts, dimension, from, left);
+        }
+    }
+
+    // Drops the key once its last space is gone
+    private void add(Map<String, Counts> counts, String dimension, String key, long change) {
+        Counts updated = countsOf(counts, dimension, key);
+        updated.add(change);
+        if (updated.total() == 0) {
+            remove(counts, dimension, key);
+        }
+    }
+
+    void clear() {
+        all.clear();
+        byZone.keySet().forEach(zone -> remove(byZone, ZONE, zone));
+        byType.keySet().forEach(type -> remove(byType, TYPE, type));
+    }
+
+    private void remove(Map<String, Counts> counts, String dimension, String key) {
+        if (counts.remove(key) != null) {
+            removedKeyListener.accept(dimension, key);
+        }
+    }
+
+    private Counts countsOf(Map<String, Counts> counts, String dimension, String key) {
+        Counts existing = counts.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        Counts created = new Counts();
+        counts.put(key, created);
+        newKeyListener.accept(dimension, key);
+        return created;
+    }
+
+    // Total in the high 32 bits, available in the low 32; both change in one atomic add
+    public static final class Counts {
+        private final AtomicLong packed = new AtomicLong();
+
+        public int total() {
+            return snapshot().total();
+        }
+
+        public int available() {
+            return snapshot().available();
+        }
+
+        public int reserved() {
+            return snapshot().reserved();
+        }
+
+        // Total and available from the same moment
+        public Snapshot snapshot() {
+            long value = packed.get();
+            int available = (int) value;
+            return new Snapshot((int) ((value - available) >> 32), available);
+        }
+
+        private void add(long change) {
+            packed.addAndGet(change);
+        }
+
+        // The packed form of delta spaces in the given state
+        private static long delta(boolean isAvailable, int delta) {
+            return ((long) delta << 32) + (isAvailable ? delta : 0);
+        }
+
+        private void clear() {
+            packed.set(0);
+        }
+    }
+
+    public record Snapshot(int total, int available) {
+
+        public int reserved() {
+            return total - available;
+        }
+    }
+}
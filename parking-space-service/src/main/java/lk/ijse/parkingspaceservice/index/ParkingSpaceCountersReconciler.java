@@ -0,0 +1,153 @@
+package lk.ijse.parkingspaceservice.index;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.ijse.parkingspaceservice.dto.CounterReconciliationDTO;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Periodically compares the in-memory {@link ParkingSpaceCounters} with a GROUP BY count of the database.
+ * <p>
+ * A change that has committed but not reached the index yet looks like drift for a moment, so a difference
+ * only counts once a second check, a little later, finds the same zone or type off by the same amount. Confirmed
+ * drift is logged and counted in {@code parking.counters.drift}, and the index (and so the counters) is rebuilt
+ * from the database, with the changes that commit during the read replayed over it.
+ */
+@Component
+public class ParkingSpaceCountersReconciler {
+
+    private final ParkingSpaceRepo parkingSpaceRepo;
+    private final ParkingSpaceAvailabilityIndex availabilityIndex;
+    private final long confirmDelayMillis;
+    private final boolean repair;
+    private final Counter drift;
+    private volatile CounterReconciliationDTO lastResult;
+
+    public ParkingSpaceCountersReconciler(ParkingSpaceRepo parkingSpaceRepo, ParkingSpaceAvailabilityIndex availabilityIndex,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${parking-stats.confirm-delay-millis:1000}") long confirmDelayMillis,
+                                          @Value("${parking-stats.repair-on-drift:true}") boolean repair) {
+        this.parkingSpaceRepo = parkingSpaceRepo;
+        this.availabilityIndex = availabilityIndex;
+        this.confirmDelayMillis = confirmDelayMillis;
+        this.repair = repair;
+        this.drift = Counter.builder("parking.counters.drift")
+                .description("Reconciliations that found the occupancy counters out of line with the database")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${parking-stats.reconcile-interval-millis:60000}",
+            fixedDelayString = "${parking-stats.reconcile-interval-millis:60000}")
+    public CounterReconciliationDTO reconcile() {
+        Map<String, Difference> first = differences();
+        List<String> differences = new ArrayList<>();
+        if (!first.isEmpty()) {
+            try {
+                Thread.sleep(confirmDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return lastResult;
+            }
+            // Only drift that stayed put is confirmed; in-flight changes move on between the checks
+            differences().forEach((key, difference) -> {
+                if (difference.sameDrift(first.get(key))) {
+                    differences.add(key + ": " + difference);
+                }
+            });
+        }
+
+        boolean repaired = false;
+        if (!differences.isEmpty()) {
+            drift.increment();
+            System.out.println("Occupancy counters differ from the database: " + differences);
+            if (repair) {
+                ParkingSpaceAvailabilityIndex.Rebuild rebuild = availabilityIndex.beginRebuild();
+                try {
+                    availabilityIndex.finishRebuild(rebuild, parkingSpaceRepo.findAll());
+                } catch (RuntimeException e) {
+                    availabilityIndex.abortRebuild(rebuild);
+                    throw e;
+                }
+                repaired = true;
+            }
+        }
+        lastResult = new CounterReconciliationDTO(System.currentTimeMillis(), differences.isEmpty(), differences, repaired);
+        return lastResult;
+    }
+
+    // Null until the first run
+    public CounterReconciliationDTO lastResult() {
+        return lastResult;
+    }
+
+    // Keyed by dimension and zone or type
+    private Map<String, Difference> differences() {
+        Map<String, int[]> zones = new TreeMap<>(); // Key -> { total, available }
+        Map<String, int[]> types = new TreeMap<>();
+        for (Object[] row : parkingSpaceRepo.countByZoneAndTypeAndAvailable()) {
+            int count = ((Number) row[3]).intValue();
+            boolean available = Boolean.TRUE.equals(row[2]);
+            add(zones, keyOf((String) row[0]), available, count);
+            add(types, keyOf((String) row[1]), available, count);
+        }
+
+        ParkingSpaceCounters counters = availabilityIndex.counters();
+        Map<String, Difference> differences = new TreeMap<>();
+        compare(ParkingSpaceCounters.ZONE, zones, counters.byZone(), differences);
+        compare(ParkingSpaceCounters.TYPE, types, counters.byType(), differences);
+        return differences;
+    }
+
+    private static void compare(String dimension, Map<String, int[]> database, Map<String, ParkingSpaceCounters.Counts> counted,
+                                Map<String, Difference> differences) {
+        Set<String> keys = new TreeSet<>(database.keySet());
+        keys.addAll(counted.keySet());
+        for (String key : keys) {
+            int[] expected = database.getOrDefault(key, new int[2]);
+            ParkingSpaceCounters.Counts counts = counted.get(key);
+            ParkingSpaceCounters.Snapshot actual = counts == null ? new ParkingSpaceCounters.Snapshot(0, 0) : counts.snapshot();
+            int total = actual.total();
+            int available = actual.available();
+            if (total != expected[0] || available != expected[1]) {
+                differences.put(dimension + " '" + key + "'", new Difference(total, available, expected[0], expected[1]));
+            }
+        }
+    }
+
+    private record Difference(int total, int available, int expectedTotal, int expectedAvailable) {
+
+        boolean sameDrift(Difference other) {
+            return other != null && total - expectedTotal == other.total - other.expectedTotal
+                    && available - expectedAvailable == other.available - other.expectedAvailable;
+        }
+
+        @Override
+        public String toString() {
+            return "counters " + total + " total / " + available + " available, database " + expectedTotal + " / "
+                    + expectedAvailable;
+        }
+    }
+
+    private static void add(Map<String, int[]> counts, String key, boolean available, int count) {
+        int[] totals = counts.computeIfAbsent(key, k -> new int[2]);
+        totals[0] += count;
+        if (available) {
+            totals[1] += count;
+        }
+    }
+
+    // Lowercase, as the index keys zones and types
+    private static String keyOf(String value) {
+        return value == null ? "" : value.toLowerCase();
+    }
+}
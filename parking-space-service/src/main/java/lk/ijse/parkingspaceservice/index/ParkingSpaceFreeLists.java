@@ -0,0 +1,95 @@
+package lk.ijse.parkingspaceservice.index;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-zone, per-type free-lists of parking space ids used by the allocation endpoint.
+ * <p>
+ * Each list is split into lock-free shards and every allocator starts polling at a random shard, so concurrent
+ * allocators rarely contend on the same queue head. An id is queued at most once; entries that went stale
+ * (reserved through another path or moved to another zone/type) are discarded by the caller when polled.
+ */
+class ParkingSpaceFreeLists {
+
+    private static final int SHARD_COUNT = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+
+    private final Map<String, Map<String, Shards>> listsByZone = new ConcurrentHashMap<>();
+    private final Map<Long, String> queuedKeyById = new ConcurrentHashMap<>();
+
+    void offer(Long id, String zoneKey, String typeKey) {
+        String key = zoneKey + '\u0000' + typeKey;
+        // Skip ids that are already queued under the same zone/type so the queues never grow past the fleet size
+        if (key.equals(queuedKeyById.put(id, key))) {
+            return;
+        }
+        listsByZone.computeIfAbsent(zoneKey, zone -> new ConcurrentHashMap<>())
+                .computeIfAbsent(typeKey, type -> new Shards())
+                .offer(id);
+    }
+
+    // Polls a queued id for the zone and, when given, the type; returns null when every matching list is empty
+    Long poll(String zoneKey, String typeKey) {
+        Map<String, Shards> listsByType = listsByZone.get(zoneKey);
+        if (listsByType == null) {
+            return null;
+        }
+        if (typeKey != null) {
+            Shards shards = listsByType.get(typeKey);
+            return shards == null ? null : poll(shards, zoneKey + '\u0000' + typeKey);
+        }
+        for (Map.Entry<String, Shards> entry : listsByType.entrySet()) {
+            Long id = poll(entry.getValue(), zoneKey + '\u0000' + entry.getKey());
+            if (id != null) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    void clear() {
+        listsByZone.clear();
+        queuedKeyById.clear();
+    }
+
+    private Long poll(Shards shards, String key) {
+        Long id;
+        while ((id = shards.poll()) != null) {
+            // An id re-queued under another zone/type leaves a stale entry behind in its old list
+            if (queuedKeyById.remove(id, key)) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    private static final class Shards {
+        private final Queue<Long>[] queues;
+
+        @SuppressWarnings("unchecked")
+        Shards() {
+            queues = new Queue[SHARD_COUNT];
+            for (int i = 0; i < SHARD_COUNT; i++) {
+                queues[i] = new ConcurrentLinkedQueue<>();
+            }
+        }
+
+        void offer(Long id) {
+            queues[(int) (id ^ (id >>> 32)) & (SHARD_COUNT - 1)].offer(id);
+        }
+
+        Long poll() {
+            int start = ThreadLocalRandom.current().nextInt(SHARD_COUNT);
+            for (int i = 0; i < SHARD_COUNT; i++) {
+                Long id = queues[(start + i) & (SHARD_COUNT - 1)].poll();
+                if (id != null) {
+                    return id;
+                }
+            }
+            return null;
+        }
+    }
+}
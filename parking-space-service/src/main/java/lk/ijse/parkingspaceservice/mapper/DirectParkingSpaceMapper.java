@@ -0,0 +1,47 @@
+package lk.ijse.parkingspaceservice.mapper;
+
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+
+// Hand-written field copies, resolved at compile time instead of ModelMapper's reflective matching
+public class DirectParkingSpaceMapper implements ParkingSpaceMapper {
+
+    @Override
+    public ParkingSpaceDTO toDTO(ParkingSpace parkingSpace) {
+        if (parkingSpace == null) {
+            return null;
+        }
+        return new ParkingSpaceDTO(
+                parkingSpace.getId(),
+                parkingSpace.getLocation(),
+                parkingSpace.getZone(),
+                parkingSpace.isAvailable(),
+                parkingSpace.getType(),
+                parkingSpace.getExternalRefId()
+        );
+    }
+
+    @Override
+    public ParkingSpace toEntity(ParkingSpaceDTO parkingSpaceDTO) {
+        if (parkingSpaceDTO == null) {
+            return null;
+        }
+        return new ParkingSpace(
+                parkingSpaceDTO.getId(),
+                parkingSpaceDTO.getLocation(),
+                parkingSpaceDTO.getZone(),
+                parkingSpaceDTO.isAvailable(),
+                parkingSpaceDTO.getType(),
+                parkingSpaceDTO.getExternalRefId()
+        );
+    }
+
+    @Override
+    public void copyToEntity(ParkingSpaceDTO parkingSpaceDTO, ParkingSpace parkingSpace) {
+        parkingSpace.setLocation(parkingSpaceDTO.getLocation());
+        parkingSpace.setZone(parkingSpaceDTO.getZone());
+        parkingSpace.setAvailable(parkingSpaceDTO.isAvailable());
+        parkingSpace.setType(parkingSpaceDTO.getType());
+        parkingSpace.setExternalRefId(parkingSpaceDTO.getExternalRefId());
+    }
+}
@@ -0,0 +1,32 @@
+package lk.ijse.parkingspaceservice.mapper;
+
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import org.modelmapper.ModelMapper;
+
+// Reflective mapping through the shared ModelMapper bean (the original behaviour)
+public class ModelMapperParkingSpaceMapper implements ParkingSpaceMapper {
+
+    private final ModelMapper modelMapper;
+
+    public ModelMapperParkingSpaceMapper(ModelMapper modelMapper) {
+        this.modelMapper = modelMapper;
+    }
+
+    @Override
+    public ParkingSpaceDTO toDTO(ParkingSpace parkingSpace) {
+        return modelMapper.map(parkingSpace, ParkingSpaceDTO.class);
+    }
+
+    @Override
+    public ParkingSpace toEntity(ParkingSpaceDTO parkingSpaceDTO) {
+        return modelMapper.map(parkingSpaceDTO, ParkingSpace.class);
+    }
+
+    @Override
+    public void copyToEntity(ParkingSpaceDTO parkingSpaceDTO, ParkingSpace parkingSpace) {
+        Long id = parkingSpace.getId();
+        modelMapper.map(parkingSpaceDTO, parkingSpace);
+        parkingSpace.setId(id);
+    }
+}
@@ -0,0 +1,10 @@
+package lk.ijse.parkingspaceservice.mapper;
+
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+
+public interface ParkingSpaceMapper {
+    ParkingSpaceDTO toDTO(ParkingSpace parkingSpace);
+    ParkingSpace toEntity(ParkingSpaceDTO parkingSpaceDTO);
+    void copyToEntity(ParkingSpaceDTO parkingSpaceDTO, ParkingSpace parkingSpace); // Overwrites every field except the ID
+}
@@ -0,0 +1,74 @@
+package lk.ijse.parkingspaceservice.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceCounters;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the occupancy counters as gauges: parking.spaces{state} for the whole fleet, and
+ * parking.zone.spaces{zone, state} and parking.type.spaces{type, state} with state total, available or
+ * reserved. Gauges for a zone or type are registered when it gets its first space and removed with its last.
+ */
+@Component
+public class ParkingSpaceCountersMetrics implements MeterBinder {
+
+    private final ParkingSpaceAvailabilityIndex availabilityIndex;
+    private final Map<String, List<Meter.Id>> gaugesByKey = new ConcurrentHashMap<>(); // "dimension:key" -> its gauges
+
+    public ParkingSpaceCountersMetrics(ParkingSpaceAvailabilityIndex availabilityIndex) {
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ParkingSpaceCounters counters = availabilityIndex.counters();
+        register(registry, "parking.spaces", null, null, counters, ParkingSpaceCounters::all);
+        counters.onNewKey((dimension, key) -> {
+            List<Meter.Id> gauges = ParkingSpaceCounters.ZONE.equals(dimension)
+                    ? register(registry, "parking.zone.spaces", dimension, key, counters, c -> c.zone(key))
+                    : register(registry, "parking.type.spaces", dimension, key, counters, c -> c.type(key));
+            gaugesByKey.put(dimension + ":" + key, gauges);
+        });
+        counters.onRemovedKey((dimension, key) -> {
+            List<Meter.Id> gauges = gaugesByKey.remove(dimension + ":" + key);
+            if (gauges != null) {
+                gauges.forEach(registry::remove);
+            }
+        });
+    }
+
+    private static List<Meter.Id> register(MeterRegistry registry, String name, String tag, String key,
+                                           ParkingSpaceCounters counters,
+                                           Function<ParkingSpaceCounters, ParkingSpaceCounters.Counts> counts) {
+        return List.of(
+                gauge(registry, name, tag, key, "total", counters, c -> valueOf(counts.apply(c), ParkingSpaceCounters.Snapshot::total)),
+                gauge(registry, name, tag, key, "available", counters, c -> valueOf(counts.apply(c), ParkingSpaceCounters.Snapshot::available)),
+                gauge(registry, name, tag, key, "reserved", counters, c -> valueOf(counts.apply(c), ParkingSpaceCounters.Snapshot::reserved)));
+    }
+
+    // NaN in the moment between a key's removal and its gauges' removal
+    private static double valueOf(ParkingSpaceCounters.Counts counts, ToDoubleFunction<ParkingSpaceCounters.Snapshot> state) {
+        return counts == null ? Double.NaN : state.applyAsDouble(counts.snapshot());
+    }
+
+    private static Meter.Id gauge(MeterRegistry registry, String name, String tag, String key, String state,
+                                  ParkingSpaceCounters counters, ToDoubleFunction<ParkingSpaceCounters> value) {
+        Gauge.Builder<ParkingSpaceCounters> builder = Gauge.builder(name, counters, value)
+                .description("Parking spaces by state, from the in-memory occupancy counters")
+                .tag("state", state);
+        if (tag != null) {
+            builder.tag(tag, key);
+        }
+        return builder.register(registry).getId();
+    }
+}
@@ -0,0 +1,350 @@
+package lk.ijse.parkingspaceservice.occupancy;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lk.ijse.parkingspaceservice.dto.OccupancyUpdateDTO;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes occupancy changes to Server-Sent Events subscribers.
+ * <p>
+ * Committed changes are collected for a short window and then published as one message: the latest state of
+ * every space that changed and the free count of every zone they are in, read from the availability index.
+ * A burst of reservations therefore costs subscribers one message, not one per space.
+ * <p>
+ * Each message is serialized once, or once per zone for subscribers that follow a single zone, and handed to
+ * every subscriber's bounded mailbox. A small pool writes the mailboxes out, so the publishing thread never
+ * waits on a client. A subscriber whose mailbox fills up is too slow to keep up: its stream is closed, and
+ * the client's reconnect starts over from a snapshot. A periodic comment keeps idle connections open and
+ * finds disconnected clients.
+ * <p>
+ * A servlet write blocks while the client isn't reading. A watchdog looks at the sends in progress: once a send
+ * has been waiting for a moment, a pool thread is added in its place so the other subscribers keep getting
+ * their messages, and once it misses the send deadline the subscriber is dropped. The waiting thread is freed
+ * when the container's write timeout ({@code server.tomcat.connection-timeout}) fails the write, and the pool
+ * shrinks back. Only the pool thread that owns a subscriber's stream ever sends to or completes it, since the
+ * emitter holds its lock for the whole write.
+ */
+@Component
+public class OccupancyBroadcaster {
+
+    private static final String EVENT_NAME = "occupancy";
+
+    private static final long STALL_CHECK_MILLIS = 50; // A send to a reading client takes well under this
+
+    private final ParkingSpaceAvailabilityIndex availabilityIndex;
+    private final ObjectMapper objectMapper;
+    private final long coalesceMillis;
+    private final long subscriberTimeoutMillis;
+    private final int maxSubscribers;
+    private final int mailboxSize;
+    private final long sendTimeoutMillis;
+    private final int fanOutThreads;
+    private final int maxStalledSends;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Map<Long, OccupancyUpdateDTO.SpaceState> pendingSpaces = new ConcurrentHashMap<>();
+    private final Set<String> pendingZones = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor fanOut;
+    private int stalledSends; // Guarded by resizeFanOut
+
+    private final Counter messages;
+    private final Counter droppedSubscribers;
+    private final Counter stalledSubscribers;
+
+    public OccupancyBroadcaster(ParkingSpaceAvailabilityIndex availabilityIndex, ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${occupancy.coalesce-millis:250}") long coalesceMillis,
+                                @Value("${occupancy.heartbeat-millis:15000}") long heartbeatMillis,
+                                @Value("${occupancy.subscriber-timeout-millis:1800000}") long subscriberTimeoutMillis,
+                                @Value("${occupancy.max-subscribers:20000}") int maxSubscribers,
+                                @Value("${occupancy.mailbox-size:32}") int mailboxSize,
+                                @Value("${occupancy.fan-out-threads:2}") int fanOutThreads,
+                                @Value("${occupancy.send-timeout-millis:2000}") long sendTimeoutMillis,
+                                @Value("${occupancy.max-stalled-sends:64}") int maxStalledSends) {
+        this.availabilityIndex = availabilityIndex;
+        this.objectMapper = objectMapper;
+        this.coalesceMillis = coalesceMillis;
+        this.subscriberTimeoutMillis = subscriberTimeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.mailboxSize = Math.max(1, mailboxSize);
+        this.sendTimeoutMillis = Math.max(1, sendTimeoutMillis);
+        this.fanOutThreads = Math.max(1, fanOutThreads);
+        this.maxStalledSends = Math.max(0, maxStalledSends);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemon("occupancy-publisher"));
+        this.fanOut = new ThreadPoolExecutor(this.fanOutThreads, this.fanOutThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemon("occupancy-fan-out"));
+        this.scheduler.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        this.scheduler.scheduleAtFixedRate(this::checkSends, STALL_CHECK_MILLIS, STALL_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("occupancy.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open occupancy streams")
+                .register(meterRegistry);
+        this.messages = Counter.builder("occupancy.messages")
+                .description("Coalesced occupancy updates published")
+                .register(meterRegistry);
+        this.droppedSubscribers = Counter.builder("occupancy.subscribers.dropped")
+                .description("Occupancy streams closed because the client fell too far behind")
+                .register(meterRegistry);
+        this.stalledSubscribers = Counter.builder("occupancy.subscribers.stalled")
+                .description("Occupancy streams dropped because a write to the client missed its deadline")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the given zone, or for every zone when it is null or empty. The first event is a
+     * snapshot of the free counts. Returns null when the subscriber limit is reached.
+     */
+    public SseEmitter subscribe(String zone) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(subscriberTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, zone == null || zone.isEmpty() ? null : zoneKeyOf(zone));
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+
+        Map<String, Integer> counts = availabilityIndex.countAvailableByZone();
+        if (subscriber.zone != null) {
+            counts = Map.of(subscriber.zone, counts.getOrDefault(subscriber.zone, 0));
+        }
+        OccupancyUpdateDTO snapshot = new OccupancyUpdateDTO(
+                sequence.get(), System.currentTimeMillis(), true, counts, List.of());
+        subscriber.offer(event(snapshot));
+        return emitter;
+    }
+
+    // Called once the change has committed and the availability index holds it
+    public void spaceChanged(ParkingSpace space) {
+        String zone = zoneKeyOf(space.getZone());
+        pendingSpaces.put(space.getId(),
+                new OccupancyUpdateDTO.SpaceState(space.getId(), zone, space.isAvailable(), System.currentTimeMillis()));
+        pendingZones.add(zone);
+        scheduleFlush();
+    }
+
+    // A zone's free count changed without per-space events, e.g. after a bulk import or a space moving away
+    public void zoneChanged(String zone) {
+        pendingZones.add(zoneKeyOf(zone));
+        scheduleFlush();
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
+        fanOut.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, coalesceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false); // Changes from here on schedule the next message
+        List<OccupancyUpdateDTO.SpaceState> spaces = new ArrayList<>();
+        for (Long id : pendingSpaces.keySet()) {
+            OccupancyUpdateDTO.SpaceState state = pendingSpaces.remove(id);
+            if (state != null) {
+                spaces.add(state);
+            }
+        }
+        Map<String, Integer> freeByZone = new HashMap<>();
+        for (String zone : pendingZones) {
+            pendingZones.remove(zone);
+            freeByZone.put(zone, availabilityIndex.countAvailableByZone(zone));
+        }
+        if (freeByZone.isEmpty()) {
+            return;
+        }
+
+        OccupancyUpdateDTO update = new OccupancyUpdateDTO(
+                sequence.incrementAndGet(), System.currentTimeMillis(), false, freeByZone, spaces);
+        messages.increment();
+        Set<ResponseBodyEmitter.DataWithMediaType> everyZone = event(update);
+        Map<String, Set<ResponseBodyEmitter.DataWithMediaType>> byZone = new HashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.zone == null) {
+                subscriber.offer(everyZone);
+            } else if (freeByZone.containsKey(subscriber.zone)) {
+                subscriber.offer(byZone.computeIfAbsent(subscriber.zone, zone -> event(onlyZone(update, zone))));
+            }
+        }
+    }
+
+    private void checkSends() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStartedAt.get();
+            if (started == 0) {
+                continue;
+            }
+            // Negative once the send's thread has been replaced; the drain puts the pool back when the send returns
+            if (started > 0 && now - started >= STALL_CHECK_MILLIS
+                    && subscriber.sendStartedAt.compareAndSet(started, -started)) {
+                resizeFanOut(1);
+            }
+            if (now - Math.abs(started) > sendTimeoutMillis) {
+                stalledSubscribers.increment();
+                remove(subscriber);
+            }
+        }
+    }
+
+    // One extra pool thread per send left waiting on a client, up to maxStalledSends
+    private synchronized void resizeFanOut(int stalledSendsChange) {
+        stalledSends += stalledSendsChange;
+        int size = fanOutThreads + Math.max(0, Math.min(stalledSends, maxStalledSends));
+        if (size > fanOut.getMaximumPoolSize()) {
+            fanOut.setMaximumPoolSize(size);
+            fanOut.setCorePoolSize(size);
+        } else if (size < fanOut.getMaximumPoolSize()) {
+            fanOut.setCorePoolSize(size);
+            fanOut.setMaximumPoolSize(size);
+        }
+    }
+
+    private void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> comment = SseEmitter.event().comment("").build();
+        subscribers.forEach(subscriber -> subscriber.offer(comment));
+    }
+
+    private static OccupancyUpdateDTO onlyZone(OccupancyUpdateDTO update, String zone) {
+        return new OccupancyUpdateDTO(update.getSequence(), update.getPublishedAt(), false,
+                Map.of(zone, update.getFreeByZone().get(zone)),
+                update.getSpaces().stream().filter(space -> zone.equals(space.getZone())).toList());
+    }
+
+    // Serialized here, once, and shared by every mailbox it goes to
+    private Set<ResponseBodyEmitter.DataWithMediaType> event(OccupancyUpdateDTO update) {
+        try {
+            return SseEmitter.event()
+                    .id(Long.toString(update.getSequence()))
+                    .name(EVENT_NAME)
+                    .data(objectMapper.writeValueAsString(update))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize occupancy update", e);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscribers.remove(subscriber);
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    // Zones are matched case-insensitively, like the availability index does
+    private static String zoneKeyOf(String zone) {
+        return zone == null ? "" : zone.toLowerCase();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger threads = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        private final String zone; // Null for every zone
+        private final ArrayBlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> mailbox;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private final AtomicLong sendStartedAt = new AtomicLong(); // 0 while no send is in progress
+
+        Subscriber(SseEmitter emitter, String zone) {
+            this.emitter = emitter;
+            this.zone = zone;
+            this.mailbox = new ArrayBlockingQueue<>(mailboxSize);
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!mailbox.offer(event)) {
+                droppedSubscribers.increment();
+                remove(this); // The drain completes the stream; a send in progress would block complete() here
+            }
+            if (draining.compareAndSet(false, true)) {
+                fanOut.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while (!closed.get() && (event = mailbox.poll()) != null) {
+                    sendStartedAt.set(System.currentTimeMillis());
+                    emitter.send(event);
+                    sendEnded();
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove(this); // The client went away, or the emitter already completed
+            } finally {
+                sendEnded();
+                if (closed.get() && completed.compareAndSet(false, true)) {
+                    emitter.complete();
+                }
+                draining.set(false);
+                // An event offered after the last poll but before the flag was cleared would wait for the next one
+                if (!closed.get() && !mailbox.isEmpty() && draining.compareAndSet(false, true)) {
+                    fanOut.execute(this::drain);
+                }
+            }
+        }
+
+        private void sendEnded() {
+            if (sendStartedAt.getAndSet(0) < 0) {
+                resizeFanOut(-1); // This thread is back, so the one added in its place can go
+            }
+        }
+    }
+}
@@ -1,13 +1,63 @@
 package lk.ijse.parkingspaceservice.repo;
 
 import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // Import this
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ParkingSpaceRepo extends JpaRepository<ParkingSpace, Long>, JpaSpecificationExecutor<ParkingSpace> { // Extend JpaSpecificationExecutor
     List<ParkingSpace> findByAvailableTrueAndZone(String zone);
-}
\ No newline at end of file
+
+    // Keyset pagination: the next page starts after the last ID of the previous one
+    List<ParkingSpace> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Streams rows with a server-side cursor (MySQL streams result sets when the fetch size is Integer.MIN_VALUE)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM ParkingSpace p ORDER BY p.id")
+    Stream<ParkingSpace> streamAllBy();
+
+    // Atomic conditional transitions: return 1 when the row changed state, 0 when it was already in the target state
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ParkingSpace p SET p.available = false WHERE p.id = :id AND p.available = true")
+    int reserveIfAvailable(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ParkingSpace p SET p.available = true WHERE p.id = :id AND p.available = false")
+    int releaseIfReserved(@Param("id") Long id);
+
+    // SELECT ... FOR UPDATE; locks are taken in ID order, so two overlapping batches cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM ParkingSpace p WHERE p.id IN :ids ORDER BY p.id")
+    List<ParkingSpace> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Batch forms of the transitions above: one statement for the whole batch, returning the rows changed
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ParkingSpace p SET p.available = false WHERE p.id IN :ids AND p.available = true")
+    int reserveAllIfAvailable(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ParkingSpace p SET p.available = true WHERE p.id IN :ids AND p.available = false")
+    int releaseAllIfReserved(@Param("ids") Collection<Long> ids);
+
+    // Rows per zone, type and availability: { zone, type, available, count }, for checking the in-memory counters
+    @Query("SELECT p.zone, p.type, p.available, COUNT(p) FROM ParkingSpace p GROUP BY p.zone, p.type, p.available")
+    List<Object[]> countByZoneAndTypeAndAvailable();
+}
@@ -1,22 +1,41 @@
 package lk.ijse.parkingspaceservice.service;
 
+import lk.ijse.parkingspaceservice.bulk.ImportFormat;
+import lk.ijse.parkingspaceservice.dto.BatchReservationRequestDTO;
+import lk.ijse.parkingspaceservice.dto.BatchReservationResultDTO;
+import lk.ijse.parkingspaceservice.dto.CursorPageDTO;
+import lk.ijse.parkingspaceservice.dto.ImportResultDTO;
+import lk.ijse.parkingspaceservice.dto.IndexConsistencyDTO;
 import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceStatsDTO;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ParkingSpaceService {
     ParkingSpaceDTO saveParkingSpace(ParkingSpaceDTO parkingSpaceDTO);
     ParkingSpaceDTO getParkingSpaceById(Long id);
     List<ParkingSpaceDTO> getAllParkingSpaces();
+    CursorPageDTO<ParkingSpaceDTO> getParkingSpacesPage(Long after, Integer limit); // Keyset-paginated listing
+    void streamAllParkingSpaces(Consumer<ParkingSpaceDTO> consumer); // Streams every space without loading them all
+    ImportResultDTO importParkingSpaces(InputStream body, ImportFormat format, int skip, Integer batchSize); // Streamed, batched bulk insert
     void deleteParkingSpace(Long id);
     ParkingSpaceDTO updateParkingSpace(Long id, ParkingSpaceDTO parkingSpaceDTO);
 
     List<ParkingSpaceDTO> getAvailableParkingSpacesByZone(String zone);
+    int countAvailableParkingSpacesByZone(String zone); // Free-space count served from the availability index
+    ParkingSpaceStatsDTO getParkingSpaceStats(); // Totals per zone and type from the in-memory counters
 
     // New methods for reserving, releasing, and status update
     ParkingSpaceDTO reserveParkingSpace(Long id); // Marks as unavailable
     ParkingSpaceDTO releaseParkingSpace(Long id); // Marks as available
     ParkingSpaceDTO updateParkingSpaceStatus(Long id, boolean isAvailable); // Generic status update
+    ParkingSpaceDTO allocateParkingSpace(String zone, String type); // Reserves any free space in the zone
+    BatchReservationResultDTO reserveParkingSpaces(BatchReservationRequestDTO request); // Many spaces in one transaction
+    BatchReservationResultDTO releaseParkingSpaces(BatchReservationRequestDTO request);
 
     List<ParkingSpaceDTO> filterParkingSpaces(String location, String zone, Boolean available, String type); // More generic filtering
+
+    IndexConsistencyDTO checkAvailabilityIndex(boolean rebuildOnMismatch); // Compares the availability index with the database
 }
\ No newline at end of file
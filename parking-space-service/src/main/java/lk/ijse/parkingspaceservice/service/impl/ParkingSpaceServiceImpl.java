@@ -1,77 +1,187 @@
 package lk.ijse.parkingspaceservice.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lk.ijse.parkingspaceservice.bulk.ImportFormat;
+import lk.ijse.parkingspaceservice.bulk.ParkingSpaceImporter;
+import lk.ijse.parkingspaceservice.dto.BatchItemResultDTO;
+import lk.ijse.parkingspaceservice.dto.BatchMode;
+import lk.ijse.parkingspaceservice.dto.BatchReservationRequestDTO;
+import lk.ijse.parkingspaceservice.dto.BatchReservationResultDTO;
+import lk.ijse.parkingspaceservice.dto.CursorPageDTO;
+import lk.ijse.parkingspaceservice.dto.ImportResultDTO;
+import lk.ijse.parkingspaceservice.dto.IndexConsistencyDTO;
 import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceStatsDTO;
+import lk.ijse.parkingspaceservice.dto.SpaceCountsDTO;
 import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceClaimTable;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceCounters;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceCountersReconciler;
+import lk.ijse.parkingspaceservice.mapper.ParkingSpaceMapper;
+import lk.ijse.parkingspaceservice.occupancy.OccupancyBroadcaster;
 import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
 import lk.ijse.parkingspaceservice.service.ParkingSpaceService;
-import org.modelmapper.ModelMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.data.jpa.domain.Specification; // Import for dynamic queries
 import jakarta.persistence.criteria.Predicate; // Import for dynamic queries
 
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Timed(value = "service.method", histogram = true) // Every public method, tagged with class and method
 public class ParkingSpaceServiceImpl implements ParkingSpaceService {
 
+    private static final int MAX_ALLOCATION_ATTEMPTS = 16;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final ParkingSpaceRepo parkingSpaceRepo;
-    private final ModelMapper modelMapper;
+    private final ParkingSpaceMapper parkingSpaceMapper;
+    private final ParkingSpaceAvailabilityIndex availabilityIndex;
+    private final ParkingSpaceClaimTable claimTable;
+    private final ParkingSpaceImporter parkingSpaceImporter;
+    private final OccupancyBroadcaster occupancyBroadcaster;
+    private final ParkingSpaceCountersReconciler countersReconciler;
+
+    // Reservations refused because another request got there first
+    private final Counter reservationsInProgress;
+    private final Counter reservationsOccupied;
+    private final Counter allocationsExhausted;
 
-    public ParkingSpaceServiceImpl(ParkingSpaceRepo parkingSpaceRepo, ModelMapper modelMapper) {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ParkingSpaceServiceImpl(ParkingSpaceRepo parkingSpaceRepo, ParkingSpaceMapper parkingSpaceMapper,
+                                   ParkingSpaceAvailabilityIndex availabilityIndex, ParkingSpaceClaimTable claimTable,
+                                   ParkingSpaceImporter parkingSpaceImporter, OccupancyBroadcaster occupancyBroadcaster,
+                                   ParkingSpaceCountersReconciler countersReconciler, MeterRegistry meterRegistry) {
         this.parkingSpaceRepo = parkingSpaceRepo;
-        this.modelMapper = modelMapper;
+        this.parkingSpaceMapper = parkingSpaceMapper;
+        this.availabilityIndex = availabilityIndex;
+        this.claimTable = claimTable;
+        this.parkingSpaceImporter = parkingSpaceImporter;
+        this.occupancyBroadcaster = occupancyBroadcaster;
+        this.countersReconciler = countersReconciler;
+        this.reservationsInProgress = conflictCounter(meterRegistry, "reserve", "in_progress");
+        this.reservationsOccupied = conflictCounter(meterRegistry, "reserve", "occupied");
+        this.allocationsExhausted = conflictCounter(meterRegistry, "allocate", "no_free_space");
     }
 
     @Override
     public ParkingSpaceDTO saveParkingSpace(ParkingSpaceDTO parkingSpaceDTO) {
-        ParkingSpace parkingSpace = modelMapper.map(parkingSpaceDTO, ParkingSpace.class);
+        ParkingSpace parkingSpace = parkingSpaceMapper.toEntity(parkingSpaceDTO);
         ParkingSpace savedParkingSpace = parkingSpaceRepo.save(parkingSpace);
-        return modelMapper.map(savedParkingSpace, ParkingSpaceDTO.class);
+        indexAfterCommit(savedParkingSpace);
+        return parkingSpaceMapper.toDTO(savedParkingSpace);
     }
 
     @Override
     public ParkingSpaceDTO getParkingSpaceById(Long id) {
         ParkingSpace parkingSpace = parkingSpaceRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Parking Space not found with ID: " + id));
-        return modelMapper.map(parkingSpace, ParkingSpaceDTO.class);
+        return parkingSpaceMapper.toDTO(parkingSpace);
     }
 
     @Override
     public List<ParkingSpaceDTO> getAllParkingSpaces() {
         List<ParkingSpace> parkingSpaces = parkingSpaceRepo.findAll();
         return parkingSpaces.stream()
-                .map(parkingSpace -> modelMapper.map(parkingSpace, ParkingSpaceDTO.class))
+                .map(parkingSpaceMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public void deleteParkingSpace(Long id) {
-        if (!parkingSpaceRepo.existsById(id)) {
-            throw new RuntimeException("Parking Space not found with ID: " + id);
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ParkingSpaceDTO> getParkingSpacesPage(Long after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // One extra row tells whether another page exists without a count query
+        List<ParkingSpace> parkingSpaces = parkingSpaceRepo.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(pageSize + 1));
+        boolean hasMore = parkingSpaces.size() > pageSize;
+        List<ParkingSpaceDTO> items = parkingSpaces.stream()
+                .limit(pageSize)
+                .map(parkingSpaceMapper::toDTO)
+                .collect(Collectors.toList());
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllParkingSpaces(Consumer<ParkingSpaceDTO> consumer) {
+        try (Stream<ParkingSpace> parkingSpaces = parkingSpaceRepo.streamAllBy()) {
+            parkingSpaces.forEach(parkingSpace -> {
+                consumer.accept(parkingSpaceMapper.toDTO(parkingSpace));
+                entityManager.detach(parkingSpace); // Keeps the persistence context, and the heap, flat
+            });
         }
-        parkingSpaceRepo.deleteById(id);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Each batch commits on its own, so a stopped import can resume
+    public ImportResultDTO importParkingSpaces(InputStream body, ImportFormat format, int skip, Integer batchSize) {
+        return parkingSpaceImporter.importRows(body, format, skip, batchSize);
+    }
+
+    @Override
+    public void deleteParkingSpace(Long id) {
+        claimUntilCompletion(id); // So a transition's index update can't land after the removal
+        ParkingSpace parkingSpace = parkingSpaceRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Parking Space not found with ID: " + id));
+        String zone = parkingSpace.getZone();
+        parkingSpaceRepo.delete(parkingSpace);
+        afterCommit(() -> {
+            availabilityIndex.remove(id);
+            occupancyBroadcaster.zoneChanged(zone);
+        });
     }
 
     @Override
     public ParkingSpaceDTO updateParkingSpace(Long id, ParkingSpaceDTO parkingSpaceDTO) {
-        ParkingSpace existingParkingSpace = parkingSpaceRepo.findById(id)
+        // Claimed and locked like a batch transition, so the availability written is never based on a stale read
+        claimUntilCompletion(id);
+        ParkingSpace existingParkingSpace = parkingSpaceRepo.findAllByIdForUpdate(List.of(id)).stream().findFirst()
                 .orElseThrow(() -> new RuntimeException("Parking Space not found with ID: " + id));
 
-        modelMapper.map(parkingSpaceDTO, existingParkingSpace);
-        existingParkingSpace.setId(id);
+        String previousZone = existingParkingSpace.getZone();
+        parkingSpaceMapper.copyToEntity(parkingSpaceDTO, existingParkingSpace);
 
         ParkingSpace updatedParkingSpace = parkingSpaceRepo.save(existingParkingSpace);
-        return modelMapper.map(updatedParkingSpace, ParkingSpaceDTO.class);
+        indexAfterCommit(updatedParkingSpace);
+        if (!Objects.equals(previousZone, updatedParkingSpace.getZone())) {
+            afterCommit(() -> occupancyBroadcaster.zoneChanged(previousZone)); // The space left that zone's count
+        }
+        return parkingSpaceMapper.toDTO(updatedParkingSpace);
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Served from memory, so no connection is needed
     public List<ParkingSpaceDTO> getAvailableParkingSpacesByZone(String zone) {
-        return parkingSpaceRepo.findByAvailableTrueAndZone(zone).stream()
-                .map(parkingSpace -> modelMapper.map(parkingSpace, ParkingSpaceDTO.class))
+        // Answered from the in-memory availability index instead of findByAvailableTrueAndZone
+        return availabilityIndex.findAvailableByZone(zone).stream()
+                .map(parkingSpaceMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
@@ -79,42 +189,129 @@ public class ParkingSpaceServiceImpl implements ParkingSpaceService {
 
     @Override
     public ParkingSpaceDTO reserveParkingSpace(Long id) {
-        ParkingSpace parkingSpace = parkingSpaceRepo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Parking Space not found with ID: " + id));
+        if (!tryClaimUntilCompletion(id)) {
+            reservationsInProgress.increment();
+            throw claimConflict(id);
+        }
 
-        if (!parkingSpace.isAvailable()) { // Check if already reserved/occupied
+        // Single conditional UPDATE instead of read-check-save, so two callers can never win the same space
+        if (parkingSpaceRepo.reserveIfAvailable(id) == 0) {
+            if (!parkingSpaceRepo.existsById(id)) {
+                throw new RuntimeException("Parking Space not found with ID: " + id);
+            }
+            reservationsOccupied.increment();
             throw new RuntimeException("Parking Space with ID: " + id + " is already occupied.");
         }
-        parkingSpace.setAvailable(false); // Mark as unavailable (reserved)
-        ParkingSpace updatedSpace = parkingSpaceRepo.save(parkingSpace);
-        return modelMapper.map(updatedSpace, ParkingSpaceDTO.class);
+        ParkingSpace updatedSpace = parkingSpaceRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Parking Space not found with ID: " + id));
+        indexAfterCommit(updatedSpace);
+        return parkingSpaceMapper.toDTO(updatedSpace);
     }
 
     @Override
     public ParkingSpaceDTO releaseParkingSpace(Long id) {
-        ParkingSpace parkingSpace = parkingSpaceRepo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Parking Space not found with ID: " + id));
+        claimUntilCompletion(id);
 
-        if (parkingSpace.isAvailable()) { // Check if already available
+        if (parkingSpaceRepo.releaseIfReserved(id) == 0) {
+            if (!parkingSpaceRepo.existsById(id)) {
+                throw new RuntimeException("Parking Space not found with ID: " + id);
+            }
             throw new RuntimeException("Parking Space with ID: " + id + " is already available.");
         }
-        parkingSpace.setAvailable(true); // Mark as available
-        ParkingSpace updatedSpace = parkingSpaceRepo.save(parkingSpace);
-        return modelMapper.map(updatedSpace, ParkingSpaceDTO.class);
+        ParkingSpace updatedSpace = parkingSpaceRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Parking Space not found with ID: " + id));
+        indexAfterCommit(updatedSpace);
+        return parkingSpaceMapper.toDTO(updatedSpace);
+    }
+
+    @Override
+    public ParkingSpaceDTO allocateParkingSpace(String zone, String type) {
+        // Candidates come from the sharded free-lists; a stale candidate only costs one more poll
+        for (int attempt = 0; attempt < MAX_ALLOCATION_ATTEMPTS; attempt++) {
+            Long candidateId = availabilityIndex.pollFree(zone, type);
+            if (candidateId == null) {
+                break;
+            }
+            if (!tryClaimUntilCompletion(candidateId)) {
+                availabilityIndex.requeue(candidateId); // Another request is transitioning it; leave it to them
+                continue;
+            }
+            requeueOnRollback(candidateId);
+            if (parkingSpaceRepo.reserveIfAvailable(candidateId) == 1) {
+                ParkingSpace reservedSpace = parkingSpaceRepo.findById(candidateId)
+                        .orElseThrow(() -> new RuntimeException("Parking Space not found with ID: " + candidateId));
+                indexAfterCommit(reservedSpace);
+                return parkingSpaceMapper.toDTO(reservedSpace);
+            }
+        }
+        allocationsExhausted.increment();
+        throw new RuntimeException("No free Parking Space available in zone: " + zone
+                + (type != null && !type.isEmpty() ? " for type: " + type : ""));
+    }
+
+    @Override
+    public BatchReservationResultDTO reserveParkingSpaces(BatchReservationRequestDTO request) {
+        BatchMode mode = request.getMode() == null ? BatchMode.ALL_OR_NOTHING : request.getMode();
+        if (request.getZone() != null && !request.getZone().isEmpty()) {
+            return reserveInZone(request.getZone(), request.getType(), request.getCount(), mode);
+        }
+        return transitionAll(batchIds(request), mode, true);
+    }
+
+    @Override
+    public BatchReservationResultDTO releaseParkingSpaces(BatchReservationRequestDTO request) {
+        if (request.getZone() != null && !request.getZone().isEmpty()) {
+            throw new RuntimeException("Parking Spaces can only be released by ID.");
+        }
+        BatchMode mode = request.getMode() == null ? BatchMode.ALL_OR_NOTHING : request.getMode();
+        return transitionAll(batchIds(request), mode, false);
     }
 
     @Override
     public ParkingSpaceDTO updateParkingSpaceStatus(Long id, boolean newStatus) {
-        ParkingSpace parkingSpace = parkingSpaceRepo.findById(id)
+        claimUntilCompletion(id);
+
+        // The same conditional UPDATEs as reserve and release; a space already in the new status is left as it is
+        int changed = newStatus ? parkingSpaceRepo.releaseIfReserved(id) : parkingSpaceRepo.reserveIfAvailable(id);
+        ParkingSpace updatedSpace = parkingSpaceRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Parking Space not found with ID: " + id));
+        if (changed == 1) {
+            indexAfterCommit(updatedSpace);
+        }
+        return parkingSpaceMapper.toDTO(updatedSpace);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int countAvailableParkingSpacesByZone(String zone) {
+        return availabilityIndex.countAvailableByZone(zone);
+    }
 
-        parkingSpace.setAvailable(newStatus); // Set the new status
-        ParkingSpace updatedSpace = parkingSpaceRepo.save(parkingSpace);
-        return modelMapper.map(updatedSpace, ParkingSpaceDTO.class);
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Counters are kept in memory as changes commit
+    public ParkingSpaceStatsDTO getParkingSpaceStats() {
+        ParkingSpaceCounters counters = availabilityIndex.counters();
+        Map<String, SpaceCountsDTO> byZone = new LinkedHashMap<>();
+        counters.byZone().forEach((zone, counts) -> byZone.put(zone, countsOf(counts)));
+        Map<String, SpaceCountsDTO> byType = new LinkedHashMap<>();
+        counters.byType().forEach((type, counts) -> byType.put(type, countsOf(counts)));
+        return new ParkingSpaceStatsDTO(countsOf(counters.all()), byZone, byType, countersReconciler.lastResult());
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<ParkingSpaceDTO> filterParkingSpaces(String location, String zone, Boolean available, String type) {
+        if (Boolean.TRUE.equals(available)) {
+            // Only available spaces requested, so the availability index can answer without a query
+            return availabilityIndex.findAvailable(
+                            indexedZone -> containsIgnoreCase(indexedZone, zone),
+                            space -> containsIgnoreCase(space.getLocation(), location)
+                                    && containsIgnoreCase(space.getType(), type))
+                    .stream()
+                    .map(parkingSpaceMapper::toDTO)
+                    .collect(Collectors.toList());
+        }
+
         // Use Spring Data JPA Specifications for dynamic query building
         Specification<ParkingSpace> spec = (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
@@ -137,7 +334,242 @@ public class ParkingSpaceServiceImpl implements ParkingSpaceService {
 
         List<ParkingSpace> filteredSpaces = parkingSpaceRepo.findAll(spec);
         return filteredSpaces.stream()
-                .map(parkingSpace -> modelMapper.map(parkingSpace, ParkingSpaceDTO.class))
+                .map(parkingSpaceMapper::toDTO)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public IndexConsistencyDTO checkAvailabilityIndex(boolean rebuildOnMismatch) {
+        // Recording starts before the read, so changes committing after this transaction's snapshot are replayed
+        ParkingSpaceAvailabilityIndex.Rebuild rebuild = availabilityIndex.beginRebuild();
+        boolean rebuilt = false;
+        try {
+            List<ParkingSpace> databaseSpaces = parkingSpaceRepo.findAll();
+            List<String> mismatches = availabilityIndex.verify(databaseSpaces);
+            int indexedSpaces = availabilityIndex.size();
+            if (!mismatches.isEmpty() && rebuildOnMismatch) {
+                availabilityIndex.finishRebuild(rebuild, databaseSpaces);
+                rebuilt = true;
+            }
+            return new IndexConsistencyDTO(indexedSpaces, databaseSpaces.size(), mismatches.isEmpty(), mismatches, rebuilt);
+        } finally {
+            if (!rebuilt) {
+                availabilityIndex.abortRebuild(rebuild);
+            }
+        }
+    }
+
+    // --- Helper Methods ---
+
+    // Claims, locks and checks every space, then moves all that can move with one conditional UPDATE
+    private BatchReservationResultDTO transitionAll(List<Long> ids, BatchMode mode, boolean reserve) {
+        Map<Long, BatchItemResultDTO> results = new HashMap<>();
+        List<Long> claimed = new ArrayList<>();
+        for (Long id : ids) {
+            if (tryClaimUntilCompletion(id)) {
+                claimed.add(id);
+            } else {
+                results.put(id, new BatchItemResultDTO(id, BatchItemResultDTO.Outcome.IN_PROGRESS, null));
+                if (reserve) {
+                    reservationsInProgress.increment();
+                }
+            }
+        }
+
+        Map<Long, ParkingSpace> locked = new HashMap<>();
+        if (!claimed.isEmpty()) {
+            parkingSpaceRepo.findAllByIdForUpdate(claimed).forEach(space -> locked.put(space.getId(), space));
+        }
+        List<ParkingSpace> movable = new ArrayList<>();
+        for (Long id : claimed) {
+            ParkingSpace space = locked.get(id);
+            if (space == null) {
+                results.put(id, new BatchItemResultDTO(id, BatchItemResultDTO.Outcome.NOT_FOUND, null));
+            } else if (space.isAvailable() != reserve) {
+                results.put(id, new BatchItemResultDTO(id, reserve
+                        ? BatchItemResultDTO.Outcome.ALREADY_OCCUPIED : BatchItemResultDTO.Outcome.ALREADY_AVAILABLE, null));
+                if (reserve) {
+                    reservationsOccupied.increment();
+                }
+            } else {
+                movable.add(space);
+            }
+        }
+
+        boolean applied = mode == BatchMode.BEST_EFFORT || movable.size() == ids.size();
+        if (applied) {
+            transition(movable, reserve).forEach(item -> results.put(item.getId(), item));
+        } else {
+            movable.forEach(space -> results.put(space.getId(),
+                    new BatchItemResultDTO(space.getId(), BatchItemResultDTO.Outcome.NOT_APPLIED, null)));
+        }
+        List<BatchItemResultDTO> ordered = ids.stream().map(results::get).collect(Collectors.toList());
+        return new BatchReservationResultDTO(mode, applied, ids.size(), applied ? movable.size() : 0, ordered);
+    }
+
+    // Free spaces come from the free-lists, as in allocateParkingSpace; stale candidates are topped up
+    private BatchReservationResultDTO reserveInZone(String zone, String type, Integer count, BatchMode mode) {
+        if (count == null || count < 1 || count > MAX_BATCH_SIZE) {
+            throw new RuntimeException("Count must be between 1 and " + MAX_BATCH_SIZE + ".");
+        }
+        List<ParkingSpace> free = new ArrayList<>();
+        int polls = 0;
+        while (free.size() < count && polls < count + MAX_ALLOCATION_ATTEMPTS) {
+            List<Long> candidates = new ArrayList<>();
+            while (free.size() + candidates.size() < count && polls < count + MAX_ALLOCATION_ATTEMPTS) {
+                Long candidateId = availabilityIndex.pollFree(zone, type);
+                if (candidateId == null) {
+                    break;
+                }
+                polls++;
+                if (!tryClaimUntilCompletion(candidateId)) {
+                    availabilityIndex.requeue(candidateId);
+                    continue;
+                }
+                requeueOnRollback(candidateId);
+                candidates.add(candidateId);
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            for (ParkingSpace space : parkingSpaceRepo.findAllByIdForUpdate(candidates)) {
+                if (space.isAvailable()) {
+                    free.add(space);
+                }
+            }
+        }
+
+        boolean applied = free.size() == count || (mode == BatchMode.BEST_EFFORT && !free.isEmpty());
+        if (!applied) {
+            allocationsExhausted.increment();
+            free.forEach(space -> availabilityIndex.requeue(space.getId())); // Still free, and nothing rolls back
+            List<BatchItemResultDTO> results = free.stream()
+                    .map(space -> new BatchItemResultDTO(space.getId(), BatchItemResultDTO.Outcome.NOT_APPLIED, null))
+                    .collect(Collectors.toList());
+            return new BatchReservationResultDTO(mode, false, count, 0, results);
+        }
+        List<BatchItemResultDTO> results = transition(free, true);
+        return new BatchReservationResultDTO(mode, true, count, results.size(), results);
+    }
+
+    // The spaces are locked and known to be in the opposite state, so every row must change
+    private List<BatchItemResultDTO> transition(List<ParkingSpace> spaces, boolean reserve) {
+        if (spaces.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = spaces.stream().map(ParkingSpace::getId).collect(Collectors.toList());
+        int changed = reserve ? parkingSpaceRepo.reserveAllIfAvailable(ids) : parkingSpaceRepo.releaseAllIfReserved(ids);
+        if (changed != ids.size()) {
+            throw new RuntimeException("Batch changed " + changed + " of " + ids.size() + " Parking Spaces; rolled back.");
+        }
+        List<BatchItemResultDTO> results = new ArrayList<>(spaces.size());
+        for (ParkingSpace space : spaces) {
+            space.setAvailable(!reserve); // Detached by the UPDATE, so this only updates the copy returned and indexed
+            indexAfterCommit(space);
+            results.add(new BatchItemResultDTO(space.getId(), reserve
+                    ? BatchItemResultDTO.Outcome.RESERVED : BatchItemResultDTO.Outcome.RELEASED, parkingSpaceMapper.toDTO(space)));
+        }
+        return results;
+    }
+
+    private static List<Long> batchIds(BatchReservationRequestDTO request) {
+        if (request.getIds() == null || request.getIds().isEmpty()) {
+            throw new RuntimeException("Provide the Parking Space IDs, or a zone and count.");
+        }
+        if (request.getIds().stream().anyMatch(Objects::isNull)) {
+            throw new RuntimeException("Parking Space IDs cannot be null.");
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds())); // A repeated ID is handled once
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("A batch can hold at most " + MAX_BATCH_SIZE + " Parking Spaces.");
+        }
+        return ids;
+    }
+
+    // The index and occupancy subscribers only see committed rows, so changes are applied once the transaction commits.
+    // Changes to an existing space hold its claim, which is released only after this runs, so the index takes them in
+    // the order they committed
+    private void indexAfterCommit(ParkingSpace parkingSpace) {
+        ParkingSpace snapshot = new ParkingSpace(parkingSpace.getId(), parkingSpace.getLocation(), parkingSpace.getZone(),
+                parkingSpace.isAvailable(), parkingSpace.getType(), parkingSpace.getExternalRefId());
+        afterCommit(() -> {
+            availabilityIndex.put(snapshot);
+            occupancyBroadcaster.spaceChanged(snapshot);
+        });
+    }
+
+    // Losing callers in a burst fail here without a database round-trip; the claim is held until commit or rollback
+    private void claimUntilCompletion(Long id) {
+        if (!tryClaimUntilCompletion(id)) {
+            throw claimConflict(id);
+        }
+    }
+
+    private static RuntimeException claimConflict(Long id) {
+        return new RuntimeException("Parking Space with ID: " + id + " is being updated by another request.");
+    }
+
+    private boolean tryClaimUntilCompletion(Long id) {
+        if (!claimTable.tryClaim(id)) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    claimTable.release(id);
+                }
+            });
+        } else {
+            claimTable.release(id);
+        }
+        return true;
+    }
+
+    // A polled space whose reservation never committed must go back on its free-list
+    private void requeueOnRollback(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        availabilityIndex.requeue(id);
+                    }
+                }
+            });
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static SpaceCountsDTO countsOf(ParkingSpaceCounters.Counts counts) {
+        ParkingSpaceCounters.Snapshot snapshot = counts.snapshot(); // One read, so reserved is never torn
+        return new SpaceCountsDTO(snapshot.total(), snapshot.available(), snapshot.reserved());
+    }
+
+    private static boolean containsIgnoreCase(String value, String filter) {
+        if (filter == null || filter.isEmpty()) {
+            return true;
+        }
+        return value != null && value.toLowerCase().contains(filter.toLowerCase());
+    }
+
+    private static Counter conflictCounter(MeterRegistry meterRegistry, String operation, String reason) {
+        return Counter.builder("parking.reservation.conflicts")
+                .description("Reservations refused because the space was taken or being taken by another request")
+                .tags("operation", operation, "reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,48 @@
+package lk.ijse.parkingspaceservice.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens a child span (an observation) around every repository and entity/DTO mapper call, so a trace shows
+ * how a request's time splits between the database, mapping and the rest of the service.
+ * <p>
+ * A repository method returning a Stream is timed until the Stream is returned, not until it is consumed.
+ */
+@Aspect
+@Component
+public class DataAccessTracingAspect {
+
+    private final ObservationRegistry observationRegistry;
+
+    public DataAccessTracingAspect(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    // Spring Data repositories of this service (their proxies implement Repository)
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Named after the service's repository interface, not CrudRepository where findById etc. are declared
+        Class<?> repository = AopProxyUtils.proxiedUserInterfaces(joinPoint.getTarget())[0];
+        return observe("repository", repository.getSimpleName(), joinPoint);
+    }
+
+    @Around("execution(* lk.ijse.parkingspaceservice.mapper..*.*(..))")
+    public Object traceMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("mapper", joinPoint.getTarget().getClass().getSimpleName(), joinPoint);
+    }
+
+    private Object observe(String layer, String type, ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        return Observation.createNotStarted(layer, observationRegistry)
+                .contextualName(type + "." + method)
+                .lowCardinalityKeyValue("class", type)
+                .lowCardinalityKeyValue("method", method)
+                .observeChecked(() -> joinPoint.proceed());
+    }
+}
@@ -0,0 +1,97 @@
+package lk.ijse.parkingspaceservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lk.ijse.parkingspaceservice.bulk.ParkingSpaceImporter;
+import lk.ijse.parkingspaceservice.config.ModelMapperConfig;
+import lk.ijse.parkingspaceservice.deadline.DeadlineAwareJpaTransactionManager;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceClaimTable;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceCountersReconciler;
+import lk.ijse.parkingspaceservice.occupancy.OccupancyBroadcaster;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import lk.ijse.parkingspaceservice.service.impl.ParkingSpaceServiceImpl;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The service layer on an in-memory H2 database, for tests that need a real schema and real transactions.
+ * Auto-configuration, the config server and Eureka are left out, so the context starts offline. As a test
+ * configuration it stays out of the application's component scan in {@code ParkingSpaceServiceApplicationTests}.
+ */
+@TestConfiguration
+@EnableTransactionManagement
+@EnableJpaRepositories(basePackageClasses = ParkingSpaceRepo.class)
+@Import({ParkingSpaceServiceImpl.class, ParkingSpaceAvailabilityIndex.class, ParkingSpaceClaimTable.class,
+        ParkingSpaceImporter.class, OccupancyBroadcaster.class, ParkingSpaceCountersReconciler.class, ModelMapperConfig.class})
+public class ParkingSpaceTestConfig {
+
+    @Bean
+    public DataSource dataSource() {
+        return new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPackagesToScan(ParkingSpace.class.getPackageName());
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        // Boot's table and column names (parking_space, external_ref_id), which ParkingSpaceImporter's SQL uses
+        properties.put(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName());
+        properties.put(AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName());
+        factory.setJpaPropertyMap(properties);
+        return factory;
+    }
+
+    // The service's own transaction manager (see TransactionConfig)
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new DeadlineAwareJpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    @Bean
+    public LocalValidatorFactoryBean validator() {
+        return new LocalValidatorFactoryBean();
+    }
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        return new ObjectMapper();
+    }
+}
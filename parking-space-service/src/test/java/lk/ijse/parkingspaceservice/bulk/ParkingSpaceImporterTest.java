@@ -0,0 +1,157 @@
+package lk.ijse.parkingspaceservice.bulk;
+
+import lk.ijse.parkingspaceservice.ParkingSpaceTestConfig;
+import lk.ijse.parkingspaceservice.dto.CursorPageDTO;
+import lk.ijse.parkingspaceservice.dto.ImportResultDTO;
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import lk.ijse.parkingspaceservice.service.ParkingSpaceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports 100,000 parking spaces through the real import path into H2. The CSV is generated while it is read,
+ * so the import streams the way an HTTP body does.
+ */
+@SpringJUnitConfig(ParkingSpaceTestConfig.class)
+class ParkingSpaceImporterTest {
+
+    private static final int ROWS = 100_000;
+    private static final int BATCH_SIZE = 1000;
+    private static final int INVALID_EVERY = 25_000; // These rows have no zone
+
+    @Autowired
+    private ParkingSpaceService parkingSpaceService;
+    @Autowired
+    private ParkingSpaceRepo parkingSpaceRepo;
+    @Autowired
+    private ParkingSpaceAvailabilityIndex availabilityIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void emptyTable() {
+        jdbcTemplate.update("DELETE FROM parking_space");
+        availabilityIndex.rebuild(List.of());
+    }
+
+    @Test
+    void cleanImportStoresEveryRow() {
+        List<MemoryPoolMXBean> heap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long start = System.nanoTime();
+        ImportResultDTO result = parkingSpaceService.importParkingSpaces(
+                new GeneratedCsv(ROWS, false, -1), ImportFormat.CSV, 0, BATCH_SIZE);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        long peakMegabytes = heap.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum() >> 20;
+        System.out.printf("Clean import: %d rows in %d ms (%.0f rows/s), peak heap %d MB%n",
+                result.getImported(), millis, result.getImported() * 1000.0 / Math.max(1, millis), peakMegabytes);
+
+        assertTrue(result.isCompleted());
+        assertEquals(ROWS, result.getImported());
+        assertEquals(ROWS, parkingSpaceRepo.count());
+        assertEquals(ROWS, availabilityIndex.size());
+    }
+
+    // Invalid rows are rejected and reported; a row too long for its column fails its batch and stops the import
+    // there, and a rerun with skip=resumeFrom imports the rest exactly once
+    @Test
+    void failedBatchStopsTheImportAndResumeImportsTheRestOnce() {
+        int failingRow = ROWS / 2 + 1;
+        int invalidRows = ROWS / INVALID_EVERY;
+
+        ImportResultDTO stopped = parkingSpaceService.importParkingSpaces(
+                new GeneratedCsv(ROWS, true, failingRow), ImportFormat.CSV, 0, BATCH_SIZE);
+        assertFalse(stopped.isCompleted());
+        // Rejected rows don't fill a batch, so the failed batch starts a little before ROWS / 2
+        int resumeFrom = stopped.getResumeFrom();
+        assertTrue(resumeFrom >= 0 && resumeFrom < failingRow, "resumeFrom " + resumeFrom);
+        assertEquals(resumeFrom - resumeFrom / INVALID_EVERY, parkingSpaceRepo.count());
+
+        ImportResultDTO resumed = parkingSpaceService.importParkingSpaces(
+                new GeneratedCsv(ROWS, true, -1), ImportFormat.CSV, resumeFrom, BATCH_SIZE);
+        assertTrue(resumed.isCompleted());
+        assertEquals(invalidRows - resumeFrom / INVALID_EVERY, resumed.getRejected());
+        assertEquals(ROWS - invalidRows, parkingSpaceRepo.count());
+        assertEquals(ROWS - invalidRows, availabilityIndex.size());
+        assertTrue(parkingSpaceService.checkAvailabilityIndex(false).isConsistent());
+    }
+
+    // Every space written as an export line reads back as the same space. Pages stand in for
+    // streamAllParkingSpaces, whose streaming fetch size is MySQL's and which H2 rejects
+    @Test
+    void exportReadsBackAsTheImportedSpaces() {
+        parkingSpaceService.importParkingSpaces(new GeneratedCsv(ROWS, false, -1), ImportFormat.CSV, 0, BATCH_SIZE);
+
+        ParkingSpaceCsv csv = ParkingSpaceCsv.fromHeader(ParkingSpaceCsv.HEADER);
+        int exported = 0;
+        CursorPageDTO<ParkingSpaceDTO> page = parkingSpaceService.getParkingSpacesPage(null, 500);
+        while (true) {
+            for (ParkingSpaceDTO parkingSpace : page.getItems()) {
+                exported++;
+                ParkingSpaceDTO read = csv.parse(ParkingSpaceCsv.toLine(parkingSpace));
+                assertEquals(parkingSpace.getLocation(), read.getLocation());
+                assertEquals(parkingSpace.getZone(), read.getZone());
+                assertEquals(parkingSpace.isAvailable(), read.isAvailable());
+                assertEquals(parkingSpace.getType(), read.getType());
+                assertEquals(parkingSpace.getExternalRefId(), read.getExternalRefId());
+            }
+            if (!page.isHasMore()) {
+                break;
+            }
+            page = parkingSpaceService.getParkingSpacesPage(page.getNextCursor(), 500);
+        }
+        assertEquals(ROWS, exported);
+    }
+
+    // The CSV, one line at a time as it is read; the failing row's location is too long for its column
+    private static class GeneratedCsv extends InputStream {
+
+        private final int rows;
+        private final boolean invalidRows;
+        private final int failingRow;
+        private byte[] line = (ParkingSpaceCsv.HEADER + "\n").getBytes(StandardCharsets.UTF_8);
+        private int position;
+        private int row;
+
+        GeneratedCsv(int rows, boolean invalidRows, int failingRow) {
+            this.rows = rows;
+            this.invalidRows = invalidRows;
+            this.failingRow = failingRow;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (row == rows) {
+                    return -1;
+                }
+                row++;
+                String location = row == failingRow ? "L".repeat(300) : "Level " + (row % 5) + " Bay " + row;
+                String zone = invalidRows && row % INVALID_EVERY == 0 ? "" : String.valueOf((char) ('A' + row % 8));
+                line = (",\"" + location + "\"," + zone + "," + (row % 3 != 0) + ",CAR,EXT-" + row + "\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return line[position++];
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package lk.ijse.parkingspaceservice.index;
+
+import lk.ijse.parkingspaceservice.ParkingSpaceTestConfig;
+import lk.ijse.parkingspaceservice.dto.CounterReconciliationDTO;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import lk.ijse.parkingspaceservice.service.ParkingSpaceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Drift the reconciler repairs, and what a repair must leave alone: changes committing while it reads the table
+@SpringJUnitConfig(ParkingSpaceTestConfig.class)
+class ParkingSpaceCountersReconcilerTest {
+
+    private static final int SPACES = 10;
+
+    @Autowired
+    private ParkingSpaceCountersReconciler reconciler;
+    @Autowired
+    private ParkingSpaceAvailabilityIndex availabilityIndex;
+    @Autowired
+    private ParkingSpaceRepo parkingSpaceRepo;
+    @Autowired
+    private ParkingSpaceService parkingSpaceService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void seedZoneA() {
+        jdbcTemplate.update("DELETE FROM parking_space");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < SPACES; i++) {
+            rows.add(new Object[]{"Bay " + i, "A", true, "CAR", "EXT-" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO parking_space (location, zone, available, type, external_ref_id)"
+                + " VALUES (?, ?, ?, ?, ?)", rows);
+        availabilityIndex.rebuild(parkingSpaceRepo.findAll());
+        ids = jdbcTemplate.queryForList("SELECT id FROM parking_space ORDER BY id", Long.class);
+    }
+
+    @Test
+    void changeCommittedDuringTheReadSurvivesTheRebuild() {
+        ParkingSpaceAvailabilityIndex.Rebuild rebuild = availabilityIndex.beginRebuild();
+        List<ParkingSpace> read = parkingSpaceRepo.findAll(); // Still sees the first space free
+        commitOccupied(ids.get(0));
+        availabilityIndex.finishRebuild(rebuild, read);
+
+        assertEquals(SPACES - 1, availabilityIndex.counters().byZone().get("a").available());
+        assertTrue(parkingSpaceService.checkAvailabilityIndex(false).isConsistent());
+        // The occupied space is off the free-lists; the other nine are still on them
+        for (int i = 1; i < SPACES; i++) {
+            assertTrue(ids.contains(availabilityIndex.pollFree("A", "CAR")));
+        }
+        assertNull(availabilityIndex.pollFree("A", "CAR"));
+    }
+
+    @Test
+    void confirmedDriftIsRepaired() {
+        jdbcTemplate.update("UPDATE parking_space SET available = FALSE WHERE id = ?", ids.get(0)); // Index never told
+
+        CounterReconciliationDTO result = reconciler.reconcile();
+        assertFalse(result.isConsistent());
+        assertTrue(result.isRepaired());
+        assertEquals(SPACES - 1, availabilityIndex.counters().byZone().get("a").available());
+        assertTrue(reconciler.reconcile().isConsistent());
+    }
+
+    // The first check sees one space of drift, the second two: changes in flight, not drift, so nothing is rebuilt
+    @Test
+    void differenceThatMovesBetweenChecksIsNotRepaired() throws Exception {
+        jdbcTemplate.update("UPDATE parking_space SET available = FALSE WHERE id = ?", ids.get(0));
+        CompletableFuture<CounterReconciliationDTO> reconciliation = CompletableFuture.supplyAsync(reconciler::reconcile);
+        Thread.sleep(300); // Inside the confirm delay
+        jdbcTemplate.update("UPDATE parking_space SET available = FALSE WHERE id IN (?, ?)", ids.get(1), ids.get(2));
+
+        CounterReconciliationDTO result = reconciliation.get();
+        assertFalse(result.isRepaired());
+        assertEquals(SPACES, availabilityIndex.counters().byZone().get("a").available());
+    }
+
+    // What the service does after a commit: the row changes, then the index hears about it
+    private void commitOccupied(Long id) {
+        jdbcTemplate.update("UPDATE parking_space SET available = FALSE WHERE id = ?", id);
+        availabilityIndex.put(parkingSpaceRepo.findById(id).orElseThrow());
+    }
+}
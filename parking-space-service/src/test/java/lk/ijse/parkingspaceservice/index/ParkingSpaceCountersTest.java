@@ -0,0 +1,84 @@
+package lk.ijse.parkingspaceservice.index;
+
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The counters as readers on other threads see them while the index applies changes
+class ParkingSpaceCountersTest {
+
+    private static final int SPACES = 100;
+
+    private ParkingSpaceAvailabilityIndex availabilityIndex;
+
+    @BeforeEach
+    void setUp() {
+        availabilityIndex = new ParkingSpaceAvailabilityIndex();
+        List<ParkingSpace> spaces = new ArrayList<>();
+        for (long id = 1; id <= SPACES; id++) {
+            spaces.add(new ParkingSpace(id, "Bay " + id, "A", true, "CAR", "EXT-" + id));
+        }
+        availabilityIndex.rebuild(spaces);
+    }
+
+    // Reservations and releases never change the total, and a snapshot never shows more free spaces than spaces
+    @Test
+    void snapshotsTakenDuringStatusChangesAreConsistent() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running.get()) {
+                long id = 1 + random.nextInt(SPACES);
+                availabilityIndex.put(new ParkingSpace(id, "Bay " + id, "A", random.nextBoolean(), "CAR", "EXT-" + id));
+            }
+        });
+        writer.start();
+
+        List<String> torn = new ArrayList<>();
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        ParkingSpaceCounters counters = availabilityIndex.counters();
+        while (System.nanoTime() < deadline && torn.size() < 10) {
+            for (ParkingSpaceCounters.Counts counts : List.of(counters.all(), counters.zone("a"), counters.type("car"))) {
+                ParkingSpaceCounters.Snapshot snapshot = counts.snapshot();
+                if (snapshot.total() != SPACES || snapshot.reserved() < 0 || snapshot.available() < 0) {
+                    torn.add(snapshot.toString());
+                }
+            }
+            Thread.yield();
+        }
+        running.set(false);
+        writer.join();
+
+        assertTrue(torn.isEmpty(), "torn snapshots: " + torn);
+    }
+
+    @Test
+    void zoneAndTypeAreDroppedWithTheirLastSpace() {
+        List<String> removed = new ArrayList<>();
+        ParkingSpaceCounters counters = availabilityIndex.counters();
+        counters.onRemovedKey((dimension, key) -> removed.add(dimension + ":" + key));
+
+        availabilityIndex.put(new ParkingSpace(1000L, "Dock", "B", true, "VAN", "EXT-1000"));
+        assertEquals(1, counters.zone("b").total());
+        availabilityIndex.put(new ParkingSpace(1000L, "Dock", "C", false, "TRUCK", "EXT-1000")); // Moved
+        assertNull(counters.zone("b"));
+        assertNull(counters.type("van"));
+        assertEquals(1, counters.zone("c").snapshot().reserved());
+
+        availabilityIndex.remove(1000L);
+        assertFalse(counters.byZone().containsKey("c"));
+        assertFalse(counters.byType().containsKey("truck"));
+        assertEquals(List.of("zone:b", "type:van", "zone:c", "type:truck"), removed);
+        assertEquals(SPACES, counters.all().total());
+    }
+}
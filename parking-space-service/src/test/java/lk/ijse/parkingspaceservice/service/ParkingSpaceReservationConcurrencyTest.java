@@ -0,0 +1,219 @@
+package lk.ijse.parkingspaceservice.service;
+
+import lk.ijse.parkingspaceservice.ParkingSpaceTestConfig;
+import lk.ijse.parkingspaceservice.dto.IndexConsistencyDTO;
+import lk.ijse.parkingspaceservice.dto.ParkingSpaceDTO;
+import lk.ijse.parkingspaceservice.entity.ParkingSpace;
+import lk.ijse.parkingspaceservice.index.ParkingSpaceAvailabilityIndex;
+import lk.ijse.parkingspaceservice.repo.ParkingSpaceRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Thousands of parallel reservations of a few spaces: each round, every thread tries to reserve every space at
+ * once, and each space must end up with exactly one winner.
+ */
+@SpringJUnitConfig(ParkingSpaceTestConfig.class)
+class ParkingSpaceReservationConcurrencyTest {
+
+    private static final int SPACES = 5;
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 50; // 16 threads x 5 spaces x 50 rounds = 4000 reservations
+
+    @Autowired
+    private ParkingSpaceService parkingSpaceService;
+    @Autowired
+    private ParkingSpaceRepo parkingSpaceRepo;
+    @Autowired
+    private ParkingSpaceAvailabilityIndex availabilityIndex;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void seed() {
+        parkingSpaceRepo.deleteAll();
+        List<ParkingSpace> spaces = new ArrayList<>();
+        for (int i = 0; i < SPACES; i++) {
+            spaces.add(new ParkingSpace(null, "Level 1 Bay " + i, "A", true, "CAR", "EXT-" + i));
+        }
+        ids = parkingSpaceRepo.saveAll(spaces).stream().map(ParkingSpace::getId).toList();
+        availabilityIndex.rebuild(parkingSpaceRepo.findAll());
+    }
+
+    // Through the service: the claim table turns most losers away, the conditional update decides
+    @Test
+    void reserveHasOneWinnerPerSpace() throws Exception {
+        int refused = race(id -> {
+            try {
+                parkingSpaceService.reserveParkingSpace(id);
+                return true;
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage().contains("already occupied") || e.getMessage().contains("being updated"),
+                        e.getMessage());
+                return false;
+            }
+        }, id -> parkingSpaceService.releaseParkingSpace(id));
+        assertEquals(ROUNDS * SPACES * (THREADS - 1), refused);
+    }
+
+    // As if every thread were a separate instance with its own claim table: only the database arbitrates
+    @Test
+    void conditionalUpdateHasOneWinnerPerSpace() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int refused = race(id -> transactionTemplate.execute(status -> parkingSpaceRepo.reserveIfAvailable(id)) == 1,
+                id -> transactionTemplate.executeWithoutResult(status -> parkingSpaceRepo.releaseIfReserved(id)));
+        assertEquals(ROUNDS * SPACES * (THREADS - 1), refused);
+    }
+
+    // A status change while a reservation of the space is still in flight is turned away, as a second reservation is
+    @Test
+    void statusChangeWaitsForAnInFlightReservation() throws Exception {
+        Long id = ids.get(0);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService admin = Executors.newSingleThreadExecutor();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                parkingSpaceService.reserveParkingSpace(id); // Joins this transaction, so its claim is held until commit
+                Future<String> flip = admin.submit(() -> {
+                    try {
+                        parkingSpaceService.updateParkingSpaceStatus(id, true);
+                        return "applied";
+                    } catch (RuntimeException e) {
+                        return e.getMessage();
+                    }
+                });
+                try {
+                    assertTrue(flip.get().contains("being updated"), flip.get());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } finally {
+            admin.shutdownNow();
+        }
+        assertFalse(parkingSpaceRepo.findById(id).orElseThrow().isAvailable());
+        assertEquals(Boolean.FALSE, availabilityIndex.isAvailable(id));
+
+        assertTrue(parkingSpaceService.updateParkingSpaceStatus(id, true).isAvailable());
+        assertEquals(Boolean.TRUE, availabilityIndex.isAvailable(id));
+        assertTrue(parkingSpaceService.updateParkingSpaceStatus(id, true).isAvailable()); // Already available: no change
+    }
+
+    // Admin status flips and updates race reservations and releases; afterwards the index must match the table
+    @Test
+    void statusChangesRacingReservationsKeepTheIndexInLine() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> threads = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                Random random = new Random(thread);
+                threads.add(pool.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        Long id = ids.get(random.nextInt(SPACES));
+                        try {
+                            switch (random.nextInt(4)) {
+                                case 0 -> parkingSpaceService.reserveParkingSpace(id);
+                                case 1 -> parkingSpaceService.releaseParkingSpace(id);
+                                case 2 -> parkingSpaceService.updateParkingSpaceStatus(id, random.nextBoolean());
+                                default -> parkingSpaceService.updateParkingSpace(id, new ParkingSpaceDTO(id,
+                                        "Level 1 Bay " + id, random.nextBoolean() ? "A" : "B", random.nextBoolean(), "CAR",
+                                        "EXT-" + id));
+                            }
+                        } catch (RuntimeException e) {
+                            assertTrue(e.getMessage().contains("already") || e.getMessage().contains("being updated"),
+                                    e.getMessage());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> thread : threads) {
+                thread.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        IndexConsistencyDTO consistency = parkingSpaceService.checkAvailabilityIndex(false);
+        assertTrue(consistency.isConsistent(), String.valueOf(consistency.getMismatches()));
+        long available = parkingSpaceRepo.findAll().stream().filter(ParkingSpace::isAvailable).count();
+        assertEquals(available, availabilityIndex.counters().all().available());
+    }
+
+    /**
+     * Runs the rounds and checks the winners; returns the number of refused attempts. Each thread tries the spaces
+     * in its own random order, starting together, and every space is released between rounds.
+     */
+    private int race(Attempt reserve, Release release) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        int refused = 0;
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                AtomicIntegerArray winners = new AtomicIntegerArray(SPACES);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> threads = new ArrayList<>();
+                for (int thread = 0; thread < THREADS; thread++) {
+                    Random random = new Random(round * THREADS + thread);
+                    threads.add(pool.submit((Callable<Integer>) () -> {
+                        List<Integer> order = new ArrayList<>();
+                        for (int space = 0; space < SPACES; space++) {
+                            order.add(space);
+                        }
+                        Collections.shuffle(order, random);
+                        start.await();
+                        int lost = 0;
+                        for (int space : order) {
+                            if (reserve.attempt(ids.get(space))) {
+                                winners.incrementAndGet(space);
+                            } else {
+                                lost++;
+                            }
+                        }
+                        return lost;
+                    }));
+                }
+                start.countDown();
+                for (Future<Integer> thread : threads) {
+                    refused += thread.get();
+                }
+                for (int space = 0; space < SPACES; space++) {
+                    assertEquals(1, winners.get(space), "winners of space " + ids.get(space) + " in round " + round);
+                    assertFalse(parkingSpaceRepo.findById(ids.get(space)).orElseThrow().isAvailable());
+                    release.release(ids.get(space));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return refused;
+    }
+
+    private interface Attempt {
+        boolean attempt(Long id);
+    }
+
+    private interface Release {
+        void release(Long id);
+    }
+}
@@ -3,8 +3,12 @@ package lk.ijse.paymentservice.config;
 import lk.ijse.paymentservice.dto.PaymentRequestDTO;
 import lk.ijse.paymentservice.dto.PaymentResponseDTO;
 import lk.ijse.paymentservice.entity.Payment;
+import lk.ijse.paymentservice.mapper.DirectPaymentMapper;
+import lk.ijse.paymentservice.mapper.ModelMapperPaymentMapper;
+import lk.ijse.paymentservice.mapper.PaymentMapper;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -43,4 +47,13 @@ public class ModelMapperConfig {
 
         return modelMapper;
     }
+
+    // "direct" (default) uses the hand-written mapper; "modelmapper" switches back to the type maps above
+    @Bean
+    public PaymentMapper paymentMapper(ModelMapper modelMapper, @Value("${mapper.strategy:direct}") String strategy) {
+        if ("modelmapper".equalsIgnoreCase(strategy)) {
+            return new ModelMapperPaymentMapper(modelMapper);
+        }
+        return new DirectPaymentMapper();
+    }
 }
\ No newline at end of file
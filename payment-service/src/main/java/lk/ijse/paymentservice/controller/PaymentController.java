@@ -1,5 +1,7 @@
 package lk.ijse.paymentservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.ijse.paymentservice.dto.CursorPageDTO;
 import lk.ijse.paymentservice.dto.PaymentRequestDTO;
 import lk.ijse.paymentservice.dto.PaymentResponseDTO;
 import lk.ijse.paymentservice.dto.ResponseDTO;
@@ -7,10 +9,14 @@ import lk.ijse.paymentservice.dto.DigitalReceiptDTO;
 import lk.ijse.paymentservice.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -18,10 +24,12 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, ObjectMapper objectMapper) {
         this.paymentService = paymentService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping("/process")
@@ -47,6 +55,20 @@ public class PaymentController {
         }
     }
 
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    // Streams every payment as NDJSON (one JSON object per line) straight from a database cursor
+    public ResponseEntity<StreamingResponseBody> streamAllPayments() {
+        StreamingResponseBody body = outputStream -> paymentService.streamAllPayments(payment -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(payment));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
     @GetMapping("/{transactionId}")
     // @PreAuthorize("hasAnyRole('USER', 'ADMIN')") - User should only see their own, Admin can see all
     public ResponseEntity<ResponseDTO> getPaymentDetails(@PathVariable String transactionId) {
@@ -68,7 +90,16 @@ public class PaymentController {
 
     @GetMapping
     // @PreAuthorize("hasRole('ADMIN')") - Only Admin can retrieve all payments
-    public ResponseEntity<ResponseDTO> getAllPayments() {
+    public ResponseEntity<ResponseDTO> getAllPayments(@RequestParam(required = false) String after,
+                                                      @RequestParam(required = false) Integer limit) {
+        // Keyset pagination when a cursor or page size is given; the full list is kept for existing clients
+        if (after != null || limit != null) {
+            CursorPageDTO<PaymentResponseDTO> page = paymentService.getPaymentsPage(after, limit);
+            return new ResponseEntity<>(
+                    new ResponseDTO(HttpStatus.OK.value(), "Payments page retrieved successfully", page),
+                    HttpStatus.OK
+            );
+        }
         // Removed try-catch. If getAllPayments throws an exception, GlobalExceptionHandler will catch it.
         List<PaymentResponseDTO> payments = paymentService.getAllPayments();
         return new ResponseEntity<>(
@@ -0,0 +1,51 @@
+package lk.ijse.paymentservice.deadline;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Gives every transaction started for a request with a {@link RequestDeadline} at most the time the request
+ * has left.
+ * <p>
+ * Spring applies the remaining transaction time as the query timeout of each statement, so a query still
+ * running when the deadline passes is cancelled by the database, and a statement started after it fails
+ * at once with {@link TransactionTimedOutException} instead of reaching the database at all.
+ */
+public class DeadlineAwareJpaTransactionManager extends JpaTransactionManager {
+
+    public DeadlineAwareJpaTransactionManager(EntityManagerFactory entityManagerFactory) {
+        super(entityManagerFactory);
+    }
+
+    // Whole seconds, rounded up: the unit of the transaction timeout the JPA provider is given
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        int timeout = super.determineTimeout(definition);
+        if (!RequestDeadline.isSet()) {
+            return timeout;
+        }
+        long remainingMillis = RequestDeadline.remainingMillis();
+        if (remainingMillis <= 0) {
+            throw new TransactionTimedOutException("Request deadline exceeded before the transaction started");
+        }
+        int remainingSeconds = (int) Math.min(Integer.MAX_VALUE, (remainingMillis + 999) / 1000);
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remainingSeconds : Math.min(timeout, remainingSeconds);
+    }
+
+    // The statement timeouts Spring derives from the holder count in milliseconds, so they get the exact budget
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        if (RequestDeadline.isSet()
+                && TransactionSynchronizationManager.getResource(obtainEntityManagerFactory()) instanceof EntityManagerHolder holder) {
+            long remainingMillis = RequestDeadline.remainingMillis();
+            if (!holder.hasTimeout() || holder.getTimeToLiveInMillis() > remainingMillis) {
+                holder.setTimeoutInMillis(Math.max(1, remainingMillis));
+            }
+        }
+    }
+}
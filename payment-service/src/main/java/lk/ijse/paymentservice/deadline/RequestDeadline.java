@@ -0,0 +1,36 @@
+package lk.ijse.paymentservice.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time by which the current request must be answered, as passed on by the api-gateway.
+ * Bound to the request's thread by {@link RequestDeadlineFilter}; work started on other threads has none.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>(); // System.nanoTime()
+
+    private RequestDeadline() {
+    }
+
+    static void set(long deadlineNanos) {
+        DEADLINE.set(deadlineNanos);
+    }
+
+    static void clear() {
+        DEADLINE.remove();
+    }
+
+    public static boolean isSet() {
+        return DEADLINE.get() != null;
+    }
+
+    // Milliseconds left, 0 once the deadline has passed; Long.MAX_VALUE when the request has no deadline
+    public static long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+}
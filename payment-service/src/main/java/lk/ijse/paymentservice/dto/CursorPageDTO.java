@@ -0,0 +1,16 @@
+package lk.ijse.paymentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+    private String nextCursor; // Transaction ID to pass as 'after' to fetch the next page; null when there are no more items
+    private boolean hasMore;
+}
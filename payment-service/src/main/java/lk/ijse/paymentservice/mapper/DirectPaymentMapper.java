@@ -0,0 +1,37 @@
+package lk.ijse.paymentservice.mapper;
+
+import lk.ijse.paymentservice.dto.PaymentRequestDTO;
+import lk.ijse.paymentservice.dto.PaymentResponseDTO;
+import lk.ijse.paymentservice.entity.Payment;
+
+// Hand-written field copies, resolved at compile time instead of ModelMapper's reflective matching
+public class DirectPaymentMapper implements PaymentMapper {
+
+    @Override
+    public Payment toEntity(PaymentRequestDTO paymentRequestDTO) {
+        if (paymentRequestDTO == null) {
+            return null;
+        }
+        Payment payment = new Payment();
+        payment.setBookingId(paymentRequestDTO.getBookingId());
+        payment.setAmount(paymentRequestDTO.getAmount());
+        payment.setCardHolderName(paymentRequestDTO.getCardHolderName());
+        payment.setExpiryDate(paymentRequestDTO.getExpiryDate());
+        payment.setPaymentMethod(paymentRequestDTO.getPaymentMethod());
+        return payment;
+    }
+
+    @Override
+    public PaymentResponseDTO toResponseDTO(Payment payment) {
+        if (payment == null) {
+            return null;
+        }
+        PaymentResponseDTO responseDTO = new PaymentResponseDTO();
+        responseDTO.setTransactionId(payment.getTransactionId());
+        responseDTO.setBookingId(payment.getBookingId());
+        responseDTO.setAmount(payment.getAmount());
+        responseDTO.setStatus(payment.getStatus());
+        responseDTO.setTransactionTime(payment.getTransactionTime());
+        return responseDTO;
+    }
+}
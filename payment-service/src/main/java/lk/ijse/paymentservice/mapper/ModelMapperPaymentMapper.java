@@ -0,0 +1,26 @@
+package lk.ijse.paymentservice.mapper;
+
+import lk.ijse.paymentservice.dto.PaymentRequestDTO;
+import lk.ijse.paymentservice.dto.PaymentResponseDTO;
+import lk.ijse.paymentservice.entity.Payment;
+import org.modelmapper.ModelMapper;
+
+// Reflective mapping through the shared ModelMapper bean and its type maps (the original behaviour)
+public class ModelMapperPaymentMapper implements PaymentMapper {
+
+    private final ModelMapper modelMapper;
+
+    public ModelMapperPaymentMapper(ModelMapper modelMapper) {
+        this.modelMapper = modelMapper;
+    }
+
+    @Override
+    public Payment toEntity(PaymentRequestDTO paymentRequestDTO) {
+        return modelMapper.map(paymentRequestDTO, Payment.class);
+    }
+
+    @Override
+    public PaymentResponseDTO toResponseDTO(Payment payment) {
+        return modelMapper.map(payment, PaymentResponseDTO.class);
+    }
+}
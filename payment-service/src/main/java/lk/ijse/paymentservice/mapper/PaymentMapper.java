@@ -0,0 +1,10 @@
+package lk.ijse.paymentservice.mapper;
+
+import lk.ijse.paymentservice.dto.PaymentRequestDTO;
+import lk.ijse.paymentservice.dto.PaymentResponseDTO;
+import lk.ijse.paymentservice.entity.Payment;
+
+public interface PaymentMapper {
+    Payment toEntity(PaymentRequestDTO paymentRequestDTO); // Card number and CVV are never copied onto the entity
+    PaymentResponseDTO toResponseDTO(Payment payment); // The digital receipt is attached by the service
+}
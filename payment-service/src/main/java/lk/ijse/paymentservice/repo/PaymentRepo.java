@@ -1,15 +1,32 @@
 package lk.ijse.paymentservice.repo;
 
 import lk.ijse.paymentservice.entity.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepo extends JpaRepository<Payment, String> { // ID type is String (UUID)
     List<Payment> findByBookingId(Long bookingId);
     Optional<Payment> findByReceiptId(String receiptId);
     List<Payment> findByStatus(String status);
+
+    // Keyset pagination on the transaction ID: the next page starts after the last ID of the previous one
+    List<Payment> findByTransactionIdGreaterThanOrderByTransactionIdAsc(String transactionId, Limit limit);
+
+    // Streams rows with a server-side cursor (MySQL streams result sets when the fetch size is Integer.MIN_VALUE)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Payment p ORDER BY p.transactionId")
+    Stream<Payment> streamAllBy();
 }
\ No newline at end of file
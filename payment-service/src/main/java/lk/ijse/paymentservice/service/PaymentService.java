@@ -1,15 +1,19 @@
 package lk.ijse.paymentservice.service;
 
+import lk.ijse.paymentservice.dto.CursorPageDTO;
 import lk.ijse.paymentservice.dto.PaymentRequestDTO;
 import lk.ijse.paymentservice.dto.PaymentResponseDTO;
 import lk.ijse.paymentservice.dto.DigitalReceiptDTO;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PaymentService {
     PaymentResponseDTO processPayment(PaymentRequestDTO paymentRequestDTO);
     PaymentResponseDTO getPaymentDetails(String transactionId);
     List<PaymentResponseDTO> getAllPayments();
+    CursorPageDTO<PaymentResponseDTO> getPaymentsPage(String after, Integer limit); // Keyset-paginated listing
+    void streamAllPayments(Consumer<PaymentResponseDTO> consumer); // Streams every payment without loading them all
     List<PaymentResponseDTO> getPaymentsByBookingId(Long bookingId);
     DigitalReceiptDTO getDigitalReceipt(String transactionId);
     // You might add methods for refund, void, etc. later
@@ -1,13 +1,20 @@
 package lk.ijse.paymentservice.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lk.ijse.paymentservice.dto.CursorPageDTO;
 import lk.ijse.paymentservice.dto.DigitalReceiptDTO;
 import lk.ijse.paymentservice.dto.PaymentRequestDTO;
 import lk.ijse.paymentservice.dto.PaymentResponseDTO;
 import lk.ijse.paymentservice.entity.Payment;
+import lk.ijse.paymentservice.mapper.PaymentMapper;
 import lk.ijse.paymentservice.repo.PaymentRepo;
 import lk.ijse.paymentservice.service.PaymentService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,30 +22,46 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
+@Timed(value = "service.method", histogram = true) // Every public method, tagged with class and method
 public class PaymentServiceImpl implements PaymentService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final PaymentRepo paymentRepo;
-    private final ModelMapper modelMapper;
+    private final PaymentMapper paymentMapper;
+    private final Counter successfulPayments;
+    private final Counter failedPayments;
+    private final Counter rejectedPayments;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public PaymentServiceImpl(PaymentRepo paymentRepo, ModelMapper modelMapper) {
+    public PaymentServiceImpl(PaymentRepo paymentRepo, PaymentMapper paymentMapper, MeterRegistry meterRegistry) {
         this.paymentRepo = paymentRepo;
-        this.modelMapper = modelMapper;
+        this.paymentMapper = paymentMapper;
+        this.successfulPayments = outcomeCounter(meterRegistry, "SUCCESS");
+        this.failedPayments = outcomeCounter(meterRegistry, "FAILED");
+        this.rejectedPayments = outcomeCounter(meterRegistry, "REJECTED"); // Invalid request, nothing stored
     }
 
     @Override
     public PaymentResponseDTO processPayment(PaymentRequestDTO paymentRequestDTO) {
         // 1. Validate mock card/payment data (basic validation here, more complex in real scenario)
         if (!validateMockCardData(paymentRequestDTO)) {
+            rejectedPayments.increment();
             throw new RuntimeException("Invalid card details or payment request.");
         }
 
         // 2. Simulate transaction flow and status
-        Payment payment = modelMapper.map(paymentRequestDTO, Payment.class);
+        Payment payment = paymentMapper.toEntity(paymentRequestDTO);
         //payment.setTransactionId(UUID.randomUUID().toString()); // Generate unique transaction ID
         payment.setTransactionTime(LocalDateTime.now());
         payment.setPaymentMethod(paymentRequestDTO.getPaymentMethod() != null ? paymentRequestDTO.getPaymentMethod() : "CARD");
@@ -65,8 +88,13 @@ public class PaymentServiceImpl implements PaymentService {
         }
 
         Payment savedPayment = paymentRepo.save(payment);
+        if (savedPayment.getStatus().equals("SUCCESS")) {
+            successfulPayments.increment();
+        } else {
+            failedPayments.increment();
+        }
 
-        PaymentResponseDTO responseDTO = modelMapper.map(savedPayment, PaymentResponseDTO.class);
+        PaymentResponseDTO responseDTO = paymentMapper.toResponseDTO(savedPayment);
         if (savedPayment.getStatus().equals("SUCCESS")) {
             responseDTO.setDigitalReceipt(generateDigitalReceipt(paymentRequestDTO, savedPayment.getTransactionId(), savedPayment.getTransactionTime()));
         }
@@ -81,7 +109,7 @@ public class PaymentServiceImpl implements PaymentService {
             return null; // Or throw an exception
         }
         Payment payment = paymentOptional.get();
-        PaymentResponseDTO responseDTO = modelMapper.map(payment, PaymentResponseDTO.class);
+        PaymentResponseDTO responseDTO = paymentMapper.toResponseDTO(payment);
 
         if (payment.getStatus().equals("SUCCESS") && payment.getReceiptId() != null) {
             // Reconstruct digital receipt for the response
@@ -107,6 +135,33 @@ public class PaymentServiceImpl implements PaymentService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PaymentResponseDTO> getPaymentsPage(String after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // One extra row tells whether another page exists without a count query
+        List<Payment> payments = paymentRepo.findByTransactionIdGreaterThanOrderByTransactionIdAsc(
+                after == null ? "" : after, Limit.of(pageSize + 1));
+        boolean hasMore = payments.size() > pageSize;
+        List<PaymentResponseDTO> items = payments.stream()
+                .limit(pageSize)
+                .map(this::mapPaymentToResponseDTO)
+                .collect(Collectors.toList());
+        String nextCursor = hasMore ? items.get(items.size() - 1).getTransactionId() : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllPayments(Consumer<PaymentResponseDTO> consumer) {
+        try (Stream<Payment> payments = paymentRepo.streamAllBy()) {
+            payments.forEach(payment -> {
+                consumer.accept(mapPaymentToResponseDTO(payment));
+                entityManager.detach(payment); // Keeps the persistence context, and the heap, flat
+            });
+        }
+    }
+
     @Override
     public List<PaymentResponseDTO> getPaymentsByBookingId(Long bookingId) {
         // In a real system, you might first check if the bookingId exists in booking-service
@@ -195,7 +250,7 @@ public class PaymentServiceImpl implements PaymentService {
 
     // Helper to map Payment entity to PaymentResponseDTO, including receipt
     private PaymentResponseDTO mapPaymentToResponseDTO(Payment payment) {
-        PaymentResponseDTO dto = modelMapper.map(payment, PaymentResponseDTO.class);
+        PaymentResponseDTO dto = paymentMapper.toResponseDTO(payment);
         if (payment.getStatus().equals("SUCCESS") && payment.getReceiptId() != null) {
             dto.setDigitalReceipt(new DigitalReceiptDTO(
                     payment.getReceiptId(),
@@ -211,4 +266,11 @@ public class PaymentServiceImpl implements PaymentService {
         }
         return dto;
     }
-}
\ No newline at end of file
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String status) {
+        return Counter.builder("payment.outcomes")
+                .description("Processed payments by outcome")
+                .tag("status", status)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,118 @@
+package lk.ijse.paymentservice;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lk.ijse.paymentservice.config.ModelMapperConfig;
+import lk.ijse.paymentservice.deadline.DeadlineAwareJpaTransactionManager;
+import lk.ijse.paymentservice.entity.Payment;
+import lk.ijse.paymentservice.repo.PaymentRepo;
+import lk.ijse.paymentservice.service.impl.PaymentServiceImpl;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The service layer on an H2 database under target/, for tests that need a real schema and real transactions. The
+ * database lives in a file so large tables stay off the test heap. Auto-configuration, the config server and Eureka
+ * are left out, so the context starts offline. As a test configuration it stays out of the application's component
+ * scan in {@code PaymentServiceApplicationTests}.
+ */
+@TestConfiguration
+@EnableTransactionManagement
+@EnableJpaRepositories(basePackageClasses = PaymentRepo.class)
+@Import({PaymentServiceImpl.class, ModelMapperConfig.class})
+public class PaymentTestConfig {
+
+    private static final int H2_STREAMING_FETCH_SIZE = 100;
+
+    // MySQL streams a result set when the fetch size is Integer.MIN_VALUE (see PaymentRepo.streamAllBy); H2 rejects
+    // a negative fetch size, so statements turn it into a small positive one and H2's lazy execution streams instead
+    @Bean
+    public DataSource dataSource() {
+        DataSource h2 = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:file:./target/h2/payments;LAZY_QUERY_EXECUTION=1", "sa", "");
+        return new DelegatingDataSource(h2) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return streamingFetchSizeAware(super.getConnection(), Connection.class);
+            }
+        };
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPackagesToScan(Payment.class.getPackageName());
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        // Boot's column names (transaction_id, booking_id), which the tests' seeding SQL uses
+        properties.put(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName());
+        properties.put(AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName());
+        factory.setJpaPropertyMap(properties);
+        return factory;
+    }
+
+    // The service's own transaction manager (see TransactionConfig)
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new DeadlineAwareJpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+
+    // Wraps connections and the statements they create; everything but setFetchSize(Integer.MIN_VALUE) passes through
+    private static <T> T streamingFetchSizeAware(T target, Class<T> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().equals("setFetchSize") && (int) args[0] == Integer.MIN_VALUE) {
+                args[0] = H2_STREAMING_FETCH_SIZE;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof PreparedStatement statement && method.getReturnType() == PreparedStatement.class) {
+                return streamingFetchSizeAware(statement, PreparedStatement.class);
+            }
+            if (result instanceof Statement statement && method.getReturnType() == Statement.class) {
+                return streamingFetchSizeAware(statement, Statement.class);
+            }
+            return result;
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
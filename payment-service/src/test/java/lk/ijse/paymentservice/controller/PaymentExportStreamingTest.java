@@ -0,0 +1,93 @@
+package lk.ijse.paymentservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.ijse.paymentservice.PaymentTestConfig;
+import lk.ijse.paymentservice.service.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * GET /api/v1/payments/stream over a million payments. The test JVM runs with -Xmx256m (see the surefire
+ * configuration), far less than the rows take once loaded, so the export only completes if it streams.
+ */
+@SpringJUnitConfig(PaymentTestConfig.class)
+class PaymentExportStreamingTest {
+
+    private static final int PAYMENTS = 1_000_000;
+    private static final int SEED_BATCH = 10_000;
+
+    @Autowired
+    private PaymentService paymentService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void exportsAMillionPaymentsInBoundedHeap() throws Exception {
+        seedPayments();
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build(); // Boot's defaults, java.time included
+        StreamingResponseBody body = new PaymentController(paymentService, objectMapper).streamAllPayments().getBody();
+        assertNotNull(body);
+        LineCounter lines = new LineCounter();
+        body.writeTo(lines);
+
+        assertEquals(PAYMENTS, lines.count);
+        System.out.printf("Exported %d payments, %d MB of NDJSON, max heap %d MB%n", lines.count,
+                lines.bytes >> 20, Runtime.getRuntime().maxMemory() >> 20);
+    }
+
+    // Plain JDBC in batches, so seeding keeps the heap flat too
+    private void seedPayments() {
+        String sql = "INSERT INTO payment (transaction_id, booking_id, amount, transaction_time, status, payment_method,"
+                + " card_holder_name, masked_card_number, expiry_date, receipt_id, paid_for, customer_name, merchant_info,"
+                + " remarks, error_message) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int from = 0; from < PAYMENTS; from += SEED_BATCH) {
+            List<Object[]> rows = new ArrayList<>(SEED_BATCH);
+            for (int i = from; i < from + SEED_BATCH; i++) {
+                rows.add(new Object[]{UUID.randomUUID().toString(), (long) i, 250.0 + i % 500,
+                        Timestamp.valueOf(start.plusMinutes(i)), "SUCCESS", "CARD", "Customer " + i, "************1111",
+                        "12/30", "RCPT-" + i, "Parking Booking #" + i, "Customer " + i, "SPMS Parking", null, null});
+            }
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    // Stands in for the servlet response: counts what the export writes and keeps none of it
+    private static class LineCounter extends OutputStream {
+        private long count;
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                count++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    count++;
+                }
+            }
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package lk.ijse.userservice.advice;
 
 import lk.ijse.userservice.dto.ResponseDTO;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -54,4 +56,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(responseDTO, HttpStatus.INTERNAL_SERVER_ERROR);
     }
     // You can add more specific exception handlers as needed.
-}
\ No newline at end of file
+
+    // The request's deadline (X-Request-Timeout-Ms from the api-gateway) passed during its database work
+    @ExceptionHandler({TransactionTimedOutException.class, QueryTimeoutException.class, jakarta.persistence.QueryTimeoutException.class})
+    public ResponseEntity<ResponseDTO> handleDeadlineExceeded(RuntimeException exception) {
+        ResponseDTO responseDTO = new ResponseDTO(
+                HttpStatus.GATEWAY_TIMEOUT.value(),
+                "Request deadline exceeded",
+                null
+        );
+        return new ResponseEntity<>(responseDTO, HttpStatus.GATEWAY_TIMEOUT);
+    }
+}
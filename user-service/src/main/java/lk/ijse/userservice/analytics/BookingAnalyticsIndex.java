@@ -0,0 +1,234 @@
+package lk.ijse.userservice.analytics;
+
+import lk.ijse.userservice.dto.BookingAnalyticsDTO;
+import lk.ijse.userservice.dto.BookingAnalyticsGroupDTO;
+import lk.ijse.userservice.dto.BookingOccupancyDTO;
+import lk.ijse.userservice.dto.HourlyOccupancyDTO;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Booking analytics served from {@link BookingBuckets} in memory, so a query costs the number of days and zones
+ * (or spots) it covers, never the number of bookings.
+ * <p>
+ * The buckets only reflect committed state: callers apply each booking change after their transaction commits,
+ * as the contribution it had before and the one it has after. {@link BookingAnalyticsRebuilder} replaces them
+ * with a fresh scan at startup and on a schedule. Changes that commit while a rebuild scans are reconciled per
+ * chunk of booking IDs, so the rebuilt buckets count each booking exactly once, in its latest state.
+ */
+@Component
+public class BookingAnalyticsIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private BookingBuckets buckets = new BookingBuckets();
+    private Rebuild rebuild;
+    private volatile boolean loaded;
+
+    // before and after are null when the booking did not, or no longer does, count
+    public void apply(Long bookingId, BookingAnalyticsRecord before, BookingAnalyticsRecord after) {
+        if (before == null && after == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            buckets.add(before, -1);
+            buckets.add(after, 1);
+            if (rebuild != null) {
+                rebuild.apply(bookingId, before, after);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Hourly occupancy of the days [from, to] for one zone, or all zones when zone is null
+    public BookingOccupancyDTO occupancy(LocalDate from, LocalDate to, String zone) {
+        long fromDay = from.toEpochDay();
+        int hours = (int) (to.toEpochDay() - fromDay + 1) * 24;
+        long[] occupied = new long[hours];
+        long[] completed = new long[hours];
+        lock.readLock().lock();
+        try {
+            buckets.addHours(fromDay, to.toEpochDay(), zone, occupied, completed);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<HourlyOccupancyDTO> points = new ArrayList<>(hours);
+        double[] hourOfDay = new double[24];
+        long total = 0;
+        int peak = 0;
+        for (int hour = 0; hour < hours; hour++) {
+            points.add(new HourlyOccupancyDTO(from.atStartOfDay().plusHours(hour), spots(occupied[hour]), completed[hour]));
+            hourOfDay[hour % 24] += occupied[hour];
+            total += occupied[hour];
+            if (occupied[hour] > occupied[peak]) {
+                peak = hour;
+            }
+        }
+        for (int hour = 0; hour < 24; hour++) {
+            hourOfDay[hour] = spots(hourOfDay[hour] / (hours / 24));
+        }
+        return new BookingOccupancyDTO(from, to, zone, spots((double) total / hours),
+                from.atStartOfDay().plusHours(peak), spots(occupied[peak]), hourOfDay, points);
+    }
+
+    // Completed bookings, revenue, dwell time and occupied hours of the days [from, to], per zone or per spot
+    public BookingAnalyticsDTO summary(LocalDate from, LocalDate to, boolean bySpot, String zone) {
+        Map<String, long[]> totals;
+        lock.readLock().lock();
+        try {
+            totals = buckets.totals(from.toEpochDay(), to.toEpochDay(), bySpot, zone);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long[] all = new long[BookingBuckets.FIELDS];
+        List<BookingAnalyticsGroupDTO> groups = new ArrayList<>(totals.size());
+        totals.forEach((key, sums) -> {
+            groups.add(new BookingAnalyticsGroupDTO(key, sums[BookingBuckets.COMPLETED], sums[BookingBuckets.REVENUE] / 100.0,
+                    dwellMinutes(sums), sums[BookingBuckets.OCCUPIED] / (double) BookingBuckets.HOUR));
+            for (int field = 0; field < all.length; field++) {
+                all[field] += sums[field];
+            }
+        });
+        return new BookingAnalyticsDTO(from, to, bySpot ? "spot" : "zone", all[BookingBuckets.COMPLETED],
+                all[BookingBuckets.REVENUE] / 100.0, dwellMinutes(all), all[BookingBuckets.OCCUPIED] / (double) BookingBuckets.HOUR, groups);
+    }
+
+    /**
+     * Starts tracking changes for a rebuild that scans the booking IDs [minId, maxId] in chunks of chunkSize.
+     * Only one rebuild runs at a time.
+     */
+    Rebuild beginRebuild(long minId, long maxId, int chunkSize) {
+        lock.writeLock().lock();
+        try {
+            if (rebuild != null) {
+                throw new IllegalStateException("A booking analytics rebuild is already running");
+            }
+            rebuild = new Rebuild(minId, maxId, chunkSize);
+            return rebuild;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replaces the buckets with the rebuilt ones
+    void finishRebuild(Rebuild finished) {
+        lock.writeLock().lock();
+        try {
+            if (rebuild == finished) {
+                buckets = finished.result;
+                rebuild = null;
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void abortRebuild(Rebuild aborted) {
+        lock.writeLock().lock();
+        try {
+            if (rebuild == aborted) {
+                rebuild = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static double spots(double occupiedSeconds) {
+        return occupiedSeconds / BookingBuckets.HOUR;
+    }
+
+    private static double dwellMinutes(long[] sums) {
+        return sums[BookingBuckets.COMPLETED] == 0 ? 0
+                : sums[BookingBuckets.DWELL] / 60.0 / sums[BookingBuckets.COMPLETED];
+    }
+
+    /**
+     * One rebuild's state. A change to a booking whose chunk has not been read yet needs nothing: the scan will
+     * see it. One whose chunk was read already is applied to the result. One that arrives while its chunk is being
+     * read may or may not be in what the read sees, so its latest state is kept and the chunk's own reading of that
+     * booking is swapped for it when the chunk completes.
+     */
+    static final class Rebuild {
+        private static final byte NOT_STARTED = 0;
+        private static final byte READING = 1;
+        private static final byte DONE = 2;
+
+        private final long minId;
+        private final long maxId;
+        private final int chunkSize;
+        private final byte[] states;
+        private final Map<Integer, Map<Long, BookingAnalyticsRecord>> changedWhileReading = new HashMap<>();
+        private final BookingBuckets result = new BookingBuckets();
+        private long concurrentChanges;
+
+        private Rebuild(long minId, long maxId, int chunkSize) {
+            this.minId = minId;
+            this.maxId = maxId;
+            this.chunkSize = chunkSize;
+            this.states = new byte[maxId < minId ? 0 : (int) ((maxId - minId) / chunkSize + 1)];
+        }
+
+        int chunks() {
+            return states.length;
+        }
+
+        // The booking IDs [from, to) of a chunk
+        long chunkStart(int chunk) {
+            return minId + (long) chunk * chunkSize;
+        }
+
+        long chunkEnd(int chunk) {
+            return Math.min(chunkStart(chunk) + chunkSize, maxId + 1);
+        }
+
+        synchronized long concurrentChanges() {
+            return concurrentChanges;
+        }
+
+        synchronized void chunkStarted(int chunk) {
+            states[chunk] = READING;
+        }
+
+        // read is the chunk's own buckets; scanned holds the record it read for each counted booking
+        synchronized void chunkDone(int chunk, BookingBuckets read, Map<Long, BookingAnalyticsRecord> scanned) {
+            Map<Long, BookingAnalyticsRecord> changed = changedWhileReading.remove(chunk);
+            if (changed != null) {
+                changed.forEach((id, latest) -> {
+                    read.add(scanned.get(id), -1);
+                    read.add(latest, 1);
+                });
+            }
+            result.merge(read);
+            states[chunk] = DONE;
+        }
+
+        private synchronized void apply(Long bookingId, BookingAnalyticsRecord before, BookingAnalyticsRecord after) {
+            concurrentChanges++;
+            // IDs outside the scanned range (bookings created since it began) are never read by the scan
+            byte state = bookingId < minId || bookingId > maxId ? DONE : states[(int) ((bookingId - minId) / chunkSize)];
+            if (state == DONE) {
+                result.add(before, -1);
+                result.add(after, 1);
+            } else if (state == READING) {
+                changedWhileReading.computeIfAbsent((int) ((bookingId - minId) / chunkSize), chunk -> new HashMap<>())
+                        .put(bookingId, after);
+            }
+        }
+    }
+}
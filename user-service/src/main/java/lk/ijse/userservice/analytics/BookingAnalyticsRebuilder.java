@@ -0,0 +1,129 @@
+package lk.ijse.userservice.analytics;
+
+import lk.ijse.userservice.dto.AnalyticsRebuildDTO;
+import lk.ijse.userservice.repo.BookingRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rebuilds the {@link BookingAnalyticsIndex} from the booking table: once the application has started, nightly
+ * as a safety net against changes made outside the service, and on demand.
+ * <p>
+ * The booking IDs are split into fixed ranges that a small pool of threads reads in parallel, each range in its
+ * own read-only transaction and into its own buckets, so no thread waits on another and no transaction stays open
+ * for the whole table. The per-range buckets are merged as each range completes.
+ */
+@Component
+public class BookingAnalyticsRebuilder implements ApplicationRunner {
+
+    private final BookingRepo bookingRepo;
+    private final BookingAnalyticsIndex analyticsIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int threads;
+    private final int chunkSize;
+
+    public BookingAnalyticsRebuilder(BookingRepo bookingRepo, BookingAnalyticsIndex analyticsIndex,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${analytics.rebuild-threads:0}") int threads,
+                                     @Value("${analytics.rebuild-chunk-size:20000}") int chunkSize) {
+        this.bookingRepo = bookingRepo;
+        this.analyticsIndex = analyticsIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AnalyticsRebuildDTO result = rebuild();
+        System.out.println("Booking analytics built from " + result.getBookingsCounted() + " completed bookings in "
+                + result.getMillis() + " ms");
+    }
+
+    @Scheduled(cron = "${analytics.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (IllegalStateException e) {
+            System.out.println("Scheduled booking analytics rebuild skipped: " + e.getMessage());
+        }
+    }
+
+    public AnalyticsRebuildDTO rebuild() {
+        long started = System.currentTimeMillis();
+        Object[] idRange = bookingRepo.findIdRange().get(0);
+        long minId = idRange[0] == null ? 1 : ((Number) idRange[0]).longValue();
+        long maxId = idRange[1] == null ? 0 : ((Number) idRange[1]).longValue();
+        BookingAnalyticsIndex.Rebuild rebuild = analyticsIndex.beginRebuild(minId, maxId, chunkSize);
+
+        int poolSize = Math.max(1, Math.min(threads, rebuild.chunks()));
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "booking-analytics-rebuild-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long read = 0;
+        long counted = 0;
+        try {
+            List<Future<long[]>> chunks = new ArrayList<>(rebuild.chunks());
+            for (int chunk = 0; chunk < rebuild.chunks(); chunk++) {
+                int current = chunk;
+                chunks.add(pool.submit(() -> readChunk(rebuild, current)));
+            }
+            for (Future<long[]> chunk : chunks) {
+                long[] rows = chunk.get();
+                read += rows[0];
+                counted += rows[1];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            analyticsIndex.abortRebuild(rebuild);
+            throw new RuntimeException("Booking analytics rebuild interrupted");
+        } catch (ExecutionException e) {
+            analyticsIndex.abortRebuild(rebuild);
+            throw new RuntimeException("Booking analytics rebuild failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        analyticsIndex.finishRebuild(rebuild);
+        return new AnalyticsRebuildDTO(read, counted, rebuild.chunks(), poolSize, rebuild.concurrentChanges(),
+                System.currentTimeMillis() - started);
+    }
+
+    // { rows read, completed bookings counted }
+    private long[] readChunk(BookingAnalyticsIndex.Rebuild rebuild, int chunk) {
+        rebuild.chunkStarted(chunk);
+        List<Object[]> rows = transactionTemplate.execute(status ->
+                bookingRepo.findAnalyticsRows(rebuild.chunkStart(chunk), rebuild.chunkEnd(chunk)));
+        BookingBuckets buckets = new BookingBuckets();
+        Map<Long, BookingAnalyticsRecord> scanned = new HashMap<>();
+        for (Object[] row : rows) {
+            BookingAnalyticsRecord record = BookingAnalyticsRecord.of((String) row[1], (LocalDateTime) row[2],
+                    (LocalDateTime) row[3], ((Number) row[4]).doubleValue(), (String) row[5]);
+            if (record != null) {
+                buckets.add(record, 1);
+                scanned.put((Long) row[0], record);
+            }
+        }
+        rebuild.chunkDone(chunk, buckets, scanned);
+        return new long[]{rows.size(), scanned.size()};
+    }
+}
@@ -0,0 +1,33 @@
+package lk.ijse.userservice.analytics;
+
+import lk.ijse.userservice.entity.Booking;
+import lk.ijse.userservice.util.ParkingSpotIds;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * What one completed booking adds to the analytics: its spot and zone, its stay in epoch seconds of the booking's
+ * wall-clock times (the times carry no zone, so hours are the hours as stored), and its cost in cents.
+ */
+public record BookingAnalyticsRecord(String spot, String zone, long checkIn, long checkOut, long revenueCents) {
+
+    public static final String COMPLETED = "COMPLETED";
+
+    public static BookingAnalyticsRecord of(Booking booking) {
+        return booking == null ? null : of(booking.getParkingSpotId(), booking.getCheckInTime(), booking.getCheckOutTime(),
+                booking.getTotalCost(), booking.getStatus());
+    }
+
+    // Null unless the booking is completed and checked out after it checked in
+    public static BookingAnalyticsRecord of(String parkingSpotId, LocalDateTime checkInTime, LocalDateTime checkOutTime,
+                                            double totalCost, String status) {
+        if (!COMPLETED.equalsIgnoreCase(status) || checkInTime == null || checkOutTime == null
+                || !checkOutTime.isAfter(checkInTime)) {
+            return null;
+        }
+        String spot = ParkingSpotIds.key(parkingSpotId);
+        return new BookingAnalyticsRecord(spot, ParkingSpotIds.zoneOf(spot), checkInTime.toEpochSecond(ZoneOffset.UTC),
+                checkOutTime.toEpochSecond(ZoneOffset.UTC), Math.round(totalCost * 100));
+    }
+}
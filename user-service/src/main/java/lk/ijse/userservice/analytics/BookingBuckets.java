@@ -0,0 +1,153 @@
+package lk.ijse.userservice.analytics;
+
+import lk.ijse.userservice.util.ParkingSpotIds;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Pre-aggregated booking figures: hourly buckets per zone and daily buckets per spot. Each bucket holds the
+ * occupied seconds within it, and the count, total dwell seconds and revenue (cents) of the bookings that checked
+ * out within it. A booking is added once with sign 1 and taken out again with sign -1, so every figure is an
+ * exact sum and updates never drift.
+ * <p>
+ * Not thread-safe; {@link BookingAnalyticsIndex} guards it.
+ */
+final class BookingBuckets {
+
+    static final int OCCUPIED = 0;
+    static final int COMPLETED = 1;
+    static final int DWELL = 2;
+    static final int REVENUE = 3;
+    static final int FIELDS = 4;
+
+    static final long HOUR = 3600;
+    static final long DAY = 24 * HOUR;
+
+    private final Map<String, Series> zones = new HashMap<>();
+    private final Map<String, Series> spots = new HashMap<>();
+
+    void add(BookingAnalyticsRecord record, int sign) {
+        if (record == null) {
+            return;
+        }
+        Series zone = zones.computeIfAbsent(record.zone(), key -> new Series(24));
+        Series spot = spots.computeIfAbsent(record.spot(), key -> new Series(1));
+        // Occupancy: the part of the stay within each hour it overlaps
+        for (long hour = Math.floorDiv(record.checkIn(), HOUR) * HOUR; hour < record.checkOut(); hour += HOUR) {
+            long seconds = Math.min(hour + HOUR, record.checkOut()) - Math.max(hour, record.checkIn());
+            long day = Math.floorDiv(hour, DAY);
+            zone.add(day, hourOfDay(hour), OCCUPIED, sign * seconds);
+            spot.add(day, 0, OCCUPIED, sign * seconds);
+        }
+        // Completion figures go to the hour of check-out
+        long day = Math.floorDiv(record.checkOut(), DAY);
+        addCompletion(zone, day, hourOfDay(record.checkOut()), record, sign);
+        addCompletion(spot, day, 0, record, sign);
+    }
+
+    void merge(BookingBuckets other) {
+        other.zones.forEach((key, series) -> zones.computeIfAbsent(key, k -> new Series(24)).merge(series));
+        other.spots.forEach((key, series) -> spots.computeIfAbsent(key, k -> new Series(1)).merge(series));
+    }
+
+    /**
+     * Adds the hourly occupied seconds and check-outs of the days [fromDay, toDay] (epoch days) into the arrays,
+     * indexed by hours since the start of fromDay; all zones when zone is null.
+     */
+    void addHours(long fromDay, long toDay, String zone, long[] occupied, long[] completed) {
+        for (Map.Entry<String, Series> entry : zones.entrySet()) {
+            if (zone == null || zone.equals(entry.getKey())) {
+                entry.getValue().forEachDay(fromDay, toDay, (day, block, offset) -> {
+                    int base = (int) (day - fromDay) * 24;
+                    for (int hour = 0; hour < 24; hour++) {
+                        occupied[base + hour] += block[offset + hour * FIELDS + OCCUPIED];
+                        completed[base + hour] += block[offset + hour * FIELDS + COMPLETED];
+                    }
+                });
+            }
+        }
+    }
+
+    // Totals of each field over the days [fromDay, toDay], per zone or per spot; zone limits them to one zone
+    Map<String, long[]> totals(long fromDay, long toDay, boolean bySpot, String zone) {
+        Map<String, long[]> totals = new TreeMap<>();
+        for (Map.Entry<String, Series> entry : (bySpot ? spots : zones).entrySet()) {
+            String key = entry.getKey();
+            if (zone != null && !zone.equals(bySpot ? ParkingSpotIds.zoneOf(key) : key)) {
+                continue;
+            }
+            long[] sums = new long[FIELDS];
+            entry.getValue().sum(fromDay, toDay, sums);
+            if (sums[OCCUPIED] != 0 || sums[COMPLETED] != 0) {
+                totals.put(key, sums);
+            }
+        }
+        return totals;
+    }
+
+    private static void addCompletion(Series series, long day, int slot, BookingAnalyticsRecord record, int sign) {
+        series.add(day, slot, COMPLETED, sign);
+        series.add(day, slot, DWELL, sign * (record.checkOut() - record.checkIn()));
+        series.add(day, slot, REVENUE, sign * record.revenueCents());
+    }
+
+    private static int hourOfDay(long epochSecond) {
+        return (int) (Math.floorMod(epochSecond, DAY) / HOUR);
+    }
+
+    /**
+     * One zone's or spot's buckets: slotsPerDay slots of FIELDS counters per day, in blocks of BLOCK_DAYS days
+     * so a range reads a few contiguous arrays instead of one map entry per bucket.
+     */
+    private static final class Series {
+        private static final int BLOCK_DAYS = 128;
+
+        private final int slotsPerDay;
+        private final TreeMap<Long, long[]> blocks = new TreeMap<>();
+
+        Series(int slotsPerDay) {
+            this.slotsPerDay = slotsPerDay;
+        }
+
+        void add(long day, int slot, int field, long value) {
+            long[] block = blocks.computeIfAbsent(Math.floorDiv(day, BLOCK_DAYS), key -> new long[BLOCK_DAYS * slotsPerDay * FIELDS]);
+            block[((int) Math.floorMod(day, BLOCK_DAYS) * slotsPerDay + slot) * FIELDS + field] += value;
+        }
+
+        void merge(Series other) {
+            other.blocks.forEach((key, values) -> {
+                long[] block = blocks.computeIfAbsent(key, k -> new long[values.length]);
+                for (int i = 0; i < values.length; i++) {
+                    block[i] += values[i];
+                }
+            });
+        }
+
+        void sum(long fromDay, long toDay, long[] totals) {
+            int length = slotsPerDay * FIELDS;
+            forEachDay(fromDay, toDay, (day, block, offset) -> {
+                for (int i = 0; i < length; i++) {
+                    totals[i % FIELDS] += block[offset + i];
+                }
+            });
+        }
+
+        // Visits every day in [fromDay, toDay] that has a block, with the index of the day's first counter
+        void forEachDay(long fromDay, long toDay, DayVisitor visitor) {
+            for (Map.Entry<Long, long[]> entry : blocks.subMap(Math.floorDiv(fromDay, BLOCK_DAYS), true,
+                    Math.floorDiv(toDay, BLOCK_DAYS), true).entrySet()) {
+                long blockStart = entry.getKey() * BLOCK_DAYS;
+                long last = Math.min(toDay, blockStart + BLOCK_DAYS - 1);
+                for (long day = Math.max(fromDay, blockStart); day <= last; day++) {
+                    visitor.visit(day, entry.getValue(), (int) (day - blockStart) * slotsPerDay * FIELDS);
+                }
+            }
+        }
+    }
+
+    private interface DayVisitor {
+        void visit(long day, long[] block, int offset);
+    }
+}
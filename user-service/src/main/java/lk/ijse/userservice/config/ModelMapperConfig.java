@@ -1,7 +1,14 @@
 package lk.ijse.userservice.config;
 
+import lk.ijse.userservice.mapper.BookingMapper;
+import lk.ijse.userservice.mapper.DirectBookingMapper;
+import lk.ijse.userservice.mapper.DirectUserMapper;
+import lk.ijse.userservice.mapper.ModelMapperBookingMapper;
+import lk.ijse.userservice.mapper.ModelMapperUserMapper;
+import lk.ijse.userservice.mapper.UserMapper;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -16,4 +23,21 @@ public class ModelMapperConfig {
                 .setSkipNullEnabled(false);
         return modelMapper;
     }
+
+    // "direct" (default) uses the hand-written mappers; "modelmapper" switches back to reflective mapping
+    @Bean
+    public UserMapper userMapper(ModelMapper modelMapper, @Value("${mapper.strategy:direct}") String strategy) {
+        if ("modelmapper".equalsIgnoreCase(strategy)) {
+            return new ModelMapperUserMapper(modelMapper);
+        }
+        return new DirectUserMapper();
+    }
+
+    @Bean
+    public BookingMapper bookingMapper(ModelMapper modelMapper, @Value("${mapper.strategy:direct}") String strategy) {
+        if ("modelmapper".equalsIgnoreCase(strategy)) {
+            return new ModelMapperBookingMapper(modelMapper);
+        }
+        return new DirectBookingMapper();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package lk.ijse.userservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Runs the @Scheduled background jobs, such as the nightly booking analytics rebuild
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
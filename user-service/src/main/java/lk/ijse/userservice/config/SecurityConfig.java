@@ -2,6 +2,8 @@ package lk.ijse.userservice.config;
 
 import lk.ijse.userservice.filter.JwtAuthFilter;
 import lk.ijse.userservice.util.JwtUtil;
+import lk.ijse.userservice.util.TokenRevocationCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -49,10 +51,12 @@ public class SecurityConfig {
     }
 
     // Define JwtAuthFilter as a @Bean here.
-    // Spring will inject its dependencies (JwtUtil and UserDetailsService) as parameters.
+    // Spring will inject its dependencies (JwtUtil, UserDetailsService and TokenRevocationCache) as parameters.
     @Bean
-    public JwtAuthFilter jwtAuthFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
-        return new JwtAuthFilter(jwtUtil, userDetailsService);
+    public JwtAuthFilter jwtAuthFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                                       TokenRevocationCache tokenRevocationCache,
+                                       @Value("${gateway.trust-identity-headers:false}") boolean trustGatewayHeaders) {
+        return new JwtAuthFilter(jwtUtil, userDetailsService, tokenRevocationCache, trustGatewayHeaders);
     }
 
     @Bean
@@ -60,6 +64,7 @@ public class SecurityConfig {
         return http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers("/api/v1/users/register", "/api/v1/users/login").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll() // Probes and metric scrapes
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -0,0 +1,21 @@
+package lk.ijse.userservice.config;
+
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lk.ijse.userservice.tracing.FileSpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class TracingConfig {
+
+    // Boot hands every SpanExporter bean to its batching span processor
+    @Bean
+    @ConditionalOnProperty("tracing.export.file")
+    public SpanExporter fileSpanExporter(@Value("${tracing.export.file}") String file) {
+        return new FileSpanExporter(Path.of(file));
+    }
+}
@@ -1,14 +1,27 @@
 package lk.ijse.userservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.ijse.userservice.dto.AnalyticsRebuildDTO;
+import lk.ijse.userservice.dto.BookingAnalyticsDTO;
 import lk.ijse.userservice.dto.BookingDTO;
+import lk.ijse.userservice.dto.BookingOccupancyDTO;
+import lk.ijse.userservice.dto.CursorPageDTO;
+import lk.ijse.userservice.dto.FreeSlotDTO;
 import lk.ijse.userservice.dto.ResponseDTO; // Import your ResponseDTO
 import lk.ijse.userservice.service.BookingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -16,22 +29,28 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.objectMapper = objectMapper;
     }
 
-    // Create a new booking (User or Admin)
+    // Create a new booking (User or Admin); one that overlaps another booking of the spot is rejected with 409,
+    // or moved to the spot's next free slot with onConflict=reschedule
     @PostMapping
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<ResponseDTO> createBooking(@RequestBody BookingDTO bookingDTO) {
+    public ResponseEntity<ResponseDTO> createBooking(@RequestBody BookingDTO bookingDTO,
+                                                     @RequestParam(defaultValue = "reject") String onConflict) {
         try {
-            BookingDTO createdBooking = bookingService.createBooking(bookingDTO);
+            BookingDTO createdBooking = bookingService.createBooking(bookingDTO, "reschedule".equalsIgnoreCase(onConflict));
             return new ResponseEntity<>(
                     new ResponseDTO(HttpStatus.CREATED.value(), "Booking created successfully", createdBooking),
                     HttpStatus.CREATED
             );
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(new ResponseDTO(HttpStatus.CONFLICT.value(), e.getMessage(), null), HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             // More specific error handling could be implemented here (e.g., UserNotFoundException)
             return new ResponseEntity<>(
@@ -58,10 +77,18 @@ public class BookingController {
         );
     }
 
-    // Get all bookings (Admin only)
+    // Get all bookings (Admin only), keyset-paginated when 'after' or 'limit' is given
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ResponseDTO> getAllBookings() {
+    public ResponseEntity<ResponseDTO> getAllBookings(@RequestParam(required = false) Long after,
+                                                      @RequestParam(required = false) Integer limit) {
+        if (after != null || limit != null) {
+            CursorPageDTO<BookingDTO> page = bookingService.getBookingsPage(after, limit);
+            return new ResponseEntity<>(
+                    new ResponseDTO(HttpStatus.OK.value(), "Bookings page retrieved successfully", page),
+                    HttpStatus.OK
+            );
+        }
         List<BookingDTO> bookings = bookingService.getAllBookings();
         return new ResponseEntity<>(
                 new ResponseDTO(HttpStatus.OK.value(), "All bookings retrieved successfully", bookings),
@@ -69,6 +96,21 @@ public class BookingController {
         );
     }
 
+    // Stream all bookings as NDJSON (Admin only); one JSON object per line, heap stays flat
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllBookings() {
+        StreamingResponseBody body = outputStream -> bookingService.streamAllBookings(booking -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(booking));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
     // Get bookings by User ID (Admin or the user himself)
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
@@ -98,6 +140,9 @@ public class BookingController {
                     new ResponseDTO(HttpStatus.OK.value(), "Booking updated successfully", updatedBooking),
                     HttpStatus.OK
             );
+        } catch (IllegalStateException e) {
+            // The new times or spot overlap another booking
+            return new ResponseEntity<>(new ResponseDTO(HttpStatus.CONFLICT.value(), e.getMessage(), null), HttpStatus.CONFLICT);
         } catch (RuntimeException e) {
             // e.g., "Booking not found with ID: ..." from service
             return new ResponseEntity<>(
@@ -125,4 +170,84 @@ public class BookingController {
             );
         }
     }
-}
\ No newline at end of file
+
+    // First free slot of the given length on any spot of the zone, from the given time (default now); spots that
+    // have never been booked are only considered when listed in 'spots'
+    @GetMapping("/availability")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<ResponseDTO> findFirstFreeSlot(@RequestParam String zone, @RequestParam int minutes,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                         @RequestParam(required = false) List<String> spots) {
+        try {
+            FreeSlotDTO slot = bookingService.findFirstFreeSlot(zone, minutes, from, spots);
+            if (slot == null) {
+                return new ResponseEntity<>(
+                        new ResponseDTO(HttpStatus.NOT_FOUND.value(), "No parking spots known in zone " + zone, null),
+                        HttpStatus.NOT_FOUND
+                );
+            }
+            return new ResponseEntity<>(
+                    new ResponseDTO(HttpStatus.OK.value(), "Free slot found", slot),
+                    HttpStatus.OK
+            );
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(new ResponseDTO(HttpStatus.BAD_REQUEST.value(), e.getMessage(), null), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(new ResponseDTO(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage(), null), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    // Average occupied spots for every hour of the days from..to (inclusive), for one zone or all (Admin only)
+    @GetMapping("/analytics/occupancy")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResponseDTO> getBookingOccupancy(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                           @RequestParam(required = false) String zone) {
+        try {
+            BookingOccupancyDTO occupancy = bookingService.getBookingOccupancy(from, to, zone);
+            return new ResponseEntity<>(
+                    new ResponseDTO(HttpStatus.OK.value(), "Booking occupancy retrieved successfully", occupancy),
+                    HttpStatus.OK
+            );
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(new ResponseDTO(HttpStatus.BAD_REQUEST.value(), e.getMessage(), null), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(new ResponseDTO(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage(), null), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    // Completed bookings, revenue, average dwell time and occupied hours per zone or per spot (Admin only)
+    @GetMapping("/analytics/summary")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResponseDTO> getBookingAnalytics(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                           @RequestParam(defaultValue = "zone") String groupBy,
+                                                           @RequestParam(required = false) String zone) {
+        try {
+            BookingAnalyticsDTO analytics = bookingService.getBookingAnalytics(from, to, groupBy, zone);
+            return new ResponseEntity<>(
+                    new ResponseDTO(HttpStatus.OK.value(), "Booking analytics retrieved successfully", analytics),
+                    HttpStatus.OK
+            );
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(new ResponseDTO(HttpStatus.BAD_REQUEST.value(), e.getMessage(), null), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(new ResponseDTO(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage(), null), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    // Rebuild the analytics from the booking table (Admin only); changes made meanwhile are kept
+    @PostMapping("/analytics/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResponseDTO> rebuildBookingAnalytics() {
+        try {
+            AnalyticsRebuildDTO result = bookingService.rebuildBookingAnalytics();
+            return new ResponseEntity<>(
+                    new ResponseDTO(HttpStatus.OK.value(), "Booking analytics rebuilt successfully", result),
+                    HttpStatus.OK
+            );
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(new ResponseDTO(HttpStatus.CONFLICT.value(), e.getMessage(), null), HttpStatus.CONFLICT);
+        }
+    }
+}
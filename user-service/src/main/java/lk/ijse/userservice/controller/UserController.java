@@ -1,16 +1,22 @@
 package lk.ijse.userservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lk.ijse.userservice.dto.AuthRequestDTO;
 import lk.ijse.userservice.dto.AuthResponseDTO;
+import lk.ijse.userservice.dto.CursorPageDTO;
 import lk.ijse.userservice.dto.ResponseDTO;
 import lk.ijse.userservice.dto.UserDTO;
 import lk.ijse.userservice.service.UserService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize; // For method-level security
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -19,9 +25,11 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     // Endpoint for user registration (accessible without authentication)
@@ -64,10 +72,20 @@ public class UserController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
-    // Endpoint to retrieve all users (requires ADMIN role)
+    // Endpoint to retrieve all users (requires ADMIN role), keyset-paginated when 'after' or 'limit' is given
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')") // Only ADMINs can view all users
-    public ResponseEntity<ResponseDTO> getAllUsers() {
+    public ResponseEntity<ResponseDTO> getAllUsers(@RequestParam(required = false) Long after,
+                                                   @RequestParam(required = false) Integer limit) {
+        if (after != null || limit != null) {
+            CursorPageDTO<UserDTO> page = userService.getUsersPage(after, limit);
+            ResponseDTO response = new ResponseDTO(
+                    HttpStatus.OK.value(),
+                    "Users Page Retrieved Successfully",
+                    page
+            );
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        }
         List<UserDTO> users = userService.getAllUsers();
         ResponseDTO response = new ResponseDTO(
                 HttpStatus.OK.value(),
@@ -77,6 +95,21 @@ public class UserController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    // Endpoint to stream all users as NDJSON (requires ADMIN role); one JSON object per line, heap stays flat
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = outputStream -> userService.streamAllUsers(user -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(user));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
     // Endpoint to update user profile (requires authentication, only ADMINs or the user themselves)
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or #id == authentication.principal.id") // Similar to getUserById
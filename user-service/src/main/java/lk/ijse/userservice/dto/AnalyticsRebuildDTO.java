@@ -0,0 +1,17 @@
+package lk.ijse.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsRebuildDTO {
+    private long bookingsRead; // Checked-in and checked-out bookings
+    private long bookingsCounted; // Of those, the completed ones
+    private int chunks;
+    private int threads;
+    private long concurrentChanges; // Booking changes reconciled while the scan ran
+    private long millis;
+}
@@ -0,0 +1,22 @@
+package lk.ijse.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingAnalyticsDTO {
+    private LocalDate from;
+    private LocalDate to; // Inclusive
+    private String groupBy; // "zone" or "spot"
+    private long completed; // Bookings checked out within the range
+    private double revenue;
+    private double averageDwellMinutes;
+    private double occupiedHours;
+    private List<BookingAnalyticsGroupDTO> groups;
+}
@@ -0,0 +1,16 @@
+package lk.ijse.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingAnalyticsGroupDTO {
+    private String key; // Zone or parking spot ID
+    private long completed;
+    private double revenue;
+    private double averageDwellMinutes;
+    private double occupiedHours;
+}
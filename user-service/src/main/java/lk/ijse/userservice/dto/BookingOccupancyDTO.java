@@ -0,0 +1,23 @@
+package lk.ijse.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingOccupancyDTO {
+    private LocalDate from;
+    private LocalDate to; // Inclusive
+    private String zone; // Null for all zones
+    private double averageOccupiedSpots;
+    private LocalDateTime peakHour;
+    private double peakOccupiedSpots;
+    private double[] hourOfDay; // Average occupied spots for each hour of the day (0-23) across the range
+    private List<HourlyOccupancyDTO> hours;
+}
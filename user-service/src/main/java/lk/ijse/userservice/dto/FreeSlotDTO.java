@@ -0,0 +1,16 @@
+package lk.ijse.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FreeSlotDTO {
+    private String parkingSpotId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
@@ -0,0 +1,16 @@
+package lk.ijse.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HourlyOccupancyDTO {
+    private LocalDateTime hour;
+    private double occupiedSpots; // Average number of spots occupied during the hour
+    private long checkOuts;
+}
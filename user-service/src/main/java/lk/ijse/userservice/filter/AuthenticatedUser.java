@@ -0,0 +1,19 @@
+package lk.ijse.userservice.filter;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+// Principal built from verified token claims; it carries the user ID so handlers don't need to look it up
+@Getter
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String username, Collection<? extends GrantedAuthority> authorities) {
+        super(username, "", authorities); // No password: the token has already been verified
+        this.id = id;
+    }
+}
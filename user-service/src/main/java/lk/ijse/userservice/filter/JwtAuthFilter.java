@@ -1,11 +1,15 @@
 package lk.ijse.userservice.filter;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lk.ijse.userservice.util.JwtUtil;
+import lk.ijse.userservice.util.TokenRevocationCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,38 +18,70 @@ import org.springframework.stereotype.Component; // KEEP @Component
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 
 @Component // Keep this
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    // Identity headers set by the api-gateway's JwtAuthenticationFilter
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_NAME_HEADER = "X-User-Name";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+    public static final String USER_ISSUED_AT_HEADER = "X-User-Issued-At";
+
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService; // Constructor injection
+    private final TokenRevocationCache tokenRevocationCache;
+    private final boolean trustGatewayHeaders;
 
-    public JwtAuthFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService, TokenRevocationCache tokenRevocationCache,
+                         @Value("${gateway.trust-identity-headers:false}") boolean trustGatewayHeaders) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationCache = tokenRevocationCache;
+        this.trustGatewayHeaders = trustGatewayHeaders;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
+        // The api-gateway has already verified the token, so its identity headers are used without any crypto
+        if (trustGatewayHeaders && SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthenticatedUser gatewayUser = gatewayUserOf(request);
+            if (gatewayUser != null) {
+                if (!tokenRevocationCache.isRevoked(gatewayUser.getUsername(), gatewayIssuedAtOf(request))) {
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            gatewayUser, null, gatewayUser.getAuthorities());
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+                filterChain.doFilter(request, response);
+                return;
+            }
+        }
+
         String authHeader = request.getHeader("Authorization");
-        String token = null;
+        Claims claims = null;
         String username = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
+            String token = authHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(token);
+                // Verified once here; the same claims are used for validation below
+                claims = jwtUtil.extractAllClaims(token);
+                username = claims.getSubject();
             } catch (Exception e) {
                 System.err.println("Error extracting username from token: " + e.getMessage());
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(token, userDetails)) {
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && !tokenRevocationCache.isRevoked(username, claims.getIssuedAt())) {
+            UserDetails userDetails = userDetailsOf(claims);
+            if (jwtUtil.validateToken(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -54,4 +90,44 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    // Null unless the gateway forwarded a full identity (tokens without the ID claim are verified here instead)
+    private AuthenticatedUser gatewayUserOf(HttpServletRequest request) {
+        String userId = request.getHeader(USER_ID_HEADER);
+        String username = request.getHeader(USER_NAME_HEADER);
+        if (userId == null || username == null) {
+            return null;
+        }
+        String roles = request.getHeader(USER_ROLES_HEADER);
+        List<SimpleGrantedAuthority> authorities = roles == null || roles.isEmpty() ? List.of() :
+                Arrays.stream(roles.split(","))
+                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                        .toList();
+        try {
+            return new AuthenticatedUser(Long.valueOf(userId), username, authorities);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Date gatewayIssuedAtOf(HttpServletRequest request) {
+        String issuedAt = request.getHeader(USER_ISSUED_AT_HEADER);
+        try {
+            return issuedAt == null ? null : new Date(Long.parseLong(issuedAt));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Builds the principal from the token's claims; only tokens without the identity claims load the user
+    private UserDetails userDetailsOf(Claims claims) {
+        Long userId = jwtUtil.extractUserId(claims);
+        if (userId == null) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        List<SimpleGrantedAuthority> authorities = jwtUtil.extractRoles(claims).stream()
+                .map(role -> new SimpleGrantedAuthority("ROLE_" + role)) // Same authorities as User.builder().roles()
+                .toList();
+        return new AuthenticatedUser(userId, claims.getSubject(), authorities);
+    }
 }
\ No newline at end of file
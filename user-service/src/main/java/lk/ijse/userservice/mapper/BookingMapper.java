@@ -0,0 +1,9 @@
+package lk.ijse.userservice.mapper;
+
+import lk.ijse.userservice.dto.BookingDTO;
+import lk.ijse.userservice.entity.Booking;
+
+public interface BookingMapper {
+    BookingDTO toDTO(Booking booking); // userId is taken from the associated user
+    Booking toEntity(BookingDTO bookingDTO); // The user association is left for the caller to set
+}
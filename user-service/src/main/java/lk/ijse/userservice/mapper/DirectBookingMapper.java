@@ -0,0 +1,46 @@
+package lk.ijse.userservice.mapper;
+
+import lk.ijse.userservice.dto.BookingDTO;
+import lk.ijse.userservice.entity.Booking;
+
+// Hand-written field copies, resolved at compile time instead of ModelMapper's reflective matching
+public class DirectBookingMapper implements BookingMapper {
+
+    @Override
+    public BookingDTO toDTO(Booking booking) {
+        if (booking == null) {
+            return null;
+        }
+        return new BookingDTO(
+                booking.getId(),
+                booking.getUser() != null ? booking.getUser().getId() : null, // Reading the ID does not initialize the lazy proxy
+                booking.getVehicleNumber(),
+                booking.getBookingTime(),
+                booking.getCheckInTime(),
+                booking.getCheckOutTime(),
+                booking.getParkingSpotId(),
+                booking.getTotalCost(),
+                booking.getStatus(),
+                booking.getRemarks()
+        );
+    }
+
+    @Override
+    public Booking toEntity(BookingDTO bookingDTO) {
+        if (bookingDTO == null) {
+            return null;
+        }
+        return new Booking(
+                bookingDTO.getId(),
+                null,
+                bookingDTO.getVehicleNumber(),
+                bookingDTO.getBookingTime(),
+                bookingDTO.getCheckInTime(),
+                bookingDTO.getCheckOutTime(),
+                bookingDTO.getParkingSpotId(),
+                bookingDTO.getTotalCost(),
+                bookingDTO.getStatus(),
+                bookingDTO.getRemarks()
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package lk.ijse.userservice.mapper;
+
+import lk.ijse.userservice.dto.UserDTO;
+import lk.ijse.userservice.entity.User;
+
+// Hand-written field copies, resolved at compile time instead of ModelMapper's reflective matching
+public class DirectUserMapper implements UserMapper {
+
+    @Override
+    public UserDTO toDTO(User user) {
+        if (user == null) {
+            return null;
+        }
+        return new UserDTO(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getContactNumber(),
+                user.getRole()
+        );
+    }
+
+    @Override
+    public User toEntity(UserDTO userDTO) {
+        if (userDTO == null) {
+            return null;
+        }
+        return new User(
+                userDTO.getId(),
+                userDTO.getUsername(),
+                userDTO.getPassword(),
+                userDTO.getEmail(),
+                userDTO.getFirstName(),
+                userDTO.getLastName(),
+                userDTO.getContactNumber(),
+                userDTO.getRole()
+        );
+    }
+}
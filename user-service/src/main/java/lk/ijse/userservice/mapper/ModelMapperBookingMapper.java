@@ -0,0 +1,29 @@
+package lk.ijse.userservice.mapper;
+
+import lk.ijse.userservice.dto.BookingDTO;
+import lk.ijse.userservice.entity.Booking;
+import org.modelmapper.ModelMapper;
+
+// Reflective mapping through the shared ModelMapper bean (the original behaviour)
+public class ModelMapperBookingMapper implements BookingMapper {
+
+    private final ModelMapper modelMapper;
+
+    public ModelMapperBookingMapper(ModelMapper modelMapper) {
+        this.modelMapper = modelMapper;
+    }
+
+    @Override
+    public BookingDTO toDTO(Booking booking) {
+        BookingDTO dto = modelMapper.map(booking, BookingDTO.class);
+        if (booking.getUser() != null) {
+            dto.setUserId(booking.getUser().getId());
+        }
+        return dto;
+    }
+
+    @Override
+    public Booking toEntity(BookingDTO bookingDTO) {
+        return modelMapper.map(bookingDTO, Booking.class);
+    }
+}
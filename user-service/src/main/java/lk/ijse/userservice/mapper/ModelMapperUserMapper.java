@@ -0,0 +1,25 @@
+package lk.ijse.userservice.mapper;
+
+import lk.ijse.userservice.dto.UserDTO;
+import lk.ijse.userservice.entity.User;
+import org.modelmapper.ModelMapper;
+
+// Reflective mapping through the shared ModelMapper bean (the original behaviour)
+public class ModelMapperUserMapper implements UserMapper {
+
+    private final ModelMapper modelMapper;
+
+    public ModelMapperUserMapper(ModelMapper modelMapper) {
+        this.modelMapper = modelMapper;
+    }
+
+    @Override
+    public UserDTO toDTO(User user) {
+        return modelMapper.map(user, UserDTO.class);
+    }
+
+    @Override
+    public User toEntity(UserDTO userDTO) {
+        return modelMapper.map(userDTO, User.class);
+    }
+}
@@ -0,0 +1,9 @@
+package lk.ijse.userservice.mapper;
+
+import lk.ijse.userservice.dto.UserDTO;
+import lk.ijse.userservice.entity.User;
+
+public interface UserMapper {
+    UserDTO toDTO(User user); // The password is copied as stored; callers clear it before responding
+    User toEntity(UserDTO userDTO);
+}
@@ -0,0 +1,65 @@
+package lk.ijse.userservice.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how many SQL statements each request runs, as the db.queries.per.request histogram tagged with the
+ * same method and uri (the handler's path pattern) as Spring's http.server.requests timer. Statements run by a
+ * streaming response after the handler has returned are on another thread and not counted.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1) // Right after RequestDeadlineFilter, ahead of any filter that might query
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>(); // "method uri" -> summary
+
+    public RequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getServletPath().startsWith("/actuator"); // Scrapes and health checks never query
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCountInspector.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int queries = QueryCountInspector.end();
+            summaryOf(request).record(queries);
+        }
+    }
+
+    private DistributionSummary summaryOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString(); // Unmatched paths share one series
+        String method = request.getMethod();
+        return summaries.computeIfAbsent(method + " " + uri, key -> DistributionSummary
+                .builder("db.queries.per.request")
+                .description("SQL statements prepared while handling a request")
+                .baseUnit("queries")
+                .tags("method", method, "uri", uri)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(100.0)
+                .register(meterRegistry));
+    }
+}
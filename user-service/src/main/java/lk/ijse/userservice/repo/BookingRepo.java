@@ -1,10 +1,21 @@
 package lk.ijse.userservice.repo;
 
 import lk.ijse.userservice.entity.Booking;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepo extends JpaRepository<Booking, Long> {
@@ -13,4 +24,37 @@ public interface BookingRepo extends JpaRepository<Booking, Long> {
 
     // Optional: find bookings by status
     List<Booking> findByStatus(String status);
+
+    // SELECT ... FOR UPDATE; changes to one booking read it one at a time, so each sees the state the last one committed
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id")
+    Optional<Booking> findByIdForUpdate(@Param("id") Long id);
+
+    // Keyset pagination: the next page starts after the last ID of the previous one
+    List<Booking> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Streams rows with a server-side cursor (MySQL streams result sets when the fetch size is Integer.MIN_VALUE)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b ORDER BY b.id")
+    Stream<Booking> streamAllBy();
+
+    // Lowest and highest booking ID, as one row (both null when there are no bookings)
+    @Query("SELECT MIN(b.id), MAX(b.id) FROM Booking b")
+    List<Object[]> findIdRange();
+
+    // What the analytics need of the checked-out bookings with IDs in [fromId, toId): id, spot, check-in, check-out, cost, status
+    @Query("SELECT b.id, b.parkingSpotId, b.checkInTime, b.checkOutTime, b.totalCost, b.status FROM Booking b"
+            + " WHERE b.id >= :fromId AND b.id < :toId AND b.checkInTime IS NOT NULL AND b.checkOutTime IS NOT NULL")
+    List<Object[]> findAnalyticsRows(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // Keyset page of the bookings that may still hold a slot: id, spot, booking time, check-in, check-out, status
+    @Query("SELECT b.id, b.parkingSpotId, b.bookingTime, b.checkInTime, b.checkOutTime, b.status FROM Booking b"
+            + " WHERE b.id > :after AND (b.status IS NULL OR UPPER(b.status) NOT IN ('COMPLETED', 'CANCELLED'))"
+            + " AND (b.checkOutTime > :now OR b.checkInTime > :earliestStart OR b.bookingTime > :earliestStart)"
+            + " ORDER BY b.id")
+    List<Object[]> findSlotRows(@Param("after") long after, @Param("now") LocalDateTime now,
+                                @Param("earliestStart") LocalDateTime earliestStart, Limit limit);
 }
\ No newline at end of file
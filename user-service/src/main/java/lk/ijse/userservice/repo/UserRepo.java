@@ -1,11 +1,18 @@
 package lk.ijse.userservice.repo;
 
 import lk.ijse.userservice.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // For dynamic query building
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional; // Use Optional for methods that might not return a result
+import java.util.stream.Stream;
 
 @Repository // Marks this interface as a Spring Data JPA repository
 public interface UserRepo extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
@@ -14,4 +21,15 @@ public interface UserRepo extends JpaRepository<User, Long>, JpaSpecificationExe
 
     // Optional: Find by email if you allow email-based login or lookup
     Optional<User> findByEmail(String email);
+
+    // Keyset pagination: the next page starts after the last ID of the previous one
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Streams rows with a server-side cursor (MySQL streams result sets when the fetch size is Integer.MIN_VALUE)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAllBy();
 }
\ No newline at end of file
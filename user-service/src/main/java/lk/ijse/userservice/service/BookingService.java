@@ -1,14 +1,30 @@
 package lk.ijse.userservice.service;
 
+import lk.ijse.userservice.dto.AnalyticsRebuildDTO;
+import lk.ijse.userservice.dto.BookingAnalyticsDTO;
 import lk.ijse.userservice.dto.BookingDTO;
+import lk.ijse.userservice.dto.BookingOccupancyDTO;
+import lk.ijse.userservice.dto.CursorPageDTO;
+import lk.ijse.userservice.dto.FreeSlotDTO;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDTO createBooking(BookingDTO bookingDTO);
+    BookingDTO createBooking(BookingDTO bookingDTO, boolean rescheduleOnConflict); // Moves an overlapping booking to the spot's next free slot
     BookingDTO getBookingById(Long id);
     List<BookingDTO> getAllBookings();
+    CursorPageDTO<BookingDTO> getBookingsPage(Long after, Integer limit); // Keyset-paginated listing
+    void streamAllBookings(Consumer<BookingDTO> consumer); // Streams every booking without loading them all
     List<BookingDTO> getBookingsByUserId(Long userId);
     BookingDTO updateBooking(Long id, BookingDTO bookingDTO);
     void deleteBooking(Long id);
+    BookingOccupancyDTO getBookingOccupancy(LocalDate from, LocalDate to, String zone); // Hourly, from pre-aggregated buckets
+    BookingAnalyticsDTO getBookingAnalytics(LocalDate from, LocalDate to, String groupBy, String zone); // Per zone or spot
+    AnalyticsRebuildDTO rebuildBookingAnalytics();
+    FreeSlotDTO findFirstFreeSlot(String zone, int minutes, LocalDateTime from, Collection<String> spots); // Null when the zone has no known spots
 }
\ No newline at end of file
@@ -2,9 +2,11 @@ package lk.ijse.userservice.service;
 
 import lk.ijse.userservice.dto.AuthRequestDTO;
 import lk.ijse.userservice.dto.AuthResponseDTO;
+import lk.ijse.userservice.dto.CursorPageDTO;
 import lk.ijse.userservice.dto.UserDTO;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserDTO registerUser(UserDTO userDTO); // For user registration
@@ -12,6 +14,8 @@ public interface UserService {
     UserDTO getUserById(Long id);
     UserDTO getUserByUsername(String username); // New method for security context
     List<UserDTO> getAllUsers();
+    CursorPageDTO<UserDTO> getUsersPage(Long after, Integer limit); // Keyset-paginated listing
+    void streamAllUsers(Consumer<UserDTO> consumer); // Streams every user without loading them all
     UserDTO updateUser(Long id, UserDTO userDTO);
     void deleteUser(Long id);
 
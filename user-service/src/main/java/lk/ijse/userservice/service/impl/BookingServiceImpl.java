@@ -1,65 +1,148 @@
 package lk.ijse.userservice.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lk.ijse.userservice.analytics.BookingAnalyticsIndex;
+import lk.ijse.userservice.analytics.BookingAnalyticsRebuilder;
+import lk.ijse.userservice.analytics.BookingAnalyticsRecord;
+import lk.ijse.userservice.dto.AnalyticsRebuildDTO;
+import lk.ijse.userservice.dto.BookingAnalyticsDTO;
 import lk.ijse.userservice.dto.BookingDTO;
+import lk.ijse.userservice.dto.BookingOccupancyDTO;
+import lk.ijse.userservice.dto.CursorPageDTO;
+import lk.ijse.userservice.dto.FreeSlotDTO;
 import lk.ijse.userservice.entity.Booking;
 import lk.ijse.userservice.entity.User;
+import lk.ijse.userservice.mapper.BookingMapper;
 import lk.ijse.userservice.repo.BookingRepo;
 import lk.ijse.userservice.repo.UserRepo;
 import lk.ijse.userservice.service.BookingService;
-import org.modelmapper.ModelMapper;
+import lk.ijse.userservice.slot.BookingSlot;
+import lk.ijse.userservice.slot.BookingSlotIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional // Ensures atomicity of operations
+@Timed(value = "service.method", histogram = true) // Every public method, tagged with class and method
 public class BookingServiceImpl implements BookingService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_ANALYTICS_DAYS = 3 * 366;
+
     private final BookingRepo bookingRepo;
     private final UserRepo userRepo; // Needed to find the User entity
-    private final ModelMapper modelMapper;
+    private final BookingMapper bookingMapper;
+    private final BookingAnalyticsIndex analyticsIndex;
+    private final BookingAnalyticsRebuilder analyticsRebuilder;
+    private final BookingSlotIndex slotIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public BookingServiceImpl(BookingRepo bookingRepo, UserRepo userRepo, ModelMapper modelMapper) {
+    public BookingServiceImpl(BookingRepo bookingRepo, UserRepo userRepo, BookingMapper bookingMapper,
+                              BookingAnalyticsIndex analyticsIndex, BookingAnalyticsRebuilder analyticsRebuilder,
+                              BookingSlotIndex slotIndex) {
         this.bookingRepo = bookingRepo;
         this.userRepo = userRepo;
-        this.modelMapper = modelMapper;
+        this.bookingMapper = bookingMapper;
+        this.analyticsIndex = analyticsIndex;
+        this.analyticsRebuilder = analyticsRebuilder;
+        this.slotIndex = slotIndex;
     }
 
     @Override
     public BookingDTO createBooking(BookingDTO bookingDTO) {
+        return createBooking(bookingDTO, false);
+    }
+
+    @Override
+    public BookingDTO createBooking(BookingDTO bookingDTO, boolean rescheduleOnConflict) {
         // Find the User entity by userId from DTO
         User user = userRepo.findById(bookingDTO.getUserId())
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + bookingDTO.getUserId()));
 
-        Booking booking = modelMapper.map(bookingDTO, Booking.class);
+        Booking booking = bookingMapper.toEntity(bookingDTO);
         booking.setUser(user); // Set the User entity
+        BookingSlot slot = BookingSlot.of(booking, slotIndex.defaultSeconds());
+        if (isUpcoming(slot)) {
+            lockSpotsUntilCompletion(slot);
+            BookingSlot conflict = slotIndex.findConflict(slot);
+            if (conflict != null) {
+                long start = slotIndex.firstFreeStart(slot);
+                if (!rescheduleOnConflict) {
+                    throw new IllegalStateException(conflictMessage(conflict, start));
+                }
+                moveSlot(booking, start - slot.start());
+            }
+        }
         Booking savedBooking = bookingRepo.save(booking);
-        return modelMapper.map(savedBooking, BookingDTO.class);
+        BookingSlot savedSlot = isUpcoming(slot) ? BookingSlot.of(savedBooking, slotIndex.defaultSeconds()) : null;
+        afterCommit(() -> slotIndex.replace(savedBooking.getId(), savedSlot));
+        BookingAnalyticsRecord record = BookingAnalyticsRecord.of(savedBooking);
+        afterCommit(() -> analyticsIndex.apply(savedBooking.getId(), null, record));
+        return bookingMapper.toDTO(savedBooking);
     }
 
     @Override
     public BookingDTO getBookingById(Long id) {
         Optional<Booking> bookingOptional = bookingRepo.findById(id);
-        return bookingOptional.map(booking -> modelMapper.map(booking, BookingDTO.class))
+        return bookingOptional.map(bookingMapper::toDTO)
                 .orElse(null); // Or throw an exception
     }
 
     @Override
     public List<BookingDTO> getAllBookings() {
         return bookingRepo.findAll().stream()
-                .map(booking -> {
-                    BookingDTO dto = modelMapper.map(booking, BookingDTO.class);
-                    dto.setUserId(booking.getUser().getId()); // Set userId in DTO
-                    return dto;
-                })
+                .map(bookingMapper::toDTO) // The mapper sets userId from the associated user
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BookingDTO> getBookingsPage(Long after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // One extra row tells whether another page exists without a count query
+        List<Booking> bookings = bookingRepo.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(pageSize + 1));
+        boolean hasMore = bookings.size() > pageSize;
+        List<BookingDTO> items = bookings.stream()
+                .limit(pageSize)
+                .map(bookingMapper::toDTO)
+                .collect(Collectors.toList());
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllBookings(Consumer<BookingDTO> consumer) {
+        try (Stream<Booking> bookings = bookingRepo.streamAllBy()) {
+            bookings.forEach(booking -> {
+                consumer.accept(bookingMapper.toDTO(booking));
+                entityManager.detach(booking); // Keeps the persistence context, and the heap, flat
+            });
+        }
+    }
+
     @Override
     public List<BookingDTO> getBookingsByUserId(Long userId) {
         // Ensure the user exists before fetching bookings
@@ -67,18 +150,16 @@ public class BookingServiceImpl implements BookingService {
             throw new RuntimeException("User not found with ID: " + userId);
         }
         return bookingRepo.findByUserId(userId).stream()
-                .map(booking -> {
-                    BookingDTO dto = modelMapper.map(booking, BookingDTO.class);
-                    dto.setUserId(booking.getUser().getId()); // Set userId in DTO
-                    return dto;
-                })
+                .map(bookingMapper::toDTO) // The mapper sets userId from the associated user
                 .collect(Collectors.toList());
     }
 
     @Override
     public BookingDTO updateBooking(Long id, BookingDTO bookingDTO) {
-        Booking existingBooking = bookingRepo.findById(id)
+        Booking existingBooking = bookingRepo.findByIdForUpdate(id)
                 .orElseThrow(() -> new RuntimeException("Booking not found with ID: " + id));
+        BookingAnalyticsRecord before = BookingAnalyticsRecord.of(existingBooking);
+        BookingSlot previousSlot = BookingSlot.of(existingBooking, slotIndex.defaultSeconds());
 
         // Update fields from DTO, ensuring user is not changed or handled carefully
         if (bookingDTO.getVehicleNumber() != null) existingBooking.setVehicleNumber(bookingDTO.getVehicleNumber());
@@ -94,15 +175,147 @@ public class BookingServiceImpl implements BookingService {
         // If it's necessary, you would need to fetch the new User and set it,
         // potentially requiring specific business rules.
 
+        BookingSlot slot = BookingSlot.of(existingBooking, slotIndex.defaultSeconds());
+        BookingSlot indexedSlot = isUpcoming(slot) ? slot : null;
+        if (indexedSlot != null || isUpcoming(previousSlot)) {
+            // The previous slot's lock also waits for the last change to this booking to reach the index
+            lockSpotsUntilCompletion(indexedSlot, previousSlot);
+            BookingSlot conflict = indexedSlot == null || indexedSlot.equals(slotIndex.slotOf(id)) ? null
+                    : slotIndex.findConflict(slot);
+            if (conflict != null) {
+                throw new IllegalStateException(conflictMessage(conflict, slotIndex.firstFreeStart(slot)));
+            }
+        }
+
         Booking updatedBooking = bookingRepo.save(existingBooking);
-        return modelMapper.map(updatedBooking, BookingDTO.class);
+        if (previousSlot != null || indexedSlot != null) {
+            afterCommit(() -> slotIndex.replace(id, indexedSlot));
+        }
+        BookingAnalyticsRecord after = BookingAnalyticsRecord.of(updatedBooking);
+        afterCommit(() -> analyticsIndex.apply(id, before, after));
+        return bookingMapper.toDTO(updatedBooking);
     }
 
     @Override
     public void deleteBooking(Long id) {
-        if (!bookingRepo.existsById(id)) {
-            throw new RuntimeException("Booking not found with ID: " + id);
+        Booking booking = bookingRepo.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Booking not found with ID: " + id));
+        BookingSlot slot = BookingSlot.of(booking, slotIndex.defaultSeconds());
+        if (isUpcoming(slot)) {
+            lockSpotsUntilCompletion(slot);
+        }
+        bookingRepo.delete(booking);
+        afterCommit(() -> slotIndex.replace(id, null));
+        BookingAnalyticsRecord record = BookingAnalyticsRecord.of(booking);
+        afterCommit(() -> analyticsIndex.apply(id, record, null));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Served from memory
+    public BookingOccupancyDTO getBookingOccupancy(LocalDate from, LocalDate to, String zone) {
+        requireAnalyticsRange(from, to);
+        return analyticsIndex.occupancy(from, to, zone == null || zone.isBlank() ? null : zone.trim().toUpperCase());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookingAnalyticsDTO getBookingAnalytics(LocalDate from, LocalDate to, String groupBy, String zone) {
+        requireAnalyticsRange(from, to);
+        boolean bySpot = "spot".equalsIgnoreCase(groupBy);
+        if (!bySpot && groupBy != null && !"zone".equalsIgnoreCase(groupBy)) {
+            throw new IllegalArgumentException("groupBy must be 'zone' or 'spot'");
+        }
+        return analyticsIndex.summary(from, to, bySpot, zone == null || zone.isBlank() ? null : zone.trim().toUpperCase());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Reads in its own transactions, one per ID range
+    public AnalyticsRebuildDTO rebuildBookingAnalytics() {
+        return analyticsRebuilder.rebuild();
+    }
+
+    private void requireAnalyticsRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Both from and to are required, and to must not be before from");
+        }
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_ANALYTICS_DAYS) {
+            throw new IllegalArgumentException("The range may span at most " + MAX_ANALYTICS_DAYS + " days");
+        }
+        if (!analyticsIndex.isLoaded()) {
+            throw new IllegalStateException("Booking analytics are still being built");
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Served from memory
+    public FreeSlotDTO findFirstFreeSlot(String zone, int minutes, LocalDateTime from, Collection<String> spots) {
+        if (zone == null || zone.isBlank() || minutes <= 0) {
+            throw new IllegalArgumentException("A zone and a positive length in minutes are required");
+        }
+        slotIndex.awaitLoaded();
+        LocalDateTime start = from != null ? from : LocalDateTime.now().withNano(0);
+        BookingSlot slot = slotIndex.findFirstFree(zone.trim().toUpperCase(), spots, BookingSlot.seconds(start), minutes * 60L);
+        return slot == null ? null
+                : new FreeSlotDTO(slot.spot(), BookingSlot.time(slot.start()), BookingSlot.time(slot.end()));
+    }
+
+    /**
+     * Holds the spots' locks until this transaction completes, so no other booking for them is checked between
+     * this booking's check and its commit, and the index has its slot by the time the next check runs.
+     */
+    private void lockSpotsUntilCompletion(BookingSlot... slots) {
+        slotIndex.awaitLoaded();
+        TreeSet<String> spots = new TreeSet<>(); // Locked in one order, so two bookings cannot wait on each other
+        for (BookingSlot slot : slots) {
+            if (slot != null) {
+                spots.add(slot.spot());
+            }
+        }
+        for (String spot : spots) {
+            Lock lock = slotIndex.lockSpot(spot);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        }
+    }
+
+    // Only slots that have not ended are checked; ended ones are pruned from the index and cannot conflict
+    private static boolean isUpcoming(BookingSlot slot) {
+        return slot != null && slot.end() > BookingSlot.seconds(LocalDateTime.now());
+    }
+
+    // Shifts the booking's planned times, keeping its length
+    private static void moveSlot(Booking booking, long seconds) {
+        if (booking.getCheckInTime() != null) {
+            booking.setCheckInTime(booking.getCheckInTime().plusSeconds(seconds));
+        } else {
+            booking.setBookingTime(booking.getBookingTime().plusSeconds(seconds));
+        }
+        if (booking.getCheckOutTime() != null) {
+            booking.setCheckOutTime(booking.getCheckOutTime().plusSeconds(seconds));
+        }
+    }
+
+    private static String conflictMessage(BookingSlot conflict, long nextFreeStart) {
+        return "Parking spot " + conflict.spot() + " is already booked from " + BookingSlot.time(conflict.start())
+                + " to " + BookingSlot.time(conflict.end()) + "; the next free slot of this length starts at "
+                + BookingSlot.time(nextFreeStart);
+    }
+
+    // The indexes only reflect committed bookings
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
-        bookingRepo.deleteById(id);
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,20 @@
 package lk.ijse.userservice.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import lk.ijse.userservice.dto.AuthRequestDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lk.ijse.userservice.dto.AuthResponseDTO;
+import lk.ijse.userservice.dto.CursorPageDTO;
 import lk.ijse.userservice.dto.UserDTO;
 import lk.ijse.userservice.entity.User;
+import lk.ijse.userservice.mapper.UserMapper;
 import lk.ijse.userservice.repo.UserRepo;
 import lk.ijse.userservice.service.UserService;
 import lk.ijse.userservice.util.JwtUtil;
-import org.modelmapper.ModelMapper;
+import lk.ijse.userservice.util.TokenRevocationCache;
 import org.springframework.context.annotation.Lazy; // Import Lazy
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -21,26 +27,38 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
+@Timed(value = "service.method", histogram = true) // Every public method, tagged with class and method
 public class UserServiceImpl implements UserService, UserDetailsService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final UserRepo userRepo;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager; // Make this @Lazy
     private final JwtUtil jwtUtil;
+    private final TokenRevocationCache tokenRevocationCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     // Use @Lazy for AuthenticationManager to break the cycle during bean initialization
-    public UserServiceImpl(UserRepo userRepo, ModelMapper modelMapper, PasswordEncoder passwordEncoder,
-                           @Lazy AuthenticationManager authenticationManager, JwtUtil jwtUtil) {
+    public UserServiceImpl(UserRepo userRepo, UserMapper userMapper, PasswordEncoder passwordEncoder,
+                           @Lazy AuthenticationManager authenticationManager, JwtUtil jwtUtil,
+                           TokenRevocationCache tokenRevocationCache) {
         this.userRepo = userRepo;
-        this.modelMapper = modelMapper;
+        this.userMapper = userMapper;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationCache = tokenRevocationCache;
     }
 
     @Override
@@ -52,12 +70,12 @@ public class UserServiceImpl implements UserService, UserDetailsService {
             throw new RuntimeException("Email already exists: " + userDTO.getEmail());
         }
 
-        User user = modelMapper.map(userDTO, User.class);
+        User user = userMapper.toEntity(userDTO);
         user.setPassword(passwordEncoder.encode(userDTO.getPassword()));
         user.setRole(userDTO.getRole() != null ? userDTO.getRole().toUpperCase() : "USER");
 
         User savedUser = userRepo.save(user);
-        UserDTO responseDTO = modelMapper.map(savedUser, UserDTO.class);
+        UserDTO responseDTO = userMapper.toDTO(savedUser);
         responseDTO.setPassword(null);
         return responseDTO;
     }
@@ -71,11 +89,14 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        String token = jwtUtil.generateToken(authRequest.getUsername());
-
         User user = userRepo.findByUsername(authRequest.getUsername())
                 .orElseThrow(() -> new UsernameNotFoundException("User not found after authentication: " + authRequest.getUsername()));
 
+        // The token carries the ID and roles, so later requests are authenticated without loading the user;
+        // right after a revocation it is dated past it, or it would be rejected with the tokens it replaces
+        String token = jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRole(),
+                tokenRevocationCache.issueTimeFor(user.getUsername()));
+
         return new AuthResponseDTO(token, user.getId(), user.getUsername(), user.getRole());
     }
 
@@ -85,7 +106,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     public UserDTO getUserById(Long id) {
         User user = userRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
-        UserDTO responseDTO = modelMapper.map(user, UserDTO.class);
+        UserDTO responseDTO = userMapper.toDTO(user);
         responseDTO.setPassword(null);
         return responseDTO;
     }
@@ -94,7 +115,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     public UserDTO getUserByUsername(String username) {
         User user = userRepo.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
-        UserDTO responseDTO = modelMapper.map(user, UserDTO.class);
+        UserDTO responseDTO = userMapper.toDTO(user);
         responseDTO.setPassword(null);
         return responseDTO;
     }
@@ -104,13 +125,45 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         List<User> users = userRepo.findAll();
         return users.stream()
                 .map(user -> {
-                    UserDTO dto = modelMapper.map(user, UserDTO.class);
+                    UserDTO dto = userMapper.toDTO(user);
                     dto.setPassword(null);
                     return dto;
                 })
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserDTO> getUsersPage(Long after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // One extra row tells whether another page exists without a count query
+        List<User> users = userRepo.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(pageSize + 1));
+        boolean hasMore = users.size() > pageSize;
+        List<UserDTO> items = users.stream()
+                .limit(pageSize)
+                .map(user -> {
+                    UserDTO dto = userMapper.toDTO(user);
+                    dto.setPassword(null);
+                    return dto;
+                })
+                .collect(Collectors.toList());
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserDTO> consumer) {
+        try (Stream<User> users = userRepo.streamAllBy()) {
+            users.forEach(user -> {
+                UserDTO dto = userMapper.toDTO(user);
+                dto.setPassword(null);
+                consumer.accept(dto);
+                entityManager.detach(user); // Keeps the persistence context, and the heap, flat
+            });
+        }
+    }
+
     @Override
     public UserDTO updateUser(Long id, UserDTO userDTO) {
         User existingUser = userRepo.findById(id)
@@ -126,18 +179,23 @@ public class UserServiceImpl implements UserService, UserDetailsService {
             existingUser.setPassword(passwordEncoder.encode(userDTO.getPassword()));
         }
 
+        // Existing tokens carry the old roles, so a role or password change invalidates them
+        if (userDTO.getRole() != null || (userDTO.getPassword() != null && !userDTO.getPassword().isEmpty())) {
+            tokenRevocationCache.revokeTokensOf(existingUser.getUsername());
+        }
+
         User updatedUser = userRepo.save(existingUser);
-        UserDTO responseDTO = modelMapper.map(updatedUser, UserDTO.class);
+        UserDTO responseDTO = userMapper.toDTO(updatedUser);
         responseDTO.setPassword(null);
         return responseDTO;
     }
 
     @Override
     public void deleteUser(Long id) {
-        if (!userRepo.existsById(id)) {
-            throw new RuntimeException("User not found with ID: " + id);
-        }
-        userRepo.deleteById(id);
+        User user = userRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with ID: " + id));
+        userRepo.delete(user);
+        tokenRevocationCache.revokeTokensOf(user.getUsername());
     }
 
     @Override
@@ -0,0 +1,55 @@
+package lk.ijse.userservice.slot;
+
+import lk.ijse.userservice.entity.Booking;
+import lk.ijse.userservice.util.ParkingSpotIds;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The time a booking holds its parking spot, [start, end) in epoch seconds of the booking's wall-clock times
+ * (the times carry no zone). The slot runs from the planned check-in to the planned check-out; a booking without
+ * a check-in starts at its booking time, and one without a check-out holds the default length.
+ */
+public record BookingSlot(Long bookingId, String spot, long start, long end) {
+
+    public static BookingSlot of(Booking booking, long defaultSeconds) {
+        return booking == null ? null : of(booking.getId(), booking.getParkingSpotId(), booking.getBookingTime(),
+                booking.getCheckInTime(), booking.getCheckOutTime(), booking.getStatus(), defaultSeconds);
+    }
+
+    // Null for a booking that holds no slot: completed, cancelled, or without a spot or a start
+    public static BookingSlot of(Long bookingId, String parkingSpotId, LocalDateTime bookingTime, LocalDateTime checkInTime,
+                                 LocalDateTime checkOutTime, String status, long defaultSeconds) {
+        LocalDateTime startTime = checkInTime != null ? checkInTime : bookingTime;
+        if (startTime == null || parkingSpotId == null || parkingSpotId.isBlank()
+                || "COMPLETED".equalsIgnoreCase(status) || "CANCELLED".equalsIgnoreCase(status)) {
+            return null;
+        }
+        long start = seconds(startTime);
+        long end = checkOutTime != null ? seconds(checkOutTime) : start + defaultSeconds;
+        return end > start ? new BookingSlot(bookingId, ParkingSpotIds.key(parkingSpotId), start, end) : null;
+    }
+
+    public static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime time(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    public long length() {
+        return end - start;
+    }
+
+    // The same booking, spot and length, moved to start at newStart
+    public BookingSlot at(long newStart) {
+        return new BookingSlot(bookingId, spot, newStart, newStart + length());
+    }
+
+    // A new booking's slot once it has its ID
+    public BookingSlot withBookingId(Long id) {
+        return new BookingSlot(id, spot, start, end);
+    }
+}
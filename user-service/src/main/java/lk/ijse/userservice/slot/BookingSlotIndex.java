@@ -0,0 +1,255 @@
+package lk.ijse.userservice.slot;
+
+import lk.ijse.userservice.util.ParkingSpotIds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Booking slots per parking spot, for overlap checks without range queries on the booking table.
+ * <p>
+ * Each spot keeps its slots in a map sorted by start. The slots of one spot never overlap, so they are sorted by
+ * end as well, and the only slot that can overlap [start, end) is the last one starting before end: a check is one
+ * O(log n) lookup. Slots that have ended are pruned, so the index holds the bookings still to come.
+ * <p>
+ * The index only reflects committed state. To make a check and the commit of its booking atomic, the caller holds
+ * the spot's lock ({@link #lockSpot}) from the check until its transaction completes.
+ */
+@Component
+public class BookingSlotIndex {
+
+    private final Map<String, SpotSlots> spots = new ConcurrentHashMap<>();
+    private final Map<Long, BookingSlot> byBooking = new ConcurrentHashMap<>(); // The indexed slot of each booking
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final long defaultSeconds;
+    private final long lockTimeoutMillis;
+
+    public BookingSlotIndex(@Value("${booking.default-duration-minutes:60}") long defaultMinutes,
+                            @Value("${booking.spot-lock-timeout-millis:5000}") long lockTimeoutMillis) {
+        this.defaultSeconds = TimeUnit.MINUTES.toSeconds(defaultMinutes);
+        this.lockTimeoutMillis = lockTimeoutMillis;
+    }
+
+    // How long a booking without a check-out holds its spot
+    public long defaultSeconds() {
+        return defaultSeconds;
+    }
+
+    /**
+     * Takes the spot's lock, waiting at most the configured timeout. Bookings for the same spot are checked and
+     * committed one at a time; other spots are not held up.
+     */
+    public Lock lockSpot(String spot) {
+        Lock lock = spotSlots(spot).lock;
+        try {
+            if (lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return lock;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new IllegalStateException("Parking spot " + spot + " is busy with another booking, try again");
+    }
+
+    // The slot of another booking that overlaps this one, or null when it is free
+    public BookingSlot findConflict(BookingSlot slot) {
+        SpotSlots slots = spots.get(slot.spot());
+        return slots == null ? null : slots.conflict(slot.bookingId(), slot.start(), slot.end());
+    }
+
+    // Start of the first free slot of the same length at or after the slot's own start
+    public long firstFreeStart(BookingSlot slot) {
+        SpotSlots slots = spots.get(slot.spot());
+        return slots == null ? slot.start() : slots.firstFreeStart(slot.bookingId(), slot.start(), slot.length());
+    }
+
+    /**
+     * The earliest free slot of the given length from the given time on any spot of the zone, or null when the
+     * zone has no known spots. Spots that have never been booked are unknown here; extraSpots adds them.
+     */
+    public BookingSlot findFirstFree(String zone, Collection<String> extraSpots, long from, long length) {
+        TreeSet<String> candidates = new TreeSet<>();
+        for (String spot : spots.keySet()) {
+            if (zone.equals(ParkingSpotIds.zoneOf(spot))) {
+                candidates.add(spot);
+            }
+        }
+        if (extraSpots != null) {
+            extraSpots.forEach(spot -> candidates.add(ParkingSpotIds.key(spot)));
+        }
+        BookingSlot best = null;
+        for (String spot : candidates) {
+            SpotSlots slots = spots.get(spot);
+            long start = slots == null ? from : slots.firstFreeStart(null, from, length);
+            if (best == null || start < best.start()) {
+                best = new BookingSlot(null, spot, start, start + length);
+                if (start == from) {
+                    break; // Nothing can be earlier
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Applies a committed change: the booking's indexed slot, wherever it is, makes way for its current one, or is
+     * dropped when current is null. Going by what is indexed rather than what the caller read keeps the index right
+     * when two changes to one booking read it before either committed.
+     */
+    public void replace(Long bookingId, BookingSlot current) {
+        byBooking.compute(bookingId, (id, previous) -> {
+            if (previous != null) {
+                spotSlots(previous.spot()).remove(previous);
+            }
+            if (current != null) {
+                spotSlots(current.spot()).put(current);
+            }
+            return current;
+        });
+    }
+
+    // The booking's indexed slot, or null
+    public BookingSlot slotOf(Long bookingId) {
+        return byBooking.get(bookingId);
+    }
+
+    /**
+     * Adds a slot while loading. A slot that overlaps one already indexed is not added and is returned, so the
+     * loader can report the conflicting bookings that were saved before the checks existed.
+     */
+    public BookingSlot load(BookingSlot slot) {
+        SpotSlots slots = spotSlots(slot.spot());
+        BookingSlot conflict;
+        synchronized (slots) {
+            conflict = slots.conflict(slot.bookingId(), slot.start(), slot.end());
+            if (conflict == null) {
+                slots.put(slot);
+            }
+        }
+        if (conflict == null) {
+            byBooking.put(slot.bookingId(), slot);
+        }
+        return conflict;
+    }
+
+    public void clear() {
+        spots.values().forEach(SpotSlots::clear);
+        byBooking.clear();
+    }
+
+    public void markLoaded() {
+        loaded.countDown();
+    }
+
+    // Waits for the initial load, so no booking is checked against a partly loaded index
+    public void awaitLoaded() {
+        try {
+            if (loaded.await(30, TimeUnit.SECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new IllegalStateException("Booking slots are still loading, try again");
+    }
+
+    // Drops the slots that ended before the given time; returns how many
+    public int pruneEndedBefore(long time) {
+        int pruned = 0;
+        for (SpotSlots slots : spots.values()) {
+            // Outside the spot's monitor: replace() takes the booking's entry first and the monitor second
+            for (BookingSlot slot : slots.pruneEndedBefore(time)) {
+                byBooking.remove(slot.bookingId(), slot);
+                pruned++;
+            }
+        }
+        return pruned;
+    }
+
+    // Snapshot of a spot's slots in order
+    public List<BookingSlot> slotsOf(String spot) {
+        SpotSlots slots = spots.get(ParkingSpotIds.key(spot));
+        return slots == null ? List.of() : slots.snapshot();
+    }
+
+    public int size() {
+        int size = 0;
+        for (SpotSlots slots : spots.values()) {
+            size += slots.size();
+        }
+        return size;
+    }
+
+    private SpotSlots spotSlots(String spot) {
+        return spots.computeIfAbsent(spot, key -> new SpotSlots());
+    }
+
+    // One spot's slots; the monitor guards the map, the lock spans a booking's check and commit
+    private static final class SpotSlots {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final TreeMap<Long, BookingSlot> byStart = new TreeMap<>();
+
+        // The last slot starting before end is the one ending latest among them; the booking's own slot is skipped
+        synchronized BookingSlot conflict(Long bookingId, long start, long end) {
+            Map.Entry<Long, BookingSlot> last = byStart.lowerEntry(end);
+            if (last != null && bookingId != null && bookingId.equals(last.getValue().bookingId())) {
+                last = byStart.lowerEntry(last.getKey());
+            }
+            return last != null && last.getValue().end() > start ? last.getValue() : null;
+        }
+
+        // Each step moves past one booked slot, so this costs O(k log n) for the k slots it skips
+        synchronized long firstFreeStart(Long bookingId, long from, long length) {
+            long start = from;
+            BookingSlot conflict;
+            while ((conflict = conflict(bookingId, start, start + length)) != null) {
+                start = conflict.end();
+            }
+            return start;
+        }
+
+        synchronized void put(BookingSlot slot) {
+            byStart.put(slot.start(), slot);
+        }
+
+        // Only removes the slot if it is still this booking's; a rejected duplicate from loading is never indexed
+        synchronized void remove(BookingSlot slot) {
+            BookingSlot indexed = byStart.get(slot.start());
+            if (indexed != null && indexed.bookingId().equals(slot.bookingId())) {
+                byStart.remove(slot.start());
+            }
+        }
+
+        synchronized List<BookingSlot> pruneEndedBefore(long time) {
+            List<BookingSlot> pruned = new ArrayList<>();
+            Map.Entry<Long, BookingSlot> first;
+            while ((first = byStart.firstEntry()) != null && first.getValue().end() <= time) {
+                pruned.add(byStart.pollFirstEntry().getValue());
+            }
+            return pruned;
+        }
+
+        synchronized void clear() {
+            byStart.clear();
+        }
+
+        synchronized List<BookingSlot> snapshot() {
+            return new ArrayList<>(byStart.values());
+        }
+
+        synchronized int size() {
+            return byStart.size();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package lk.ijse.userservice.slot;
+
+import lk.ijse.userservice.repo.BookingRepo;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+public class BookingSlotLoader implements ApplicationRunner {
+
+    private static final int PAGE_SIZE = 5000;
+
+    private final BookingRepo bookingRepo;
+    private final BookingSlotIndex slotIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookingSlotLoader(BookingRepo bookingRepo, BookingSlotIndex slotIndex, PlatformTransactionManager transactionManager) {
+        this.bookingRepo = bookingRepo;
+        this.slotIndex = slotIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    // Seeds the slot index from the database once the application has started
+    @Override
+    public void run(ApplicationArguments args) {
+        load();
+        System.out.println("Booking slot index loaded with " + slotIndex.size() + " upcoming bookings");
+    }
+
+    /**
+     * Reads the bookings that may not have ended yet in keyset pages, one transaction each. Bookings that overlap
+     * one already loaded were saved before overlaps were checked; they are reported and left out.
+     */
+    public void load() {
+        slotIndex.clear();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime earliestStart = now.minusSeconds(slotIndex.defaultSeconds());
+        long nowSeconds = BookingSlot.seconds(now);
+        long after = 0L;
+        List<Object[]> page;
+        do {
+            long from = after;
+            page = transactionTemplate.execute(status ->
+                    bookingRepo.findSlotRows(from, now, earliestStart, Limit.of(PAGE_SIZE)));
+            for (Object[] row : page) {
+                BookingSlot slot = BookingSlot.of((Long) row[0], (String) row[1], (LocalDateTime) row[2],
+                        (LocalDateTime) row[3], (LocalDateTime) row[4], (String) row[5], slotIndex.defaultSeconds());
+                if (slot == null || slot.end() <= nowSeconds) {
+                    continue;
+                }
+                BookingSlot conflict = slotIndex.load(slot);
+                if (conflict != null) {
+                    System.out.println("Booking " + slot.bookingId() + " overlaps booking " + conflict.bookingId()
+                            + " on parking spot " + slot.spot() + ", not indexed");
+                }
+            }
+            if (!page.isEmpty()) {
+                after = (Long) page.get(page.size() - 1)[0];
+            }
+        } while (page.size() == PAGE_SIZE);
+        slotIndex.markLoaded();
+    }
+
+    // Ended slots can no longer conflict with anything
+    @Scheduled(fixedDelayString = "${booking.slot-prune-interval-millis:3600000}")
+    public void pruneEnded() {
+        slotIndex.pruneEndedBefore(BookingSlot.seconds(LocalDateTime.now()));
+    }
+}
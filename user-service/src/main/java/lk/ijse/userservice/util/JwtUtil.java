@@ -1,29 +1,64 @@
 package lk.ijse.userservice.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    // Claims carrying the user's identity, so requests can be authenticated without loading the user
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+
     @Value("${jwt.secret}")
     private String SECRET;
 
     @Value("${jwt.expiration}")
     private Long EXPIRATION_TIME;
 
+    // Verified claims are reused for this long (capped at the token's own expiry); 0 disables the cache
+    @Value("${jwt.claims-cache.ttl:60000}")
+    private long CLAIMS_CACHE_TTL;
+
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private int CLAIMS_CACHE_MAX_SIZE;
+
+    // Built once: decoding the secret and creating the HMAC key on every call is needlessly expensive
+    private Key signKey;
+    private JwtParser jwtParser;
+
+    // Token digest -> verified claims, so a token's signature is checked at most once per cache lifetime
+    private final Map<String, CachedClaims> claimsCache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
+        signKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parserBuilder().setSigningKey(signKey).build();
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -37,40 +72,100 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Returns the verified claims of the token; the returned claims are shared and must not be modified
+    public Claims extractAllClaims(String token) {
+        if (CLAIMS_CACHE_TTL <= 0 || CLAIMS_CACHE_MAX_SIZE <= 0) {
+            return jwtParser.parseClaimsJws(token).getBody();
+        }
+
+        String digest = digestOf(token);
+        long now = System.currentTimeMillis();
+        CachedClaims cached = claimsCache.get(digest);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.claims;
+        }
+
+        // Throws for a bad signature or an expired token, so only valid tokens are ever cached
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        long expiresAt = now + CLAIMS_CACHE_TTL;
+        if (claims.getExpiration() != null) {
+            expiresAt = Math.min(expiresAt, claims.getExpiration().getTime());
+        }
+        if (claimsCache.size() >= CLAIMS_CACHE_MAX_SIZE) {
+            evictClaims(now);
+        }
+        claimsCache.put(digest, new CachedClaims(claims, expiresAt));
+        return claims;
+    }
+
+    // Null for tokens issued before the identity claims were added
+    public Long extractUserId(Claims claims) {
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return userId == null ? null : userId.longValue();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    @SuppressWarnings("unchecked")
+    public List<String> extractRoles(Claims claims) {
+        List<String> roles = claims.get(ROLES_CLAIM, List.class);
+        return roles == null ? List.of() : roles;
+    }
+
+    public Boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(extractAllClaims(token), userDetails);
+    }
+
+    // Validates already verified claims, so callers that hold the claims don't look the token up again
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return (username.equals(userDetails.getUsername()) && !isTokenExpired(claims));
+    }
+
+    // Roles are stored the way User.role holds them ("USER", "ADMIN,USER"), without the ROLE_ prefix
+    public String generateToken(Long userId, String userName, String role) {
+        return generateToken(userId, userName, role, new Date(System.currentTimeMillis()));
     }
 
-    public String generateToken(String userName) {
+    // issuedAt may be slightly ahead of now, so the token is not caught by a revocation earlier in the same second
+    public String generateToken(Long userId, String userName, String role, Date issuedAt) {
         Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userName);
+        claims.put(USER_ID_CLAIM, userId);
+        claims.put(ROLES_CLAIM, role == null ? List.of() : Arrays.asList(role.split(",")));
+        return createToken(claims, userName, issuedAt);
     }
 
-    private String createToken(Map<String, Object> claims, String userName) {
+    private String createToken(Map<String, Object> claims, String userName, Date issuedAt) {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(userName)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME)) // Use EXPIRATION_TIME from properties
-                .signWith(getSignKey(), SignatureAlgorithm.HS256).compact();
+                .setIssuedAt(issuedAt)
+                .setExpiration(new Date(issuedAt.getTime() + EXPIRATION_TIME)) // Use EXPIRATION_TIME from properties
+                .signWith(signKey, SignatureAlgorithm.HS256).compact();
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Drops expired entries first; if the cache is still full, drops arbitrary entries to stay within the bound
+    private void evictClaims(long now) {
+        claimsCache.values().removeIf(cached -> cached.expiresAt <= now);
+        Iterator<String> digests = claimsCache.keySet().iterator();
+        while (claimsCache.size() >= CLAIMS_CACHE_MAX_SIZE && digests.hasNext()) {
+            digests.next();
+            digests.remove();
+        }
+    }
+
+    // Keys the cache by SHA-256 of the token so raw bearer tokens are not kept in memory
+    private static String digestOf(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record CachedClaims(Claims claims, long expiresAt) {
     }
-}
\ No newline at end of file
+}
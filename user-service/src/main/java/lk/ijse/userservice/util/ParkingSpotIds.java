@@ -0,0 +1,23 @@
+package lk.ijse.userservice.util;
+
+// Parking spot IDs as bookings carry them, e.g. "A1" or "b12"; the spots themselves live in parking-space-service
+public final class ParkingSpotIds {
+
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private ParkingSpotIds() {
+    }
+
+    public static String key(String parkingSpotId) {
+        return parkingSpotId == null || parkingSpotId.isBlank() ? UNKNOWN : parkingSpotId.trim().toUpperCase();
+    }
+
+    // The spot's leading letters, e.g. "B" for "B12" (spots are named zone + number)
+    public static String zoneOf(String spotKey) {
+        int end = 0;
+        while (end < spotKey.length() && Character.isLetter(spotKey.charAt(end))) {
+            end++;
+        }
+        return end == 0 || end == spotKey.length() ? UNKNOWN : spotKey.substring(0, end);
+    }
+}
@@ -0,0 +1,55 @@
+package lk.ijse.userservice.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory record of users whose existing tokens must no longer be accepted, e.g. after a role or
+ * password change or after the account was deleted. Tokens issued up to and including the second of the
+ * revocation are rejected; JWT issue times have second precision, so a token issued earlier in that second
+ * cannot be told apart from one issued later in it. New tokens are therefore issued from the next second on
+ * (see {@link #issueTimeFor}).
+ * <p>
+ * The record is local to this instance, which is enough for changes made through it; entries are kept
+ * only as long as a token issued before them could still be unexpired.
+ */
+@Component
+public class TokenRevocationCache {
+
+    @Value("${jwt.revocation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.expiration}")
+    private Long EXPIRATION_TIME;
+
+    // Username -> tokens issued at or before this time (epoch millis, the start of the revocation's second) are revoked
+    private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+
+    public void revokeTokensOf(String username) {
+        if (!enabled || username == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        revokedAt.merge(username, now - now % 1000, Math::max);
+        revokedAt.values().removeIf(revoked -> revoked + 1000 + EXPIRATION_TIME < now);
+    }
+
+    public boolean isRevoked(String username, Date issuedAt) {
+        if (!enabled) {
+            return false;
+        }
+        Long revoked = revokedAt.get(username);
+        return revoked != null && (issuedAt == null || issuedAt.getTime() <= revoked);
+    }
+
+    // Issue time for a new token of the user: now, or the start of the second after their last revocation
+    public Date issueTimeFor(String username) {
+        long now = System.currentTimeMillis();
+        Long revoked = enabled ? revokedAt.get(username) : null;
+        return new Date(revoked == null ? now : Math.max(now, revoked + 1000));
+    }
+}
@@ -0,0 +1,80 @@
+package lk.ijse.userservice;
+
+import jakarta.persistence.EntityManagerFactory;
+import lk.ijse.userservice.analytics.BookingAnalyticsIndex;
+import lk.ijse.userservice.analytics.BookingAnalyticsRebuilder;
+import lk.ijse.userservice.config.ModelMapperConfig;
+import lk.ijse.userservice.deadline.DeadlineAwareJpaTransactionManager;
+import lk.ijse.userservice.entity.Booking;
+import lk.ijse.userservice.repo.BookingRepo;
+import lk.ijse.userservice.service.impl.BookingServiceImpl;
+import lk.ijse.userservice.slot.BookingSlotIndex;
+import lk.ijse.userservice.slot.BookingSlotLoader;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The booking service layer on an in-memory H2 database, for tests that need a real schema and real transactions.
+ * Auto-configuration, the config server and Eureka are left out, so the context starts offline. The startup steps
+ * are left to the tests once their data is seeded: {@link BookingAnalyticsRebuilder#rebuild()} and
+ * {@link BookingSlotLoader#load()}. As a test configuration it stays out of the application's component scan in
+ * {@code UserServiceApplicationTests}.
+ */
+@TestConfiguration
+@EnableTransactionManagement
+@EnableJpaRepositories(basePackageClasses = BookingRepo.class)
+@Import({BookingServiceImpl.class, BookingAnalyticsIndex.class, BookingAnalyticsRebuilder.class, BookingSlotIndex.class,
+        BookingSlotLoader.class, ModelMapperConfig.class})
+public class UserTestConfig {
+
+    @Bean
+    public DataSource dataSource() {
+        return new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPackagesToScan(Booking.class.getPackageName());
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        // Boot's table and column names (booking, parking_spot_id), which the tests' seeding SQL uses
+        properties.put(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName());
+        properties.put(AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName());
+        properties.put(AvailableSettings.KEYWORD_AUTO_QUOTING_ENABLED, true); // "user" is a keyword in H2
+        factory.setJpaPropertyMap(properties);
+        return factory;
+    }
+
+    // The service's own transaction manager (see its TransactionConfig)
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new DeadlineAwareJpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,344 @@
+package lk.ijse.userservice.analytics;
+
+import lk.ijse.userservice.UserTestConfig;
+import lk.ijse.userservice.dto.AnalyticsRebuildDTO;
+import lk.ijse.userservice.dto.BookingAnalyticsDTO;
+import lk.ijse.userservice.dto.BookingAnalyticsGroupDTO;
+import lk.ijse.userservice.dto.BookingDTO;
+import lk.ijse.userservice.dto.BookingOccupancyDTO;
+import lk.ijse.userservice.dto.HourlyOccupancyDTO;
+import lk.ijse.userservice.entity.User;
+import lk.ijse.userservice.repo.UserRepo;
+import lk.ijse.userservice.service.BookingService;
+import lk.ijse.userservice.slot.BookingSlotLoader;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Booking analytics on a generated year of 500,000 bookings (20 zones of 50 spots; mostly completed, some cancelled
+ * or still open, a few spanning days), rebuilt the way the service does at startup. The summaries and hourly
+ * occupancy are compared with a brute force pass over every booking, and a rebuild that runs while bookings change
+ * must end up where a rebuild of the final table does. The tests run in order: the second changes the bookings.
+ */
+@SpringJUnitConfig(UserTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class BookingAnalyticsTest {
+
+    private static final int BOOKINGS = 500_000;
+    private static final LocalDate YEAR_START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate YEAR_END = LocalDate.of(2025, 12, 31);
+    private static final int ZONES = 20;
+    private static final int SPOTS_PER_ZONE = 50;
+    private static final int USERS = 20;
+    private static final int CHANGES = 6000;
+
+    private static final String INSERT_SQL = "INSERT INTO booking (user_id, vehicle_number, booking_time, check_in_time,"
+            + " check_out_time, parking_spot_id, total_cost, status, remarks) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingAnalyticsRebuilder rebuilder;
+    @Autowired
+    private BookingSlotLoader slotLoader;
+    @Autowired
+    private UserRepo userRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> userIds;
+
+    @BeforeAll
+    void seedAYear() {
+        jdbcTemplate.execute("TRUNCATE TABLE booking"); // The context, and so the table, is shared with other tests
+        userIds = seedUsers(userRepo);
+        long seedStarted = System.nanoTime();
+        seedBookings(jdbcTemplate, userIds, BOOKINGS, new Random(42));
+        System.out.printf("seeded %d bookings in %.1f s%n", BOOKINGS, (System.nanoTime() - seedStarted) / 1e9);
+        slotLoader.load();
+        System.out.println("rebuild: " + rebuilder.rebuild());
+    }
+
+    @Test
+    @Order(1)
+    void summariesAndOccupancyMatchABruteForcePass() {
+        List<String> failures = new ArrayList<>();
+        Random random = new Random(42);
+        List<BookingAnalyticsRecord> records = loadRecords(jdbcTemplate);
+        checkSummary(bookingService, records, YEAR_START, YEAR_END, false, null, failures);
+        checkSummary(bookingService, records, YEAR_START, YEAR_END, true, null, failures);
+        for (int i = 0; i < 20; i++) {
+            LocalDate from = YEAR_START.minusDays(10).plusDays(random.nextInt(380));
+            LocalDate to = from.plusDays(random.nextInt(90));
+            String zone = i % 2 == 0 ? null : zoneName(random.nextInt(ZONES));
+            checkSummary(bookingService, records, from, to, i % 3 == 0, zone, failures);
+            checkOccupancy(bookingService, records, from, to, i % 4 == 0 ? null : zoneName(random.nextInt(ZONES)), random, failures);
+        }
+        assertTrue(failures.isEmpty(), () -> failures.size() + " mismatches, the first: "
+                + failures.subList(0, Math.min(20, failures.size())));
+
+        printTimings(bookingService, jdbcTemplate);
+    }
+
+    // Bookings change through the service from 4 threads while a rebuild runs; the changes applied during its scan
+    // must be reconciled, so the result equals a rebuild of the final table
+    @Test
+    @Order(2)
+    void rebuildDuringChangesEqualsARebuildOfTheFinalTable() throws Exception {
+        List<Long> existing = new ArrayList<>();
+        bookingService.getBookingsPage(0L, 500).getItems().forEach(booking -> existing.add(booking.getId()));
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        List<Future<?>> done = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            int seed = thread;
+            done.add(writers.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < CHANGES / 4; i++) {
+                    change(bookingService, userIds, existing, seed, i, random);
+                }
+                return null;
+            }));
+        }
+        Thread.sleep(100); // Let the writers get going
+        AnalyticsRebuildDTO duringChanges = rebuilder.rebuild();
+        for (Future<?> writer : done) {
+            writer.get();
+        }
+        writers.shutdown();
+
+        List<Object> incremental = snapshot(bookingService);
+        AnalyticsRebuildDTO afterChanges = rebuilder.rebuild();
+        System.out.println("rebuild during " + CHANGES + " changes: " + duringChanges.getConcurrentChanges()
+                + " reconciled (" + afterChanges.getBookingsCounted() + " completed bookings after)");
+        assertEquals(snapshot(bookingService), incremental);
+    }
+
+    private static List<Long> seedUsers(UserRepo userRepo) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            ids.add(userRepo.save(new User(null, "analytics-user-" + i, "password", "analytics-user-" + i + "@spms.lk",
+                    "Analytics", "User", "0770000000", "USER")).getId());
+        }
+        return ids;
+    }
+
+    private static void seedBookings(JdbcTemplate jdbcTemplate, List<Long> userIds, int bookings, Random random) {
+        List<Object[]> batch = new ArrayList<>(5000);
+        long yearSeconds = (YEAR_END.toEpochDay() - YEAR_START.toEpochDay() + 1) * 86400;
+        LocalDateTime start = YEAR_START.atStartOfDay();
+        for (int i = 0; i < bookings; i++) {
+            LocalDateTime checkIn = start.plusSeconds((long) (random.nextDouble() * yearSeconds));
+            long dwellMinutes = random.nextInt(100) < 2 ? 1440 + random.nextInt(3 * 1440) : 15 + random.nextInt(8 * 60);
+            LocalDateTime checkOut = checkIn.plusMinutes(dwellMinutes).plusSeconds(random.nextInt(60));
+            int kind = random.nextInt(100);
+            String status = kind < 80 ? "COMPLETED" : kind < 85 ? "completed" : kind < 95 ? "CANCELLED" : "CONFIRMED";
+            batch.add(new Object[]{userIds.get(random.nextInt(userIds.size())), "CAB-" + (1000 + random.nextInt(9000)),
+                    Timestamp.valueOf(checkIn.minusHours(random.nextInt(48))), Timestamp.valueOf(checkIn),
+                    "CONFIRMED".equals(status) ? null : Timestamp.valueOf(checkOut), spotName(random),
+                    Math.round(dwellMinutes * 350.0 / 60 * 100) / 100.0, status, null}); // 350 an hour
+            if (batch.size() == 5000 || i == bookings - 1) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static List<BookingAnalyticsRecord> loadRecords(JdbcTemplate jdbcTemplate) {
+        List<BookingAnalyticsRecord> records = new ArrayList<>();
+        jdbcTemplate.query("SELECT parking_spot_id, check_in_time, check_out_time, total_cost, status FROM booking", row -> {
+            Timestamp checkIn = row.getTimestamp(2);
+            Timestamp checkOut = row.getTimestamp(3);
+            BookingAnalyticsRecord record = BookingAnalyticsRecord.of(row.getString(1),
+                    checkIn == null ? null : checkIn.toLocalDateTime(), checkOut == null ? null : checkOut.toLocalDateTime(),
+                    row.getDouble(4), row.getString(5));
+            if (record != null) {
+                records.add(record);
+            }
+        });
+        return records;
+    }
+
+    // The summary of the range must match a pass over every completed booking
+    private static void checkSummary(BookingService bookingService, List<BookingAnalyticsRecord> records, LocalDate from,
+                                     LocalDate to, boolean bySpot, String zone, List<String> failures) {
+        long rangeStart = from.toEpochDay() * 86400;
+        long rangeEnd = (to.toEpochDay() + 1) * 86400;
+        Map<String, long[]> expected = new TreeMap<>(); // { occupied, completed, dwell, revenue }
+        for (BookingAnalyticsRecord record : records) {
+            if (zone != null && !zone.equals(record.zone())) {
+                continue;
+            }
+            long occupied = Math.max(0, Math.min(record.checkOut(), rangeEnd) - Math.max(record.checkIn(), rangeStart));
+            boolean completed = record.checkOut() >= rangeStart && record.checkOut() < rangeEnd;
+            if (occupied == 0 && !completed) {
+                continue;
+            }
+            long[] sums = expected.computeIfAbsent(bySpot ? record.spot() : record.zone(), key -> new long[4]);
+            sums[0] += occupied;
+            if (completed) {
+                sums[1]++;
+                sums[2] += record.checkOut() - record.checkIn();
+                sums[3] += record.revenueCents();
+            }
+        }
+
+        long[] all = new long[4];
+        List<BookingAnalyticsGroupDTO> groups = new ArrayList<>();
+        expected.forEach((key, sums) -> {
+            groups.add(group(key, sums));
+            for (int i = 0; i < 4; i++) {
+                all[i] += sums[i];
+            }
+        });
+        BookingAnalyticsGroupDTO total = group(null, all);
+        BookingAnalyticsDTO expectedSummary = new BookingAnalyticsDTO(from, to, bySpot ? "spot" : "zone", total.getCompleted(),
+                total.getRevenue(), total.getAverageDwellMinutes(), total.getOccupiedHours(), groups);
+        BookingAnalyticsDTO actual = bookingService.getBookingAnalytics(from, to, bySpot ? "spot" : "zone", zone);
+        if (!expectedSummary.equals(actual)) {
+            String difference = "totals " + actual.getCompleted() + "/" + actual.getRevenue() + ", expected "
+                    + expectedSummary.getCompleted() + "/" + expectedSummary.getRevenue();
+            for (int i = 0; i < Math.min(groups.size(), actual.getGroups().size()); i++) {
+                if (!groups.get(i).equals(actual.getGroups().get(i))) {
+                    difference = actual.getGroups().get(i) + ", expected " + groups.get(i);
+                    break;
+                }
+            }
+            failures.add("summary " + from + ".." + to + " by " + (bySpot ? "spot" : "zone") + " zone " + zone + ": " + difference);
+        }
+    }
+
+    // Random hours of the range's hourly occupancy must match a pass over every completed booking
+    private static void checkOccupancy(BookingService bookingService, List<BookingAnalyticsRecord> records, LocalDate from,
+                                       LocalDate to, String zone, Random random, List<String> failures) {
+        BookingOccupancyDTO occupancy = bookingService.getBookingOccupancy(from, to, zone);
+        long rangeStart = from.toEpochDay() * 86400;
+        for (int sample = 0; sample < 12; sample++) {
+            int hour = random.nextInt(occupancy.getHours().size());
+            long hourStart = rangeStart + hour * 3600L;
+            long occupied = 0;
+            long checkOuts = 0;
+            for (BookingAnalyticsRecord record : records) {
+                if (zone == null || zone.equals(record.zone())) {
+                    occupied += Math.max(0, Math.min(record.checkOut(), hourStart + 3600) - Math.max(record.checkIn(), hourStart));
+                    checkOuts += record.checkOut() >= hourStart && record.checkOut() < hourStart + 3600 ? 1 : 0;
+                }
+            }
+            HourlyOccupancyDTO point = occupancy.getHours().get(hour);
+            LocalDateTime expectedHour = LocalDateTime.ofEpochSecond(hourStart, 0, ZoneOffset.UTC);
+            if (!point.equals(new HourlyOccupancyDTO(expectedHour, occupied / 3600.0, checkOuts))) {
+                failures.add("occupancy of zone " + zone + ": " + point + ", expected " + occupied / 3600.0 + " spots and "
+                        + checkOuts + " check-outs at " + expectedHour);
+            }
+        }
+    }
+
+    private static void change(BookingService bookingService, List<Long> userIds, List<Long> existing, int thread, int i, Random random) {
+        LocalDateTime checkIn = YEAR_START.atStartOfDay().plusMinutes(random.nextInt(365 * 1440));
+        switch (i % 4) {
+            case 0 -> { // A new completed booking, or an open one
+                boolean completed = random.nextBoolean();
+                bookingService.createBooking(new BookingDTO(null, userIds.get(random.nextInt(userIds.size())), "CAB-0001",
+                        checkIn, checkIn, completed ? checkIn.plusMinutes(30 + random.nextInt(300)) : null,
+                        spotName(random), 700, completed ? "COMPLETED" : "CONFIRMED", null));
+            }
+            case 1 -> { // Complete, move or cancel an existing booking
+                Long id = existing.get(random.nextInt(existing.size()));
+                BookingDTO update = new BookingDTO();
+                switch (random.nextInt(3)) {
+                    case 0 -> {
+                        update.setCheckInTime(checkIn);
+                        update.setCheckOutTime(checkIn.plusMinutes(45));
+                        update.setStatus("COMPLETED");
+                        update.setTotalCost(262.5);
+                    }
+                    case 1 -> update.setParkingSpotId(spotName(random));
+                    default -> update.setStatus("CANCELLED");
+                }
+                try {
+                    bookingService.updateBooking(id, update);
+                } catch (RuntimeException e) {
+                    // Deleted by another thread
+                }
+            }
+            case 2 -> { // Delete one of this thread's share of the seeded bookings
+                int index = thread * 100 + i / 4;
+                if (index < existing.size() && i / 4 < 100) {
+                    try {
+                        bookingService.deleteBooking(existing.get(index));
+                    } catch (RuntimeException e) {
+                        // Deleted already
+                    }
+                }
+            }
+            default -> bookingService.getBookingById(existing.get(random.nextInt(existing.size())));
+        }
+    }
+
+    private static List<Object> snapshot(BookingService bookingService) {
+        BookingOccupancyDTO occupancy = bookingService.getBookingOccupancy(YEAR_START, YEAR_END, null);
+        return List.of(bookingService.getBookingAnalytics(YEAR_START, YEAR_END, "spot", null),
+                bookingService.getBookingAnalytics(YEAR_START, YEAR_END, "zone", null), occupancy.getHours());
+    }
+
+    private static void printTimings(BookingService bookingService, JdbcTemplate jdbcTemplate) {
+        System.out.println("query over 2025                          best ms");
+        time("summary per zone", () -> bookingService.getBookingAnalytics(YEAR_START, YEAR_END, "zone", null), 50);
+        time("summary per spot", () -> bookingService.getBookingAnalytics(YEAR_START, YEAR_END, "spot", null), 50);
+        time("summary per spot, one zone", () -> bookingService.getBookingAnalytics(YEAR_START, YEAR_END, "spot", "C"), 50);
+        time("hourly occupancy, all zones", () -> bookingService.getBookingOccupancy(YEAR_START, YEAR_END, null), 50);
+        time("hourly occupancy, one zone", () -> bookingService.getBookingOccupancy(YEAR_START, YEAR_END, "C"), 50);
+        time("summary per spot, one day", () -> bookingService.getBookingAnalytics(YEAR_START, YEAR_START, "spot", null), 50);
+        time("GROUP BY spot over the booking table", () -> jdbcTemplate.queryForList("SELECT parking_spot_id, COUNT(*),"
+                + " SUM(total_cost), SUM(DATEDIFF('SECOND', check_in_time, check_out_time)) FROM booking"
+                + " WHERE UPPER(status) = 'COMPLETED' AND check_out_time >= ? AND check_out_time < ? GROUP BY parking_spot_id",
+                Timestamp.valueOf(YEAR_START.atStartOfDay()), Timestamp.valueOf(YEAR_END.plusDays(1).atStartOfDay())), 3);
+    }
+
+    private static void time(String name, Supplier<Object> query, int runs) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < runs; run++) {
+            long started = System.nanoTime();
+            query.get();
+            best = Math.min(best, System.nanoTime() - started);
+        }
+        System.out.printf("%-40s %8.2f%n", name, best / 1e6);
+    }
+
+    private static BookingAnalyticsGroupDTO group(String key, long[] sums) {
+        return new BookingAnalyticsGroupDTO(key, sums[1], sums[3] / 100.0, sums[1] == 0 ? 0 : sums[2] / 60.0 / sums[1],
+                sums[0] / 3600.0);
+    }
+
+    private static String spotName(Random random) {
+        return zoneName(random.nextInt(ZONES)) + (1 + random.nextInt(SPOTS_PER_ZONE));
+    }
+
+    private static String zoneName(int zone) {
+        return String.valueOf((char) ('A' + zone));
+    }
+}
@@ -0,0 +1,326 @@
+package lk.ijse.userservice.slot;
+
+import lk.ijse.userservice.UserTestConfig;
+import lk.ijse.userservice.dto.BookingDTO;
+import lk.ijse.userservice.dto.FreeSlotDTO;
+import lk.ijse.userservice.entity.User;
+import lk.ijse.userservice.repo.UserRepo;
+import lk.ijse.userservice.service.BookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Booking slots under contention, on a million future bookings.
+ * <p>
+ * Seeds back-to-back future bookings (10 zones of 20 spots) plus a few overlapping ones, as saved before overlaps
+ * were checked, and loads the slot index from them. Then 8 threads create, reschedule, move, cancel and delete
+ * bookings through the service on a handful of hot spots. Afterwards no two upcoming bookings may overlap on one
+ * spot, apart from the seeded legacy ones; the index must hold exactly the upcoming slots of the table, and equal a
+ * fresh load; and the first free slot of random zones, lengths and times must match a brute force search.
+ */
+@SpringJUnitConfig(UserTestConfig.class)
+class BookingSlotConcurrencyTest {
+
+    private static final int BOOKINGS = 1_000_000;
+    private static final int ZONES = 10;
+    private static final int SPOTS_PER_ZONE = 20;
+    private static final int LEGACY_OVERLAPS = 10;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 400; // Per thread
+    private static final List<String> HOT_SPOTS = List.of("Z1", "Z2", "Z3");
+
+    private static final String INSERT_SQL = "INSERT INTO booking (user_id, vehicle_number, booking_time, check_in_time,"
+            + " check_out_time, parking_spot_id, total_cost, status, remarks) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingSlotIndex slotIndex;
+    @Autowired
+    private BookingSlotLoader loader;
+    @Autowired
+    private UserRepo userRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentChangesKeepSlotsApartAndTheIndexInLineWithTheTable() throws Exception {
+        List<String> failures = new ArrayList<>();
+        jdbcTemplate.execute("TRUNCATE TABLE booking"); // The context, and so the table, is shared with other tests
+        Long userId = userRepo.save(new User(null, "slot-user", "password", "slot-user@spms.lk",
+                "Slot", "User", "0770000000", "USER")).getId();
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atStartOfDay();
+
+        long seedStarted = System.nanoTime();
+        seedBookings(jdbcTemplate, userId, BOOKINGS, tomorrow, new Random(42));
+        Set<Long> legacy = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM booking WHERE vehicle_number = 'LEGACY-1'", Long.class));
+        long loadStarted = System.nanoTime();
+        loader.load();
+        System.out.printf("seeded %d bookings in %.1f s, loaded %d slots in %.1f s%n", BOOKINGS + LEGACY_OVERLAPS,
+                (loadStarted - seedStarted) / 1e9, slotIndex.size(), (System.nanoTime() - loadStarted) / 1e9);
+        assertEquals(BOOKINGS, slotIndex.size(), "slots loaded, without the legacy overlaps");
+
+        runContention(bookingService, userId, tomorrow, failures);
+
+        Map<String, List<BookingSlot>> table = upcomingSlots(jdbcTemplate, slotIndex.defaultSeconds());
+        checkNoOverlaps(table, legacy, failures);
+        table.values().forEach(slots -> slots.removeIf(slot -> legacy.contains(slot.bookingId())));
+        checkIndex("index after the changes", slotIndex, table, failures);
+        loader.load();
+        checkIndex("fresh load", slotIndex, table, failures);
+        checkFirstFree(bookingService, table, tomorrow, new Random(7), failures);
+
+        assertTrue(failures.isEmpty(), () -> failures.size() + " failures, the first: "
+                + failures.subList(0, Math.min(20, failures.size())));
+    }
+
+    // Each spot gets back-to-back bookings with random gaps; the legacy ones copy a seeded booking's times
+    private static void seedBookings(JdbcTemplate jdbcTemplate, Long userId, int bookings, LocalDateTime tomorrow, Random random) {
+        int spots = ZONES * SPOTS_PER_ZONE;
+        List<Object[]> batch = new ArrayList<>(5000);
+        List<Object[]> legacy = new ArrayList<>();
+        for (int spot = 0; spot < spots; spot++) {
+            String spotId = spotName(spot);
+            LocalDateTime time = tomorrow;
+            int perSpot = bookings / spots + (spot < bookings % spots ? 1 : 0);
+            for (int i = 0; i < perSpot; i++) {
+                LocalDateTime checkIn = time.plusMinutes(random.nextInt(180));
+                LocalDateTime checkOut = checkIn.plusMinutes(30 + random.nextInt(150));
+                batch.add(new Object[]{userId, "CAB-1234", Timestamp.valueOf(tomorrow.minusDays(1)), Timestamp.valueOf(checkIn),
+                        Timestamp.valueOf(checkOut), spotId, 0.0, "CONFIRMED", null});
+                if (legacy.size() < LEGACY_OVERLAPS && spot % (spots / LEGACY_OVERLAPS) == 0 && i == perSpot / 2) {
+                    legacy.add(new Object[]{userId, "LEGACY-1", Timestamp.valueOf(tomorrow.minusDays(1)),
+                            Timestamp.valueOf(checkIn.plusMinutes(5)), Timestamp.valueOf(checkOut.plusMinutes(5)), spotId, 0.0,
+                            "CONFIRMED", null});
+                }
+                time = checkOut;
+                if (batch.size() == 5000) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+                    batch.clear();
+                }
+            }
+        }
+        batch.addAll(legacy);
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+    }
+
+    /**
+     * Every thread books, reschedules, moves, cancels and deletes bookings on the same few spots over three days.
+     * Rejections are expected; a reschedule must always succeed, and a change may only fail when another thread
+     * deleted its booking first.
+     */
+    private static void runContention(BookingService bookingService, Long userId, LocalDateTime tomorrow,
+                                      List<String> failures) throws Exception {
+        List<Long> created = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger[] counts = new AtomicInteger[8]; // created, rejected, rescheduled, moved, move rejected, cancelled, deleted, lost
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new AtomicInteger();
+        }
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> done = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int seed = thread;
+            done.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < OPERATIONS; i++) {
+                    LocalDateTime checkIn = tomorrow.plusMinutes(random.nextInt(3 * 1440));
+                    LocalDateTime checkOut = checkIn.plusMinutes(30 + random.nextInt(210));
+                    String spot = HOT_SPOTS.get(random.nextInt(HOT_SPOTS.size()));
+                    int operation = random.nextInt(10);
+                    try {
+                        if (operation < 4) {
+                            BookingDTO booking = bookingService.createBooking(new BookingDTO(null, userId, "CAB-" + seed,
+                                    null, checkIn, checkOut, spot, 0, "CONFIRMED", null), operation >= 2);
+                            created.add(booking.getId());
+                            counts[operation >= 2 && !checkIn.equals(booking.getCheckInTime()) ? 2 : 0].incrementAndGet();
+                        } else if (operation < 8 && !created.isEmpty()) {
+                            Long id = created.get(random.nextInt(created.size()));
+                            change(bookingService, id, operation, checkIn, checkOut, spot, counts, errors);
+                        }
+                    } catch (IllegalStateException e) {
+                        if (operation >= 2 && operation < 4) {
+                            errors.add("reschedule failed: " + e.getMessage());
+                        }
+                        counts[operation < 4 ? 1 : 4].incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> thread : done) {
+            thread.get();
+        }
+        pool.shutdown();
+        System.out.printf("%d threads on %d spots in %.1f s: %d created, %d rejected, %d rescheduled, %d moved,"
+                        + " %d moves rejected, %d cancelled, %d deleted, %d lost to a concurrent delete%n", THREADS,
+                HOT_SPOTS.size(), (System.nanoTime() - started) / 1e9, counts[0].get(), counts[1].get(), counts[2].get(),
+                counts[3].get(), counts[4].get(), counts[5].get(), counts[6].get(), counts[7].get());
+        failures.addAll(errors);
+    }
+
+    private static void change(BookingService bookingService, Long id, int operation, LocalDateTime checkIn,
+                               LocalDateTime checkOut, String spot, AtomicInteger[] counts, List<String> errors) {
+        try {
+            if (operation == 7) {
+                bookingService.deleteBooking(id);
+                counts[6].incrementAndGet();
+                return;
+            }
+            BookingDTO update = new BookingDTO();
+            if (operation == 6) {
+                update.setStatus("CANCELLED");
+            } else {
+                update.setCheckInTime(checkIn);
+                update.setCheckOutTime(checkOut);
+                if (operation == 5) {
+                    update.setParkingSpotId(spot);
+                }
+            }
+            bookingService.updateBooking(id, update);
+            counts[operation == 6 ? 5 : 3].incrementAndGet();
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // Not found, or deleted between this change's read and its write
+            if (bookingService.getBookingById(id) != null) {
+                errors.add("change to booking " + id + " failed: " + e.getMessage());
+            } else {
+                counts[7].incrementAndGet();
+            }
+        }
+    }
+
+    // The upcoming slot of every booking in the table, per spot in order of start
+    private static Map<String, List<BookingSlot>> upcomingSlots(JdbcTemplate jdbcTemplate, long defaultSeconds) {
+        long now = BookingSlot.seconds(LocalDateTime.now());
+        Map<String, List<BookingSlot>> slots = new TreeMap<>();
+        jdbcTemplate.query("SELECT id, parking_spot_id, booking_time, check_in_time, check_out_time, status FROM booking", row -> {
+            BookingSlot slot = BookingSlot.of(row.getLong(1), row.getString(2), time(row.getTimestamp(3)),
+                    time(row.getTimestamp(4)), time(row.getTimestamp(5)), row.getString(6), defaultSeconds);
+            if (slot != null && slot.end() > now) {
+                slots.computeIfAbsent(slot.spot(), spot -> new ArrayList<>()).add(slot);
+            }
+        });
+        slots.values().forEach(list -> list.sort((a, b) -> Long.compare(a.start(), b.start())));
+        return slots;
+    }
+
+    private static void checkNoOverlaps(Map<String, List<BookingSlot>> table, Set<Long> legacy, List<String> failures) {
+        int checked = 0;
+        for (List<BookingSlot> slots : table.values()) {
+            BookingSlot previous = null;
+            for (BookingSlot slot : slots) {
+                if (legacy.contains(slot.bookingId())) {
+                    continue;
+                }
+                if (previous != null && slot.start() < previous.end()) {
+                    failures.add("bookings " + previous.bookingId() + " and " + slot.bookingId() + " overlap on " + slot.spot());
+                }
+                previous = slot;
+                checked++;
+            }
+        }
+        System.out.println("overlaps among " + checked + " upcoming bookings: " + (failures.isEmpty() ? "none" : failures.size()));
+    }
+
+    private static void checkIndex(String name, BookingSlotIndex slotIndex, Map<String, List<BookingSlot>> table,
+                                   List<String> failures) {
+        int expected = 0;
+        for (Map.Entry<String, List<BookingSlot>> spot : table.entrySet()) {
+            List<BookingSlot> slots = slotIndex.slotsOf(spot.getKey());
+            if (!slots.equals(spot.getValue())) {
+                failures.add(name + ": spot " + spot.getKey() + " holds " + slots.size() + " slots, expected " + spot.getValue().size());
+            }
+            for (BookingSlot slot : spot.getValue()) {
+                if (!slot.equals(slotIndex.slotOf(slot.bookingId()))) {
+                    failures.add(name + ": booking " + slot.bookingId() + " is indexed as " + slotIndex.slotOf(slot.bookingId()));
+                }
+            }
+            expected += spot.getValue().size();
+        }
+        int indexed = slotIndex.size();
+        if (indexed != expected) {
+            failures.add(name + ": " + indexed + " slots indexed, expected " + expected);
+        }
+        System.out.println(name + ": " + indexed + " slots, " + (indexed == expected ? "matching the table" : "DIFFERENT"));
+    }
+
+    // The service's first free slot must be the earliest start a walk over every spot of the zone finds
+    private static void checkFirstFree(BookingService bookingService, Map<String, List<BookingSlot>> table,
+                                       LocalDateTime tomorrow, Random random, List<String> failures) {
+        long best = Long.MAX_VALUE;
+        long worst = 0;
+        for (int i = 0; i < 200; i++) {
+            String zone = i % 5 == 0 ? "Z" : zoneName(random.nextInt(ZONES));
+            int minutes = 30 + random.nextInt(300);
+            LocalDateTime from = tomorrow.plusMinutes(random.nextInt(30 * 1440));
+            long started = System.nanoTime();
+            FreeSlotDTO actual = bookingService.findFirstFreeSlot(zone, minutes, from, null);
+            long nanos = System.nanoTime() - started;
+            best = Math.min(best, nanos);
+            worst = Math.max(worst, nanos);
+
+            FreeSlotDTO expected = null;
+            for (Map.Entry<String, List<BookingSlot>> spot : table.entrySet()) {
+                if (!spot.getKey().startsWith(zone) || !Character.isDigit(spot.getKey().charAt(zone.length()))) {
+                    continue;
+                }
+                long start = BookingSlot.seconds(from);
+                boolean moved = true;
+                while (moved) {
+                    moved = false;
+                    for (BookingSlot slot : spot.getValue()) {
+                        if (slot.start() < start + minutes * 60L && slot.end() > start) {
+                            start = slot.end();
+                            moved = true;
+                        }
+                    }
+                }
+                if (expected == null || BookingSlot.seconds(expected.getStart()) > start) {
+                    expected = new FreeSlotDTO(spot.getKey(), BookingSlot.time(start), BookingSlot.time(start + minutes * 60L));
+                }
+            }
+            if (expected != null && !expected.equals(actual)) {
+                failures.add("first free " + minutes + " minutes in zone " + zone + " from " + from + ": " + actual + ", expected " + expected);
+            }
+        }
+        System.out.printf("first free slot in a zone, 200 searches against brute force: %.3f ms best, %.3f ms worst%n",
+                best / 1e6, worst / 1e6);
+    }
+
+    private static LocalDateTime time(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static String spotName(int spot) {
+        return zoneName(spot / SPOTS_PER_ZONE) + (1 + spot % SPOTS_PER_ZONE);
+    }
+
+    private static String zoneName(int zone) {
+        return String.valueOf((char) ('A' + zone));
+    }
+}
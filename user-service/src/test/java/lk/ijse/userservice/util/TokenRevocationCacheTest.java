@@ -0,0 +1,64 @@
+package lk.ijse.userservice.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Revocation at second precision: nothing issued in the revocation's second survives it, a new login always does
+class TokenRevocationCacheTest {
+
+    private static final String SECRET = "bWlzc2luZ3Rocm93bnJvb3R3aXRoaW5tb3V0aHNtYWxsc2hhbGxnYXJhZ2Vpc2xhbmQ=";
+    private static final long EXPIRATION_TIME = 3600000L;
+    private static final String USERNAME = "driver";
+
+    private TokenRevocationCache revocationCache;
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        revocationCache = new TokenRevocationCache();
+        ReflectionTestUtils.setField(revocationCache, "enabled", true);
+        ReflectionTestUtils.setField(revocationCache, "EXPIRATION_TIME", EXPIRATION_TIME);
+
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "EXPIRATION_TIME", EXPIRATION_TIME);
+        ReflectionTestUtils.setField(jwtUtil, "CLAIMS_CACHE_TTL", 0L);
+        ReflectionTestUtils.setField(jwtUtil, "CLAIMS_CACHE_MAX_SIZE", 0);
+        jwtUtil.init();
+    }
+
+    @Test
+    void tokenIssuedEarlierInTheSameSecondIsRevoked() {
+        String token = jwtUtil.generateToken(1L, USERNAME, "USER");
+        revocationCache.revokeTokensOf(USERNAME);
+
+        assertTrue(revocationCache.isRevoked(USERNAME, issuedAtOf(token)));
+    }
+
+    @Test
+    void tokenIssuedAfterTheRevocationIsAccepted() {
+        revocationCache.revokeTokensOf(USERNAME);
+        String token = jwtUtil.generateToken(1L, USERNAME, "USER", revocationCache.issueTimeFor(USERNAME));
+
+        assertFalse(revocationCache.isRevoked(USERNAME, issuedAtOf(token)));
+    }
+
+    @Test
+    void otherUsersAreNotRevoked() {
+        String token = jwtUtil.generateToken(2L, "attendant", "USER");
+        revocationCache.revokeTokensOf(USERNAME);
+
+        assertFalse(revocationCache.isRevoked("attendant", issuedAtOf(token)));
+        assertTrue(Math.abs(revocationCache.issueTimeFor("attendant").getTime() - System.currentTimeMillis()) < 1000);
+    }
+
+    private Date issuedAtOf(String token) {
+        return jwtUtil.extractAllClaims(token).getIssuedAt();
+    }
+}
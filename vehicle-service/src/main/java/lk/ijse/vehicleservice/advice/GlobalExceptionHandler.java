@@ -1,8 +1,10 @@
 package lk.ijse.vehicleservice.advice;
 
 import lk.ijse.vehicleservice.dto.ResponseDTO; // Import the ResponseDTO from THIS service
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -56,4 +58,15 @@ public class GlobalExceptionHandler {
     //     );
     //     return new ResponseEntity<>(responseDTO, HttpStatus.NOT_FOUND);
     // }
-}
\ No newline at end of file
+
+    // The request's deadline (X-Request-Timeout-Ms from the api-gateway) passed during its database work
+    @ExceptionHandler({TransactionTimedOutException.class, QueryTimeoutException.class, jakarta.persistence.QueryTimeoutException.class})
+    public ResponseEntity<ResponseDTO> handleDeadlineExceeded(RuntimeException exception) {
+        ResponseDTO responseDTO = new ResponseDTO(
+                HttpStatus.GATEWAY_TIMEOUT.value(),
+                "Request deadline exceeded",
+                null
+        );
+        return new ResponseEntity<>(responseDTO, HttpStatus.GATEWAY_TIMEOUT);
+    }
+}
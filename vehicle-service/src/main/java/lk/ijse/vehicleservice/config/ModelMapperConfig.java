@@ -1,7 +1,11 @@
 package lk.ijse.vehicleservice.config;
 
+import lk.ijse.vehicleservice.mapper.DirectVehicleMapper;
+import lk.ijse.vehicleservice.mapper.ModelMapperVehicleMapper;
+import lk.ijse.vehicleservice.mapper.VehicleMapper;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -18,4 +22,13 @@ public class ModelMapperConfig {
                 .setSkipNullEnabled(false); // Ensure null values are mapped (important for updates)
         return modelMapper;
     }
+
+    // "direct" (default) uses the hand-written mapper; "modelmapper" switches back to reflective mapping
+    @Bean
+    public VehicleMapper vehicleMapper(ModelMapper modelMapper, @Value("${mapper.strategy:direct}") String strategy) {
+        if ("modelmapper".equalsIgnoreCase(strategy)) {
+            return new ModelMapperVehicleMapper(modelMapper);
+        }
+        return new DirectVehicleMapper();
+    }
 }
\ No newline at end of file
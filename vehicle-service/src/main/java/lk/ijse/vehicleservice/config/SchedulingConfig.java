@@ -0,0 +1,10 @@
+package lk.ijse.vehicleservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Runs the @Scheduled background jobs, such as the movement table's partition maintenance
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,14 +1,28 @@
 package lk.ijse.vehicleservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lk.ijse.vehicleservice.dto.CursorPageDTO;
+import lk.ijse.vehicleservice.dto.GateCheckDTO;
+import lk.ijse.vehicleservice.dto.GateEventReplayDTO;
+import lk.ijse.vehicleservice.dto.GateEventResultDTO;
 import lk.ijse.vehicleservice.dto.ResponseDTO; // Important: use the ResponseDTO from THIS service
 import lk.ijse.vehicleservice.dto.VehicleDTO;
+import lk.ijse.vehicleservice.dto.VehicleStayDTO;
 import lk.ijse.vehicleservice.service.VehicleService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController // Marks this class as a REST Controller
 @RequestMapping("api/v1/vehicles") // Base path for all endpoints in this controller
@@ -16,10 +30,12 @@ import java.util.List;
 public class VehicleController {
 
     private final VehicleService vehicleService;
+    private final ObjectMapper objectMapper;
 
     // Constructor injection for VehicleService
-    public VehicleController(VehicleService vehicleService) {
+    public VehicleController(VehicleService vehicleService, ObjectMapper objectMapper) {
         this.vehicleService = vehicleService;
+        this.objectMapper = objectMapper;
     }
 
     // Endpoint to register a new vehicle
@@ -34,6 +50,85 @@ public class VehicleController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    // Endpoint to stream all vehicles as NDJSON (one JSON object per line, heap stays flat)
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllVehicles() {
+        StreamingResponseBody body = outputStream -> vehicleService.streamAllVehicles(ndjson(outputStream));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    // Endpoint for gate cameras: resolves a plate to the vehicle and its entry status (an unknown plate is not an error)
+    @GetMapping("/gate-check")
+    public ResponseEntity<ResponseDTO> gateCheck(@RequestParam String plate) {
+        GateCheckDTO result = vehicleService.gateCheck(plate);
+        ResponseDTO response = new ResponseDTO(
+                HttpStatus.OK.value(),
+                result.isRegistered() ? "Vehicle Registered" : "Vehicle Not Registered",
+                result
+        );
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Endpoint for gate controllers to send entry/exit events in bulk; one acknowledgement per event, in body order
+    @PostMapping(value = "/gate-events", consumes = {"application/json", "application/x-ndjson"})
+    public ResponseEntity<ResponseDTO> ingestGateEvents(InputStream body) {
+        GateEventResultDTO result = vehicleService.ingestGateEvents(body);
+        if (result.getRetry() > 0) {
+            // The queue was full: the client resends the RETRY events after a pause
+            ResponseDTO response = new ResponseDTO(HttpStatus.TOO_MANY_REQUESTS.value(),
+                    "Gate Event Queue Full; resend " + result.getRetry() + " events", result);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(response);
+        }
+        ResponseDTO response = new ResponseDTO(
+                HttpStatus.OK.value(),
+                "Gate Events Received (" + result.getApplied() + " applied)",
+                result
+        );
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Endpoint to re-apply the gate event log from a sequence on, e.g. after restoring the database
+    @PostMapping("/gate-events/replay")
+    public ResponseEntity<ResponseDTO> replayGateEvents(@RequestParam(defaultValue = "1") long from) {
+        GateEventReplayDTO result = vehicleService.replayGateEvents(from);
+        ResponseDTO response = new ResponseDTO(
+                HttpStatus.OK.value(),
+                "Gate Events Replayed (" + result.getEventsReplayed() + ")",
+                result
+        );
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    // Endpoint to stream every vehicle's movements in a time window (epoch ms, 'to' exclusive) as NDJSON
+    @GetMapping(value = "/movements", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamMovements(@RequestParam long from, @RequestParam long to) {
+        StreamingResponseBody body = outputStream -> vehicleService.streamMovements(from, to, ndjson(outputStream));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    // Endpoint to stream one vehicle's movements, oldest first; the last 30 days unless a window is given
+    @GetMapping(value = "/{id}/movements", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamVehicleMovements(@PathVariable Long id,
+                                                                        @RequestParam(required = false) Long from,
+                                                                        @RequestParam(required = false) Long to) {
+        StreamingResponseBody body = outputStream -> vehicleService.streamVehicleMovements(id, from, to, ndjson(outputStream));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    // Endpoint to get a vehicle's visits (entry to exit) and how long each lasted
+    @GetMapping("/{id}/stays")
+    public ResponseEntity<ResponseDTO> getVehicleStays(@PathVariable Long id,
+                                                       @RequestParam(required = false) Long from,
+                                                       @RequestParam(required = false) Long to) {
+        List<VehicleStayDTO> stays = vehicleService.getVehicleStays(id, from, to);
+        ResponseDTO response = new ResponseDTO(
+                HttpStatus.OK.value(),
+                "Stays for Vehicle ID " + id + " Retrieved Successfully",
+                stays
+        );
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
     // Endpoint to retrieve vehicle details by ID
     @GetMapping("/{id}")
     public ResponseEntity<ResponseDTO> getVehicleById(@PathVariable Long id) {
@@ -46,9 +141,19 @@ public class VehicleController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
-    // Endpoint to retrieve all vehicle details
+    // Endpoint to retrieve all vehicle details (keyset-paginated when 'after' or 'limit' is given)
     @GetMapping
-    public ResponseEntity<ResponseDTO> getAllVehicles() {
+    public ResponseEntity<ResponseDTO> getAllVehicles(@RequestParam(required = false) Long after,
+                                                      @RequestParam(required = false) Integer limit) {
+        if (after != null || limit != null) {
+            CursorPageDTO<VehicleDTO> page = vehicleService.getVehiclesPage(after, limit);
+            ResponseDTO response = new ResponseDTO(
+                    HttpStatus.OK.value(),
+                    "Vehicles Page Retrieved Successfully",
+                    page
+            );
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        }
         List<VehicleDTO> vehicles = vehicleService.getAllVehicles();
         ResponseDTO response = new ResponseDTO(
                 HttpStatus.OK.value(),
@@ -129,4 +234,16 @@ public class VehicleController {
         );
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
-}
\ No newline at end of file
+
+    // Writes each item as one JSON line
+    private <T> Consumer<T> ndjson(OutputStream outputStream) {
+        return item -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(item));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package lk.ijse.vehicleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GateCheckDTO {
+    private String plate; // As the camera read it
+    private String normalizedPlate;
+    private boolean registered;
+    private String match; // "EXACT", "OCR" (matched after folding look-alike characters) or null when not registered
+    private Long vehicleId;
+    private String plateNumber; // As registered
+    private Long userId;
+    private String type;
+    private String entryStatus;
+    private List<String> candidates; // Registered plates the read could stand for, when it matches more than one
+}
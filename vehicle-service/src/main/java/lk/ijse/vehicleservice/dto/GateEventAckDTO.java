@@ -0,0 +1,20 @@
+package lk.ijse.vehicleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GateEventAckDTO {
+    private int index; // Position of the event in the request body
+    private String eventId;
+    // APPLIED: logged and written; REJECTED: invalid or unknown plate, do not resend;
+    // RETRY: not accepted because the queue was full, resend later; PENDING: queued and logged soon, not yet
+    // confirmed when the response was sent; FAILED: the batch could not be written, resend
+    private String status;
+    private Long sequence; // Position in the gate event log, once logged
+    private Long vehicleId;
+    private String message; // Why the event was rejected or failed
+}
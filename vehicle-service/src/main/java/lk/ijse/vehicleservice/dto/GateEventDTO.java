@@ -0,0 +1,16 @@
+package lk.ijse.vehicleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GateEventDTO {
+    private String eventId; // Optional, chosen by the gate; echoed in the acknowledgement
+    private String plate; // As the camera read it; matched after normalization, like the gate check
+    private String direction; // "ENTRY" or "EXIT"
+    private String gateId;
+    private Long occurredAt; // Epoch milliseconds at the gate; the receive time when missing
+}
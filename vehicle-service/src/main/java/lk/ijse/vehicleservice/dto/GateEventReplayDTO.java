@@ -0,0 +1,16 @@
+package lk.ijse.vehicleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GateEventReplayDTO {
+    private long fromSequence;
+    private long lastSequence; // Last sequence replayed; fromSequence - 1 when nothing was
+    private int eventsReplayed;
+    private int vehiclesUpdated; // Rows changed; events for deleted vehicles change none
+    private int unreadableLines; // E.g. a line torn by a crash mid-write, skipped
+}
@@ -0,0 +1,21 @@
+package lk.ijse.vehicleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GateEventResultDTO {
+    private int received;
+    private int applied;
+    private int rejected;
+    private int retry; // Not accepted because the queue was full; the response is a 429 when this is not 0
+    private int pending;
+    private int failed;
+    private String stoppedBecause; // Set when the body could not be read to the end; later events have no ack
+    private List<GateEventAckDTO> acks; // One per event, in body order
+}
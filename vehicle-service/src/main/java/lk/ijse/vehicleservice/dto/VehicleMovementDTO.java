@@ -0,0 +1,17 @@
+package lk.ijse.vehicleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleMovementDTO {
+    private Long id; // Null until stored; increases in the order movements are stored
+    private Long vehicleId;
+    private long occurredAt; // Epoch milliseconds
+    private String previousStatus; // Null for a vehicle's first status
+    private String status; // "IN", "OUT" or "PARKED"
+    private String source; // "API" for the PATCH endpoints and updates, "GATE" for gate events
+}
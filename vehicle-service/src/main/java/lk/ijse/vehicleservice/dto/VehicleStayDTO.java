@@ -0,0 +1,14 @@
+package lk.ijse.vehicleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehicleStayDTO {
+    private Long enteredAt; // Epoch milliseconds; null when the stay began before the window
+    private Long exitedAt; // Null while the vehicle is still in
+    private Long durationSeconds; // Null unless both ends are known
+}
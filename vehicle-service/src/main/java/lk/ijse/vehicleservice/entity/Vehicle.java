@@ -1,9 +1,15 @@
 package lk.ijse.vehicleservice.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lk.ijse.vehicleservice.plate.PlateNormalizer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,6 +18,8 @@ import lombok.NoArgsConstructor;
 @Data // Lombok: Generates getters, setters, toString, equals, hashCode
 @NoArgsConstructor // Lombok: Generates a no-argument constructor
 @AllArgsConstructor // Lombok: Generates a constructor with all arguments
+// One vehicle per plate, however the plate was typed ("CAB-1234" and "cab 1234" collide)
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_vehicle_normalized_plate", columnNames = "normalized_plate"))
 public class Vehicle {
     @Id // Marks this field as the primary key
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Auto-incrementing ID
@@ -24,4 +32,15 @@ public class Vehicle {
     private Long userId; // To link to a user in the user-service (Foreign Key concept without strict FK constraint here)
     private String entryStatus; // "IN", "OUT", "PARKED" - for tracking entry/exit
     // Add other fields as per your specific requirements, e.g., year, chassis number, etc.
+
+    @Column(name = "normalized_plate", length = 20)
+    private String normalizedPlate; // plateNumber in PlateNormalizer's canonical form, e.g., "ABC1234"
+
+    // Kept in line with plateNumber on every write, whichever path it comes through
+    @PrePersist
+    @PreUpdate
+    void normalizePlate() {
+        String normalized = PlateNormalizer.normalize(plateNumber);
+        normalizedPlate = normalized.isEmpty() ? null : normalized;
+    }
 }
\ No newline at end of file
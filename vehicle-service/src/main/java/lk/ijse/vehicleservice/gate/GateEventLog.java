@@ -0,0 +1,142 @@
+package lk.ijse.vehicleservice.gate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of accepted gate events, one JSON line each, numbered by a sequence that never repeats.
+ * <p>
+ * A batch is appended, and optionally forced to disk, before it is written to the database, so every event
+ * the database has seen is in the log and replaying the log brings the entry statuses back. Only the gate event
+ * writer appends; replays read the file independently.
+ */
+public class GateEventLog implements AutoCloseable {
+
+    private static final int TAIL_BYTES = 64 * 1024; // Enough for the last line; lines are a few hundred bytes
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private final FileChannel channel;
+    private long lastSequence;
+
+    public GateEventLog(Path file, ObjectMapper objectMapper, boolean fsync) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            this.lastSequence = readLastSequence();
+            terminateTornLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the gate event log " + file, e);
+        }
+    }
+
+    // One line per entry; entries must come with sequences from nextSequence() onwards, in order
+    public void append(List<GateEventLogEntry> entries) throws IOException {
+        StringBuilder lines = new StringBuilder(entries.size() * 160);
+        for (GateEventLogEntry entry : entries) {
+            lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        lastSequence = entries.get(entries.size() - 1).sequence();
+    }
+
+    public long nextSequence() {
+        return lastSequence + 1;
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Hands every entry from the given sequence on to the consumer, in log order, and returns the number of
+     * lines that could not be read (a line torn by a crash mid-append, say); those are skipped.
+     */
+    public int read(long fromSequence, Consumer<GateEventLogEntry> consumer) throws IOException {
+        int unreadable = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                GateEventLogEntry entry = parse(line);
+                if (entry == null) {
+                    unreadable++;
+                } else if (entry.sequence() >= fromSequence) {
+                    consumer.accept(entry);
+                }
+            }
+        }
+        return unreadable;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // The sequence of the last readable line, read from the end of the file so startup does not scan the log
+    private long readLastSequence() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            long length = raf.length();
+            int size = (int) Math.min(length, TAIL_BYTES);
+            byte[] tail = new byte[size];
+            raf.seek(length - size);
+            raf.readFully(tail);
+            String[] lines = new String(tail, StandardCharsets.UTF_8).split("\n");
+            for (int i = lines.length - 1; i >= 0; i--) {
+                GateEventLogEntry entry = parse(lines[i]);
+                if (entry != null) {
+                    return entry.sequence();
+                }
+            }
+            return 0;
+        }
+    }
+
+    // A crash mid-append can leave a last line without its newline; the next entry must not be glued onto it
+    private void terminateTornLine() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            if (raf.length() > 0) {
+                raf.seek(raf.length() - 1);
+                if (raf.read() != '\n') {
+                    channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+                }
+            }
+        }
+    }
+
+    private GateEventLogEntry parse(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(line, GateEventLogEntry.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package lk.ijse.vehicleservice.gate;
+
+// One line of the gate event log; entryStatus is the status the event sets ("IN" or "OUT")
+public record GateEventLogEntry(long sequence, String eventId, Long vehicleId, String plate, String entryStatus,
+                                String gateId, long occurredAt, long receivedAt) {
+}
@@ -0,0 +1,412 @@
+package lk.ijse.vehicleservice.gate;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lk.ijse.vehicleservice.deadline.RequestDeadline;
+import lk.ijse.vehicleservice.dto.GateEventAckDTO;
+import lk.ijse.vehicleservice.dto.GateEventDTO;
+import lk.ijse.vehicleservice.dto.GateEventReplayDTO;
+import lk.ijse.vehicleservice.dto.GateEventResultDTO;
+import lk.ijse.vehicleservice.dto.VehicleMovementDTO;
+import lk.ijse.vehicleservice.entity.Vehicle;
+import lk.ijse.vehicleservice.movement.VehicleMovementRecorder;
+import lk.ijse.vehicleservice.plate.PlateIndex;
+import lk.ijse.vehicleservice.plate.PlateNormalizer;
+import lk.ijse.vehicleservice.repo.VehicleRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Ingests gate entry/exit events in bulk.
+ * <p>
+ * Events are read from the request body as it arrives, checked, and put on a bounded queue. One writer thread
+ * takes whatever has queued up, at most a batch at a time, appends it to the {@link GateEventLog}, and then
+ * writes it with one UPDATE per entry status (the last event of each vehicle in the batch wins) in a single
+ * transaction. Every event that changed a status still becomes a movement in the vehicle's history. Under load batches grow by themselves, so a burst costs a handful of statements instead of a
+ * find and a save per event.
+ * <p>
+ * A full queue pushes back: the request thread waits briefly for room, which also slows a streaming client
+ * down, and events that still do not fit are acknowledged as RETRY. Every event gets an acknowledgement,
+ * sent once its batch has committed or the acknowledgement wait runs out.
+ */
+@Component
+public class GateEventPipeline {
+
+    public static final String APPLIED = "APPLIED";
+    public static final String REJECTED = "REJECTED";
+    public static final String RETRY = "RETRY";
+    public static final String PENDING = "PENDING";
+    public static final String FAILED = "FAILED";
+
+    private static final String UPDATE_SQL = "UPDATE vehicle SET entry_status = ? WHERE id IN (";
+    private static final int MAX_IDS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final VehicleRepo vehicleRepo;
+    private final PlateIndex plateIndex;
+    private final VehicleMovementRecorder movementRecorder;
+    private final GateEventLog eventLog;
+    private final ArrayBlockingQueue<QueuedEvent> queue;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final long ackTimeoutMillis;
+    private final Object writeLock = new Object(); // Serializes the writer's batches with replays
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final Counter applied;
+    private final Counter rejected;
+    private final Counter retried;
+    private final Counter failed;
+    private final DistributionSummary batchSizes;
+
+    public GateEventPipeline(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper, VehicleRepo vehicleRepo, PlateIndex plateIndex,
+                             VehicleMovementRecorder movementRecorder, MeterRegistry meterRegistry,
+                             @Value("${gate-events.queue-capacity:10000}") int queueCapacity,
+                             @Value("${gate-events.batch-size:500}") int batchSize,
+                             @Value("${gate-events.offer-timeout-millis:200}") long offerTimeoutMillis,
+                             @Value("${gate-events.ack-timeout-millis:5000}") long ackTimeoutMillis,
+                             @Value("${gate-events.log-file:gate-events/gate-events.jsonl}") String logFile,
+                             @Value("${gate-events.fsync:false}") boolean fsync) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.vehicleRepo = vehicleRepo;
+        this.plateIndex = plateIndex;
+        this.movementRecorder = movementRecorder;
+        this.eventLog = new GateEventLog(Path.of(logFile), objectMapper, fsync);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+
+        Gauge.builder("gate.events.queued", queue, ArrayBlockingQueue::size)
+                .description("Gate events waiting for the writer")
+                .register(meterRegistry);
+        this.applied = result(meterRegistry, "applied");
+        this.rejected = result(meterRegistry, "rejected");
+        this.retried = result(meterRegistry, "retry");
+        this.failed = result(meterRegistry, "failed");
+        this.batchSizes = DistributionSummary.builder("gate.events.batch.size")
+                .description("Gate events written per batch")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::runWriter, "gate-event-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Reads gate events from a JSON array or NDJSON body, queues them and waits for their acknowledgements,
+     * up to the acknowledgement timeout or the request's deadline, whichever comes first.
+     */
+    public GateEventResultDTO ingest(InputStream body) {
+        List<CompletableFuture<GateEventAckDTO>> acks = new ArrayList<>();
+        Map<Integer, GateEventAckDTO> pending = new HashMap<>(); // What a queued event reports if its batch is not done in time
+        String stoppedBecause = null;
+        boolean full = false;
+        try (MappingIterator<GateEventDTO> events = objectMapper.readerFor(GateEventDTO.class).readValues(body)) {
+            while (events.hasNextValue()) {
+                int index = acks.size();
+                GateEventDTO event = events.nextValue();
+                GateEventLogEntry entry;
+                try {
+                    entry = toLogEntry(event);
+                } catch (IllegalArgumentException e) {
+                    acks.add(CompletableFuture.completedFuture(ack(index, event.getEventId(), REJECTED, null, null, e.getMessage())));
+                    continue;
+                }
+                if (full) { // Once the queue was full, later events are not queued ahead of the ones turned away
+                    acks.add(CompletableFuture.completedFuture(ack(index, event.getEventId(), RETRY, null, entry.vehicleId(), "Queue full")));
+                    continue;
+                }
+                QueuedEvent queued = new QueuedEvent(index, entry, new CompletableFuture<>());
+                if (running && queue.offer(queued, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    acks.add(queued.ack());
+                    pending.put(index, ack(index, event.getEventId(), PENDING, null, entry.vehicleId(), null));
+                } else {
+                    full = true;
+                    acks.add(CompletableFuture.completedFuture(ack(index, event.getEventId(), RETRY, null, entry.vehicleId(),
+                            running ? "Queue full" : "Shutting down")));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            stoppedBecause = "Body unreadable after " + acks.size() + " events: " + e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stoppedBecause = "Interrupted after " + acks.size() + " events";
+        }
+        return result(acks, pending, stoppedBecause);
+    }
+
+    /**
+     * Applies the logged events from the given sequence on again, in log order, e.g. after the database was
+     * restored from a backup. Live events wait in the queue meanwhile.
+     */
+    public GateEventReplayDTO replay(long fromSequence) {
+        synchronized (writeLock) {
+            List<GateEventLogEntry> batch = new ArrayList<>(batchSize);
+            int[] replayed = new int[2]; // Events, rows updated
+            long[] last = {fromSequence - 1};
+            try {
+                int unreadable = eventLog.read(fromSequence, entry -> {
+                    batch.add(entry);
+                    last[0] = entry.sequence();
+                    if (batch.size() == batchSize) {
+                        replayed[0] += batch.size();
+                        replayed[1] += apply(batch);
+                        batch.clear();
+                    }
+                });
+                if (!batch.isEmpty()) {
+                    replayed[0] += batch.size();
+                    replayed[1] += apply(batch);
+                }
+                return new GateEventReplayDTO(fromSequence, last[0], replayed[0], replayed[1], unreadable);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read the gate event log", e);
+            }
+        }
+    }
+
+    public long lastSequence() {
+        return eventLog.lastSequence();
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        running = false; // The writer drains what is queued, then stops
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        eventLog.close();
+    }
+
+    private GateEventLogEntry toLogEntry(GateEventDTO event) {
+        String entryStatus = entryStatusOf(event.getDirection());
+        String plate = PlateNormalizer.normalize(event.getPlate());
+        if (plate.isEmpty()) {
+            throw new IllegalArgumentException("Plate is missing");
+        }
+        Long vehicleId = vehicleIdOf(plate);
+        if (vehicleId == null) {
+            throw new IllegalArgumentException("Plate " + event.getPlate() + " is not registered");
+        }
+        long receivedAt = System.currentTimeMillis();
+        // The sequence is given by the writer, in log order
+        return new GateEventLogEntry(0, event.getEventId(), vehicleId, plate, entryStatus, event.getGateId(),
+                event.getOccurredAt() == null ? receivedAt : event.getOccurredAt(), receivedAt);
+    }
+
+    private static String entryStatusOf(String direction) {
+        if ("ENTRY".equalsIgnoreCase(direction) || "IN".equalsIgnoreCase(direction)) {
+            return "IN";
+        }
+        if ("EXIT".equalsIgnoreCase(direction) || "OUT".equalsIgnoreCase(direction)) {
+            return "OUT";
+        }
+        throw new IllegalArgumentException("Invalid direction: " + direction + ". Allowed directions are ENTRY, EXIT.");
+    }
+
+    private Long vehicleIdOf(String plate) {
+        if (plateIndex.isLoaded()) {
+            PlateIndex.Entry entry = plateIndex.find(plate);
+            return entry == null ? null : entry.id();
+        }
+        Vehicle vehicle = vehicleRepo.findByNormalizedPlate(plate); // Only while the index is still loading
+        return vehicle == null ? null : vehicle.getId();
+    }
+
+    private void runWriter() {
+        List<QueuedEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                // Anything that escaped write(); those events fail, the writer carries on
+                fail(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<QueuedEvent> batch) {
+        synchronized (writeLock) {
+            List<GateEventLogEntry> entries = new ArrayList<>(batch.size());
+            long sequence = eventLog.nextSequence();
+            for (QueuedEvent queued : batch) {
+                GateEventLogEntry entry = queued.entry();
+                entries.add(new GateEventLogEntry(sequence++, entry.eventId(), entry.vehicleId(), entry.plate(),
+                        entry.entryStatus(), entry.gateId(), entry.occurredAt(), entry.receivedAt()));
+            }
+            try {
+                eventLog.append(entries);
+            } catch (IOException e) {
+                fail(batch, e); // Not in the log, so not written to the database either
+                return;
+            }
+            List<VehicleMovementDTO> movements = movementsOf(entries); // Read before apply() moves the index on
+            try {
+                apply(entries);
+            } catch (RuntimeException e) {
+                // Logged but not written; a replay from the first of these sequences applies them
+                System.out.println("Gate events " + entries.get(0).sequence() + " to "
+                        + entries.get(entries.size() - 1).sequence() + " are logged but could not be written: " + e.getMessage());
+                fail(batch, e);
+                return;
+            }
+            movementRecorder.record(movements);
+            batchSizes.record(batch.size());
+            applied.increment(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                GateEventLogEntry entry = entries.get(i);
+                batch.get(i).ack().complete(ack(batch.get(i).index(), entry.eventId(), APPLIED, entry.sequence(), entry.vehicleId(), null));
+            }
+        }
+    }
+
+    // Each event that changes its vehicle's status, starting from the status the plate index has for it
+    private List<VehicleMovementDTO> movementsOf(List<GateEventLogEntry> entries) {
+        Map<Long, String> statuses = new HashMap<>();
+        List<VehicleMovementDTO> movements = new ArrayList<>(entries.size());
+        for (GateEventLogEntry entry : entries) {
+            String previous = statuses.computeIfAbsent(entry.vehicleId(), id -> {
+                PlateIndex.Entry indexed = plateIndex.find(entry.plate());
+                return indexed == null ? null : indexed.entryStatus();
+            });
+            if (!Objects.equals(previous, entry.entryStatus())) {
+                movements.add(new VehicleMovementDTO(null, entry.vehicleId(), entry.occurredAt(), previous,
+                        entry.entryStatus(), "GATE"));
+                statuses.put(entry.vehicleId(), entry.entryStatus());
+            }
+        }
+        return movements;
+    }
+
+    // One transaction, one UPDATE per status (chunked); returns the number of rows changed
+    private int apply(List<GateEventLogEntry> entries) {
+        Map<Long, GateEventLogEntry> latest = new LinkedHashMap<>();
+        for (GateEventLogEntry entry : entries) {
+            latest.remove(entry.vehicleId()); // Re-inserted, so the map stays in the order of each vehicle's last event
+            latest.put(entry.vehicleId(), entry);
+        }
+        Map<String, List<Long>> idsByStatus = latest.values().stream().collect(Collectors.groupingBy(
+                GateEventLogEntry::entryStatus, LinkedHashMap::new, Collectors.mapping(GateEventLogEntry::vehicleId, Collectors.toList())));
+
+        Integer updated = transactionTemplate.execute(status -> {
+            int rows = 0;
+            for (Map.Entry<String, List<Long>> group : idsByStatus.entrySet()) {
+                List<Long> ids = group.getValue();
+                for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+                    List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_STATEMENT));
+                    Object[] args = new Object[chunk.size() + 1];
+                    args[0] = group.getKey();
+                    for (int i = 0; i < chunk.size(); i++) {
+                        args[i + 1] = chunk.get(i);
+                    }
+                    rows += jdbcTemplate.update(UPDATE_SQL + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")", args);
+                }
+            }
+            return rows;
+        });
+
+        // Committed: the gate check reports the new statuses from here on
+        for (GateEventLogEntry entry : latest.values()) {
+            plateIndex.updateEntryStatus(entry.plate(), entry.vehicleId(), entry.entryStatus());
+        }
+        return updated == null ? 0 : updated;
+    }
+
+    private void fail(List<QueuedEvent> batch, Exception cause) {
+        failed.increment(batch.size());
+        for (QueuedEvent queued : batch) {
+            queued.ack().complete(ack(queued.index(), queued.entry().eventId(), FAILED, null, queued.entry().vehicleId(),
+                    cause.getMessage()));
+        }
+    }
+
+    private GateEventResultDTO result(List<CompletableFuture<GateEventAckDTO>> futures, Map<Integer, GateEventAckDTO> pending,
+                                      String stoppedBecause) {
+        long waitMillis = Math.min(ackTimeoutMillis, RequestDeadline.remainingMillis());
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Whatever has not been acknowledged by now is reported as pending
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<GateEventAckDTO> acks = new ArrayList<>(futures.size());
+        int[] counts = new int[5]; // Applied, rejected, retry, pending, failed
+        for (int index = 0; index < futures.size(); index++) {
+            GateEventAckDTO ack = futures.get(index).getNow(pending.get(index));
+            acks.add(ack);
+            switch (ack.getStatus()) {
+                case APPLIED -> counts[0]++;
+                case REJECTED -> counts[1]++;
+                case RETRY -> counts[2]++;
+                case PENDING -> counts[3]++;
+                default -> counts[4]++;
+            }
+        }
+        rejected.increment(counts[1]);
+        retried.increment(counts[2]);
+        return new GateEventResultDTO(futures.size(), counts[0], counts[1], counts[2], counts[3], counts[4], stoppedBecause, acks);
+    }
+
+    private static GateEventAckDTO ack(int index, String eventId, String status, Long sequence, Long vehicleId, String message) {
+        return new GateEventAckDTO(index, eventId, status, sequence, vehicleId, message);
+    }
+
+    private static Counter result(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gate.events")
+                .description("Gate events received, by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record QueuedEvent(int index, GateEventLogEntry entry, CompletableFuture<GateEventAckDTO> ack) {
+    }
+}
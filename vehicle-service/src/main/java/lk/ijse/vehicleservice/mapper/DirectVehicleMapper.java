@@ -0,0 +1,54 @@
+package lk.ijse.vehicleservice.mapper;
+
+import lk.ijse.vehicleservice.dto.VehicleDTO;
+import lk.ijse.vehicleservice.entity.Vehicle;
+
+// Hand-written field copies, resolved at compile time instead of ModelMapper's reflective matching
+public class DirectVehicleMapper implements VehicleMapper {
+
+    @Override
+    public VehicleDTO toDTO(Vehicle vehicle) {
+        if (vehicle == null) {
+            return null;
+        }
+        return new VehicleDTO(
+                vehicle.getId(),
+                vehicle.getMake(),
+                vehicle.getModel(),
+                vehicle.getPlateNumber(),
+                vehicle.getColor(),
+                vehicle.getType(),
+                vehicle.getUserId(),
+                vehicle.getEntryStatus()
+        );
+    }
+
+    @Override
+    public Vehicle toEntity(VehicleDTO vehicleDTO) {
+        if (vehicleDTO == null) {
+            return null;
+        }
+        return new Vehicle(
+                vehicleDTO.getId(),
+                vehicleDTO.getMake(),
+                vehicleDTO.getModel(),
+                vehicleDTO.getPlateNumber(),
+                vehicleDTO.getColor(),
+                vehicleDTO.getType(),
+                vehicleDTO.getUserId(),
+                vehicleDTO.getEntryStatus(),
+                null // Normalized from the plate number when the entity is written
+        );
+    }
+
+    @Override
+    public void copyToEntity(VehicleDTO vehicleDTO, Vehicle vehicle) {
+        vehicle.setMake(vehicleDTO.getMake());
+        vehicle.setModel(vehicleDTO.getModel());
+        vehicle.setPlateNumber(vehicleDTO.getPlateNumber());
+        vehicle.setColor(vehicleDTO.getColor());
+        vehicle.setType(vehicleDTO.getType());
+        vehicle.setUserId(vehicleDTO.getUserId());
+        vehicle.setEntryStatus(vehicleDTO.getEntryStatus());
+    }
+}
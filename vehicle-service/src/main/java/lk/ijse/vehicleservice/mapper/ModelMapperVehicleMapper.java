@@ -0,0 +1,32 @@
+package lk.ijse.vehicleservice.mapper;
+
+import lk.ijse.vehicleservice.dto.VehicleDTO;
+import lk.ijse.vehicleservice.entity.Vehicle;
+import org.modelmapper.ModelMapper;
+
+// Reflective mapping through the shared ModelMapper bean (the original behaviour)
+public class ModelMapperVehicleMapper implements VehicleMapper {
+
+    private final ModelMapper modelMapper;
+
+    public ModelMapperVehicleMapper(ModelMapper modelMapper) {
+        this.modelMapper = modelMapper;
+    }
+
+    @Override
+    public VehicleDTO toDTO(Vehicle vehicle) {
+        return modelMapper.map(vehicle, VehicleDTO.class);
+    }
+
+    @Override
+    public Vehicle toEntity(VehicleDTO vehicleDTO) {
+        return modelMapper.map(vehicleDTO, Vehicle.class);
+    }
+
+    @Override
+    public void copyToEntity(VehicleDTO vehicleDTO, Vehicle vehicle) {
+        Long id = vehicle.getId();
+        modelMapper.map(vehicleDTO, vehicle);
+        vehicle.setId(id);
+    }
+}
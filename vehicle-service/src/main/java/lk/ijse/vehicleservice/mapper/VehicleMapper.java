@@ -0,0 +1,10 @@
+package lk.ijse.vehicleservice.mapper;
+
+import lk.ijse.vehicleservice.dto.VehicleDTO;
+import lk.ijse.vehicleservice.entity.Vehicle;
+
+public interface VehicleMapper {
+    VehicleDTO toDTO(Vehicle vehicle);
+    Vehicle toEntity(VehicleDTO vehicleDTO);
+    void copyToEntity(VehicleDTO vehicleDTO, Vehicle vehicle); // Overwrites every field except the ID
+}
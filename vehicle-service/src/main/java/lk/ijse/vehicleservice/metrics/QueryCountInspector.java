@@ -0,0 +1,34 @@
+package lk.ijse.vehicleservice.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a request is being counted by
+ * {@link RequestMetricsFilter}. Registered as Hibernate's statement inspector in MetricsConfig; statements are
+ * passed on unchanged.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    // Null while no request is being counted on this thread
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    static void begin() {
+        COUNT.set(new int[1]);
+    }
+
+    // Statements prepared since begin()
+    static int end() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
@@ -0,0 +1,165 @@
+package lk.ijse.vehicleservice.movement;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lk.ijse.vehicleservice.dto.VehicleMovementDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects committed status transitions and writes them to the {@link VehicleMovementStore} in batches.
+ * <p>
+ * Callers hand a movement over once the status change has committed and move on; one writer thread inserts
+ * whatever has queued up, up to a batch at a time, so a burst of transitions costs a few multi-row INSERTs
+ * rather than one round-trip each. A batch that fails because the database is unavailable is retried until it
+ * goes in. A batch the database refuses is split until the rows it refuses are found; those are logged, counted
+ * in {@code vehicle.movements.rejected} and skipped, and the rest go in. When the queue stays full for longer
+ * than the offer timeout the movement is dropped and counted in {@code vehicle.movements.dropped}.
+ */
+@Component
+public class VehicleMovementRecorder {
+
+    private final VehicleMovementStore store;
+    private final TransactionTemplate transactionTemplate;
+    private final ArrayBlockingQueue<VehicleMovementDTO> queue;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final Counter recorded;
+    private final Counter dropped;
+    private final Counter rejected;
+
+    public VehicleMovementRecorder(VehicleMovementStore store, PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${movements.queue-capacity:100000}") int queueCapacity,
+                                   @Value("${movements.batch-size:1000}") int batchSize,
+                                   @Value("${movements.offer-timeout-millis:1000}") long offerTimeoutMillis) {
+        this.store = store;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+
+        Gauge.builder("vehicle.movements.queued", queue, ArrayBlockingQueue::size)
+                .description("Vehicle movements waiting to be written")
+                .register(meterRegistry);
+        this.recorded = Counter.builder("vehicle.movements.recorded")
+                .description("Vehicle movements written to the movement table")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("vehicle.movements.dropped")
+                .description("Vehicle movements lost because the queue stayed full")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("vehicle.movements.rejected")
+                .description("Vehicle movements skipped because the database refused them")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::runWriter, "vehicle-movement-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Call after the status change has committed
+    public void record(VehicleMovementDTO movement) {
+        offer(movement, deadline());
+    }
+
+    // The whole batch waits at most one offer timeout for room in the queue
+    public void record(List<VehicleMovementDTO> movements) {
+        long deadline = deadline();
+        movements.forEach(movement -> offer(movement, deadline));
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false; // The writer drains what is queued, then stops
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void runWriter() {
+        List<VehicleMovementDTO> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    VehicleMovementDTO first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                // What is left of the batch is kept and retried, so history has no holes when the database comes back
+                System.out.println("Vehicle movements could not be written, retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    if (!running) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    // Writes the rows and removes them from the list; rows the database refuses are found by halving and skipped
+    private void write(List<VehicleMovementDTO> rows) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> store.insert(rows));
+            recorded.increment(rows.size());
+            rows.clear();
+        } catch (NonTransientDataAccessException e) {
+            if (e instanceof DataAccessResourceFailureException) {
+                throw e; // The database is unavailable, not refusing these rows
+            }
+            if (rows.size() == 1) {
+                rejected.increment();
+                System.out.println("Vehicle movement rejected by the database, skipped: " + rows.get(0) + " ("
+                        + e.getMostSpecificCause().getMessage() + ")");
+                rows.clear();
+                return;
+            }
+            write(rows.subList(0, rows.size() / 2));
+            write(rows);
+        }
+    }
+
+    private long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+    }
+
+    private void offer(VehicleMovementDTO movement, long deadline) {
+        boolean queued;
+        try {
+            queued = queue.offer(movement, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = queue.offer(movement);
+        }
+        if (!queued) {
+            dropped.increment();
+            System.out.println("Vehicle movement dropped, the queue is full: " + movement);
+        }
+    }
+}
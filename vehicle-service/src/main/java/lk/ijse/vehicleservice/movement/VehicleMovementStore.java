@@ -0,0 +1,216 @@
+package lk.ijse.vehicleservice.movement;
+
+import lk.ijse.vehicleservice.dto.VehicleMovementDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Append-only store of vehicle status transitions in the {@code vehicle_movement} table.
+ * <p>
+ * Rows are keyed by (movement_day, id), movement_day being the UTC day of the movement as yyyymmdd. On MySQL
+ * the table is range-partitioned by day: an insert only touches the end of today's partition, whatever the table's size,
+ * and a time window only reads the partitions of its days (partition pruning), each one along its clustered
+ * key. A per-vehicle scan uses the (vehicle_id, occurred_at) index within the same partitions. Partitions are
+ * added ahead of time by a daily job, which can also drop whole days past the retention, without a DELETE.
+ * <p>
+ * The table is created here rather than by Hibernate, which cannot declare partitions. Other databases (H2 in
+ * the benchmarks) get the same table and indexes, unpartitioned.
+ */
+@Component
+public class VehicleMovementStore {
+
+    private static final String TABLE = "vehicle_movement";
+    private static final int STATUS_LENGTH = 255; // As wide as vehicle.entry_status, which the statuses come from
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE; // yyyymmdd
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE
+            + " (movement_day, vehicle_id, occurred_at, previous_status, status, source) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String COLUMNS = "SELECT id, vehicle_id, occurred_at, previous_status, status, source FROM " + TABLE;
+    private static final String WINDOW_SQL = COLUMNS
+            + " WHERE movement_day BETWEEN ? AND ? AND occurred_at >= ? AND occurred_at < ? ORDER BY movement_day, id";
+    private static final String VEHICLE_SQL = COLUMNS
+            + " WHERE vehicle_id = ? AND movement_day BETWEEN ? AND ? AND occurred_at >= ? AND occurred_at < ? ORDER BY occurred_at, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean mysql;
+    private final int partitionsAheadDays;
+    private final int retentionDays;
+
+    public VehicleMovementStore(JdbcTemplate jdbcTemplate,
+                                @Value("${movements.partitions-ahead-days:7}") int partitionsAheadDays,
+                                @Value("${movements.retention-days:0}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mysql = isMySql(jdbcTemplate);
+        this.partitionsAheadDays = Math.max(1, partitionsAheadDays);
+        this.retentionDays = retentionDays;
+        createTable();
+        maintainPartitions();
+    }
+
+    // Inserts the movements as one JDBC batch (one multi-row INSERT on MySQL); the caller owns the transaction
+    public void insert(List<VehicleMovementDTO> movements) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                VehicleMovementDTO movement = movements.get(i);
+                ps.setInt(1, dayOf(movement.getOccurredAt()));
+                ps.setLong(2, movement.getVehicleId());
+                ps.setLong(3, movement.getOccurredAt());
+                if (movement.getPreviousStatus() == null) {
+                    ps.setNull(4, Types.VARCHAR);
+                } else {
+                    ps.setString(4, movement.getPreviousStatus());
+                }
+                ps.setString(5, movement.getStatus());
+                ps.setString(6, movement.getSource());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return movements.size();
+            }
+        });
+    }
+
+    // Every movement in [from, to) in the order they were stored, streamed to the consumer
+    public void streamWindow(long from, long to, Consumer<VehicleMovementDTO> consumer) {
+        stream(WINDOW_SQL, consumer, dayOf(from), dayOf(to), from, to);
+    }
+
+    // One vehicle's movements in [from, to), oldest first, streamed to the consumer
+    public void streamVehicle(Long vehicleId, long from, long to, Consumer<VehicleMovementDTO> consumer) {
+        stream(VEHICLE_SQL, consumer, vehicleId, dayOf(from), dayOf(to), from, to);
+    }
+
+    /**
+     * Keeps a partition for every day up to partitions-ahead-days from today, and drops the partitions of days
+     * older than retention-days (0 keeps everything). Does nothing on databases other than MySQL.
+     */
+    @Scheduled(cron = "${movements.partition-maintenance-cron:0 5 0 * * *}", zone = "UTC")
+    public void maintainPartitions() {
+        if (!mysql) {
+            return;
+        }
+        Map<Integer, String> partitions = partitionsByUpperBound();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        // Days split off the empty catch-all partition at the end, which is cheap while it holds no rows
+        int highest = partitions.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        List<String> added = new ArrayList<>();
+        for (LocalDate day = today; !day.isAfter(today.plusDays(partitionsAheadDays)); day = day.plusDays(1)) {
+            int upperBound = dayOf(day.plusDays(1));
+            if (upperBound > highest) {
+                added.add("PARTITION p" + dayOf(day) + " VALUES LESS THAN (" + upperBound + ")");
+            }
+        }
+        if (!added.isEmpty()) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION pmax INTO ("
+                    + String.join(", ", added) + ", PARTITION pmax VALUES LESS THAN MAXVALUE)");
+            System.out.println("Vehicle movement partitions added: " + added.size());
+        }
+
+        if (retentionDays > 0) {
+            int cutoff = dayOf(today.minusDays(retentionDays));
+            List<String> expired = partitions.entrySet().stream()
+                    .filter(partition -> partition.getKey() <= cutoff)
+                    .map(Map.Entry::getValue)
+                    .toList();
+            if (!expired.isEmpty()) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + String.join(", ", expired));
+                System.out.println("Vehicle movement partitions dropped past retention: " + expired);
+            }
+        }
+    }
+
+    public static int dayOf(long epochMillis) {
+        return dayOf(Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC).toLocalDate());
+    }
+
+    private static int dayOf(LocalDate day) {
+        return Integer.parseInt(day.format(DAY));
+    }
+
+    private void stream(String sql, Consumer<VehicleMovementDTO> consumer, Object... args) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL streams the result set row by row with this fetch size instead of buffering all of it
+            ps.setFetchSize(mysql ? Integer.MIN_VALUE : 1000);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, (ResultSet rs) -> consumer.accept(new VehicleMovementDTO(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                rs.getString(4), rs.getString(5), rs.getString(6))));
+    }
+
+    private void createTable() {
+        if (mysql) {
+            // AUTO_INCREMENT needs an index starting with id; every unique key must contain the partition column
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                    + "movement_day INT NOT NULL, id BIGINT NOT NULL AUTO_INCREMENT, vehicle_id BIGINT NOT NULL, "
+                    + "occurred_at BIGINT NOT NULL, previous_status VARCHAR(" + STATUS_LENGTH + "), status VARCHAR(" + STATUS_LENGTH + ") NOT NULL, "
+                    + "source VARCHAR(10), "
+                    + "PRIMARY KEY (movement_day, id), KEY idx_vehicle_movement_id (id), "
+                    + "KEY idx_vehicle_movement_vehicle (vehicle_id, occurred_at)"
+                    + ") PARTITION BY RANGE (movement_day) ("
+                    + "PARTITION p_before VALUES LESS THAN (" + dayOf(today) + "), "
+                    + "PARTITION pmax VALUES LESS THAN MAXVALUE)");
+            widenStatusColumns();
+        } else {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                    + "movement_day INT NOT NULL, id BIGINT NOT NULL AUTO_INCREMENT, vehicle_id BIGINT NOT NULL, "
+                    + "occurred_at BIGINT NOT NULL, previous_status VARCHAR(" + STATUS_LENGTH + "), status VARCHAR(" + STATUS_LENGTH + ") NOT NULL, "
+                    + "source VARCHAR(10), PRIMARY KEY (movement_day, id))");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_vehicle_movement_vehicle ON " + TABLE
+                    + " (vehicle_id, occurred_at)");
+        }
+    }
+
+    // Tables created before the status columns were widened had them at VARCHAR(10)
+    private void widenStatusColumns() {
+        Integer narrowest = jdbcTemplate.queryForObject("SELECT MIN(CHARACTER_MAXIMUM_LENGTH) FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME IN ('previous_status', 'status')",
+                Integer.class, TABLE);
+        if (narrowest != null && narrowest < STATUS_LENGTH) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " MODIFY previous_status VARCHAR(" + STATUS_LENGTH + "), "
+                    + "MODIFY status VARCHAR(" + STATUS_LENGTH + ") NOT NULL");
+            System.out.println("Vehicle movement status columns widened to " + STATUS_LENGTH);
+        }
+    }
+
+    // Upper bound (exclusive day) -> partition name, without pmax
+    private Map<Integer, String> partitionsByUpperBound() {
+        Map<Integer, String> partitions = new TreeMap<>();
+        jdbcTemplate.query("SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", (ResultSet rs) -> {
+            String bound = rs.getString(2);
+            if (rs.getString(1) != null && bound != null && !"MAXVALUE".equalsIgnoreCase(bound)) {
+                partitions.put(Integer.parseInt(bound.trim()), rs.getString(1));
+            }
+        }, TABLE);
+        return partitions;
+    }
+
+    private static boolean isMySql(JdbcTemplate jdbcTemplate) {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return product != null && product.toLowerCase().contains("mysql");
+    }
+}
@@ -0,0 +1,222 @@
+package lk.ijse.vehicleservice.plate;
+
+import lk.ijse.vehicleservice.entity.Vehicle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of registered vehicles by normalized plate, for the gate check.
+ * <p>
+ * An exact read is one hash lookup. A read that misses is retried under its OCR key (see
+ * {@link PlateNormalizer#ocrKey}); the second map only holds plates whose OCR key differs from the plate
+ * itself, since the others are found by looking the key up as a plate. Like the parking space availability
+ * index it only reflects committed state: callers apply changes after their transaction commits.
+ * Reads take no lock; writes are serialized.
+ * <p>
+ * A load from the database runs while changes keep committing. Between {@link #beginRebuild()} and
+ * {@link #finishRebuild} the rows read are gathered in a {@link Rebuild} and the index records the latest change
+ * to every plate, then replays those changes over the rows read, so a row read before a commit never brings back
+ * a plate that commit changed or removed.
+ */
+@Component
+public class PlateIndex {
+
+    private volatile Plates plates = new Plates();
+    private final List<Rebuild> rebuilds = new ArrayList<>(); // Guarded by this
+    private volatile boolean loaded;
+
+    // What the gate needs about a vehicle; type and status are interned, as only a handful of values exist
+    public record Entry(Long id, String plateNumber, String normalizedPlate, Long userId, String type, String entryStatus) {
+
+        public Entry withEntryStatus(String status) {
+            return new Entry(id, plateNumber, normalizedPlate, userId, type, intern(status));
+        }
+
+        public static Entry of(Vehicle vehicle) {
+            return new Entry(vehicle.getId(), vehicle.getPlateNumber(), PlateNormalizer.normalize(vehicle.getPlateNumber()),
+                    vehicle.getUserId(), intern(vehicle.getType()), intern(vehicle.getEntryStatus()));
+        }
+
+        private static String intern(String value) {
+            return value == null ? null : value.intern();
+        }
+    }
+
+    // False until the first load has finished; callers fall back to the database until then
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Starts recording changes for a load. Call it before the first page is read, add the rows read to the
+     * returned rebuild, and hand it to {@link #finishRebuild}, or to {@link #abortRebuild} if the load fails.
+     */
+    public synchronized Rebuild beginRebuild() {
+        Rebuild rebuild = new Rebuild();
+        rebuilds.add(rebuild);
+        return rebuild;
+    }
+
+    // Replaces the index with the rows read, then replays the changes recorded since the rebuild began
+    public synchronized void finishRebuild(Rebuild rebuild) {
+        if (!rebuilds.remove(rebuild)) {
+            throw new IllegalStateException("This plate index rebuild is not running");
+        }
+        Plates read = rebuild.plates;
+        rebuild.changed.forEach((plate, change) -> change.applyTo(read, plate));
+        plates = read;
+        loaded = true;
+    }
+
+    public synchronized void abortRebuild(Rebuild rebuild) {
+        rebuilds.remove(rebuild);
+    }
+
+    // Inserts or replaces the vehicle's entry; a plate change must remove the old plate first
+    public synchronized void put(Entry entry) {
+        if (entry.id() == null || entry.normalizedPlate().isEmpty()) {
+            return;
+        }
+        record(entry.normalizedPlate(), new Change(entry.id(), entry, null));
+        plates.put(entry);
+    }
+
+    // Removes the plate if it still belongs to the given vehicle
+    public synchronized void remove(String normalizedPlate, Long id) {
+        record(normalizedPlate, new Change(id, null, null));
+        plates.remove(normalizedPlate, id);
+    }
+
+    // Sets the entry status of the plate if it still belongs to the given vehicle
+    public synchronized void updateEntryStatus(String normalizedPlate, Long id, String status) {
+        for (Rebuild rebuild : rebuilds) {
+            Change previous = rebuild.changed.get(normalizedPlate);
+            // A status change on top of a recorded entry is that entry with the new status
+            Change change = previous != null && previous.entry() != null && previous.id().equals(id)
+                    ? new Change(id, previous.entry().withEntryStatus(status), null)
+                    : new Change(id, null, status);
+            rebuild.changed.put(normalizedPlate, change);
+        }
+        Change.status(plates, normalizedPlate, id, status);
+    }
+
+    private void record(String normalizedPlate, Change change) {
+        for (Rebuild rebuild : rebuilds) {
+            rebuild.changed.put(normalizedPlate, change);
+        }
+    }
+
+    public Entry find(String normalizedPlate) {
+        return plates.byPlate.get(normalizedPlate);
+    }
+
+    // Registered plates a misread of this plate could stand for; empty when there are none
+    public List<Entry> findOcrCandidates(String normalizedPlate) {
+        return plates.findOcrCandidates(normalizedPlate);
+    }
+
+    public int size() {
+        return plates.byPlate.size();
+    }
+
+    // Rows read by a load that is still running; only the loading thread adds to it
+    public static final class Rebuild {
+        private final Plates plates = new Plates();
+        private final Map<String, Change> changed = new LinkedHashMap<>(); // Guarded by the index
+
+        // Adds a vehicle read from the database; returns the vehicle already read with the same plate, if any
+        public Entry add(Entry entry) {
+            Entry registered = plates.byPlate.get(entry.normalizedPlate());
+            if (registered == null && !entry.normalizedPlate().isEmpty()) {
+                plates.put(entry);
+            }
+            return registered;
+        }
+    }
+
+    // The latest change to a plate: an entry put, a removal (no entry, no status) or a status change
+    private record Change(Long id, Entry entry, String entryStatus) {
+
+        void applyTo(Plates plates, String normalizedPlate) {
+            if (entry != null) {
+                plates.put(entry);
+            } else if (entryStatus != null) {
+                status(plates, normalizedPlate, id, entryStatus);
+            } else {
+                plates.remove(normalizedPlate, id);
+            }
+        }
+
+        static void status(Plates plates, String normalizedPlate, Long id, String status) {
+            Entry entry = plates.byPlate.get(normalizedPlate);
+            if (entry != null && entry.id().equals(id)) {
+                plates.put(entry.withEntryStatus(status));
+            }
+        }
+    }
+
+    // The plate and OCR key maps; a rebuild fills its own set, which finishRebuild swaps in
+    private static final class Plates {
+        private final Map<String, Entry> byPlate = new ConcurrentHashMap<>();
+        private final Map<String, String[]> byOcrKey = new ConcurrentHashMap<>();
+
+        void put(Entry entry) {
+            Entry replaced = byPlate.put(entry.normalizedPlate(), entry);
+            String key = PlateNormalizer.ocrKey(entry.normalizedPlate());
+            if (replaced == null && !key.equals(entry.normalizedPlate())) {
+                String[] plates = byOcrKey.get(key);
+                if (plates == null) {
+                    byOcrKey.put(key, new String[]{entry.normalizedPlate()});
+                } else {
+                    String[] grown = Arrays.copyOf(plates, plates.length + 1);
+                    grown[plates.length] = entry.normalizedPlate();
+                    byOcrKey.put(key, grown); // Copied, so readers never see a half-written array
+                }
+            }
+        }
+
+        void remove(String normalizedPlate, Long id) {
+            Entry entry = byPlate.get(normalizedPlate);
+            if (entry == null || !entry.id().equals(id)) {
+                return;
+            }
+            byPlate.remove(normalizedPlate);
+            String key = PlateNormalizer.ocrKey(normalizedPlate);
+            String[] plates = byOcrKey.get(key);
+            if (plates != null) {
+                String[] remaining = Arrays.stream(plates).filter(plate -> !plate.equals(normalizedPlate)).toArray(String[]::new);
+                if (remaining.length == 0) {
+                    byOcrKey.remove(key);
+                } else {
+                    byOcrKey.put(key, remaining);
+                }
+            }
+        }
+
+        List<Entry> findOcrCandidates(String normalizedPlate) {
+            String key = PlateNormalizer.ocrKey(normalizedPlate);
+            String[] plates = byOcrKey.get(key);
+            Entry sameAsKey = byPlate.get(key);
+            if (plates == null) {
+                return sameAsKey == null ? List.of() : List.of(sameAsKey);
+            }
+            List<Entry> candidates = new ArrayList<>(plates.length + 1);
+            if (sameAsKey != null) {
+                candidates.add(sameAsKey);
+            }
+            for (String plate : plates) {
+                Entry entry = byPlate.get(plate);
+                if (entry != null) {
+                    candidates.add(entry);
+                }
+            }
+            return candidates;
+        }
+    }
+}
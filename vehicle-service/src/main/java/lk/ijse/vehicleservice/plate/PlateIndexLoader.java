@@ -0,0 +1,78 @@
+package lk.ijse.vehicleservice.plate;
+
+import lk.ijse.vehicleservice.entity.Vehicle;
+import lk.ijse.vehicleservice.repo.VehicleRepo;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Component
+public class PlateIndexLoader implements ApplicationRunner {
+
+    private static final int PAGE_SIZE = 5000;
+
+    private final VehicleRepo vehicleRepo;
+    private final PlateIndex plateIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    public PlateIndexLoader(VehicleRepo vehicleRepo, PlateIndex plateIndex, PlatformTransactionManager transactionManager) {
+        this.vehicleRepo = vehicleRepo;
+        this.plateIndex = plateIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Seeds the plate index from the database once the application has started
+    @Override
+    public void run(ApplicationArguments args) {
+        load();
+        System.out.println("Plate index loaded with " + plateIndex.size() + " vehicles");
+    }
+
+    /**
+     * Reads every vehicle in keyset pages, one transaction each, so neither the heap nor the persistence context
+     * grows with the table. Rows from before the normalized plate column existed get it filled in; a row whose
+     * plate normalizes to one already registered is left unindexed and reported. Changes committing meanwhile are
+     * recorded by the index and replayed over the rows read when the load finishes.
+     */
+    public void load() {
+        PlateIndex.Rebuild rebuild = plateIndex.beginRebuild();
+        try {
+            long after = 0L;
+            List<Vehicle> page;
+            do {
+                long from = after;
+                page = transactionTemplate.execute(status -> loadPage(rebuild, from));
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == PAGE_SIZE);
+            plateIndex.finishRebuild(rebuild);
+        } catch (RuntimeException e) {
+            plateIndex.abortRebuild(rebuild);
+            throw e;
+        }
+    }
+
+    private List<Vehicle> loadPage(PlateIndex.Rebuild rebuild, long after) {
+        List<Vehicle> vehicles = vehicleRepo.findByIdGreaterThanOrderByIdAsc(after, Limit.of(PAGE_SIZE));
+        for (Vehicle vehicle : vehicles) {
+            PlateIndex.Entry entry = PlateIndex.Entry.of(vehicle);
+            PlateIndex.Entry registered = rebuild.add(entry);
+            if (registered != null) {
+                System.out.println("Vehicle " + vehicle.getId() + " has the same plate as vehicle " + registered.id()
+                        + " (" + entry.normalizedPlate() + "), not indexed");
+                continue;
+            }
+            if (vehicle.getNormalizedPlate() == null && !entry.normalizedPlate().isEmpty()) {
+                // Only where it is still missing: the row read may be stale, the update must not overwrite a newer one
+                vehicleRepo.backfillNormalizedPlate(vehicle.getId(), entry.normalizedPlate());
+            }
+        }
+        return vehicles;
+    }
+}
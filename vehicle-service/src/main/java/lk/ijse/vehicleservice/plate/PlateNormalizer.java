@@ -0,0 +1,71 @@
+package lk.ijse.vehicleservice.plate;
+
+/**
+ * Canonical forms of plate numbers.
+ * <p>
+ * {@link #normalize} is the form plates are stored, indexed and made unique under: "cab-1234", "CAB 1234" and
+ * "CAB1234" are the same plate. {@link #ocrKey} additionally folds the characters cameras confuse with each
+ * other (O/Q/D and 0, I/L and 1, Z and 2, S and 5, G and 6, B and 8), so a misread plate still finds its
+ * registered candidates.
+ */
+public final class PlateNormalizer {
+
+    private PlateNormalizer() {
+    }
+
+    // Uppercase ASCII letters and digits only; empty when nothing is left
+    public static String normalize(String plate) {
+        if (plate == null) {
+            return "";
+        }
+        int length = plate.length();
+        for (int i = 0; i < length; i++) {
+            char c = plate.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                return rebuild(plate, i); // Only plates that are not already canonical pay for a copy
+            }
+        }
+        return plate;
+    }
+
+    public static String ocrKey(String normalizedPlate) {
+        char[] chars = null;
+        for (int i = 0; i < normalizedPlate.length(); i++) {
+            char c = normalizedPlate.charAt(i);
+            char folded = fold(c);
+            if (folded != c) {
+                if (chars == null) {
+                    chars = normalizedPlate.toCharArray();
+                }
+                chars[i] = folded;
+            }
+        }
+        return chars == null ? normalizedPlate : new String(chars);
+    }
+
+    private static String rebuild(String plate, int from) {
+        StringBuilder normalized = new StringBuilder(plate.length());
+        normalized.append(plate, 0, from);
+        for (int i = from; i < plate.length(); i++) {
+            char c = plate.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                normalized.append((char) (c - ('a' - 'A')));
+            } else if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static char fold(char c) {
+        return switch (c) {
+            case 'O', 'Q', 'D' -> '0';
+            case 'I', 'L' -> '1';
+            case 'Z' -> '2';
+            case 'S' -> '5';
+            case 'G' -> '6';
+            case 'B' -> '8';
+            default -> c;
+        };
+    }
+}
@@ -1,11 +1,19 @@
 package lk.ijse.vehicleservice.repo;
 
 import lk.ijse.vehicleservice.entity.Vehicle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // For dynamic query building
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository // Marks this interface as a Spring Data JPA repository
 public interface VehicleRepo extends JpaRepository<Vehicle, Long>, JpaSpecificationExecutor<Vehicle> {
@@ -15,4 +23,23 @@ public interface VehicleRepo extends JpaRepository<Vehicle, Long>, JpaSpecificat
     // Custom query method to find a vehicle by plateNumber
     // Optional: add @Query if plateNumber is not unique and you expect multiple
     Vehicle findByPlateNumber(String plateNumber);
+
+    // Backed by the unique index on normalized_plate
+    Vehicle findByNormalizedPlate(String normalizedPlate);
+
+    // Keyset pagination: the next page starts after the last ID of the previous one
+    List<Vehicle> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Fills in the normalized plate of a row from before the column existed; a row updated since already has one
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Vehicle v SET v.normalizedPlate = :plate WHERE v.id = :id AND v.normalizedPlate IS NULL")
+    int backfillNormalizedPlate(@Param("id") Long id, @Param("plate") String normalizedPlate);
+
+    // Streams rows with a server-side cursor (MySQL streams result sets when the fetch size is Integer.MIN_VALUE)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT v FROM Vehicle v ORDER BY v.id")
+    Stream<Vehicle> streamAllBy();
 }
\ No newline at end of file
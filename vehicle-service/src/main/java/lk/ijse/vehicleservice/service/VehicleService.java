@@ -1,13 +1,23 @@
 package lk.ijse.vehicleservice.service;
 
+import lk.ijse.vehicleservice.dto.CursorPageDTO;
+import lk.ijse.vehicleservice.dto.GateCheckDTO;
+import lk.ijse.vehicleservice.dto.GateEventReplayDTO;
+import lk.ijse.vehicleservice.dto.GateEventResultDTO;
 import lk.ijse.vehicleservice.dto.VehicleDTO;
+import lk.ijse.vehicleservice.dto.VehicleMovementDTO;
+import lk.ijse.vehicleservice.dto.VehicleStayDTO;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface VehicleService {
     VehicleDTO saveVehicle(VehicleDTO vehicleDTO);
     VehicleDTO getVehicleById(Long id);
     List<VehicleDTO> getAllVehicles();
+    CursorPageDTO<VehicleDTO> getVehiclesPage(Long after, Integer limit); // Keyset-paginated listing
+    void streamAllVehicles(Consumer<VehicleDTO> consumer); // Streams every vehicle without loading them all
     void deleteVehicle(Long id);
     VehicleDTO updateVehicle(Long id, VehicleDTO vehicleDTO);
 
@@ -18,4 +28,16 @@ public interface VehicleService {
     VehicleDTO recordVehicleEntry(Long vehicleId); // Sets status to "IN"
     VehicleDTO recordVehicleExit(Long vehicleId);  // Sets status to "OUT"
     VehicleDTO updateVehicleStatus(Long vehicleId, String newStatus); // Generic status update
+
+    // Resolves a plate read at a gate to the registered vehicle and its entry status, from memory
+    GateCheckDTO gateCheck(String plate);
+
+    // Bulk entry/exit events from the gates (JSON array or NDJSON), written in batches, one acknowledgement each
+    GateEventResultDTO ingestGateEvents(InputStream body);
+    GateEventReplayDTO replayGateEvents(long fromSequence); // Re-applies the gate event log from a sequence on
+
+    // Movement history: every status transition, streamed from the append-only movement table; times are epoch ms
+    void streamVehicleMovements(Long vehicleId, Long from, Long to, Consumer<VehicleMovementDTO> consumer);
+    void streamMovements(long from, long to, Consumer<VehicleMovementDTO> consumer); // All vehicles in [from, to)
+    List<VehicleStayDTO> getVehicleStays(Long vehicleId, Long from, Long to); // How long the vehicle was in, per visit
 }
\ No newline at end of file
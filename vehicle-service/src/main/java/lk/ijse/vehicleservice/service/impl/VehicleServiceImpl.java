@@ -1,57 +1,129 @@
 package lk.ijse.vehicleservice.service.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lk.ijse.vehicleservice.dto.CursorPageDTO;
+import lk.ijse.vehicleservice.dto.GateCheckDTO;
+import lk.ijse.vehicleservice.dto.GateEventReplayDTO;
+import lk.ijse.vehicleservice.dto.GateEventResultDTO;
 import lk.ijse.vehicleservice.dto.VehicleDTO;
+import lk.ijse.vehicleservice.dto.VehicleMovementDTO;
+import lk.ijse.vehicleservice.dto.VehicleStayDTO;
 import lk.ijse.vehicleservice.entity.Vehicle;
+import lk.ijse.vehicleservice.gate.GateEventPipeline;
+import lk.ijse.vehicleservice.mapper.VehicleMapper;
+import lk.ijse.vehicleservice.movement.VehicleMovementRecorder;
+import lk.ijse.vehicleservice.movement.VehicleMovementStore;
+import lk.ijse.vehicleservice.plate.PlateIndex;
+import lk.ijse.vehicleservice.plate.PlateNormalizer;
 import lk.ijse.vehicleservice.repo.VehicleRepo;
 import lk.ijse.vehicleservice.service.VehicleService;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service // Marks this class as a Spring Service component
 @Transactional // Ensures methods are executed within a transaction
+@Timed(value = "service.method", histogram = true) // Every public method, tagged with class and method
 public class VehicleServiceImpl implements VehicleService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final long DEFAULT_HISTORY_MILLIS = TimeUnit.DAYS.toMillis(30);
+
     private final VehicleRepo vehicleRepo;
-    private final ModelMapper modelMapper;
+    private final VehicleMapper vehicleMapper;
+    private final PlateIndex plateIndex;
+    private final GateEventPipeline gateEventPipeline;
+    private final VehicleMovementRecorder movementRecorder;
+    private final VehicleMovementStore movementStore;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     // Constructor Injection
-    public VehicleServiceImpl(VehicleRepo vehicleRepo, ModelMapper modelMapper) {
+    public VehicleServiceImpl(VehicleRepo vehicleRepo, VehicleMapper vehicleMapper, PlateIndex plateIndex,
+                              GateEventPipeline gateEventPipeline, VehicleMovementRecorder movementRecorder,
+                              VehicleMovementStore movementStore) {
         this.vehicleRepo = vehicleRepo;
-        this.modelMapper = modelMapper;
+        this.vehicleMapper = vehicleMapper;
+        this.plateIndex = plateIndex;
+        this.gateEventPipeline = gateEventPipeline;
+        this.movementRecorder = movementRecorder;
+        this.movementStore = movementStore;
     }
 
     @Override
     public VehicleDTO saveVehicle(VehicleDTO vehicleDTO) {
-        Vehicle vehicle = modelMapper.map(vehicleDTO, Vehicle.class);
+        Vehicle vehicle = vehicleMapper.toEntity(vehicleDTO);
+        rejectRegisteredPlate(vehicle.getPlateNumber(), null);
         Vehicle savedVehicle = vehicleRepo.save(vehicle);
-        return modelMapper.map(savedVehicle, VehicleDTO.class);
+        indexAfterCommit(null, savedVehicle);
+        movementAfterCommit(savedVehicle.getId(), null, savedVehicle.getEntryStatus());
+        return vehicleMapper.toDTO(savedVehicle);
     }
 
     @Override
     public VehicleDTO getVehicleById(Long id) {
         Vehicle vehicle = vehicleRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Vehicle not found with ID: " + id));
-        return modelMapper.map(vehicle, VehicleDTO.class);
+        return vehicleMapper.toDTO(vehicle);
     }
 
     @Override
     public List<VehicleDTO> getAllVehicles() {
         List<Vehicle> vehicles = vehicleRepo.findAll();
         return vehicles.stream()
-                .map(vehicle -> modelMapper.map(vehicle, VehicleDTO.class))
+                .map(vehicleMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public void deleteVehicle(Long id) {
-        if (!vehicleRepo.existsById(id)) {
-            throw new RuntimeException("Vehicle not found with ID: " + id);
+    @Transactional(readOnly = true)
+    public CursorPageDTO<VehicleDTO> getVehiclesPage(Long after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // One extra row tells whether another page exists without a count query
+        List<Vehicle> vehicles = vehicleRepo.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, Limit.of(pageSize + 1));
+        boolean hasMore = vehicles.size() > pageSize;
+        List<VehicleDTO> items = vehicles.stream()
+                .limit(pageSize)
+                .map(vehicleMapper::toDTO)
+                .collect(Collectors.toList());
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllVehicles(Consumer<VehicleDTO> consumer) {
+        try (Stream<Vehicle> vehicles = vehicleRepo.streamAllBy()) {
+            vehicles.forEach(vehicle -> {
+                consumer.accept(vehicleMapper.toDTO(vehicle));
+                entityManager.detach(vehicle); // Keeps the persistence context, and the heap, flat
+            });
         }
-        vehicleRepo.deleteById(id);
+    }
+
+    @Override
+    public void deleteVehicle(Long id) {
+        Vehicle vehicle = vehicleRepo.findById(id)
+                .orElseThrow(() -> new RuntimeException("Vehicle not found with ID: " + id));
+        String plate = PlateNormalizer.normalize(vehicle.getPlateNumber());
+        vehicleRepo.delete(vehicle);
+        afterCommit(() -> plateIndex.remove(plate, id));
     }
 
     @Override
@@ -59,19 +131,23 @@ public class VehicleServiceImpl implements VehicleService {
         Vehicle existingVehicle = vehicleRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Vehicle not found with ID: " + id));
 
-        // Map DTO to existing entity to update its fields
-        modelMapper.map(vehicleDTO, existingVehicle);
-        existingVehicle.setId(id); // Ensure the ID remains the same
+        String previousPlate = PlateNormalizer.normalize(existingVehicle.getPlateNumber());
+        String previousStatus = existingVehicle.getEntryStatus();
+        // Copy DTO fields onto the existing entity; the ID stays the same
+        vehicleMapper.copyToEntity(vehicleDTO, existingVehicle);
+        rejectRegisteredPlate(existingVehicle.getPlateNumber(), id);
 
         Vehicle updatedVehicle = vehicleRepo.save(existingVehicle);
-        return modelMapper.map(updatedVehicle, VehicleDTO.class);
+        indexAfterCommit(previousPlate, updatedVehicle);
+        movementAfterCommit(id, previousStatus, updatedVehicle.getEntryStatus());
+        return vehicleMapper.toDTO(updatedVehicle);
     }
 
     @Override
     public List<VehicleDTO> getVehiclesByUserId(Long userId) {
         List<Vehicle> vehicles = vehicleRepo.findByUserId(userId);
         return vehicles.stream()
-                .map(vehicle -> modelMapper.map(vehicle, VehicleDTO.class))
+                .map(vehicleMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
@@ -79,18 +155,24 @@ public class VehicleServiceImpl implements VehicleService {
     public VehicleDTO recordVehicleEntry(Long vehicleId) {
         Vehicle vehicle = vehicleRepo.findById(vehicleId)
                 .orElseThrow(() -> new RuntimeException("Vehicle not found with ID: " + vehicleId));
+        String previousStatus = vehicle.getEntryStatus();
         vehicle.setEntryStatus("IN"); // Set status to "IN"
         Vehicle updatedVehicle = vehicleRepo.save(vehicle);
-        return modelMapper.map(updatedVehicle, VehicleDTO.class);
+        indexAfterCommit(null, updatedVehicle); // The gate check reports the entry status
+        movementAfterCommit(vehicleId, previousStatus, updatedVehicle.getEntryStatus());
+        return vehicleMapper.toDTO(updatedVehicle);
     }
 
     @Override
     public VehicleDTO recordVehicleExit(Long vehicleId) {
         Vehicle vehicle = vehicleRepo.findById(vehicleId)
                 .orElseThrow(() -> new RuntimeException("Vehicle not found with ID: " + vehicleId));
+        String previousStatus = vehicle.getEntryStatus();
         vehicle.setEntryStatus("OUT"); // Set status to "OUT"
         Vehicle updatedVehicle = vehicleRepo.save(vehicle);
-        return modelMapper.map(updatedVehicle, VehicleDTO.class);
+        indexAfterCommit(null, updatedVehicle); // The gate check reports the entry status
+        movementAfterCommit(vehicleId, previousStatus, updatedVehicle.getEntryStatus());
+        return vehicleMapper.toDTO(updatedVehicle);
     }
 
     @Override
@@ -102,8 +184,158 @@ public class VehicleServiceImpl implements VehicleService {
 
         Vehicle vehicle = vehicleRepo.findById(vehicleId)
                 .orElseThrow(() -> new RuntimeException("Vehicle not found with ID: " + vehicleId));
+        String previousStatus = vehicle.getEntryStatus();
         vehicle.setEntryStatus(newStatus.toUpperCase()); // Set the new status
         Vehicle updatedVehicle = vehicleRepo.save(vehicle);
-        return modelMapper.map(updatedVehicle, VehicleDTO.class);
+        indexAfterCommit(null, updatedVehicle); // The gate check reports the entry status
+        movementAfterCommit(vehicleId, previousStatus, updatedVehicle.getEntryStatus());
+        return vehicleMapper.toDTO(updatedVehicle);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Served from memory, so no connection is needed
+    public GateCheckDTO gateCheck(String plate) {
+        String normalized = PlateNormalizer.normalize(plate);
+        if (normalized.isEmpty()) {
+            return notRegistered(plate, normalized, null);
+        }
+        if (!plateIndex.isLoaded()) {
+            // Only while the index is still loading at startup
+            Vehicle vehicle = vehicleRepo.findByNormalizedPlate(normalized);
+            return vehicle == null ? notRegistered(plate, normalized, null)
+                    : registered(plate, normalized, "EXACT", PlateIndex.Entry.of(vehicle));
+        }
+
+        PlateIndex.Entry entry = plateIndex.find(normalized);
+        if (entry != null) {
+            return registered(plate, normalized, "EXACT", entry);
+        }
+        // Not registered as read: try the plates it could be a misread of, and only accept a single one
+        List<PlateIndex.Entry> candidates = plateIndex.findOcrCandidates(normalized);
+        if (candidates.size() == 1) {
+            return registered(plate, normalized, "OCR", candidates.get(0));
+        }
+        return notRegistered(plate, normalized, candidates.isEmpty() ? null
+                : candidates.stream().map(PlateIndex.Entry::plateNumber).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // The pipeline's writer commits each batch itself
+    public GateEventResultDTO ingestGateEvents(InputStream body) {
+        return gateEventPipeline.ingest(body);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public GateEventReplayDTO replayGateEvents(long fromSequence) {
+        return gateEventPipeline.replay(fromSequence);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Read straight from the movement table
+    public void streamVehicleMovements(Long vehicleId, Long from, Long to, Consumer<VehicleMovementDTO> consumer) {
+        long end = to == null ? System.currentTimeMillis() + 1 : to;
+        long start = from == null ? end - DEFAULT_HISTORY_MILLIS : from;
+        requireWindow(start, end);
+        movementStore.streamVehicle(vehicleId, start, end, consumer);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamMovements(long from, long to, Consumer<VehicleMovementDTO> consumer) {
+        requireWindow(from, to);
+        movementStore.streamWindow(from, to, consumer);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<VehicleStayDTO> getVehicleStays(Long vehicleId, Long from, Long to) {
+        List<VehicleStayDTO> stays = new ArrayList<>();
+        streamVehicleMovements(vehicleId, from, to, movement -> {
+            VehicleStayDTO open = stays.isEmpty() ? null : stays.get(stays.size() - 1);
+            boolean isOpen = open != null && open.getExitedAt() == null;
+            if ("OUT".equals(movement.getStatus())) {
+                if (isOpen) {
+                    open.setExitedAt(movement.getOccurredAt());
+                    if (open.getEnteredAt() != null) {
+                        open.setDurationSeconds((open.getExitedAt() - open.getEnteredAt()) / 1000);
+                    }
+                } else if (movement.getPreviousStatus() != null && !"OUT".equals(movement.getPreviousStatus())) {
+                    // Entered before the window
+                    stays.add(new VehicleStayDTO(null, movement.getOccurredAt(), null));
+                }
+            } else if (!isOpen) { // IN or PARKED after being out; PARKED while in continues the stay
+                stays.add(new VehicleStayDTO(movement.getOccurredAt(), null, null));
+            }
+        });
+        return stays;
+    }
+
+    private static void requireWindow(long from, long to) {
+        if (from >= to) {
+            throw new IllegalArgumentException("Invalid time window: 'from' must be before 'to'");
+        }
+    }
+
+    // Only actual changes are history; a repeated status is not a movement
+    private void movementAfterCommit(Long vehicleId, String previousStatus, String status) {
+        if (status == null || Objects.equals(previousStatus, status)) {
+            return;
+        }
+        VehicleMovementDTO movement = new VehicleMovementDTO(null, vehicleId, System.currentTimeMillis(),
+                previousStatus, status, "API");
+        afterCommit(() -> movementRecorder.record(movement));
+    }
+
+    // The unique index on normalized_plate backs this up for concurrent registrations
+    private void rejectRegisteredPlate(String plateNumber, Long id) {
+        String normalized = PlateNormalizer.normalize(plateNumber);
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Invalid plate number: " + plateNumber);
+        }
+        Long registeredId;
+        if (plateIndex.isLoaded()) {
+            PlateIndex.Entry entry = plateIndex.find(normalized);
+            registeredId = entry == null ? null : entry.id();
+        } else {
+            Vehicle vehicle = vehicleRepo.findByNormalizedPlate(normalized);
+            registeredId = vehicle == null ? null : vehicle.getId();
+        }
+        if (registeredId != null && !registeredId.equals(id)) {
+            throw new RuntimeException("Plate number " + plateNumber + " is already registered to vehicle ID: " + registeredId);
+        }
+    }
+
+    // The index only sees committed state; previousPlate is the normalized plate before an update, if any
+    private void indexAfterCommit(String previousPlate, Vehicle vehicle) {
+        PlateIndex.Entry entry = PlateIndex.Entry.of(vehicle);
+        afterCommit(() -> {
+            if (previousPlate != null && !previousPlate.equals(entry.normalizedPlate())) {
+                plateIndex.remove(previousPlate, entry.id());
+            }
+            plateIndex.put(entry);
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static GateCheckDTO registered(String plate, String normalized, String match, PlateIndex.Entry entry) {
+        return new GateCheckDTO(plate, normalized, true, match, entry.id(), entry.plateNumber(), entry.userId(),
+                entry.type(), entry.entryStatus(), null);
+    }
+
+    private static GateCheckDTO notRegistered(String plate, String normalized, List<String> candidates) {
+        return new GateCheckDTO(plate, normalized, false, null, null, null, null, null, null, candidates);
     }
-}
\ No newline at end of file
+}
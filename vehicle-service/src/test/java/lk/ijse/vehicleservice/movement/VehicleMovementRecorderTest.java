@@ -0,0 +1,99 @@
+package lk.ijse.vehicleservice.movement;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lk.ijse.vehicleservice.dto.VehicleMovementDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The movement writer on H2: rows the database refuses are skipped without holding up the rest
+class VehicleMovementRecorderTest {
+
+    private static final int MOVEMENTS = 1000;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private VehicleMovementRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        recorder.close();
+        database.shutdown();
+    }
+
+    @Test
+    void refusedRowIsSkippedAndTheRestGoIn() throws InterruptedException {
+        recorder = recorder(MOVEMENTS, 1000);
+        List<VehicleMovementDTO> movements = new ArrayList<>();
+        for (int i = 0; i < MOVEMENTS; i++) {
+            String status = switch (i) {
+                case 10 -> "AWAITING_INSPECTION"; // Free text, longer than the statuses the code sets
+                case 500 -> "S".repeat(300); // Longer than vehicle.entry_status can hold
+                default -> i % 2 == 0 ? "IN" : "OUT";
+            };
+            movements.add(new VehicleMovementDTO(null, (long) i, 1_700_000_000_000L + i, null, status, "API"));
+        }
+        recorder.record(movements);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (recorded() + rejected() < MOVEMENTS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, rejected());
+        assertEquals(MOVEMENTS - 1, recorded());
+        assertEquals(MOVEMENTS - 1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vehicle_movement", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM vehicle_movement WHERE status = 'AWAITING_INSPECTION'", Integer.class));
+    }
+
+    // With the writer stopped nothing leaves the queue: the batch waits one offer timeout, not one per movement
+    @Test
+    void fullQueueCostsABatchOneOfferTimeout() throws InterruptedException {
+        recorder = recorder(1, 200);
+        recorder.close();
+        List<VehicleMovementDTO> movements = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            movements.add(new VehicleMovementDTO(null, (long) i, 1_700_000_000_000L + i, "IN", "OUT", "GATE"));
+        }
+
+        long start = System.nanoTime();
+        recorder.record(movements);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(9, meterRegistry.counter("vehicle.movements.dropped").count());
+        assertTrue(millis < 1000, "record took " + millis + " ms");
+    }
+
+    private VehicleMovementRecorder recorder(int queueCapacity, long offerTimeoutMillis) {
+        VehicleMovementStore store = new VehicleMovementStore(jdbcTemplate, 7, 0);
+        return new VehicleMovementRecorder(store, new DataSourceTransactionManager(database), meterRegistry,
+                queueCapacity, 100, offerTimeoutMillis);
+    }
+
+    private double recorded() {
+        return meterRegistry.counter("vehicle.movements.recorded").count();
+    }
+
+    private double rejected() {
+        return meterRegistry.counter("vehicle.movements.rejected").count();
+    }
+}
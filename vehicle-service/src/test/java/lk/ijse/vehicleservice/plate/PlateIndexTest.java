@@ -0,0 +1,108 @@
+package lk.ijse.vehicleservice.plate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A load that reads rows while changes commit: rows read before a commit never undo it
+class PlateIndexTest {
+
+    private PlateIndex plateIndex;
+
+    @BeforeEach
+    void setUp() {
+        plateIndex = new PlateIndex();
+    }
+
+    @Test
+    void plateChangedDuringTheLoadIsNotPutBack() {
+        PlateIndex.Rebuild rebuild = plateIndex.beginRebuild();
+        rebuild.add(entry(1L, "CAB1234", "OUT")); // Read before the plate change committed
+        plateIndex.remove("CAB1234", 1L);
+        plateIndex.put(entry(1L, "CAB1235", "OUT"));
+        plateIndex.finishRebuild(rebuild);
+
+        assertTrue(plateIndex.isLoaded());
+        assertNull(plateIndex.find("CAB1234"));
+        assertEquals(1L, plateIndex.find("CAB1235").id());
+        assertEquals(1, plateIndex.size());
+    }
+
+    @Test
+    void vehicleDeletedDuringTheLoadStaysDeleted() {
+        PlateIndex.Rebuild rebuild = plateIndex.beginRebuild();
+        rebuild.add(entry(1L, "CAB1234", "OUT"));
+        rebuild.add(entry(2L, "ABC0001", "OUT"));
+        plateIndex.remove("ABC0001", 2L);
+        plateIndex.finishRebuild(rebuild);
+
+        assertNull(plateIndex.find("ABC0001"));
+        assertTrue(plateIndex.findOcrCandidates("A8C0001").isEmpty());
+        assertEquals(1, plateIndex.size());
+    }
+
+    // The row is read after the gate event committed its status, or before: either way the new status is kept
+    @Test
+    void statusChangedDuringTheLoadIsKept() {
+        PlateIndex.Rebuild rebuild = plateIndex.beginRebuild();
+        rebuild.add(entry(1L, "CAB1234", "OUT"));
+        plateIndex.updateEntryStatus("CAB1234", 1L, "IN");
+        plateIndex.updateEntryStatus("XYZ9999", 2L, "IN");
+        rebuild.add(entry(2L, "XYZ9999", "OUT"));
+        plateIndex.finishRebuild(rebuild);
+
+        assertEquals("IN", plateIndex.find("CAB1234").entryStatus());
+        assertEquals("IN", plateIndex.find("XYZ9999").entryStatus());
+    }
+
+    @Test
+    void registeredDuringTheLoadIsIndexed() {
+        PlateIndex.Rebuild rebuild = plateIndex.beginRebuild();
+        plateIndex.put(entry(7L, "NEW0007", "OUT")); // Committed after the page it falls in was read
+        plateIndex.finishRebuild(rebuild);
+
+        assertEquals(7L, plateIndex.find("NEW0007").id());
+    }
+
+    // The first vehicle read keeps a plate two rows share; the second is reported and left out
+    @Test
+    void duplicatePlateReadKeepsTheFirstVehicle() {
+        PlateIndex.Rebuild rebuild = plateIndex.beginRebuild();
+        assertNull(rebuild.add(entry(1L, "CAB1234", "OUT")));
+        assertEquals(1L, rebuild.add(entry(2L, "CAB1234", "IN")).id());
+        plateIndex.finishRebuild(rebuild);
+
+        assertEquals(1L, plateIndex.find("CAB1234").id());
+    }
+
+    @Test
+    void abortedRebuildLeavesTheIndexAsItWas() {
+        plateIndex.finishRebuild(plateIndex.beginRebuild());
+        plateIndex.put(entry(1L, "CAB1234", "OUT"));
+
+        PlateIndex.Rebuild rebuild = plateIndex.beginRebuild();
+        rebuild.add(entry(2L, "XYZ9999", "OUT"));
+        plateIndex.abortRebuild(rebuild);
+
+        assertEquals(1L, plateIndex.find("CAB1234").id());
+        assertNull(plateIndex.find("XYZ9999"));
+        assertThrows(IllegalStateException.class, () -> plateIndex.finishRebuild(rebuild));
+    }
+
+    @Test
+    void notLoadedUntilTheFirstRebuildFinishes() {
+        PlateIndex.Rebuild rebuild = plateIndex.beginRebuild();
+        assertFalse(plateIndex.isLoaded());
+        plateIndex.finishRebuild(rebuild);
+        assertTrue(plateIndex.isLoaded());
+    }
+
+    private static PlateIndex.Entry entry(Long id, String plate, String status) {
+        return new PlateIndex.Entry(id, plate, plate, 100L, "CAR", status);
+    }
+}